@@ -2,6 +2,7 @@
 plugins {
     id("org.hiero.gradle.module.library")
     id("org.hiero.gradle.feature.test-fixtures")
+    id("org.hiero.gradle.feature.benchmark")
     id("application")
 }
 
@@ -72,6 +73,8 @@ testModuleInfo {
     requires("org.assertj.core")
 }
 
+jmhModuleInfo { requires("jmh.core") }
+
 // Vals
 val dockerProjectRootDirectory: Directory = layout.projectDirectory.dir("docker")
 val dockerBuildRootDirectory: Directory = layout.buildDirectory.dir("docker").get()
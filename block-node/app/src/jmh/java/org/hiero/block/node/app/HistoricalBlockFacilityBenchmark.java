@@ -0,0 +1,212 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.app;
+
+import com.hedera.hapi.block.stream.Block;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockProviderPlugin;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for routing block reads to providers in {@link HistoricalBlockFacilityImpl}, with a routing index and
+ * without, by asking each provider in priority order. Each provider holds an older part of the chain than the one
+ * above it, split into a number of ranges, and checks its available blocks on every read like the real providers do.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HistoricalBlockFacilityBenchmark {
+    /** The number of blocks read in each benchmark invocation. */
+    static final int NUMBER_OF_READS = 1024;
+    /** The number of blocks held by all the providers together. */
+    private static final long NUMBER_OF_BLOCKS = 10_000_000;
+
+    /** The number of block providers. */
+    @Param({"5", "8", "16"})
+    public int providerCount;
+
+    /** The number of ranges each provider holds, separated by one missing block. */
+    @Param({"1", "1000"})
+    public int rangesPerProvider;
+
+    /** True to route reads with the routing index, false to ask each provider in turn. */
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    /** The facility under test. */
+    private HistoricalBlockFacilityImpl facility;
+    /** The available blocks of the highest priority provider, which the newest blocks are added to. */
+    private ConcurrentLongRangeSet newestBlocks;
+    /** The block numbers to read, spread over the whole chain. */
+    private long[] blockNumbers;
+    /** The next block number added to the highest priority provider. */
+    private long nextNewBlockNumber;
+
+    /**
+     * Create the providers and the block numbers to read.
+     */
+    @Setup
+    public void setup() {
+        final List<BlockProviderPlugin> providers = new ArrayList<>(providerCount);
+        final long blocksPerProvider = NUMBER_OF_BLOCKS / providerCount;
+        final long blocksPerRange = blocksPerProvider / rangesPerProvider;
+        for (int p = 0; p < providerCount; p++) {
+            // the highest priority provider holds the newest blocks
+            final long firstBlock = NUMBER_OF_BLOCKS - (p + 1) * blocksPerProvider;
+            final ConcurrentLongRangeSet blocks = new ConcurrentLongRangeSet(LongStream.range(0, rangesPerProvider)
+                    .mapToObj(r -> new LongRange(
+                            firstBlock + r * blocksPerRange, firstBlock + (r + 1) * blocksPerRange - 2))
+                    .toArray(LongRange[]::new));
+            if (p == 0) {
+                newestBlocks = blocks;
+            }
+            providers.add(new BenchmarkProvider(providerCount - p, indexed ? blocks : new OpaqueRangeSet(blocks)));
+        }
+        facility = new HistoricalBlockFacilityImpl(providers);
+        final Random random = new Random(1234);
+        blockNumbers = random.longs(NUMBER_OF_READS, 0, NUMBER_OF_BLOCKS).toArray();
+        nextNewBlockNumber = newestBlocks.max() + 1;
+    }
+
+    /**
+     * Read blocks spread over the whole chain. Reported per block.
+     *
+     * @param blackhole the blackhole to consume the block accessors
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(NUMBER_OF_READS)
+    public void randomReads(final Blackhole blackhole) {
+        for (final long blockNumber : blockNumbers) {
+            blackhole.consume(facility.block(blockNumber));
+        }
+    }
+
+    /**
+     * Add a new block to the highest priority provider then read it, like a subscriber following the live chain, so
+     * with the routing index every read follows a change to the available blocks.
+     *
+     * @param blackhole the blackhole to consume the block accessor
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void addThenReadNewest(final Blackhole blackhole) {
+        final long blockNumber = nextNewBlockNumber++;
+        newestBlocks.add(blockNumber);
+        blackhole.consume(facility.block(blockNumber));
+    }
+
+    /**
+     * A block provider that returns the same accessor for every block it holds.
+     */
+    private static final class BenchmarkProvider implements BlockProviderPlugin {
+        /** The accessor returned for every block. */
+        private static final BlockAccessor ACCESSOR = new BlockAccessor() {
+            @Override
+            public long blockNumber() {
+                return 0;
+            }
+
+            @Override
+            public Block block() {
+                return null;
+            }
+        };
+
+        /** The priority of the provider. */
+        private final int priority;
+        /** The blocks the provider holds. */
+        private final BlockRangeSet availableBlocks;
+
+        /**
+         * Create a new benchmark provider.
+         *
+         * @param priority the priority of the provider
+         * @param availableBlocks the blocks the provider holds
+         */
+        private BenchmarkProvider(final int priority, final BlockRangeSet availableBlocks) {
+            this.priority = priority;
+            this.availableBlocks = availableBlocks;
+        }
+
+        @Override
+        public int defaultPriority() {
+            return priority;
+        }
+
+        @Override
+        public BlockAccessor block(final long blockNumber) {
+            return availableBlocks.contains(blockNumber) ? ACCESSOR : null;
+        }
+
+        @Override
+        public BlockRangeSet availableBlocks() {
+            return availableBlocks;
+        }
+    }
+
+    /**
+     * A range set that can not be indexed, so the facility asks each provider in turn.
+     *
+     * @param delegate the range set holding the blocks
+     */
+    private record OpaqueRangeSet(BlockRangeSet delegate) implements BlockRangeSet {
+        @Override
+        public boolean contains(final long blockNumber) {
+            return delegate.contains(blockNumber);
+        }
+
+        @Override
+        public boolean contains(final long start, final long end) {
+            return delegate.contains(start, end);
+        }
+
+        @Override
+        public long size() {
+            return delegate.size();
+        }
+
+        @Override
+        public long min() {
+            return delegate.min();
+        }
+
+        @Override
+        public long max() {
+            return delegate.max();
+        }
+
+        @Override
+        public LongStream stream() {
+            return delegate.stream();
+        }
+
+        @Override
+        public Stream<LongRange> streamRanges() {
+            return delegate.streamRanges();
+        }
+    }
+}
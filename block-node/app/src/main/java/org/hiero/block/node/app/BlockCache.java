@@ -0,0 +1,246 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.app;
+
+import com.hedera.hapi.block.stream.Block;
+import com.hedera.pbj.runtime.ParseException;
+import com.hedera.pbj.runtime.UncheckedParseException;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import com.swirlds.metrics.api.Counter;
+import com.swirlds.metrics.api.LongGauge;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+
+/**
+ * A least recently used cache of blocks, bounded by the total size of the cached blocks protobuf bytes. Blocks are
+ * cached as protobuf bytes, which are compact compared to parsed objects and can be served directly for the protobuf
+ * format or parsed cheaply for the others.
+ * <p>
+ * All methods are thread safe. The cache is guarded by a single lock, lookups and additions are quick so this is not
+ * expected to be contended.
+ */
+final class BlockCache {
+    /** The maximum total size of cached blocks in bytes. */
+    private final long maxBytes;
+    /** Counter of lookups that found the block in the cache. */
+    private final Counter hits;
+    /** Counter of lookups that did not find the block in the cache. */
+    private final Counter misses;
+    /** Counter of blocks evicted to make room for newer blocks. */
+    private final Counter evictions;
+    /** Gauge of the total size of cached blocks in bytes. */
+    private final LongGauge cachedBytes;
+    /** The cached blocks, in least recently used first order. Guarded by this. */
+    private final LinkedHashMap<Long, CachedBlockAccessor> blocks = new LinkedHashMap<>(16, 0.75f, true);
+    /** The total size of cached blocks in bytes. Guarded by this. */
+    private long totalBytes = 0;
+
+    /**
+     * Create a new block cache.
+     *
+     * @param maxBytes the maximum total size of cached blocks in bytes
+     * @param hits counter of lookups that found the block in the cache
+     * @param misses counter of lookups that did not find the block in the cache
+     * @param evictions counter of blocks evicted
+     * @param cachedBytes gauge of the total size of cached blocks in bytes
+     */
+    BlockCache(
+            final long maxBytes,
+            @NonNull final Counter hits,
+            @NonNull final Counter misses,
+            @NonNull final Counter evictions,
+            @NonNull final LongGauge cachedBytes) {
+        this.maxBytes = maxBytes;
+        this.hits = Objects.requireNonNull(hits);
+        this.misses = Objects.requireNonNull(misses);
+        this.evictions = Objects.requireNonNull(evictions);
+        this.cachedBytes = Objects.requireNonNull(cachedBytes);
+    }
+
+    /**
+     * Get a block from the cache, marking it as most recently used.
+     *
+     * @param blockNumber the block number
+     * @return accessor for the cached block, or null if the block is not cached
+     */
+    BlockAccessor get(final long blockNumber) {
+        final CachedBlockAccessor accessor;
+        synchronized (this) {
+            accessor = blocks.get(blockNumber);
+        }
+        if (accessor == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return accessor;
+    }
+
+    /**
+     * Add a block to the cache, evicting least recently used blocks to make room. Blocks larger than the whole cache
+     * are not added.
+     *
+     * @param blockNumber the block number
+     * @param block the block to add
+     */
+    void put(final long blockNumber, @NonNull final BlockUnparsed block) {
+        put(blockNumber, BlockUnparsed.PROTOBUF.toBytes(block));
+    }
+
+    /**
+     * Add a block to the cache as protobuf bytes, evicting least recently used blocks to make room. Blocks larger than
+     * the whole cache are not added.
+     *
+     * @param blockNumber the block number
+     * @param protobufBytes the protobuf bytes of the block to add
+     */
+    void put(final long blockNumber, @NonNull final Bytes protobufBytes) {
+        if (protobufBytes.length() > maxBytes) {
+            return;
+        }
+        final long totalBytesAfter;
+        long evicted = 0;
+        synchronized (this) {
+            final CachedBlockAccessor previous =
+                    blocks.put(blockNumber, new CachedBlockAccessor(blockNumber, protobufBytes));
+            if (previous != null) {
+                totalBytes -= previous.protobufBytes.length();
+            }
+            totalBytes += protobufBytes.length();
+            final Iterator<CachedBlockAccessor> leastRecentlyUsed = blocks.values().iterator();
+            while (totalBytes > maxBytes) {
+                totalBytes -= leastRecentlyUsed.next().protobufBytes.length();
+                leastRecentlyUsed.remove();
+                evicted++;
+            }
+            totalBytesAfter = totalBytes;
+        }
+        if (evicted > 0) {
+            evictions.add(evicted);
+        }
+        cachedBytes.set(totalBytesAfter);
+    }
+
+    /**
+     * Get a block from the cache and remove it, for blocks that are only expected to be read once.
+     *
+     * @param blockNumber the block number
+     * @return accessor for the cached block, or null if the block is not cached
+     */
+    BlockAccessor take(final long blockNumber) {
+        final CachedBlockAccessor accessor;
+        final long totalBytesAfter;
+        synchronized (this) {
+            accessor = blocks.remove(blockNumber);
+            if (accessor != null) {
+                totalBytes -= accessor.protobufBytes.length();
+            }
+            totalBytesAfter = totalBytes;
+        }
+        if (accessor == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+            cachedBytes.set(totalBytesAfter);
+        }
+        return accessor;
+    }
+
+    /**
+     * Check if a block is cached, without marking it as used or counting a hit or miss.
+     *
+     * @param blockNumber the block number
+     * @return true if the block is cached
+     */
+    synchronized boolean contains(final long blockNumber) {
+        return blocks.containsKey(blockNumber);
+    }
+
+    /**
+     * Get the number of cached blocks.
+     *
+     * @return the number of cached blocks
+     */
+    synchronized int size() {
+        return blocks.size();
+    }
+
+    /**
+     * Get the total size of cached blocks in bytes.
+     *
+     * @return the total size of cached blocks
+     */
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * A block accessor for a block held in memory, backed by the blocks protobuf bytes.
+     */
+    static final class CachedBlockAccessor implements BlockAccessor {
+        /** The block number. */
+        private final long blockNumber;
+        /** The protobuf bytes of the block. */
+        private final Bytes protobufBytes;
+
+        /**
+         * Create a new cached block accessor.
+         *
+         * @param blockNumber the block number
+         * @param protobufBytes the protobuf bytes of the block
+         */
+        CachedBlockAccessor(final long blockNumber, @NonNull final Bytes protobufBytes) {
+            this.blockNumber = blockNumber;
+            this.protobufBytes = protobufBytes;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long blockNumber() {
+            return blockNumber;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Block block() {
+            try {
+                return Block.PROTOBUF.parse(protobufBytes);
+            } catch (final ParseException e) {
+                throw new UncheckedParseException(e);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockUnparsed blockUnparsed() {
+            try {
+                return BlockUnparsed.PROTOBUF.parse(protobufBytes);
+            } catch (final ParseException e) {
+                throw new UncheckedParseException(e);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Bytes blockBytes(@NonNull final Format format) throws IllegalArgumentException {
+            Objects.requireNonNull(format);
+            return switch (format) {
+                case JSON -> Block.JSON.toBytes(block());
+                case PROTOBUF -> protobufBytes;
+                case ZSTD_PROTOBUF -> Bytes.wrap(CompressionType.ZSTD.compress(protobufBytes.toByteArray()));
+            };
+        }
+    }
+}
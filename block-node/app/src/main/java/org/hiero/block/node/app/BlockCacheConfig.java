@@ -0,0 +1,37 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.app;
+
+import com.swirlds.config.api.ConfigData;
+import com.swirlds.config.api.ConfigProperty;
+import org.hiero.block.common.utils.Preconditions;
+import org.hiero.block.node.base.Loggable;
+
+/**
+ * Use this configuration for the cache of recently verified blocks in front of the block providers, and for reading
+ * ahead of readers reading blocks in order.
+ *
+ * @param maxBytes the maximum total size of the protobuf bytes of the cached blocks. When adding a block would exceed
+ *                 this the least recently used blocks are evicted. Zero disables the cache.
+ * @param readAheadDepth the number of blocks read ahead of a reader reading blocks in order. Zero disables read ahead.
+ * @param readAheadMaxBytes the maximum total size of the protobuf bytes of blocks read ahead and not yet read. When
+ *                          reading a block ahead would exceed this the oldest blocks read ahead are dropped. Zero
+ *                          disables read ahead.
+ * @param readAheadThreads the number of threads blocks are read ahead on. Each reader's blocks are read ahead on one
+ *                         thread, so readers spread over the threads are read ahead in parallel. Must be positive.
+ */
+@ConfigData("block.cache")
+public record BlockCacheConfig(
+        @Loggable @ConfigProperty(defaultValue = "268435456") long maxBytes,
+        @Loggable @ConfigProperty(defaultValue = "32") int readAheadDepth,
+        @Loggable @ConfigProperty(defaultValue = "67108864") long readAheadMaxBytes,
+        @Loggable @ConfigProperty(defaultValue = "4") int readAheadThreads) {
+    /**
+     * Constructor.
+     */
+    public BlockCacheConfig {
+        Preconditions.requireGreaterOrEqual(maxBytes, 0);
+        Preconditions.requireGreaterOrEqual(readAheadDepth, 0);
+        Preconditions.requireGreaterOrEqual(readAheadMaxBytes, 0);
+        Preconditions.requirePositive(readAheadThreads);
+    }
+}
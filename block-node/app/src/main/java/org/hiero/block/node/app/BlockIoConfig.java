@@ -0,0 +1,32 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.app;
+
+import com.swirlds.config.api.ConfigData;
+import com.swirlds.config.api.ConfigProperty;
+import org.hiero.block.common.utils.Preconditions;
+import org.hiero.block.node.base.Loggable;
+
+/**
+ * Use this configuration for the threads the historical block facility reads blocks on for asynchronous block reads.
+ *
+ * @param threads the number of threads blocks are read on for asynchronous reads, which bounds how many of those reads
+ *                hit the disk at once. Must be positive.
+ * @param queueSize the maximum number of asynchronous reads queued or running on each thread. Once every thread is
+ *                  full further reads fail straight away rather than queueing without bound. Must be positive.
+ * @param maxRangeBlocks the maximum number of blocks returned by one asynchronous range read, which bounds the memory
+ *                       one call holds. Callers read the rest of a longer range with further calls. Must be positive.
+ */
+@ConfigData("block.io")
+public record BlockIoConfig(
+        @Loggable @ConfigProperty(defaultValue = "8") int threads,
+        @Loggable @ConfigProperty(defaultValue = "256") int queueSize,
+        @Loggable @ConfigProperty(defaultValue = "1024") int maxRangeBlocks) {
+    /**
+     * Constructor.
+     */
+    public BlockIoConfig {
+        Preconditions.requirePositive(threads);
+        Preconditions.requirePositive(queueSize);
+        Preconditions.requirePositive(maxRangeBlocks);
+    }
+}
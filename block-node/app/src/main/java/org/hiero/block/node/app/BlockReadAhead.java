@@ -0,0 +1,255 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.app;
+
+import static java.lang.System.Logger.Level.DEBUG;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.LongFunction;
+import org.hiero.block.common.utils.Preconditions;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
+
+/**
+ * Reads blocks ahead of readers that read blocks in order, like subscribers catching up and the archive plugins, so
+ * the blocks are in memory by the time they are read rather than each read waiting on the disk.
+ * <p>
+ * Readers are not identified, so sequential readers are recognised by the blocks they read: a read of the block after
+ * a recently read block continues that reader's stream of reads. Up to {@link #MAX_STREAMS} streams are tracked, the
+ * least recently read stream being replaced by a read that continues none of them. Once a stream has read
+ * {@link #SEQUENTIAL_READS} blocks in order, the blocks up to the read ahead depth beyond the last one read are read
+ * in the background into a buffer, topped up each time half of them have been read. Each stream is read ahead on one
+ * of the read ahead executors, chosen by the slot it is tracked in, so a slow stream only holds up the streams sharing
+ * its executor. A stream that is replaced has its read ahead stopped, so it does not change the stream that took its
+ * place.
+ * <p>
+ * The buffer is bounded by the total size of the blocks in it, dropping the oldest blocks to make room, and blocks are
+ * removed from it when they are read as each is expected to be read once. Only reads that are part of a stream are
+ * counted as buffer hits or misses, so the hit rate shows how well read ahead keeps up with sequential readers. Blocks
+ * already in the block cache are not read ahead, reads served from the cache still continue their stream.
+ */
+final class BlockReadAhead {
+    /** The maximum number of streams of sequential reads tracked at once. */
+    static final int MAX_STREAMS = 16;
+    /** The number of blocks a stream must read in order before blocks are read ahead of it. */
+    static final int SEQUENTIAL_READS = 2;
+
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The number of blocks to read ahead of a stream. */
+    private final int depth;
+    /** The buffer of blocks read ahead and not yet read. */
+    private final BlockCache buffer;
+    /** The cache of recently verified blocks, blocks in it are not read ahead, null if there is no cache. */
+    private final BlockCache cache;
+    /** Reads a block from the block providers, returning null if no provider has it. */
+    private final LongFunction<BlockAccessor> loader;
+    /** The executors blocks are read ahead on, each stream uses the one for the slot it is tracked in. */
+    private final Executor[] executors;
+    /** The tracked streams, null where there is no stream yet. Guarded by this. */
+    private final ReadStream[] streams = new ReadStream[MAX_STREAMS];
+    /** The number of reads, used to order streams by when they were last read. Guarded by this. */
+    private long reads;
+    /** True once closed, so no more blocks are read ahead. */
+    private volatile boolean closed;
+
+    /**
+     * A stream of sequential reads, guarded by the read ahead it belongs to.
+     */
+    private static final class ReadStream {
+        /** The executor blocks are read ahead on for this stream. */
+        private final Executor executor;
+        /** Incremented each time the stream is replaced, so read ahead for a replaced stream can tell. */
+        private long generation;
+        /** The block number the next read continuing this stream would be for. */
+        private long nextBlockNumber;
+        /** The number of blocks read in order by this stream. */
+        private int sequentialReads;
+        /** The last block number read ahead, or being read ahead, for this stream. */
+        private long readAheadTo;
+        /** The read count when this stream was last read. */
+        private long lastRead;
+
+        /**
+         * Create a new stream.
+         *
+         * @param executor the executor blocks are read ahead on for this stream
+         */
+        private ReadStream(final Executor executor) {
+            this.executor = executor;
+        }
+    }
+
+    /**
+     * Create a new block read ahead.
+     *
+     * @param depth the number of blocks to read ahead of a stream of sequential reads, must be positive
+     * @param buffer the buffer of blocks read ahead, bounded by size
+     * @param cache the cache of recently verified blocks, blocks in it are not read ahead, null if there is no cache
+     * @param loader reads a block from the block providers, returning null if no provider has it
+     * @param executors the executors to read blocks ahead on, must not be empty
+     */
+    BlockReadAhead(
+            final int depth,
+            @NonNull final BlockCache buffer,
+            @Nullable final BlockCache cache,
+            @NonNull final LongFunction<BlockAccessor> loader,
+            @NonNull final Executor... executors) {
+        this.depth = Preconditions.requirePositive(depth);
+        this.buffer = Objects.requireNonNull(buffer);
+        this.cache = cache;
+        this.loader = Objects.requireNonNull(loader);
+        this.executors = executors.clone();
+        Preconditions.requirePositive(this.executors.length);
+        for (final Executor executor : this.executors) {
+            Objects.requireNonNull(executor);
+        }
+    }
+
+    /**
+     * Record a read of an available block, reading blocks ahead if it continues a stream of sequential reads.
+     *
+     * @param blockNumber the block number being read
+     * @return accessor for the block if it was read ahead, or null if it has to be read from the block providers
+     */
+    BlockAccessor read(final long blockNumber) {
+        if (closed || !recordRead(blockNumber)) {
+            return null;
+        }
+        return buffer.take(blockNumber);
+    }
+
+    /**
+     * Record a read of a block served from the block cache, so the read still continues its stream of sequential reads
+     * and blocks beyond the cache are read ahead.
+     *
+     * @param blockNumber the block number read
+     */
+    void cachedRead(final long blockNumber) {
+        if (!closed) {
+            recordRead(blockNumber);
+        }
+    }
+
+    /**
+     * Record a read in the stream it continues, queueing the next blocks to be read ahead if it is time to top up.
+     *
+     * @param blockNumber the block number being read
+     * @return true if the read is part of a stream of sequential reads, so the block may have been read ahead
+     */
+    private boolean recordRead(final long blockNumber) {
+        final ReadStream stream;
+        final boolean topUp;
+        final long generation;
+        final long readAheadFrom;
+        final long readAheadTo;
+        synchronized (this) {
+            stream = streamFor(blockNumber);
+            if (stream.sequentialReads < SEQUENTIAL_READS) {
+                return false;
+            }
+            // top up once half of the blocks read ahead have been read, so blocks are read ahead in batches
+            topUp = stream.readAheadTo - blockNumber <= depth / 2;
+            generation = stream.generation;
+            readAheadFrom = Math.max(stream.readAheadTo, blockNumber) + 1;
+            readAheadTo = blockNumber + depth;
+            if (topUp) {
+                stream.readAheadTo = readAheadTo;
+            }
+        }
+        if (topUp) {
+            stream.executor.execute(() -> readAhead(stream, generation, readAheadFrom, readAheadTo));
+        }
+        return true;
+    }
+
+    /**
+     * Stop reading blocks ahead. Blocks being read ahead are finished with the block being read.
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * Find the stream a read continues, or replace the least recently read stream with a new one. Must be called while
+     * synchronized on this.
+     *
+     * @param blockNumber the block number being read
+     * @return the stream the read belongs to, updated for the read
+     */
+    private ReadStream streamFor(final long blockNumber) {
+        ReadStream leastRecentlyRead = null;
+        for (int i = 0; i < streams.length; i++) {
+            final ReadStream stream = streams[i];
+            if (stream == null) {
+                leastRecentlyRead = streams[i] = new ReadStream(executors[i % executors.length]);
+                break;
+            }
+            if (stream.nextBlockNumber == blockNumber) {
+                stream.nextBlockNumber = blockNumber + 1;
+                stream.sequentialReads++;
+                stream.lastRead = ++reads;
+                return stream;
+            }
+            if (leastRecentlyRead == null || stream.lastRead < leastRecentlyRead.lastRead) {
+                leastRecentlyRead = stream;
+            }
+        }
+        // start a new stream at this read, any read ahead still running for the old stream stops
+        leastRecentlyRead.generation++;
+        leastRecentlyRead.nextBlockNumber = blockNumber + 1;
+        leastRecentlyRead.sequentialReads = 1;
+        leastRecentlyRead.readAheadTo = blockNumber;
+        leastRecentlyRead.lastRead = ++reads;
+        return leastRecentlyRead;
+    }
+
+    /**
+     * Check if a stream has not been replaced since a read ahead was queued for it.
+     *
+     * @param stream the stream
+     * @param generation the generation of the stream when the read ahead was queued
+     * @return true if the stream is the same one
+     */
+    private synchronized boolean isCurrent(final ReadStream stream, final long generation) {
+        return stream.generation == generation;
+    }
+
+    /**
+     * Read a range of blocks into the buffer, called on the stream's read ahead executor. Blocks in the block cache are
+     * skipped. Stops at the first block no provider has, for example beyond the newest block, so it is read ahead again
+     * by a later read once it is available. Also stops if the stream is replaced, leaving the new stream untouched.
+     *
+     * @param stream the stream the blocks are read ahead for
+     * @param generation the generation of the stream when the read ahead was queued
+     * @param firstBlockNumber the first block number to read, inclusive
+     * @param lastBlockNumber the last block number to read, inclusive
+     */
+    private void readAhead(
+            final ReadStream stream, final long generation, final long firstBlockNumber, final long lastBlockNumber) {
+        long blockNumber = firstBlockNumber;
+        try {
+            for (; blockNumber <= lastBlockNumber && !closed && isCurrent(stream, generation); blockNumber++) {
+                if (cache != null && cache.contains(blockNumber)) {
+                    continue;
+                }
+                final BlockAccessor accessor = loader.apply(blockNumber);
+                if (accessor == null) {
+                    break;
+                }
+                buffer.put(blockNumber, accessor.blockBytes(Format.PROTOBUF));
+            }
+        } catch (final RuntimeException e) {
+            LOGGER.log(DEBUG, "Failed to read ahead block " + blockNumber, e);
+        }
+        if (blockNumber <= lastBlockNumber) {
+            synchronized (this) {
+                if (stream.generation == generation) {
+                    stream.readAheadTo = Math.min(stream.readAheadTo, blockNumber - 1);
+                }
+            }
+        }
+    }
+}
@@ -1,12 +1,38 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.hiero.block.node.app;
 
+import static org.hiero.block.node.spi.BlockNodePlugin.METRICS_CATEGORY;
+
+import com.swirlds.metrics.api.Counter;
+import com.swirlds.metrics.api.LongGauge;
+import com.swirlds.metrics.api.Metrics;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.hiero.block.node.base.ranges.CombinedBlockRangeSet;
+import org.hiero.block.node.spi.BlockNodeContext;
+import org.hiero.block.node.spi.ServiceBuilder;
 import org.hiero.block.node.spi.ServiceLoaderFunction;
+import org.hiero.block.node.spi.blockmessaging.BlockNotificationHandler;
+import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
 import org.hiero.block.node.spi.historicalblocks.BlockProviderPlugin;
 import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
 import org.hiero.block.node.spi.historicalblocks.HistoricalBlockFacility;
@@ -15,8 +41,32 @@ import org.hiero.block.node.spi.historicalblocks.LongRange;
 /**
  * The HistoricalBlockFacilityImpl class is an implementation of the HistoricalBlockFacility interface. It provides
  * access to historical blocks using a list of block provider plugins, sorted by priority.
+ * <p>
+ * Readers overwhelmingly ask for the most recent blocks, so in front of the providers there is a {@link BlockCache} of
+ * recently verified blocks. Blocks are added to the cache when they are verified, so they are already cached by the
+ * time providers have persisted them and readers start asking for them. A cached block is only returned once it is
+ * available from a provider, so the cache never makes a block visible earlier than it would be without it.
+ * <p>
+ * Readers catching up, like subscribers and the archive plugins, read blocks in order one at a time. A
+ * {@link BlockReadAhead} spots these sequential reads and reads the next blocks in the background, on
+ * {@link BlockCacheConfig#readAheadThreads()} threads, so those readers rarely wait on the disk. Blocks already in the
+ * cache are not read ahead. Blocks read ahead are likewise only returned once available from a provider.
+ * <p>
+ * Blocks are routed to providers with a {@link ProviderRoutingIndex} of the blocks each provider holds, so a read goes
+ * straight to the highest priority provider that has the block. The index is rebuilt on the next read after any
+ * provider's available blocks change. If a provider's available blocks can not be indexed, every provider is asked in
+ * priority order instead.
+ * <p>
+ * Asynchronous reads run on a fixed number of platform threads, {@link BlockIoConfig#threads()}, which bounds how many
+ * of them hit the disk at once whatever the number of callers, and keeps virtual threads out of blocking file reads.
+ * Each block is read into memory on those threads, so the caller never waits on the disk. A range is split into runs
+ * read in parallel, and one call returns at most {@link BlockIoConfig#maxRangeBlocks()} blocks. Each thread has at most
+ * {@link BlockIoConfig#queueSize()} reads queued or running, reads beyond that fail straight away, so a burst of
+ * callers can not queue an unbounded amount of work.
  */
 public class HistoricalBlockFacilityImpl implements HistoricalBlockFacility {
+    /** The smallest run of blocks an asynchronous range read is split into, so small ranges are read in one go. */
+    static final int MIN_ASYNC_RUN_BLOCKS = 16;
 
     /**
      * The list of block providers, sorted by priority. The first provider in the list is the one that will be used to
@@ -29,6 +79,65 @@ public class HistoricalBlockFacilityImpl implements HistoricalBlockFacility {
      */
     private final CombinedBlockRangeSet availableBlocks;
 
+    /**
+     * The available blocks of each provider, in the same priority order as {@link #providers}, null if they can not
+     * all be indexed.
+     */
+    private final BlockRangeSet[] providerRangeSets;
+
+    /**
+     * The indexes of all the providers in priority order, the providers asked for a block when there is no routing
+     * index.
+     */
+    private final int[] allProviders;
+
+    /**
+     * The index of the blocks each provider holds, null until first used or if the providers can not be indexed.
+     */
+    private volatile ProviderRoutingIndex routingIndex;
+
+    /**
+     * The cache of recently verified blocks, null if the facility has not been initialized or the cache is disabled.
+     */
+    private volatile BlockCache blockCache;
+
+    /**
+     * Reads blocks ahead of sequential readers, null if the facility has not been initialized or read ahead is
+     * disabled.
+     */
+    private volatile BlockReadAhead readAhead;
+
+    /**
+     * The single thread executors blocks are read ahead on, null if read ahead is disabled.
+     */
+    private ExecutorService[] readAheadExecutors;
+
+    /**
+     * The single thread executors asynchronous reads run on, null if the facility has not been initialized.
+     */
+    private volatile ExecutorService[] ioExecutors;
+
+    /**
+     * The index of the next I/O executor to run an asynchronous read on, they are used round robin.
+     */
+    private final AtomicInteger nextIoExecutor = new AtomicInteger();
+
+    /**
+     * The number of asynchronous reads queued or running on each I/O executor, set before {@link #ioExecutors}.
+     */
+    private AtomicIntegerArray ioQueuedReads;
+
+    /**
+     * The maximum number of asynchronous reads queued or running on each I/O executor, set before
+     * {@link #ioExecutors}.
+     */
+    private int ioQueueSize;
+
+    /**
+     * The maximum number of blocks returned by one asynchronous range read, set before {@link #ioExecutors}.
+     */
+    private int maxAsyncRangeBlocks;
+
     /**
      * Constructor for the HistoricalBlockFacilityImpl class. This constructor loads the block providers using provided
      * ServiceLoader.
@@ -56,6 +165,11 @@ public class HistoricalBlockFacilityImpl implements HistoricalBlockFacility {
                 .toList();
         this.availableBlocks = new CombinedBlockRangeSet(
                 providers.stream().map(BlockProviderPlugin::availableBlocks).toArray(BlockRangeSet[]::new));
+        final BlockRangeSet[] rangeSets =
+                this.providers.stream().map(BlockProviderPlugin::availableBlocks).toArray(BlockRangeSet[]::new);
+        this.providerRangeSets =
+                Arrays.stream(rangeSets).allMatch(ProviderRoutingIndex::canIndex) ? rangeSets : null;
+        this.allProviders = IntStream.range(0, this.providers.size()).toArray();
     }
 
     /**
@@ -71,10 +185,159 @@ public class HistoricalBlockFacilityImpl implements HistoricalBlockFacility {
     /**
      * {@inheritDoc}
      */
+    @NonNull
+    @Override
+    public List<Class<? extends Record>> configDataTypes() {
+        return List.of(BlockCacheConfig.class, BlockIoConfig.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Creates the I/O threads for asynchronous reads, the read ahead and the block cache, if enabled, and registers to
+     * add verified blocks to the cache.
+     */
+    @Override
+    public void init(final BlockNodeContext context, final ServiceBuilder serviceBuilder) {
+        final BlockIoConfig ioConfig = context.configuration().getConfigData(BlockIoConfig.class);
+        final ExecutorService[] executors = new ExecutorService[ioConfig.threads()];
+        for (int i = 0; i < executors.length; i++) {
+            executors[i] = context.threadPoolManager().createSingleThreadExecutor("HistoricalBlockIo-" + i);
+        }
+        ioQueuedReads = new AtomicIntegerArray(executors.length);
+        ioQueueSize = ioConfig.queueSize();
+        maxAsyncRangeBlocks = ioConfig.maxRangeBlocks();
+        ioExecutors = executors;
+        final BlockCacheConfig config = context.configuration().getConfigData(BlockCacheConfig.class);
+        final Metrics metrics = context.metrics();
+        if (config.maxBytes() > 0) {
+            final BlockCache cache = new BlockCache(
+                    config.maxBytes(),
+                    metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "block_cache_hits")
+                            .withDescription("Number of block reads served from the block cache")),
+                    metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "block_cache_misses")
+                            .withDescription("Number of block reads not found in the block cache")),
+                    metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "block_cache_evictions")
+                            .withDescription("Number of blocks evicted from the block cache")),
+                    metrics.getOrCreate(new LongGauge.Config(METRICS_CATEGORY, "block_cache_bytes")
+                            .withDescription("Total size of the blocks in the block cache in bytes")));
+            blockCache = cache;
+            // a separate handler object, so this facility is not registered twice by anything that registers
+            // facilities that are notification handlers
+            context.blockMessaging()
+                    .registerBlockNotificationHandler(
+                            new BlockNotificationHandler() {
+                                @Override
+                                public void handleVerification(final VerificationNotification notification) {
+                                    if (notification.success() && notification.block() != null) {
+                                        cache.put(notification.blockNumber(), notification.block());
+                                    }
+                                }
+                            },
+                            false,
+                            "HistoricalBlockCache");
+        }
+        if (config.readAheadDepth() > 0 && config.readAheadMaxBytes() > 0) {
+            final BlockCache readAheadBuffer = new BlockCache(
+                    config.readAheadMaxBytes(),
+                    metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "block_read_ahead_hits")
+                            .withDescription("Number of sequential block reads served from blocks read ahead")),
+                    metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "block_read_ahead_misses")
+                            .withDescription("Number of sequential block reads of blocks not read ahead")),
+                    metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "block_read_ahead_evictions")
+                            .withDescription("Number of blocks read ahead dropped before they were read")),
+                    metrics.getOrCreate(new LongGauge.Config(METRICS_CATEGORY, "block_read_ahead_bytes")
+                            .withDescription("Total size of the blocks read ahead and not yet read in bytes")));
+            readAheadExecutors = new ExecutorService[config.readAheadThreads()];
+            for (int i = 0; i < readAheadExecutors.length; i++) {
+                readAheadExecutors[i] =
+                        context.threadPoolManager().createSingleThreadExecutor("HistoricalBlockReadAhead-" + i);
+            }
+            readAhead = new BlockReadAhead(
+                    config.readAheadDepth(),
+                    readAheadBuffer,
+                    blockCache,
+                    this::readFromProviders,
+                    readAheadExecutors);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Stops reading blocks ahead. Asynchronous reads already started are finished, so their futures still complete.
+     */
+    @Override
+    public void stop() {
+        final ExecutorService[] executors = ioExecutors;
+        if (executors != null) {
+            for (final ExecutorService executor : executors) {
+                executor.shutdown();
+            }
+        }
+        final BlockReadAhead ahead = readAhead;
+        if (ahead != null) {
+            ahead.close();
+            for (final ExecutorService executor : readAheadExecutors) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Blocks are read from the cache if they are cached and available from a provider, then from the blocks read ahead
+     * of sequential readers, otherwise from the highest priority provider that has the block.
+     */
     @Override
     public BlockAccessor block(long blockNumber) {
-        for (BlockProviderPlugin provider : providers) {
-            BlockAccessor blockAccessor = provider.block(blockNumber);
+        final ProviderRoutingIndex index = currentRoutingIndex();
+        final int[] candidates = index == null ? allProviders : index.providersOf(blockNumber);
+        final BlockCache cache = blockCache;
+        final BlockReadAhead ahead = readAhead;
+        final boolean available = (cache != null || ahead != null)
+                && (index == null ? availableBlocks.contains(blockNumber) : candidates.length > 0);
+        if (cache != null && available) {
+            final BlockAccessor cachedAccessor = cache.get(blockNumber);
+            if (cachedAccessor != null) {
+                if (ahead != null) {
+                    ahead.cachedRead(blockNumber);
+                }
+                return cachedAccessor;
+            }
+        }
+        if (ahead != null && available) {
+            final BlockAccessor readAheadAccessor = ahead.read(blockNumber);
+            if (readAheadAccessor != null) {
+                return readAheadAccessor;
+            }
+        }
+        return readFromProviders(blockNumber, candidates);
+    }
+
+    /**
+     * Read a block from the highest priority provider that has it, bypassing the cache and read ahead.
+     *
+     * @param blockNumber the block number
+     * @return accessor for the block, or null if no provider has it
+     */
+    private BlockAccessor readFromProviders(final long blockNumber) {
+        final ProviderRoutingIndex index = currentRoutingIndex();
+        return readFromProviders(blockNumber, index == null ? allProviders : index.providersOf(blockNumber));
+    }
+
+    /**
+     * Read a block from the first of the candidate providers that has it.
+     *
+     * @param blockNumber the block number
+     * @param candidates the indexes of the providers to ask, in priority order
+     * @return accessor for the block, or null if none of the providers has it
+     */
+    private BlockAccessor readFromProviders(final long blockNumber, final int[] candidates) {
+        // a provider can still miss, if the block was removed since the index was checked, so fall through to the next
+        for (final int candidate : candidates) {
+            final BlockAccessor blockAccessor = providers.get(candidate).block(blockNumber);
             if (blockAccessor != null) {
                 return blockAccessor;
             }
@@ -82,6 +345,88 @@ public class HistoricalBlockFacilityImpl implements HistoricalBlockFacility {
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The range is read in runs, each from the highest priority provider that has the first block of the run, for as
+     * long as that provider has the following blocks. Cached blocks are returned in place of the provider's, as with
+     * {@link #block(long)}.
+     */
+    @Override
+    public Stream<BlockAccessor> blocks(final long firstBlockNumber, final long lastBlockNumber) {
+        final RangeIterator iterator = new RangeIterator(firstBlockNumber, lastBlockNumber);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The block is read on one of the I/O threads, from the cache, read ahead or providers as with
+     * {@link #block(long)}. Before the facility is initialized the block is read on the calling thread.
+     */
+    @Override
+    public CompletableFuture<BlockAccessor> blockAsync(final long blockNumber) {
+        final ExecutorService[] executors = ioExecutors;
+        if (executors == null) {
+            return HistoricalBlockFacility.super.blockAsync(blockNumber);
+        }
+        return supplyOnIoThread(executors, () -> inMemory(block(blockNumber)));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The range, up to the newest available block and capped at {@link BlockIoConfig#maxRangeBlocks()} blocks, is split
+     * into one run per I/O thread, but no shorter than {@link #MIN_ASYNC_RUN_BLOCKS}, and the runs are read in parallel
+     * each with {@link #blocks(long, long)}. Before the facility is initialized the blocks are read on the calling
+     * thread.
+     */
+    @Override
+    public CompletableFuture<List<BlockAccessor>> blocksAsync(final long firstBlockNumber, final long lastBlockNumber) {
+        final ExecutorService[] executors = ioExecutors;
+        if (executors == null) {
+            return HistoricalBlockFacility.super.blocksAsync(firstBlockNumber, lastBlockNumber);
+        }
+        // no block after the newest can be available, so do not read runs beyond it
+        final long newest = Math.min(lastBlockNumber, availableBlocks.max());
+        if (firstBlockNumber < 0 || newest < firstBlockNumber) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        // cap the blocks read by one call, the caller reads the rest with further calls
+        final long end = newest - firstBlockNumber < maxAsyncRangeBlocks
+                ? newest
+                : firstBlockNumber + maxAsyncRangeBlocks - 1;
+        final long blockCount = end - firstBlockNumber + 1;
+        final long runBlocks = Math.max(MIN_ASYNC_RUN_BLOCKS, Math.ceilDiv(blockCount, executors.length));
+        final List<CompletableFuture<List<BlockAccessor>>> runs = new ArrayList<>();
+        for (long runFirst = firstBlockNumber; runFirst <= end; runFirst += runBlocks) {
+            final long first = runFirst;
+            final long last = Math.min(end, runFirst + runBlocks - 1);
+            runs.add(supplyOnIoThread(executors, () -> {
+                try (final Stream<BlockAccessor> blocks = blocks(first, last)) {
+                    return blocks.map(HistoricalBlockFacilityImpl::inMemory).toList();
+                }
+            }));
+        }
+        return CompletableFuture.allOf(runs.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            final List<BlockAccessor> accessors = new ArrayList<>();
+            long expectedBlockNumber = firstBlockNumber;
+            for (final CompletableFuture<List<BlockAccessor>> run : runs) {
+                final List<BlockAccessor> runAccessors = run.join();
+                accessors.addAll(runAccessors);
+                expectedBlockNumber = Math.min(end + 1, expectedBlockNumber + runBlocks);
+                // a run that ended early hit a block that is not available, so the blocks after it are not returned
+                if (firstBlockNumber + accessors.size() != expectedBlockNumber) {
+                    break;
+                }
+            }
+            return accessors;
+        });
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -90,6 +435,77 @@ public class HistoricalBlockFacilityImpl implements HistoricalBlockFacility {
         return availableBlocks;
     }
 
+    /**
+     * Get the routing index of the blocks each provider holds, rebuilding it if any provider's available blocks have
+     * changed since it was built. Threads that find the index out of date at the same time may each rebuild it, which
+     * is harmless as the index is immutable.
+     *
+     * @return the up to date routing index, null if the providers can not be indexed
+     */
+    ProviderRoutingIndex currentRoutingIndex() {
+        if (providerRangeSets == null) {
+            return null;
+        }
+        ProviderRoutingIndex index = routingIndex;
+        if (index == null || !index.isCurrent()) {
+            index = ProviderRoutingIndex.build(providerRangeSets);
+            routingIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Run a read on the next of the I/O threads with room in its queue, starting from the next one round robin.
+     *
+     * @param executors the I/O executors
+     * @param read the read to run
+     * @param <T> the type of the result of the read
+     * @return a future completed with the result of the read, or exceptionally if it failed or could not be run because
+     *     every I/O thread's queue is full or the facility has been stopped
+     */
+    private <T> CompletableFuture<T> supplyOnIoThread(final ExecutorService[] executors, final Supplier<T> read) {
+        final AtomicIntegerArray queuedReads = ioQueuedReads;
+        final int start = nextIoExecutor.getAndIncrement();
+        for (int attempt = 0; attempt < executors.length; attempt++) {
+            final int index = Math.floorMod(start + attempt, executors.length);
+            if (queuedReads.incrementAndGet(index) > ioQueueSize) {
+                queuedReads.decrementAndGet(index);
+                continue;
+            }
+            try {
+                return CompletableFuture.supplyAsync(
+                        () -> {
+                            try {
+                                return read.get();
+                            } finally {
+                                queuedReads.decrementAndGet(index);
+                            }
+                        },
+                        executors[index]);
+            } catch (final RejectedExecutionException e) {
+                // the facility has been stopped
+                queuedReads.decrementAndGet(index);
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.failedFuture(
+                new RejectedExecutionException("All " + executors.length + " block I/O thread queues are full"));
+    }
+
+    /**
+     * Get an accessor for a block whose bytes are held in memory, reading them from the given accessor if they are not
+     * already, so using the accessor does not wait on the disk.
+     *
+     * @param accessor accessor for the block, or null
+     * @return an accessor for the block held in memory, or null if the given accessor is null
+     */
+    private static BlockAccessor inMemory(final BlockAccessor accessor) {
+        if (accessor == null || accessor instanceof BlockCache.CachedBlockAccessor) {
+            return accessor;
+        }
+        return new BlockCache.CachedBlockAccessor(accessor.blockNumber(), accessor.blockBytes(Format.PROTOBUF));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -101,4 +517,94 @@ public class HistoricalBlockFacilityImpl implements HistoricalBlockFacility {
                 + providers.stream().map(p -> p.getClass().getSimpleName()).collect(Collectors.joining(", ")) + "]"
                 + '}';
     }
+
+    /**
+     * Iterator over a range of blocks, reading runs of blocks from the range streams of the providers.
+     */
+    private final class RangeIterator implements Iterator<BlockAccessor> {
+        /** The last block number of the range, inclusive. */
+        private final long lastBlockNumber;
+        /** The next block number to return. */
+        private long nextBlockNumber;
+        /** The range stream of the provider the current run is read from, null if there is no current run. */
+        private Stream<BlockAccessor> run;
+        /** The iterator of the current run. */
+        private Iterator<BlockAccessor> runIterator;
+        /** True once a block in the range is not available from any provider. */
+        private boolean ended;
+
+        /**
+         * Create a new range iterator.
+         *
+         * @param firstBlockNumber the first block number of the range, inclusive
+         * @param lastBlockNumber the last block number of the range, inclusive
+         */
+        private RangeIterator(final long firstBlockNumber, final long lastBlockNumber) {
+            this.nextBlockNumber = firstBlockNumber;
+            this.lastBlockNumber = lastBlockNumber;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            if (ended || nextBlockNumber > lastBlockNumber) {
+                return false;
+            }
+            if (runIterator != null && runIterator.hasNext()) {
+                return true;
+            }
+            // the current run has ended, start a new one from the highest priority provider with the next block
+            close();
+            final ProviderRoutingIndex index = currentRoutingIndex();
+            final int[] candidates = index == null ? allProviders : index.providersOf(nextBlockNumber);
+            for (final int candidate : candidates) {
+                final BlockProviderPlugin provider = providers.get(candidate);
+                if (index != null || provider.availableBlocks().contains(nextBlockNumber)) {
+                    final Stream<BlockAccessor> providerRun = provider.blocks(nextBlockNumber, lastBlockNumber);
+                    final Iterator<BlockAccessor> providerRunIterator = providerRun.iterator();
+                    if (providerRunIterator.hasNext()) {
+                        run = providerRun;
+                        runIterator = providerRunIterator;
+                        return true;
+                    }
+                    providerRun.close();
+                }
+            }
+            ended = true;
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockAccessor next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final BlockAccessor providerAccessor = runIterator.next();
+            final long blockNumber = nextBlockNumber++;
+            final BlockCache cache = blockCache;
+            if (cache != null) {
+                final BlockAccessor cachedAccessor = cache.get(blockNumber);
+                if (cachedAccessor != null) {
+                    return cachedAccessor;
+                }
+            }
+            return providerAccessor;
+        }
+
+        /**
+         * Close the range stream of the current run, if there is one.
+         */
+        private void close() {
+            if (run != null) {
+                run.close();
+                run = null;
+                runIterator = null;
+            }
+        }
+    }
 }
@@ -0,0 +1,151 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.app;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.hiero.block.node.base.ranges.RangeSetSnapshot;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+
+/**
+ * An interval map from block ranges to the block providers that hold them, so a block can be read straight from the
+ * highest priority provider that has it, rather than asking each provider in turn.
+ * <p>
+ * The ranges of all the providers are split into disjoint segments, each mapped to the providers that hold every block
+ * in it, in priority order. Finding the providers of a block is then one binary search over the segments.
+ * <p>
+ * The index is immutable and built from a {@link RangeSetSnapshot} of the providers' range sets, so it is out of date
+ * as soon as the snapshot is, see {@link #isCurrent()}.
+ */
+final class ProviderRoutingIndex {
+    /** The providers of a block no provider has. */
+    private static final int[] NO_PROVIDERS = new int[0];
+    /** The snapshot of the ranges of the providers the index was built from, in priority order. */
+    private final RangeSetSnapshot providerRanges;
+    /** The first block number of each segment, in ascending order. */
+    private final long[] segmentStarts;
+    /** The last block number of each segment, inclusive. */
+    private final long[] segmentEnds;
+    /** The indexes of the providers that hold the blocks of each segment, in priority order. */
+    private final int[][] segmentProviders;
+
+    /**
+     * Create a new index from the ranges of each provider, see {@link #build(BlockRangeSet[])}.
+     */
+    private ProviderRoutingIndex(
+            final RangeSetSnapshot providerRanges,
+            final long[] segmentStarts,
+            final long[] segmentEnds,
+            final int[][] segmentProviders) {
+        this.providerRanges = providerRanges;
+        this.segmentStarts = segmentStarts;
+        this.segmentEnds = segmentEnds;
+        this.segmentProviders = segmentProviders;
+    }
+
+    /**
+     * Check if the range set of a provider can be indexed. Only range sets whose changes can be detected can be, see
+     * {@link RangeSetSnapshot#canTrack(BlockRangeSet)}.
+     *
+     * @param rangeSet the range set of a provider
+     * @return true if the range set can be indexed
+     */
+    static boolean canIndex(final BlockRangeSet rangeSet) {
+        return RangeSetSnapshot.canTrack(rangeSet);
+    }
+
+    /**
+     * Build an index of the current ranges of the providers.
+     *
+     * @param rangeSets the range sets of the providers in priority order, each of which {@link #canIndex} must accept
+     * @return the new index
+     */
+    static ProviderRoutingIndex build(@NonNull final BlockRangeSet[] rangeSets) {
+        final RangeSetSnapshot providerRanges = RangeSetSnapshot.of(rangeSets);
+        // every block number where the providers holding blocks can change starts a candidate segment
+        final long[] boundaries = IntStream.range(0, providerRanges.size())
+                .mapToObj(providerRanges::ranges)
+                .flatMap(List::stream)
+                .flatMapToLong(range -> LongStream.of(range.start(), range.end() + 1))
+                .sorted()
+                .distinct()
+                .toArray();
+        final long[] segmentStarts = new long[boundaries.length];
+        final long[] segmentEnds = new long[boundaries.length];
+        final int[][] segmentProviders = new int[boundaries.length][];
+        int segmentCount = 0;
+        // the index of the first range of each provider that does not end before the current candidate segment
+        final int[] nextRange = new int[rangeSets.length];
+        final int[] holders = new int[rangeSets.length];
+        for (int b = 0; b < boundaries.length - 1; b++) {
+            final long start = boundaries[b];
+            final long end = boundaries[b + 1] - 1;
+            int holderCount = 0;
+            for (int p = 0; p < rangeSets.length; p++) {
+                final List<LongRange> ranges = providerRanges.ranges(p);
+                while (nextRange[p] < ranges.size() && ranges.get(nextRange[p]).end() < start) {
+                    nextRange[p]++;
+                }
+                if (nextRange[p] < ranges.size() && ranges.get(nextRange[p]).start() <= start) {
+                    holders[holderCount++] = p;
+                }
+            }
+            if (holderCount == 0) {
+                continue;
+            }
+            final int[] segmentHolders = Arrays.copyOf(holders, holderCount);
+            // merge with the previous segment when it is adjacent and held by the same providers
+            if (segmentCount > 0
+                    && segmentEnds[segmentCount - 1] == start - 1
+                    && Arrays.equals(segmentProviders[segmentCount - 1], segmentHolders)) {
+                segmentEnds[segmentCount - 1] = end;
+            } else {
+                segmentStarts[segmentCount] = start;
+                segmentEnds[segmentCount] = end;
+                segmentProviders[segmentCount] = segmentHolders;
+                segmentCount++;
+            }
+        }
+        return new ProviderRoutingIndex(
+                providerRanges,
+                Arrays.copyOf(segmentStarts, segmentCount),
+                Arrays.copyOf(segmentEnds, segmentCount),
+                Arrays.copyOf(segmentProviders, segmentCount));
+    }
+
+    /**
+     * Check if the index is up to date, that is no provider's range set has changed since it was built.
+     *
+     * @return true if the index is up to date
+     */
+    boolean isCurrent() {
+        return providerRanges.isCurrent();
+    }
+
+    /**
+     * Find the providers that hold a block.
+     *
+     * @param blockNumber the block number
+     * @return the indexes of the providers that hold the block in priority order, empty if none do, not to be modified
+     */
+    int[] providersOf(final long blockNumber) {
+        int segment = Arrays.binarySearch(segmentStarts, blockNumber);
+        if (segment < 0) {
+            // the segment starting before the block number, if any
+            segment = -segment - 2;
+        }
+        return segment >= 0 && blockNumber <= segmentEnds[segment] ? segmentProviders[segment] : NO_PROVIDERS;
+    }
+
+    /**
+     * Get the number of segments in the index.
+     *
+     * @return the number of segments
+     */
+    int segmentCount() {
+        return segmentStarts.length;
+    }
+}
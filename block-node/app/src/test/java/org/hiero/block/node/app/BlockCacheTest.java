@@ -0,0 +1,145 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.app;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import com.swirlds.metrics.api.Counter;
+import com.swirlds.metrics.api.LongGauge;
+import java.util.List;
+import org.hiero.block.internal.BlockItemUnparsed;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link BlockCache} class.
+ */
+class BlockCacheTest {
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+    private LongGauge cachedBytes;
+
+    @BeforeEach
+    void setUp() {
+        hits = mock(Counter.class);
+        misses = mock(Counter.class);
+        evictions = mock(Counter.class);
+        cachedBytes = mock(LongGauge.class);
+    }
+
+    /**
+     * Create a block with a single item of the given size.
+     *
+     * @param size the size of the item
+     * @return the block
+     */
+    private static BlockUnparsed block(final int size) {
+        return new BlockUnparsed(List.of(BlockItemUnparsed.newBuilder()
+                .eventHeader(Bytes.wrap(new byte[size]))
+                .build()));
+    }
+
+    /**
+     * Get the size of a block in protobuf bytes.
+     *
+     * @param block the block
+     * @return the size in bytes
+     */
+    private static long sizeOf(final BlockUnparsed block) {
+        return BlockUnparsed.PROTOBUF.toBytes(block).length();
+    }
+
+    @Test
+    @DisplayName("Test cached blocks can be read in all formats")
+    void testPutAndGet() {
+        final BlockCache cache = new BlockCache(1024, hits, misses, evictions, cachedBytes);
+        final BlockUnparsed block = block(10);
+        assertNull(cache.get(1));
+        verify(misses).increment();
+        cache.put(1, block);
+        final BlockAccessor accessor = cache.get(1);
+        assertNotNull(accessor);
+        verify(hits).increment();
+        assertEquals(1, accessor.blockNumber());
+        assertEquals(block, accessor.blockUnparsed());
+        final Bytes protobufBytes = BlockUnparsed.PROTOBUF.toBytes(block);
+        assertEquals(protobufBytes, accessor.blockBytes(Format.PROTOBUF));
+        assertArrayEquals(
+                CompressionType.ZSTD.compress(protobufBytes.toByteArray()),
+                accessor.blockBytes(Format.ZSTD_PROTOBUF).toByteArray());
+        assertEquals(sizeOf(block), cache.totalBytes());
+        verify(cachedBytes).set(sizeOf(block));
+    }
+
+    @Test
+    @DisplayName("Test taking a block returns it once and frees its space")
+    void testTake() {
+        final BlockCache cache = new BlockCache(1024, hits, misses, evictions, cachedBytes);
+        final BlockUnparsed block = block(10);
+        cache.put(1, BlockUnparsed.PROTOBUF.toBytes(block));
+        assertEquals(sizeOf(block), cache.totalBytes());
+        final BlockAccessor accessor = cache.take(1);
+        assertNotNull(accessor);
+        assertEquals(block, accessor.blockUnparsed());
+        verify(hits).increment();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.totalBytes());
+        verify(cachedBytes).set(0);
+        assertNull(cache.take(1));
+        verify(misses).increment();
+    }
+
+    @Test
+    @DisplayName("Test least recently used blocks are evicted when the cache is full")
+    void testEviction() {
+        final long blockSize = sizeOf(block(100));
+        final BlockCache cache = new BlockCache(blockSize * 3, hits, misses, evictions, cachedBytes);
+        cache.put(1, block(100));
+        cache.put(2, block(100));
+        cache.put(3, block(100));
+        assertEquals(3, cache.size());
+        verify(evictions, never()).add(1);
+        // reading block 1 makes block 2 the least recently used
+        assertNotNull(cache.get(1));
+        cache.put(4, block(100));
+        assertEquals(3, cache.size());
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(1));
+        assertNotNull(cache.get(3));
+        assertNotNull(cache.get(4));
+        verify(evictions).add(1);
+        // a bigger block evicts as many blocks as needed
+        cache.put(5, block(250));
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get(5));
+        verify(evictions).add(3);
+        assertEquals(sizeOf(block(250)), cache.totalBytes());
+    }
+
+    @Test
+    @DisplayName("Test blocks bigger than the cache are not added and replacing a block updates the size")
+    void testSizeAccounting() {
+        final BlockCache cache = new BlockCache(sizeOf(block(100)), hits, misses, evictions, cachedBytes);
+        cache.put(1, block(200));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.totalBytes());
+        cache.put(1, block(50));
+        cache.put(1, block(100));
+        assertEquals(1, cache.size());
+        assertEquals(sizeOf(block(100)), cache.totalBytes());
+        verify(evictions, times(0)).add(1);
+    }
+}
@@ -0,0 +1,238 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import com.swirlds.metrics.api.Counter;
+import com.swirlds.metrics.api.LongGauge;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.LongStream;
+import org.hiero.block.internal.BlockItemUnparsed;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link BlockReadAhead} class.
+ */
+class BlockReadAheadTest {
+    /** The number of blocks read ahead in these tests. */
+    private static final int DEPTH = 4;
+
+    private Counter hits;
+    private Counter misses;
+    private BlockCache buffer;
+    /** The block cache in front of the read ahead. */
+    private BlockCache cache;
+    /** The block numbers read from the providers, in the order they were read. */
+    private List<Long> loaded;
+    /** The highest block number the providers have. */
+    private long newestBlockNumber;
+    /** The read ahead tasks not yet run. */
+    private List<Runnable> pendingTasks;
+    private BlockReadAhead readAhead;
+
+    @BeforeEach
+    void setUp() {
+        hits = mock(Counter.class);
+        misses = mock(Counter.class);
+        buffer = new BlockCache(1024 * 1024, hits, misses, mock(Counter.class), mock(LongGauge.class));
+        cache = new BlockCache(
+                1024 * 1024, mock(Counter.class), mock(Counter.class), mock(Counter.class), mock(LongGauge.class));
+        loaded = new ArrayList<>();
+        newestBlockNumber = 1_000;
+        pendingTasks = new ArrayList<>();
+        final Executor executor = pendingTasks::add;
+        readAhead = new BlockReadAhead(DEPTH, buffer, cache, this::load, executor);
+    }
+
+    /**
+     * Read a block from the test providers.
+     *
+     * @param blockNumber the block number
+     * @return accessor for the block, or null beyond the newest block
+     */
+    private BlockAccessor load(final long blockNumber) {
+        if (blockNumber > newestBlockNumber) {
+            return null;
+        }
+        loaded.add(blockNumber);
+        final BlockAccessor accessor = mock(BlockAccessor.class);
+        final Bytes protobufBytes = BlockUnparsed.PROTOBUF.toBytes(block(blockNumber));
+        when(accessor.blockBytes(BlockAccessor.Format.PROTOBUF)).thenReturn(protobufBytes);
+        return accessor;
+    }
+
+    /**
+     * Create a block that holds its block number, so blocks read ahead can be told apart.
+     *
+     * @param blockNumber the block number
+     * @return the block
+     */
+    private static BlockUnparsed block(final long blockNumber) {
+        return new BlockUnparsed(List.of(BlockItemUnparsed.newBuilder()
+                .eventHeader(Bytes.wrap(Long.toString(blockNumber)))
+                .build()));
+    }
+
+    /**
+     * Run the read ahead tasks queued so far.
+     */
+    private void runPendingTasks() {
+        final List<Runnable> tasks = new ArrayList<>(pendingTasks);
+        pendingTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Test the depth must be positive")
+    void testInvalidDepth() {
+        assertThrows(
+                IllegalArgumentException.class, () -> new BlockReadAhead(0, buffer, cache, this::load, Runnable::run));
+        assertThrows(IllegalArgumentException.class, () -> new BlockReadAhead(DEPTH, buffer, cache, this::load));
+    }
+
+    @Test
+    @DisplayName("Test random reads are not read ahead")
+    void testRandomReadsNotReadAhead() {
+        for (final long blockNumber : new long[] {10, 500, 20, 700, 30}) {
+            assertNull(readAhead.read(blockNumber));
+        }
+        assertEquals(0, pendingTasks.size());
+        // reads that are not part of a stream are neither hits nor misses
+        verify(misses, never()).increment();
+    }
+
+    @Test
+    @DisplayName("Test sequential reads are read ahead and then served from the buffer")
+    void testSequentialReadsReadAhead() {
+        assertNull(readAhead.read(100));
+        // the second read in order starts a stream, blocks after it are read ahead
+        assertNull(readAhead.read(101));
+        verify(misses).increment();
+        runPendingTasks();
+        assertEquals(List.of(102L, 103L, 104L, 105L), loaded);
+        for (long blockNumber = 102; blockNumber <= 110; blockNumber++) {
+            final BlockAccessor accessor = readAhead.read(blockNumber);
+            assertNotNull(accessor, "block " + blockNumber);
+            assertEquals(block(blockNumber), accessor.blockUnparsed());
+            runPendingTasks();
+        }
+        verify(hits, times(9)).increment();
+        // topped up each time half of the blocks read ahead have been read
+        assertEquals(LongStream.rangeClosed(102, 113).boxed().toList(), loaded);
+        // blocks read are removed from the buffer
+        assertEquals(3, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Test interleaved sequential readers are each read ahead")
+    void testInterleavedStreams() {
+        readAhead.read(100);
+        readAhead.read(5_000);
+        readAhead.read(101);
+        readAhead.read(5_001);
+        runPendingTasks();
+        // the second stream is beyond the newest block, so nothing is read ahead for it
+        assertEquals(List.of(102L, 103L, 104L, 105L), loaded);
+        assertNotNull(readAhead.read(102));
+        assertNull(readAhead.read(5_002));
+    }
+
+    @Test
+    @DisplayName("Test read ahead stops at the newest block and carries on once more blocks are available")
+    void testStopsAtNewestBlock() {
+        newestBlockNumber = 103;
+        readAhead.read(100);
+        readAhead.read(101);
+        runPendingTasks();
+        assertEquals(List.of(102L, 103L), loaded);
+        newestBlockNumber = 1_000;
+        assertNotNull(readAhead.read(102));
+        runPendingTasks();
+        assertEquals(List.of(102L, 103L, 104L, 105L, 106L), loaded);
+        assertNotNull(readAhead.read(103));
+        assertNotNull(readAhead.read(104));
+    }
+
+    @Test
+    @DisplayName("Test read ahead for a replaced stream stops and does not change the stream that replaced it")
+    void testReplacedStream() {
+        readAhead.read(100);
+        readAhead.read(101);
+        // start new streams in every other slot, then one more which replaces the stream at 100
+        final long replacingStart = 10_000 + BlockReadAhead.MAX_STREAMS * 100L;
+        for (long start = 10_100; start <= replacingStart; start += 100) {
+            readAhead.read(start);
+        }
+        readAhead.read(replacingStart + 1);
+        runPendingTasks();
+        // only the stream that took the slot is read ahead
+        final List<Long> expected = LongStream.rangeClosed(replacingStart + 2, replacingStart + 5)
+                .boxed()
+                .toList();
+        assertEquals(expected, loaded);
+        assertNotNull(readAhead.read(replacingStart + 2));
+        assertEquals(0, pendingTasks.size());
+    }
+
+    @Test
+    @DisplayName("Test blocks in the block cache are not read ahead and cached reads continue the stream")
+    void testCachedBlocksSkipped() {
+        cache.put(102, block(102));
+        cache.put(103, block(103));
+        readAhead.read(100);
+        readAhead.read(101);
+        runPendingTasks();
+        assertEquals(List.of(104L, 105L), loaded);
+        // reads served from the cache still move the stream along and top up the read ahead
+        readAhead.cachedRead(102);
+        readAhead.cachedRead(103);
+        runPendingTasks();
+        assertEquals(List.of(104L, 105L, 106L, 107L), loaded);
+        assertNotNull(readAhead.read(104));
+    }
+
+    @Test
+    @DisplayName("Test streams are read ahead on the executor for their slot")
+    void testStreamsSpreadOverExecutors() {
+        final List<Runnable> firstTasks = new ArrayList<>();
+        final List<Runnable> secondTasks = new ArrayList<>();
+        final BlockReadAhead spread =
+                new BlockReadAhead(DEPTH, buffer, null, this::load, firstTasks::add, secondTasks::add);
+        spread.read(100);
+        spread.read(500);
+        spread.read(101);
+        spread.read(501);
+        assertEquals(1, firstTasks.size());
+        assertEquals(1, secondTasks.size());
+        // a slow first executor does not hold up the second stream
+        secondTasks.getFirst().run();
+        assertEquals(List.of(502L, 503L, 504L, 505L), loaded);
+    }
+
+    @Test
+    @DisplayName("Test nothing is read ahead once closed")
+    void testClose() {
+        readAhead.read(100);
+        readAhead.read(101);
+        readAhead.close();
+        runPendingTasks();
+        assertEquals(List.of(), loaded);
+        assertNull(readAhead.read(102));
+        assertEquals(0, pendingTasks.size());
+    }
+}
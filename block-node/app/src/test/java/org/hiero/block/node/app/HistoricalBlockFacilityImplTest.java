@@ -5,17 +5,31 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import com.swirlds.config.api.Configuration;
+import com.swirlds.config.api.ConfigurationBuilder;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
+import org.hiero.block.node.spi.BlockNodeContext;
 import org.hiero.block.node.spi.ServiceLoaderFunction;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
 import org.hiero.block.node.spi.historicalblocks.BlockProviderPlugin;
 import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -115,6 +129,228 @@ class HistoricalBlockFacilityImplTest {
         verify(provider2).block(blockNumber);
     }
 
+    /**
+     * Tests range reads, which read each run of blocks from the highest priority provider that has it.
+     */
+    @Test
+    @DisplayName("Test blocks range read across providers")
+    void testBlocksAcrossProviders() {
+        final List<BlockAccessor> accessors = LongStream.rangeClosed(0, 10)
+                .mapToObj(blockNumber -> {
+                    final BlockAccessor accessor = mock(BlockAccessor.class);
+                    when(accessor.blockNumber()).thenReturn(blockNumber);
+                    return accessor;
+                })
+                .toList();
+        when(provider1.availableBlocks()).thenReturn(new ConcurrentLongRangeSet(1, 5));
+        when(provider2.availableBlocks()).thenReturn(new ConcurrentLongRangeSet(1, 8));
+        when(provider1.blocks(3, 10)).thenReturn(accessors.subList(3, 6).stream());
+        when(provider2.blocks(6, 10)).thenReturn(accessors.subList(6, 9).stream());
+
+        try (Stream<BlockAccessor> blocks = facility.blocks(3, 10)) {
+            // ends at block 8 as no provider has block 9
+            assertEquals(accessors.subList(3, 9), blocks.toList());
+        }
+        verify(provider1).blocks(3, 10);
+        verify(provider2).blocks(6, 10);
+    }
+
+    /**
+     * Tests a range read where no provider has the first block.
+     */
+    @Test
+    @DisplayName("Test blocks range read with no blocks available")
+    void testBlocksNotFound() {
+        when(provider1.availableBlocks()).thenReturn(new ConcurrentLongRangeSet(1, 5));
+        when(provider2.availableBlocks()).thenReturn(new ConcurrentLongRangeSet(1, 8));
+
+        try (Stream<BlockAccessor> blocks = facility.blocks(20, 30)) {
+            assertEquals(0, blocks.count());
+        }
+        verify(provider1, org.mockito.Mockito.never()).blocks(20, 30);
+        verify(provider2, org.mockito.Mockito.never()).blocks(20, 30);
+    }
+
+    /**
+     * Tests that with indexed range sets a block is read only from the highest priority provider holding it, and the
+     * routing follows changes to the providers' available blocks.
+     */
+    @Test
+    @DisplayName("Test block retrieval routed by the available blocks of each provider")
+    void testBlockRoutedByAvailableBlocks() {
+        final ConcurrentLongRangeSet provider1Blocks = new ConcurrentLongRangeSet(10, 19);
+        final ConcurrentLongRangeSet provider2Blocks = new ConcurrentLongRangeSet(0, 14);
+        when(provider1.defaultPriority()).thenReturn(100);
+        when(provider2.defaultPriority()).thenReturn(10);
+        when(provider1.availableBlocks()).thenReturn(provider1Blocks);
+        when(provider2.availableBlocks()).thenReturn(provider2Blocks);
+        final BlockAccessor blockAccessor = mock(BlockAccessor.class);
+        when(provider1.block(12)).thenReturn(blockAccessor);
+        when(provider2.block(5)).thenReturn(blockAccessor);
+        when(provider2.block(12)).thenReturn(blockAccessor);
+        facility = new HistoricalBlockFacilityImpl(List.of(provider1, provider2));
+
+        assertEquals(blockAccessor, facility.block(5));
+        verify(provider1, never()).block(5);
+        assertEquals(blockAccessor, facility.block(12));
+        verify(provider2, never()).block(12);
+        assertNull(facility.block(20));
+        verify(provider1, never()).block(20);
+        verify(provider2, never()).block(20);
+
+        // once the high priority provider no longer has block 12 it is read from the other provider
+        provider1Blocks.remove(12);
+        assertEquals(blockAccessor, facility.block(12));
+        verify(provider1).block(12);
+        verify(provider2).block(12);
+    }
+
+    /**
+     * Tests that before the facility is initialized asynchronous reads are done on the calling thread.
+     */
+    @Test
+    @DisplayName("Test asynchronous block read before init")
+    void testBlockAsyncBeforeInit() {
+        final BlockAccessor blockAccessor = mock(BlockAccessor.class);
+        when(provider2.block(123)).thenReturn(blockAccessor);
+
+        final CompletableFuture<BlockAccessor> future = facility.blockAsync(123);
+
+        assertTrue(future.isDone());
+        assertEquals(blockAccessor, future.join());
+        assertNull(facility.blockAsync(124).join());
+    }
+
+    /**
+     * Tests asynchronous single and range reads, which are read into memory on the I/O threads, a range ending at the
+     * first block that is not available even when it is split into runs read in parallel.
+     */
+    @Test
+    @DisplayName("Test asynchronous block reads on the I/O threads")
+    void testBlocksAsync() throws Exception {
+        // blocks 0 to 9 and 20 to 49, a range read from 0 is split into runs 0 to 24 and 25 to 49
+        final ConcurrentLongRangeSet provider2Blocks =
+                new ConcurrentLongRangeSet(new LongRange(0, 9), new LongRange(20, 49));
+        final Set<String> readThreadNames = ConcurrentHashMap.newKeySet();
+        when(provider1.availableBlocks()).thenReturn(BlockRangeSet.EMPTY);
+        when(provider2.availableBlocks()).thenReturn(provider2Blocks);
+        when(provider2.block(anyLong())).thenAnswer(invocation -> {
+            readThreadNames.add(Thread.currentThread().getName());
+            final long blockNumber = invocation.getArgument(0);
+            return provider2Blocks.contains(blockNumber) ? testAccessor(blockNumber) : null;
+        });
+        when(provider2.blocks(anyLong(), anyLong())).thenAnswer(invocation -> {
+            readThreadNames.add(Thread.currentThread().getName());
+            return LongStream.rangeClosed(invocation.getArgument(0), invocation.getArgument(1))
+                    .takeWhile(provider2Blocks::contains)
+                    .mapToObj(HistoricalBlockFacilityImplTest::testAccessor);
+        });
+        facility = new HistoricalBlockFacilityImpl(List.of(provider1, provider2));
+        final Configuration configuration = ConfigurationBuilder.create()
+                .withConfigDataTypes(facility.configDataTypes().toArray(new Class[0]))
+                .withValue("block.cache.maxBytes", "0")
+                .withValue("block.cache.readAheadDepth", "0")
+                .withValue("block.io.threads", "2")
+                .build();
+        facility.init(
+                new BlockNodeContext(configuration, null, null, null, facility, null, new DefaultThreadPoolManager()),
+                null);
+        try {
+            final BlockAccessor blockAccessor = facility.blockAsync(25).get(10, TimeUnit.SECONDS);
+            assertEquals(25, blockAccessor.blockNumber());
+            assertEquals(Bytes.wrap("25"), blockAccessor.blockBytes(Format.PROTOBUF));
+            assertNull(facility.blockAsync(15).get(10, TimeUnit.SECONDS));
+
+            final List<BlockAccessor> fromZero = facility.blocksAsync(0, 100).get(10, TimeUnit.SECONDS);
+            assertEquals(
+                    LongStream.rangeClosed(0, 9).boxed().toList(),
+                    fromZero.stream().map(BlockAccessor::blockNumber).toList());
+            final List<BlockAccessor> fromTwenty = facility.blocksAsync(20, 100).get(10, TimeUnit.SECONDS);
+            assertEquals(
+                    LongStream.rangeClosed(20, 49).boxed().toList(),
+                    fromTwenty.stream().map(BlockAccessor::blockNumber).toList());
+            assertEquals(List.of(), facility.blocksAsync(60, 100).get(10, TimeUnit.SECONDS));
+            assertTrue(readThreadNames.stream().allMatch(name -> name.startsWith("HistoricalBlockIo-")));
+        } finally {
+            facility.stop();
+        }
+        assertTrue(facility.blockAsync(25).isCompletedExceptionally());
+    }
+
+    /**
+     * Tests that an asynchronous range read returns at most the configured number of blocks, and that reads beyond
+     * the I/O thread queue size fail straight away rather than queueing.
+     */
+    @Test
+    @DisplayName("Test asynchronous reads are capped and their queues bounded")
+    void testAsyncReadLimits() throws Exception {
+        final ConcurrentLongRangeSet provider2Blocks = new ConcurrentLongRangeSet(0, 99);
+        final CountDownLatch readStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRead = new CountDownLatch(1);
+        when(provider1.availableBlocks()).thenReturn(BlockRangeSet.EMPTY);
+        when(provider2.availableBlocks()).thenReturn(provider2Blocks);
+        when(provider2.block(anyLong())).thenAnswer(invocation -> {
+            final long blockNumber = invocation.getArgument(0);
+            if (blockNumber == 99) {
+                readStarted.countDown();
+                releaseRead.await(10, TimeUnit.SECONDS);
+            }
+            return testAccessor(blockNumber);
+        });
+        when(provider2.blocks(anyLong(), anyLong())).thenAnswer(invocation -> LongStream.rangeClosed(
+                        invocation.getArgument(0), invocation.getArgument(1))
+                .mapToObj(HistoricalBlockFacilityImplTest::testAccessor));
+        facility = new HistoricalBlockFacilityImpl(List.of(provider1, provider2));
+        final Configuration configuration = ConfigurationBuilder.create()
+                .withConfigDataTypes(facility.configDataTypes().toArray(new Class[0]))
+                .withValue("block.cache.maxBytes", "0")
+                .withValue("block.cache.readAheadDepth", "0")
+                .withValue("block.io.threads", "1")
+                .withValue("block.io.queueSize", "2")
+                .withValue("block.io.maxRangeBlocks", "20")
+                .build();
+        facility.init(
+                new BlockNodeContext(configuration, null, null, null, facility, null, new DefaultThreadPoolManager()),
+                null);
+        try {
+            // the range is capped, the rest is read with another call
+            final List<BlockAccessor> first = facility.blocksAsync(0, 99).get(10, TimeUnit.SECONDS);
+            assertEquals(
+                    LongStream.rangeClosed(0, 19).boxed().toList(),
+                    first.stream().map(BlockAccessor::blockNumber).toList());
+            final List<BlockAccessor> second = facility.blocksAsync(20, 99).get(10, TimeUnit.SECONDS);
+            assertEquals(20, second.getFirst().blockNumber());
+            assertEquals(20, second.size());
+            // one read running and one queued fill the only thread's queue
+            final CompletableFuture<BlockAccessor> running = facility.blockAsync(99);
+            assertTrue(readStarted.await(10, TimeUnit.SECONDS));
+            final CompletableFuture<BlockAccessor> queued = facility.blockAsync(1);
+            final CompletableFuture<BlockAccessor> rejected = facility.blockAsync(2);
+            assertTrue(rejected.isCompletedExceptionally());
+            releaseRead.countDown();
+            assertEquals(99, running.get(10, TimeUnit.SECONDS).blockNumber());
+            assertEquals(1, queued.get(10, TimeUnit.SECONDS).blockNumber());
+            // once the queue has drained reads are accepted again
+            assertEquals(2, facility.blockAsync(2).get(10, TimeUnit.SECONDS).blockNumber());
+        } finally {
+            releaseRead.countDown();
+            facility.stop();
+        }
+    }
+
+    /**
+     * Create an accessor for a test block whose protobuf bytes are its block number.
+     *
+     * @param blockNumber the block number
+     * @return the accessor
+     */
+    private static BlockAccessor testAccessor(final long blockNumber) {
+        final BlockAccessor accessor = mock(BlockAccessor.class);
+        when(accessor.blockNumber()).thenReturn(blockNumber);
+        when(accessor.blockBytes(Format.PROTOBUF)).thenReturn(Bytes.wrap(Long.toString(blockNumber)));
+        return accessor;
+    }
+
     @Test
     void testAllBlockProvidersPlugins() {
         List<BlockProviderPlugin> providers = facility.allBlockProvidersPlugins();
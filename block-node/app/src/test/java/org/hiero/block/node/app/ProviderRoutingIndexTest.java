@@ -0,0 +1,95 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.app;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link ProviderRoutingIndex} class.
+ */
+class ProviderRoutingIndexTest {
+    /**
+     * Tests that each block maps to the providers holding it in priority order, including gaps and blocks outside
+     * all ranges.
+     */
+    @Test
+    @DisplayName("Test providersOf returns the providers holding a block in priority order")
+    void testProvidersOf() {
+        final ProviderRoutingIndex index = ProviderRoutingIndex.build(new BlockRangeSet[] {
+            new ConcurrentLongRangeSet(new LongRange(90, 99), new LongRange(120, 129)),
+            BlockRangeSet.EMPTY,
+            new ConcurrentLongRangeSet(0, 109),
+        });
+        assertArrayEquals(new int[] {2}, index.providersOf(0));
+        assertArrayEquals(new int[] {2}, index.providersOf(89));
+        assertArrayEquals(new int[] {0, 2}, index.providersOf(90));
+        assertArrayEquals(new int[] {0, 2}, index.providersOf(99));
+        assertArrayEquals(new int[] {2}, index.providersOf(100));
+        assertArrayEquals(new int[] {2}, index.providersOf(109));
+        assertArrayEquals(new int[0], index.providersOf(110));
+        assertArrayEquals(new int[] {0}, index.providersOf(125));
+        assertArrayEquals(new int[0], index.providersOf(130));
+        assertArrayEquals(new int[0], index.providersOf(Long.MAX_VALUE));
+        // 0-89, 90-99, 100-109 and 120-129
+        assertEquals(4, index.segmentCount());
+    }
+
+    /**
+     * Tests that adjacent ranges held by the same providers are merged into one segment.
+     */
+    @Test
+    @DisplayName("Test adjacent segments held by the same providers are merged")
+    void testAdjacentSegmentsMerged() {
+        final ProviderRoutingIndex index = ProviderRoutingIndex.build(new BlockRangeSet[] {
+            new ConcurrentLongRangeSet(0, 49), new ConcurrentLongRangeSet(new LongRange(0, 9), new LongRange(50, 99)),
+        });
+        assertArrayEquals(new int[] {0, 1}, index.providersOf(5));
+        assertArrayEquals(new int[] {0}, index.providersOf(10));
+        assertArrayEquals(new int[] {0}, index.providersOf(49));
+        assertArrayEquals(new int[] {1}, index.providersOf(50));
+        // 0-9, 10-49 and 50-99
+        assertEquals(3, index.segmentCount());
+    }
+
+    /**
+     * Tests that the index is no longer current once any provider's range set changes.
+     */
+    @Test
+    @DisplayName("Test index is out of date once a range set changes")
+    void testIsCurrent() {
+        final ConcurrentLongRangeSet first = new ConcurrentLongRangeSet(0, 9);
+        final ConcurrentLongRangeSet second = new ConcurrentLongRangeSet();
+        final ProviderRoutingIndex index =
+                ProviderRoutingIndex.build(new BlockRangeSet[] {first, BlockRangeSet.EMPTY, second});
+        assertTrue(index.isCurrent());
+        second.add(10);
+        assertFalse(index.isCurrent());
+        final ProviderRoutingIndex rebuilt =
+                ProviderRoutingIndex.build(new BlockRangeSet[] {first, BlockRangeSet.EMPTY, second});
+        assertTrue(rebuilt.isCurrent());
+        assertArrayEquals(new int[] {2}, rebuilt.providersOf(10));
+        first.remove(0, 9);
+        assertFalse(rebuilt.isCurrent());
+    }
+
+    /**
+     * Tests that only range sets that can tell when they have changed can be indexed.
+     */
+    @Test
+    @DisplayName("Test canIndex")
+    void testCanIndex() {
+        assertTrue(ProviderRoutingIndex.canIndex(new ConcurrentLongRangeSet()));
+        assertTrue(ProviderRoutingIndex.canIndex(BlockRangeSet.EMPTY));
+        assertFalse(ProviderRoutingIndex.canIndex(mock(BlockRangeSet.class)));
+        assertFalse(ProviderRoutingIndex.canIndex(null));
+    }
+}
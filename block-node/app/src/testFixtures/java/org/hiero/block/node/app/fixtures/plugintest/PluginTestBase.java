@@ -80,6 +80,7 @@ public abstract class PluginTestBase<P extends BlockNodePlugin> {
         ConfigurationBuilder configurationBuilder = ConfigurationBuilder.create()
                 .withConfigDataType(com.swirlds.common.metrics.config.MetricsConfig.class)
                 .withConfigDataTypes(plugin.configDataTypes().toArray(new Class[0]))
+                .withConfigDataTypes(historicalBlockFacility.configDataTypes().toArray(new Class[0]))
                 .withConfigDataType(com.swirlds.common.metrics.platform.prometheus.PrometheusConfig.class);
         for (var override : configOverrides.entrySet()) {
             configurationBuilder = configurationBuilder.withValue(override.getKey(), override.getValue());
@@ -6,6 +6,7 @@ module org.hiero.block.node.base {
     exports org.hiero.block.node.base.tar;
 
     requires transitive org.hiero.block.node.spi;
+    requires org.hiero.block.common;
     requires com.hedera.pbj.runtime;
     requires com.github.luben.zstd_jni;
     requires java.net.http;
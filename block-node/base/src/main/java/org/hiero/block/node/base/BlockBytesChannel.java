@@ -0,0 +1,129 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.base;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+
+/**
+ * A channel that collects the bytes written to it in a heap array, used as the target of
+ * {@link BlockAccessor#writeBytesTo(BlockAccessor.Format, WritableByteChannel)} by writers that need a whole block in
+ * memory, for example to know its size before writing a header. Accessors that hold the block in a file transfer it
+ * straight into the array, rather than reading it into a new array that is then copied.
+ * <p>
+ * The array grows as needed and is kept by {@link #reset()}, so a writer handling one block at a time does not
+ * allocate an array for each block. Not thread safe.
+ */
+public final class BlockBytesChannel implements WritableByteChannel {
+    /** The default initial capacity, enough for most blocks. */
+    private static final int DEFAULT_CAPACITY = 64 * 1024;
+    /** The largest array that can be allocated on all JVMs. */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    /** The array holding the bytes written. */
+    private byte[] buffer;
+    /** The number of bytes written. */
+    private int length = 0;
+
+    /**
+     * Create a new channel with the default initial capacity.
+     */
+    public BlockBytesChannel() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new channel.
+     *
+     * @param initialCapacity the initial size of the array, must not be negative
+     */
+    public BlockBytesChannel(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity must not be negative: " + initialCapacity);
+        }
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All remaining bytes in the source are always written.
+     */
+    @Override
+    public int write(@NonNull final ByteBuffer source) {
+        Objects.requireNonNull(source);
+        final int count = source.remaining();
+        final long needed = (long) length + count;
+        if (needed > buffer.length) {
+            if (needed > MAX_CAPACITY) {
+                throw new IllegalStateException("Block is too large to hold in memory: " + needed + " bytes");
+            }
+            final long grown = Math.max(needed, buffer.length * 2L);
+            buffer = Arrays.copyOf(buffer, (int) Math.min(MAX_CAPACITY, grown));
+        }
+        source.get(buffer, length, count);
+        length += count;
+        return count;
+    }
+
+    /**
+     * The array holding the bytes written, only the first {@link #length()} bytes are valid. The array is reused after
+     * {@link #reset()}, so must not be kept.
+     *
+     * @return the array holding the bytes written
+     */
+    @NonNull
+    public byte[] array() {
+        return buffer;
+    }
+
+    /**
+     * The number of bytes written since created or last reset.
+     *
+     * @return the number of bytes written
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Wrap the bytes written, without copying them. The wrapped bytes change if the channel is reset and written to
+     * again, so only use this when the channel is not reused.
+     *
+     * @return the bytes written
+     */
+    @NonNull
+    public Bytes bytes() {
+        return Bytes.wrap(buffer, 0, length);
+    }
+
+    /**
+     * Discard the bytes written, keeping the array for the next block.
+     */
+    public void reset() {
+        length = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The channel is always open, as closing it has no effect.
+     */
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Has no effect, the bytes written can still be read.
+     */
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
@@ -2,15 +2,19 @@
 package org.hiero.block.node.base;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
 
 /**
  * Utility class for generating block file names.
@@ -207,6 +211,48 @@ public final class BlockFile {
         return blockNumbers;
     }
 
+    /**
+     * Find all block files in a nested directory structure and return the contiguous ranges of block numbers they
+     * cover. Each top level child of the base path is walked in parallel, and block numbers are collected as primitive
+     * longs, so this is much cheaper than {@link #nestedDirectoriesAllBlockNumbers} for large numbers of blocks.
+     *
+     * @param basePath the base path
+     * @param compressionType the compression type
+     * @return the sorted list of ranges of block numbers found, empty if no block files are found
+     */
+    public static List<LongRange> nestedDirectoriesAllBlockRanges(Path basePath, CompressionType compressionType) {
+        final String fullExtension = BLOCK_FILE_EXTENSION + compressionType.extension();
+        final List<Path> children;
+        try (var stream = Files.list(basePath)) {
+            children = stream.toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final long[] blockNumbers = children.parallelStream()
+                .flatMapToLong(child -> {
+                    try {
+                        // flatMapToLong closes the walk stream once it has been consumed
+                        return Files.walk(child)
+                                .filter(path -> path.getFileName().toString().endsWith(fullExtension))
+                                .filter(Files::isRegularFile)
+                                .mapToLong(BlockFile::blockNumberFromFile);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .toArray();
+        Arrays.parallelSort(blockNumbers);
+        final List<LongRange> ranges = new ArrayList<>();
+        int rangeStart = 0;
+        for (int i = 1; i <= blockNumbers.length; i++) {
+            if (i == blockNumbers.length || blockNumbers[i] > blockNumbers[i - 1] + 1) {
+                ranges.add(new LongRange(blockNumbers[rangeStart], blockNumbers[i - 1]));
+                rangeStart = i;
+            }
+        }
+        return ranges;
+    }
+
     /**
      * Extracts the block number from a file name. The file name is expected to be in the format
      * {@code "0000000000000000000.blk.xyz"} where the block number is the first 19 digits and the rest is the file
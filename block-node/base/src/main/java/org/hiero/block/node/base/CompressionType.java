@@ -5,9 +5,11 @@ import com.github.luben.zstd.Zstd;
 import com.github.luben.zstd.ZstdInputStream;
 import com.github.luben.zstd.ZstdOutputStream;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Objects;
 
 /**
@@ -16,8 +18,8 @@ import java.util.Objects;
  */
 public enum CompressionType {
     /**
-     * This type of compression is used to compress the blocks using the `Zstandard` algorithm and default compression
-     * level 3.
+     * This type of compression is used to compress the blocks using the `Zstandard` algorithm, with default compression
+     * level 3 unless a level is given.
      */
     ZSTD(".zstd"),
     /**
@@ -26,7 +28,11 @@ public enum CompressionType {
     NONE("");
 
     /** The default compression level for Zstandard compression. */
-    private static final int DEFAULT_ZSTD_COMPRESSION_LEVEL = 3;
+    public static final int DEFAULT_ZSTD_COMPRESSION_LEVEL = 3;
+    /** The minimum supported compression level for Zstandard compression. */
+    public static final int MIN_ZSTD_COMPRESSION_LEVEL = 1;
+    /** The maximum supported compression level for Zstandard compression. */
+    public static final int MAX_ZSTD_COMPRESSION_LEVEL = 22;
     /** The file extension for this compression type. */
     private final String fileExtension;
 
@@ -71,9 +77,21 @@ public enum CompressionType {
      * @throws IOException if an I/O error occurs
      */
     public OutputStream wrapStream(@NonNull final OutputStream streamToWrap) throws IOException {
+        return wrapStream(streamToWrap, DEFAULT_ZSTD_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Wraps the given output stream with the appropriate compression type, compressing with the given level.
+     *
+     * @param streamToWrap the stream to wrap
+     * @param level the compression level, ignored if this compression type has no levels
+     * @return the wrapped output stream
+     * @throws IOException if an I/O error occurs
+     */
+    public OutputStream wrapStream(@NonNull final OutputStream streamToWrap, final int level) throws IOException {
         Objects.requireNonNull(streamToWrap);
         return switch (this) {
-            case ZSTD -> new ZstdOutputStream(streamToWrap, DEFAULT_ZSTD_COMPRESSION_LEVEL);
+            case ZSTD -> new ZstdOutputStream(streamToWrap, level);
             case NONE -> streamToWrap;
         };
     }
@@ -85,23 +103,42 @@ public enum CompressionType {
      * @return the compressed data
      */
     public byte[] compress(@NonNull final byte[] data) {
+        return compress(data, DEFAULT_ZSTD_COMPRESSION_LEVEL);
+    }
+
+    /**
+     * Compresses the given data using the appropriate compression type and the given level.
+     *
+     * @param data the data to compress
+     * @param level the compression level, ignored if this compression type has no levels
+     * @return the compressed data
+     */
+    public byte[] compress(@NonNull final byte[] data, final int level) {
         Objects.requireNonNull(data);
         return switch (this) {
-            case ZSTD -> Zstd.compress(data, DEFAULT_ZSTD_COMPRESSION_LEVEL);
+            case ZSTD -> Zstd.compress(data, level);
             case NONE -> data;
         };
     }
 
     /**
-     * Decompresses the given data using the appropriate compression type.
+     * Decompresses the given data using the appropriate compression type. Zstandard data is decompressed as a stream,
+     * as frames written by a stream do not record their decompressed size.
      *
      * @param data the data to decompress
      * @return the decompressed data
+     * @throws UncheckedIOException if the data could not be decompressed
      */
     public byte[] decompress(@NonNull final byte[] data) {
         Objects.requireNonNull(data);
         return switch (this) {
-            case ZSTD -> Zstd.decompress(data, data.length);
+            case ZSTD -> {
+                try (final InputStream in = new ZstdInputStream(new ByteArrayInputStream(data))) {
+                    yield in.readAllBytes();
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
             case NONE -> data;
         };
     }
@@ -0,0 +1,344 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.base;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.hiero.block.common.utils.FileUtilities;
+
+/**
+ * A versioned store of trained Zstandard dictionaries. Blocks are many small and very similar protobuf messages, so
+ * compressing them with a dictionary trained on earlier blocks gives a much better ratio than compressing each on its
+ * own, and is faster as well.
+ * <p>
+ * Dictionaries are stored in a directory, one file per version named {@code <version>.zdict}. The highest version is
+ * the current dictionary, used for all new compression. Zstandard records the ID of the dictionary used in each frame
+ * header, so every stored file or archive entry records which dictionary it needs and is decompressed with it. Frames
+ * compressed without a dictionary have no dictionary ID and are decompressed as normal. As old files keep needing their
+ * dictionary, a dictionary is only removed by its owner once no stored file references it.
+ * <p>
+ * All methods are thread safe.
+ */
+public final class ZstdDictionaries {
+    /** The file extension for dictionary files. */
+    public static final String DICTIONARY_EXTENSION = ".zdict";
+    /** The default maximum size of a trained dictionary in bytes, the same as the zstd command line tool. */
+    public static final int DEFAULT_MAX_DICTIONARY_BYTES = 110 * 1024;
+    /** An empty store with no dictionaries that can not be added to, for compressing and decompressing as normal. */
+    public static final ZstdDictionaries NONE = new ZstdDictionaries(null);
+    /** The maximum size of a Zstandard frame header, enough to read the dictionary ID. */
+    private static final int FRAME_HEADER_MAX_SIZE = 18;
+    /** The directory dictionaries are stored in, null for the empty store. */
+    private final Path directory;
+    /** The dictionaries by dictionary ID. */
+    private final Map<Long, byte[]> dictionaries = new ConcurrentHashMap<>();
+    /** The version of each dictionary by dictionary ID. Guarded by this. */
+    private final Map<Long, Long> versions = new HashMap<>();
+    /** The current dictionary used for compression, null if there are no dictionaries. */
+    private volatile byte[] currentDictionary;
+    /** The version of the current dictionary, zero if there are no dictionaries. Guarded by this. */
+    private long currentVersion;
+
+    /**
+     * Create a new dictionary store.
+     *
+     * @param directory the directory dictionaries are stored in, null for the empty store
+     */
+    private ZstdDictionaries(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Load all the dictionaries stored in a directory. The directory is created when the first dictionary is added.
+     *
+     * @param directory the directory dictionaries are stored in
+     * @return the loaded dictionaries
+     * @throws IOException if a dictionary file could not be read or is not a valid dictionary
+     */
+    public static ZstdDictionaries load(@NonNull final Path directory) throws IOException {
+        final ZstdDictionaries store = new ZstdDictionaries(Objects.requireNonNull(directory));
+        if (!Files.isDirectory(directory)) {
+            return store;
+        }
+        final List<Path> dictionaryFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            dictionaryFiles = files.filter(path -> path.getFileName().toString().endsWith(DICTIONARY_EXTENSION))
+                    .toList();
+        }
+        for (final Path dictionaryFile : dictionaryFiles) {
+            final String fileName = dictionaryFile.getFileName().toString();
+            final long version;
+            try {
+                version = Long.parseLong(fileName.substring(0, fileName.length() - DICTIONARY_EXTENSION.length()));
+            } catch (final NumberFormatException e) {
+                throw new IOException("Invalid dictionary file name: " + dictionaryFile, e);
+            }
+            final byte[] dictionary = Files.readAllBytes(dictionaryFile);
+            final long dictionaryId = Zstd.getDictIdFromDict(dictionary);
+            if (dictionaryId == 0) {
+                throw new IOException("Not a trained Zstandard dictionary: " + dictionaryFile);
+            }
+            store.dictionaries.put(dictionaryId, dictionary);
+            store.versions.put(dictionaryId, version);
+            if (version > store.currentVersion) {
+                store.currentVersion = version;
+                store.currentDictionary = dictionary;
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Train a new dictionary from sample data. Zstandard needs samples much larger in total than the dictionary, so
+     * the dictionary is limited to a tenth of the total size of the samples.
+     *
+     * @param samples the samples to train from, for blocks these are the protobuf bytes of recent blocks
+     * @param maxDictionaryBytes the maximum size of the dictionary in bytes
+     * @return the trained dictionary
+     * @throws IllegalArgumentException if a dictionary could not be trained from the samples
+     */
+    public static byte[] train(@NonNull final List<byte[]> samples, final int maxDictionaryBytes) {
+        Objects.requireNonNull(samples);
+        final long totalSampleBytes = samples.stream().mapToLong(sample -> sample.length).sum();
+        final byte[] dictionaryBuffer = new byte[(int) Math.min(maxDictionaryBytes, totalSampleBytes / 10)];
+        final long result = Zstd.trainFromBuffer(samples.toArray(byte[][]::new), dictionaryBuffer);
+        if (Zstd.isError(result)) {
+            throw new IllegalArgumentException(
+                    "Failed to train dictionary from " + samples.size() + " samples: " + Zstd.getErrorName(result));
+        }
+        final byte[] dictionary = new byte[(int) result];
+        System.arraycopy(dictionaryBuffer, 0, dictionary, 0, dictionary.length);
+        return dictionary;
+    }
+
+    /**
+     * Read the ID of the dictionary a Zstandard frame was compressed with, from the start of the frame.
+     *
+     * @param frameStart the start of the frame, at least the frame header
+     * @return the dictionary ID, or zero if the frame was compressed without a dictionary
+     */
+    public static long frameDictionaryId(@NonNull final byte[] frameStart) {
+        return Zstd.getDictIdFromFrame(Objects.requireNonNull(frameStart));
+    }
+
+    /**
+     * Read the ID of the dictionary a Zstandard compressed file was compressed with, reading only the frame header.
+     *
+     * @param file the compressed file
+     * @return the dictionary ID, or zero if the file was compressed without a dictionary
+     * @throws IOException if the file could not be read
+     */
+    public static long frameDictionaryId(@NonNull final Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return frameDictionaryId(in.readNBytes(FRAME_HEADER_MAX_SIZE));
+        }
+    }
+
+    /**
+     * Check if there are no dictionaries, in which case nothing is compressed with a dictionary.
+     *
+     * @return true if there are no dictionaries
+     */
+    public boolean isEmpty() {
+        return dictionaries.isEmpty();
+    }
+
+    /**
+     * Get the ID of the current dictionary used for compression.
+     *
+     * @return the current dictionary ID, or zero if there are no dictionaries
+     */
+    public long currentId() {
+        final byte[] dictionary = currentDictionary;
+        return dictionary == null ? 0 : Zstd.getDictIdFromDict(dictionary);
+    }
+
+    /**
+     * Get the IDs of all the dictionaries, from the oldest version to the newest, so the last is the current dictionary.
+     *
+     * @return the dictionary IDs, oldest first
+     */
+    public synchronized List<Long> ids() {
+        return versions.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Get a dictionary by its ID.
+     *
+     * @param dictionaryId the dictionary ID
+     * @return the dictionary, or null if there is no dictionary with the ID
+     */
+    public byte[] dictionary(final long dictionaryId) {
+        return dictionaries.get(dictionaryId);
+    }
+
+    /**
+     * Add a new dictionary as the next version, so it becomes the current dictionary. The dictionary file is written
+     * and synced to disk before the dictionary is used, so nothing is ever compressed with a dictionary that is not
+     * stored, even after a crash.
+     *
+     * @param dictionary the trained dictionary
+     * @return the ID of the added dictionary
+     * @throws IOException if the dictionary file could not be written
+     * @throws IllegalArgumentException if the dictionary is not a trained Zstandard dictionary
+     * @throws IllegalStateException if this is the empty store
+     */
+    public synchronized long add(@NonNull final byte[] dictionary) throws IOException {
+        Objects.requireNonNull(dictionary);
+        if (directory == null) {
+            throw new IllegalStateException("Dictionaries can not be added to the empty store");
+        }
+        final long dictionaryId = Zstd.getDictIdFromDict(dictionary);
+        if (dictionaryId == 0) {
+            throw new IllegalArgumentException("Not a trained Zstandard dictionary");
+        }
+        final long version = currentVersion + 1;
+        Files.createDirectories(directory);
+        final Path dictionaryFile = directory.resolve(version + DICTIONARY_EXTENSION);
+        final Path tempFile = directory.resolve(version + DICTIONARY_EXTENSION + ".tmp");
+        Files.write(tempFile, dictionary);
+        FileUtilities.forceFile(tempFile);
+        Files.move(tempFile, dictionaryFile, StandardCopyOption.ATOMIC_MOVE);
+        FileUtilities.forceDirectory(directory);
+        dictionaries.put(dictionaryId, dictionary);
+        versions.put(dictionaryId, version);
+        currentVersion = version;
+        currentDictionary = dictionary;
+        return dictionaryId;
+    }
+
+    /**
+     * Remove a dictionary that no stored file references any more, deleting its file. The caller must make sure
+     * nothing still needs the dictionary, as frames compressed with it can no longer be decompressed. The current
+     * dictionary can not be removed.
+     *
+     * @param dictionaryId the ID of the dictionary to remove
+     * @return true if the dictionary was removed, false if there is no dictionary with the ID
+     * @throws IOException if the dictionary file could not be deleted, the dictionary is kept
+     * @throws IllegalArgumentException if the dictionary is the current dictionary
+     */
+    public synchronized boolean remove(final long dictionaryId) throws IOException {
+        final Long version = versions.get(dictionaryId);
+        if (version == null) {
+            return false;
+        }
+        if (version == currentVersion) {
+            throw new IllegalArgumentException("The current dictionary " + dictionaryId + " can not be removed");
+        }
+        Files.deleteIfExists(directory.resolve(version + DICTIONARY_EXTENSION));
+        FileUtilities.forceDirectory(directory);
+        versions.remove(dictionaryId);
+        dictionaries.remove(dictionaryId);
+        return true;
+    }
+
+    /**
+     * Wraps the given output stream with the compression type, compressing with the current dictionary if there is
+     * one and the compression type supports dictionaries.
+     *
+     * @param compressionType the compression type
+     * @param level the compression level
+     * @param streamToWrap the stream to wrap
+     * @return the wrapped output stream
+     * @throws IOException if an I/O error occurs
+     */
+    public OutputStream wrapStream(
+            @NonNull final CompressionType compressionType, final int level, @NonNull final OutputStream streamToWrap)
+            throws IOException {
+        final byte[] dictionary = currentDictionary;
+        if (compressionType != CompressionType.ZSTD || dictionary == null) {
+            return compressionType.wrapStream(streamToWrap, level);
+        }
+        return new ZstdOutputStream(Objects.requireNonNull(streamToWrap), level).setDict(dictionary);
+    }
+
+    /**
+     * Wraps the given input stream with the compression type, decompressing with the dictionary recorded in the frame
+     * header if there is one.
+     *
+     * @param compressionType the compression type
+     * @param streamToWrap the stream to wrap
+     * @return the wrapped input stream
+     * @throws IOException if an I/O error occurs, or the frame needs a dictionary that is not in this store
+     */
+    public InputStream wrapStream(
+            @NonNull final CompressionType compressionType, @NonNull final InputStream streamToWrap)
+            throws IOException {
+        if (compressionType != CompressionType.ZSTD || isEmpty()) {
+            return compressionType.wrapStream(streamToWrap);
+        }
+        final InputStream in = streamToWrap.markSupported() ? streamToWrap : new BufferedInputStream(streamToWrap);
+        in.mark(FRAME_HEADER_MAX_SIZE);
+        final long dictionaryId = frameDictionaryId(in.readNBytes(FRAME_HEADER_MAX_SIZE));
+        in.reset();
+        final ZstdInputStream zstdIn = new ZstdInputStream(in);
+        if (dictionaryId != 0) {
+            final byte[] dictionary = dictionaries.get(dictionaryId);
+            if (dictionary == null) {
+                zstdIn.close();
+                throw new IOException("Missing Zstandard dictionary with ID " + dictionaryId);
+            }
+            zstdIn.setDict(dictionary);
+        }
+        return zstdIn;
+    }
+
+    /**
+     * Compresses the given data with the compression type, using the current dictionary if there is one.
+     *
+     * @param compressionType the compression type
+     * @param level the compression level
+     * @param data the data to compress
+     * @return the compressed data
+     */
+    public byte[] compress(
+            @NonNull final CompressionType compressionType, final int level, @NonNull final byte[] data) {
+        if (compressionType != CompressionType.ZSTD || currentDictionary == null) {
+            return compressionType.compress(data, level);
+        }
+        final ByteArrayOutputStream bytesOut = new ByteArrayOutputStream(data.length);
+        try (OutputStream out = wrapStream(compressionType, level, bytesOut)) {
+            out.write(data);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytesOut.toByteArray();
+    }
+
+    /**
+     * Decompresses the given data with the compression type, using the dictionary recorded in the frame header if
+     * there is one.
+     *
+     * @param compressionType the compression type
+     * @param data the data to decompress
+     * @return the decompressed data
+     * @throws UncheckedIOException if the data could not be decompressed
+     */
+    public byte[] decompress(@NonNull final CompressionType compressionType, @NonNull final byte[] data) {
+        try (InputStream in = wrapStream(compressionType, new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
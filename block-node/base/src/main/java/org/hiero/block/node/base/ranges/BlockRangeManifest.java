@@ -0,0 +1,378 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.base.ranges;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+
+/**
+ * A persisted manifest of the ranges of blocks stored by a block provider, so the provider can find out what blocks it
+ * has at startup in time proportional to the number of ranges rather than the number of blocks.
+ * <p>
+ * The manifest is made of two files in a directory:
+ * <ul>
+ *     <li><b>Checkpoint</b> - a snapshot of all ranges, with a checksum. It is written to a temporary file and then
+ *     atomically moved into place, so it is either the previous or the new complete snapshot.</li>
+ *     <li><b>Journal</b> - an append only log of ranges added and removed since the checkpoint. Each record has its own
+ *     checksum, so a record torn by a crash is detected and replay stops there.</li>
+ * </ul>
+ * After {@code checkpointInterval} journal records a new checkpoint is written from the live range set and the journal
+ * is truncated. Adding or removing a range is idempotent, so replaying a record that is already included in the
+ * checkpoint is harmless.
+ * <p>
+ * Providers that delete block files in the background record the range as queued for deletion rather than just
+ * removed, and as deleted once the files are gone. Ranges still queued are kept in checkpoints and returned by
+ * {@link #pendingDeletes()} after loading, so deletes interrupted by a stop or crash can be run again on start-up. A
+ * range added again removes it from the pending deletes.
+ * <p>
+ * Journal records are not forced to disk, so after a power failure the last few records may be lost. Callers should
+ * sanity check the loaded ranges against storage and fall back to scanning if they do not match.
+ */
+public final class BlockRangeManifest implements AutoCloseable {
+    /** The file name of the checkpoint file. */
+    public static final String CHECKPOINT_FILE_NAME = "block-ranges.manifest";
+    /** The file name of the journal file. */
+    public static final String JOURNAL_FILE_NAME = "block-ranges.journal";
+    /** Magic number at the start of a checkpoint file, "BRMF". */
+    private static final int MAGIC = 0x42524D46;
+    /** The version of the checkpoint file format, version 1 had no pending deletes and is treated as missing. */
+    private static final int VERSION = 2;
+    /** Journal record type for a range added. */
+    private static final byte RECORD_ADDED = 'A';
+    /** Journal record type for a range removed. */
+    private static final byte RECORD_REMOVED = 'R';
+    /** Journal record type for a range removed and queued for deletion. */
+    private static final byte RECORD_DELETE_QUEUED = 'Q';
+    /** Journal record type for a range queued for deletion that has been deleted. */
+    private static final byte RECORD_DELETED = 'D';
+    /** The size of a journal record, type byte, start and end longs, and CRC-32 int. */
+    private static final int JOURNAL_RECORD_SIZE = 1 + Long.BYTES + Long.BYTES + Integer.BYTES;
+    /** The path of the checkpoint file. */
+    private final Path checkpointPath;
+    /** The path of the journal file. */
+    private final Path journalPath;
+    /** The live range set, snapshotted when a checkpoint is written. */
+    private final BlockRangeSet ranges;
+    /** The ranges queued for deletion and not yet deleted, replaced by load and updated by records. Guarded by this. */
+    private ConcurrentLongRangeSet pendingDeletes = new ConcurrentLongRangeSet();
+    /** The number of journal records after which a new checkpoint is written. */
+    private final int checkpointInterval;
+    /** Buffer used for writing journal records, guarded by this. */
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(JOURNAL_RECORD_SIZE);
+    /** The open journal file, null till first record is written after load or checkpoint. Guarded by this. */
+    private FileChannel journal;
+    /** The number of records written to the journal since the last checkpoint. Guarded by this. */
+    private int journalRecords = 0;
+
+    /**
+     * Create a new manifest, nothing is read or written until {@link #load()} or a record method is called.
+     *
+     * @param directory the directory to store the manifest files in, must exist
+     * @param ranges the live range set of the block provider, used to write checkpoints
+     * @param checkpointInterval the number of journal records after which a new checkpoint is written, must be positive
+     */
+    public BlockRangeManifest(
+            @NonNull final Path directory, @NonNull final BlockRangeSet ranges, final int checkpointInterval) {
+        Objects.requireNonNull(directory);
+        this.ranges = Objects.requireNonNull(ranges);
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointPath = directory.resolve(CHECKPOINT_FILE_NAME);
+        this.journalPath = directory.resolve(JOURNAL_FILE_NAME);
+    }
+
+    /**
+     * Load the ranges from the checkpoint and replay the journal on top of them. The ranges queued for deletion are
+     * loaded as well, see {@link #pendingDeletes()}.
+     *
+     * @return the loaded ranges, or null if there is no checkpoint or it is corrupt
+     */
+    public synchronized List<LongRange> load() {
+        final ConcurrentLongRangeSet loaded = new ConcurrentLongRangeSet();
+        final ConcurrentLongRangeSet loadedPending = new ConcurrentLongRangeSet();
+        try {
+            if (!Files.isRegularFile(checkpointPath)) {
+                return null;
+            }
+            final ByteBuffer checkpoint = ByteBuffer.wrap(Files.readAllBytes(checkpointPath));
+            if (checkpoint.remaining() < Integer.BYTES * 4 + Long.BYTES
+                    || checkpoint.getInt() != MAGIC
+                    || checkpoint.getInt() != VERSION) {
+                return null;
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(checkpoint.array(), 0, checkpoint.limit() - Long.BYTES);
+            if (!readRanges(checkpoint, loaded)
+                    || checkpoint.remaining() < Integer.BYTES + Long.BYTES
+                    || !readRanges(checkpoint, loadedPending)
+                    || checkpoint.remaining() != Long.BYTES
+                    || checkpoint.getLong() != crc.getValue()) {
+                return null;
+            }
+            if (Files.isRegularFile(journalPath)) {
+                replayJournal(ByteBuffer.wrap(Files.readAllBytes(journalPath)), loaded, loadedPending);
+            }
+        } catch (final IOException | IllegalArgumentException e) {
+            // unreadable or contains invalid ranges, so treat as corrupt
+            return null;
+        }
+        pendingDeletes = loadedPending;
+        return loaded.streamRanges().toList();
+    }
+
+    /**
+     * Get the ranges queued for deletion and not yet recorded as deleted.
+     *
+     * @return the pending delete ranges, empty before {@link #load()} or if nothing is pending
+     */
+    public synchronized List<LongRange> pendingDeletes() {
+        return pendingDeletes.streamRanges().toList();
+    }
+
+    /**
+     * Record that a range of blocks has been added to storage.
+     *
+     * @param start the first block number of the range, inclusive
+     * @param end the last block number of the range, inclusive
+     * @throws IOException if the journal could not be written
+     */
+    public void recordAdded(final long start, final long end) throws IOException {
+        writeRecord(RECORD_ADDED, start, end);
+    }
+
+    /**
+     * Record that a range of blocks has been removed from storage.
+     *
+     * @param start the first block number of the range, inclusive
+     * @param end the last block number of the range, inclusive
+     * @throws IOException if the journal could not be written
+     */
+    public void recordRemoved(final long start, final long end) throws IOException {
+        writeRecord(RECORD_REMOVED, start, end);
+    }
+
+    /**
+     * Record that a range of blocks has been removed from storage and its files queued for deletion. The range stays in
+     * the {@link #pendingDeletes()} till {@link #recordDeleted(long, long)} is called or it is added again.
+     *
+     * @param start the first block number of the range, inclusive
+     * @param end the last block number of the range, inclusive
+     * @throws IOException if the journal could not be written
+     */
+    public void recordDeleteQueued(final long start, final long end) throws IOException {
+        writeRecord(RECORD_DELETE_QUEUED, start, end);
+    }
+
+    /**
+     * Record that the files of a range of blocks queued for deletion have been deleted.
+     *
+     * @param start the first block number of the range, inclusive
+     * @param end the last block number of the range, inclusive
+     * @throws IOException if the journal could not be written
+     */
+    public void recordDeleted(final long start, final long end) throws IOException {
+        writeRecord(RECORD_DELETED, start, end);
+    }
+
+    /**
+     * Write a new checkpoint of the live range set and the pending deletes, and truncate the journal.
+     *
+     * @throws IOException if the checkpoint could not be written
+     */
+    public synchronized void checkpoint() throws IOException {
+        final List<LongRange> snapshot = ranges.streamRanges().toList();
+        final List<LongRange> pending = pendingDeletes.streamRanges().toList();
+        final ByteBuffer buffer = ByteBuffer.allocate(
+                Integer.BYTES * 4 + (snapshot.size() + pending.size()) * Long.BYTES * 2 + Long.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        writeRanges(buffer, snapshot);
+        writeRanges(buffer, pending);
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+        // write to temporary file and move into place, so a crash never leaves a partially written checkpoint
+        final Path tempPath = checkpointPath.resolveSibling(CHECKPOINT_FILE_NAME + ".tmp");
+        try (final FileChannel channel = FileChannel.open(
+                tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(tempPath, checkpointPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // the checkpoint now includes everything in the journal, so start a new one
+        closeJournal();
+        Files.deleteIfExists(journalPath);
+        journalRecords = 0;
+    }
+
+    /**
+     * Delete the manifest files, so the next {@link #load()} returns null and the caller falls back to scanning
+     * storage. Used when the manifest can no longer be kept in step with storage, for example a journal write failed.
+     *
+     * @throws IOException if the files could not be deleted
+     */
+    public synchronized void invalidate() throws IOException {
+        closeJournal();
+        Files.deleteIfExists(checkpointPath);
+        Files.deleteIfExists(journalPath);
+        journalRecords = 0;
+        pendingDeletes = new ConcurrentLongRangeSet();
+    }
+
+    /**
+     * Close the journal file. Does not write a checkpoint, call {@link #checkpoint()} first for a faster next load.
+     *
+     * @throws IOException if the journal could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closeJournal();
+    }
+
+    /**
+     * Append a record to the journal, writing a checkpoint if the journal has reached the checkpoint interval.
+     *
+     * @param type the record type
+     * @param start the first block number of the range, inclusive
+     * @param end the last block number of the range, inclusive
+     * @throws IOException if the journal or checkpoint could not be written
+     */
+    private synchronized void writeRecord(final byte type, final long start, final long end) throws IOException {
+        if (journal == null) {
+            journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        recordBuffer.clear();
+        recordBuffer.put(type).putLong(start).putLong(end);
+        final CRC32 crc = new CRC32();
+        crc.update(recordBuffer.array(), 0, recordBuffer.position());
+        recordBuffer.putInt((int) crc.getValue());
+        recordBuffer.flip();
+        while (recordBuffer.hasRemaining()) {
+            journal.write(recordBuffer);
+        }
+        applyPending(type, start, end, pendingDeletes);
+        journalRecords++;
+        if (journalRecords >= checkpointInterval) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Write a count of ranges followed by their start and end block numbers.
+     *
+     * @param buffer the buffer to write to
+     * @param rangesToWrite the ranges to write
+     */
+    private static void writeRanges(final ByteBuffer buffer, final List<LongRange> rangesToWrite) {
+        buffer.putInt(rangesToWrite.size());
+        for (final LongRange range : rangesToWrite) {
+            buffer.putLong(range.start()).putLong(range.end());
+        }
+    }
+
+    /**
+     * Read a count of ranges followed by their start and end block numbers, as written by
+     * {@link #writeRanges(ByteBuffer, List)}.
+     *
+     * @param buffer the buffer to read from
+     * @param loaded the range set to add the ranges to
+     * @return false if the count is invalid or there are not enough bytes for the ranges
+     */
+    private static boolean readRanges(final ByteBuffer buffer, final ConcurrentLongRangeSet loaded) {
+        final int count = buffer.getInt();
+        if (count < 0 || buffer.remaining() < (long) count * Long.BYTES * 2) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            loaded.add(buffer.getLong(), buffer.getLong());
+        }
+        return true;
+    }
+
+    /**
+     * Apply a journal record to the pending deletes. Adding a range again means its files are needed, so it is no
+     * longer pending deletion.
+     *
+     * @param type the record type
+     * @param start the first block number of the range, inclusive
+     * @param end the last block number of the range, inclusive
+     * @param pending the pending deletes to update
+     */
+    private static void applyPending(
+            final byte type, final long start, final long end, final ConcurrentLongRangeSet pending) {
+        switch (type) {
+            case RECORD_DELETE_QUEUED -> pending.add(start, end);
+            case RECORD_ADDED, RECORD_DELETED -> pending.remove(start, end);
+            default -> {}
+        }
+    }
+
+    /**
+     * Replay journal records onto a range set and the pending deletes, stopping at the first incomplete or corrupt
+     * record.
+     *
+     * @param journalBytes the contents of the journal
+     * @param loaded the range set to apply the records to
+     * @param loadedPending the pending deletes to apply the records to
+     */
+    private static void replayJournal(
+            final ByteBuffer journalBytes,
+            final ConcurrentLongRangeSet loaded,
+            final ConcurrentLongRangeSet loadedPending) {
+        final CRC32 crc = new CRC32();
+        while (journalBytes.remaining() >= JOURNAL_RECORD_SIZE) {
+            final int recordStart = journalBytes.position();
+            final byte type = journalBytes.get();
+            final long start = journalBytes.getLong();
+            final long end = journalBytes.getLong();
+            crc.reset();
+            crc.update(journalBytes.array(), recordStart, JOURNAL_RECORD_SIZE - Integer.BYTES);
+            if (journalBytes.getInt() != (int) crc.getValue()) {
+                // torn or corrupt record, nothing after it can be trusted
+                return;
+            }
+            switch (type) {
+                case RECORD_ADDED -> loaded.add(start, end);
+                case RECORD_REMOVED, RECORD_DELETE_QUEUED -> loaded.remove(start, end);
+                case RECORD_DELETED -> {
+                    // only changes the pending deletes
+                }
+                default -> {
+                    return;
+                }
+            }
+            applyPending(type, start, end, loadedPending);
+        }
+    }
+
+    /**
+     * Close the journal file if it is open. Must be called holding the lock on this.
+     *
+     * @throws IOException if the journal could not be closed
+     */
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+}
@@ -3,7 +3,10 @@ package org.hiero.block.node.base.ranges;
 
 import static org.hiero.block.node.spi.BlockNodePlugin.UNKNOWN_BLOCK_NUMBER;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
@@ -12,8 +15,12 @@ import org.hiero.block.node.spi.historicalblocks.LongRange;
 /**
  * A class that combines multiple {@link BlockRangeSet} instances into a single set. The combining is done live via
  * reference so as the underlying sets change, this set will reflect those changes.
+ * <p>
+ * The combined set is the union of the underlying sets, so a range is contained if every block in it is in one of the
+ * underlying sets, even if no single set holds all of it. The union is kept as a merged list of ranges, with its size,
+ * which is only recomputed when one of the underlying sets has changed, as detected by a {@link RangeSetSnapshot}. If
+ * any underlying set can not be tracked the union is recomputed for every query that needs it.
  */
-@SuppressWarnings("ClassCanBeRecord")
 public class CombinedBlockRangeSet implements BlockRangeSet {
     /**
      * The block range sets to combine. This array is fixed at creation time and its contents does not change but each
@@ -21,6 +28,25 @@ public class CombinedBlockRangeSet implements BlockRangeSet {
      */
     public final BlockRangeSet[] blockRangeSets;
 
+    /**
+     * True if every underlying set can tell when it has changed, so the union can be cached.
+     */
+    private final boolean cacheable;
+
+    /**
+     * The union of the underlying sets, as of the snapshot of their ranges it was computed from. Null until first used.
+     */
+    private volatile Union union;
+
+    /**
+     * The union of the underlying sets.
+     *
+     * @param source the snapshot of the ranges of the underlying sets the union was computed from
+     * @param ranges the merged ranges, sorted with no overlapping or adjacent ranges
+     * @param size the number of blocks in the union
+     */
+    private record Union(RangeSetSnapshot source, List<LongRange> ranges, long size) {}
+
     /**
      * Creates a new CombinedBlockRangeSet with the specified block range sets.
      *
@@ -28,6 +54,7 @@ public class CombinedBlockRangeSet implements BlockRangeSet {
      */
     public CombinedBlockRangeSet(BlockRangeSet... blockRangeSets) {
         this.blockRangeSets = blockRangeSets;
+        this.cacheable = RangeSetSnapshot.canTrackAll(blockRangeSets);
     }
 
     /**
@@ -35,6 +62,9 @@ public class CombinedBlockRangeSet implements BlockRangeSet {
      */
     @Override
     public boolean contains(long blockNumber) {
+        if (cacheable) {
+            return indexOfRange(union().ranges(), blockNumber) >= 0;
+        }
         for (BlockRangeSet set : blockRangeSets) {
             if (set.contains(blockNumber)) {
                 return true;
@@ -45,27 +75,35 @@ public class CombinedBlockRangeSet implements BlockRangeSet {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The range can be split across the underlying sets.
      */
     @Override
     public boolean contains(long start, long end) {
-        for (BlockRangeSet set : blockRangeSets) {
-            if (set.contains(start, end)) {
-                return true;
+        if (start > end) {
+            return false;
+        }
+        if (!cacheable) {
+            // a range wholly in one set is the common case, and does not need the union computing
+            for (BlockRangeSet set : blockRangeSets) {
+                if (set.contains(start, end)) {
+                    return true;
+                }
             }
         }
-        return false;
+        final List<LongRange> ranges = union().ranges();
+        final int index = indexOfRange(ranges, start);
+        return index >= 0 && ranges.get(index).end() >= end;
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Blocks in more than one underlying set are counted once.
      */
     @Override
     public long size() {
-        long totalSize = 0;
-        for (BlockRangeSet set : blockRangeSets) {
-            totalSize += set.size();
-        }
-        return totalSize;
+        return union().size();
     }
 
     /**
@@ -73,6 +111,10 @@ public class CombinedBlockRangeSet implements BlockRangeSet {
      */
     @Override
     public long min() {
+        if (cacheable) {
+            final List<LongRange> ranges = union().ranges();
+            return ranges.isEmpty() ? UNKNOWN_BLOCK_NUMBER : ranges.getFirst().start();
+        }
         return Arrays.stream(blockRangeSets)
                 .mapToLong(BlockRangeSet::min)
                 .filter(min -> min != UNKNOWN_BLOCK_NUMBER)
@@ -85,6 +127,10 @@ public class CombinedBlockRangeSet implements BlockRangeSet {
      */
     @Override
     public long max() {
+        if (cacheable) {
+            final List<LongRange> ranges = union().ranges();
+            return ranges.isEmpty() ? UNKNOWN_BLOCK_NUMBER : ranges.getLast().end();
+        }
         return Arrays.stream(blockRangeSets)
                 .mapToLong(BlockRangeSet::max)
                 .filter(max -> max != UNKNOWN_BLOCK_NUMBER)
@@ -97,10 +143,7 @@ public class CombinedBlockRangeSet implements BlockRangeSet {
      */
     @Override
     public LongStream stream() {
-        return new ConcurrentLongRangeSet(Arrays.stream(blockRangeSets)
-                        .flatMap(BlockRangeSet::streamRanges)
-                        .toArray(LongRange[]::new))
-                .stream();
+        return union().ranges().stream().flatMapToLong(LongRange::stream);
     }
 
     /**
@@ -108,9 +151,68 @@ public class CombinedBlockRangeSet implements BlockRangeSet {
      */
     @Override
     public Stream<LongRange> streamRanges() {
-        return new ConcurrentLongRangeSet(Arrays.stream(blockRangeSets)
-                        .flatMap(BlockRangeSet::streamRanges)
-                        .toArray(LongRange[]::new))
-                .streamRanges();
+        return union().ranges().stream();
+    }
+
+    /**
+     * Get the union of the underlying sets, computing it again if any of them has changed since it was last computed.
+     * Threads that find it out of date at the same time may each compute it, which is harmless as it is immutable.
+     *
+     * @return the up to date union
+     */
+    private Union union() {
+        final Union current = union;
+        if (current != null && current.source().isCurrent()) {
+            return current;
+        }
+        final RangeSetSnapshot source = RangeSetSnapshot.of(blockRangeSets);
+        final List<LongRange> allRanges = new ArrayList<>();
+        for (int i = 0; i < source.size(); i++) {
+            allRanges.addAll(source.ranges(i));
+        }
+        allRanges.sort(LongRange.COMPARATOR);
+        final List<LongRange> merged = new ArrayList<>(allRanges.size());
+        long size = 0;
+        for (LongRange range : allRanges) {
+            final LongRange last = merged.isEmpty() ? null : merged.getLast();
+            if (last != null && range.start() <= last.end() + 1) {
+                if (range.end() > last.end()) {
+                    size += range.end() - last.end();
+                    merged.set(merged.size() - 1, new LongRange(last.start(), range.end()));
+                }
+            } else {
+                size += range.size();
+                merged.add(range);
+            }
+        }
+        final Union computed = new Union(source, Collections.unmodifiableList(merged), size);
+        if (cacheable) {
+            union = computed;
+        }
+        return computed;
+    }
+
+    /**
+     * Find the range holding a block number in a sorted list of ranges.
+     *
+     * @param ranges the sorted, non-overlapping ranges
+     * @param blockNumber the block number to find
+     * @return the index of the range holding the block number, or -1 if no range holds it
+     */
+    private static int indexOfRange(final List<LongRange> ranges, final long blockNumber) {
+        int low = 0;
+        int high = ranges.size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final LongRange range = ranges.get(mid);
+            if (range.start() > blockNumber) {
+                high = mid - 1;
+            } else if (range.end() < blockNumber) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
     }
 }
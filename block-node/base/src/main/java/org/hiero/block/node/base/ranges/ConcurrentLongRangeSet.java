@@ -534,6 +534,17 @@ public class ConcurrentLongRangeSet implements BlockRangeSet {
         return ranges.get().size();
     }
 
+    /**
+     * Returns the ranges in the set as an immutable list, sorted and non-overlapping. Every change to the set replaces
+     * the list with a new one, so the same list instance is returned until the set changes. This can be used to tell
+     * cheaply whether the set has changed, by comparing lists by identity.
+     *
+     * @return the current immutable list of ranges in the set
+     */
+    public List<LongRange> ranges() {
+        return ranges.get();
+    }
+
     /**
      * Returns a stream of long values in the set.
      *
@@ -0,0 +1,116 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.base.ranges;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.List;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+
+/**
+ * The lists of ranges of some block range sets at one point in time, used to cache something computed from them and
+ * tell cheaply when it is out of date.
+ * <p>
+ * Changes can only be detected for range sets that are tracked, see {@link #canTrack(BlockRangeSet)}. Each change to a
+ * {@link ConcurrentLongRangeSet} replaces its list of ranges, and the empty set never changes and always gives the same
+ * list, so a snapshot is out of date as soon as any set's list is no longer the one it was taken from. Any other set
+ * gives a new list every time, so a snapshot including one never looks current.
+ */
+public final class RangeSetSnapshot {
+    /** The ranges of the empty set, the same list every time so it always looks unchanged. */
+    private static final List<LongRange> NO_RANGES = List.of();
+
+    /** The range sets the snapshot was taken of. */
+    private final BlockRangeSet[] rangeSets;
+    /** The lists of ranges of each range set when the snapshot was taken. */
+    private final List<List<LongRange>> ranges;
+
+    /**
+     * Create a new snapshot, see {@link #of(BlockRangeSet...)}.
+     */
+    private RangeSetSnapshot(final BlockRangeSet[] rangeSets, final List<List<LongRange>> ranges) {
+        this.rangeSets = rangeSets;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Check if changes to a range set can be detected, that is it is a {@link ConcurrentLongRangeSet} or the empty
+     * range set.
+     *
+     * @param rangeSet the range set, may be null
+     * @return true if changes to the range set can be detected
+     */
+    public static boolean canTrack(final BlockRangeSet rangeSet) {
+        return rangeSet instanceof ConcurrentLongRangeSet || rangeSet == BlockRangeSet.EMPTY;
+    }
+
+    /**
+     * Check if changes to all the range sets can be detected.
+     *
+     * @param rangeSets the range sets
+     * @return true if {@link #canTrack(BlockRangeSet)} accepts every range set
+     */
+    public static boolean canTrackAll(@NonNull final BlockRangeSet... rangeSets) {
+        return Arrays.stream(rangeSets).allMatch(RangeSetSnapshot::canTrack);
+    }
+
+    /**
+     * Take a snapshot of the current ranges of some range sets.
+     *
+     * @param rangeSets the range sets
+     * @return the new snapshot
+     */
+    @NonNull
+    public static RangeSetSnapshot of(@NonNull final BlockRangeSet... rangeSets) {
+        final BlockRangeSet[] sets = rangeSets.clone();
+        return new RangeSetSnapshot(sets, Arrays.stream(sets).map(RangeSetSnapshot::currentRanges).toList());
+    }
+
+    /**
+     * Get the number of range sets in the snapshot.
+     *
+     * @return the number of range sets
+     */
+    public int size() {
+        return rangeSets.length;
+    }
+
+    /**
+     * Get the ranges of one of the range sets when the snapshot was taken.
+     *
+     * @param index the index of the range set, in the order given to {@link #of(BlockRangeSet...)}
+     * @return the immutable ranges, sorted with no overlapping ranges
+     */
+    @NonNull
+    public List<LongRange> ranges(final int index) {
+        return ranges.get(index);
+    }
+
+    /**
+     * Check if the snapshot is up to date, that is none of the range sets has changed since it was taken.
+     *
+     * @return true if the snapshot is up to date, always false if any range set can not be tracked
+     */
+    public boolean isCurrent() {
+        for (int i = 0; i < rangeSets.length; i++) {
+            if (currentRanges(rangeSets[i]) != ranges.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the current ranges of a range set. For a range set that can be tracked this is the same list until the set
+     * changes.
+     *
+     * @param rangeSet the range set
+     * @return the immutable ranges, sorted with no overlapping ranges
+     */
+    private static List<LongRange> currentRanges(final BlockRangeSet rangeSet) {
+        if (rangeSet instanceof ConcurrentLongRangeSet concurrentSet) {
+            return concurrentSet.ranges();
+        }
+        return rangeSet == BlockRangeSet.EMPTY ? NO_RANGES : rangeSet.streamRanges().toList();
+    }
+}
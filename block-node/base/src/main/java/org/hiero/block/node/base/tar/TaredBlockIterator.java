@@ -1,12 +1,15 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.hiero.block.node.base.tar;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import org.hiero.block.node.base.BlockBytesChannel;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
 
@@ -15,6 +18,9 @@ import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
  * padding. The neat bit is it is lazy and only creates the next tar block when asked for it, only getting block bytes
  * from BlockAccessor as needed. This allows a stream of blocks to be converted to tar format without needing to load
  * them all into ram. Each of the blocks is stored in a Zstd compressed protobuf format.
+ * <p>
+ * Each block is written by its accessor into one reused {@link BlockBytesChannel}, so accessors that already hold the
+ * block in the requested format can transfer it straight from storage, and no array is allocated per block.
  */
 public final class TaredBlockIterator implements Iterator<byte[]> {
     /** The format for block numbers in file names */
@@ -33,8 +39,8 @@ public final class TaredBlockIterator implements Iterator<byte[]> {
     private int bufferPosition;
     /** The current state of the iterator */
     private State state = State.NEXT_FILE;
-    /** The bytes of the current block */
-    private byte[] currentBlockBytes;
+    /** The bytes of the current block, reused for each block */
+    private final BlockBytesChannel currentBlockBytes = new BlockBytesChannel();
     /** The name of the current block file */
     private String currentBlockName;
     /** The position in the current block file */
@@ -99,7 +105,13 @@ public final class TaredBlockIterator implements Iterator<byte[]> {
                     if (blockIterator.hasNext()) {
                         // get the next block from the iterator
                         final BlockAccessor currentBlock = blockIterator.next();
-                        currentBlockBytes = currentBlock.blockBytes(format).toByteArray();
+                        currentBlockBytes.reset();
+                        try {
+                            currentBlock.writeBytesTo(format, currentBlockBytes);
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(
+                                    "Failed to read block " + currentBlock.blockNumber() + " for tar file", e);
+                        }
                         currentBlockName = BLOCK_NUMBER_FORMAT.format(currentBlock.blockNumber()) + extension;
                         filePosition = 0;
                         state = State.WRITE_HEADER;
@@ -109,7 +121,7 @@ public final class TaredBlockIterator implements Iterator<byte[]> {
                     break;
 
                 case WRITE_HEADER:
-                    byte[] header = createTarHeader(currentBlockName, currentBlockBytes.length);
+                    byte[] header = createTarHeader(currentBlockName, currentBlockBytes.length());
                     int bytesToCopy = Math.min(header.length, CHUNK_SIZE - bufferPosition);
                     System.arraycopy(header, 0, currentBuffer, bufferPosition, bytesToCopy);
                     bufferPosition += bytesToCopy;
@@ -117,18 +129,22 @@ public final class TaredBlockIterator implements Iterator<byte[]> {
                     break;
 
                 case WRITE_CONTENT:
-                    int contentLeft = currentBlockBytes.length - filePosition;
+                    int contentLeft = currentBlockBytes.length() - filePosition;
                     int contentBytesToCopy = Math.min(contentLeft, CHUNK_SIZE - bufferPosition);
 
                     if (contentBytesToCopy > 0) {
                         System.arraycopy(
-                                currentBlockBytes, filePosition, currentBuffer, bufferPosition, contentBytesToCopy);
+                                currentBlockBytes.array(),
+                                filePosition,
+                                currentBuffer,
+                                bufferPosition,
+                                contentBytesToCopy);
                         filePosition += contentBytesToCopy;
                         bufferPosition += contentBytesToCopy;
                     }
 
-                    if (filePosition >= currentBlockBytes.length) {
-                        paddingBytesRemaining = (512 - (currentBlockBytes.length % 512)) % 512;
+                    if (filePosition >= currentBlockBytes.length()) {
+                        paddingBytesRemaining = (512 - (currentBlockBytes.length() % 512)) % 512;
                         state = State.WRITE_PADDING;
                     }
                     break;
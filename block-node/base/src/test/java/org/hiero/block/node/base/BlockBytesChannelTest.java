@@ -0,0 +1,52 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link BlockBytesChannel} class.
+ */
+@DisplayName("BlockBytesChannel Tests")
+class BlockBytesChannelTest {
+    @Test
+    @DisplayName("Test writes are collected in order and the array grows as needed")
+    void testWriteAndGrow() {
+        final BlockBytesChannel channel = new BlockBytesChannel(4);
+        final byte[] first = {1, 2, 3};
+        final byte[] second = {4, 5, 6, 7, 8, 9, 10};
+        assertThat(channel.write(ByteBuffer.wrap(first))).isEqualTo(first.length);
+        assertThat(channel.write(ByteBuffer.wrap(second))).isEqualTo(second.length);
+        assertThat(channel.length()).isEqualTo(10);
+        assertThat(Arrays.copyOf(channel.array(), channel.length())).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(channel.bytes()).isEqualTo(Bytes.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}));
+        // closing has no effect
+        channel.close();
+        assertThat(channel.isOpen()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Test reset discards the bytes written and keeps the array")
+    void testReset() {
+        final BlockBytesChannel channel = new BlockBytesChannel();
+        channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+        final byte[] array = channel.array();
+        channel.reset();
+        assertThat(channel.length()).isZero();
+        channel.write(ByteBuffer.wrap(new byte[] {4}));
+        assertThat(channel.array()).isSameAs(array);
+        assertThat(channel.bytes()).isEqualTo(Bytes.wrap(new byte[] {4}));
+    }
+
+    @Test
+    @DisplayName("Test a negative initial capacity is rejected")
+    void testInvalidCapacity() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new BlockBytesChannel(-1));
+    }
+}
@@ -7,7 +7,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
@@ -108,4 +110,32 @@ class BlockFileTest {
                 RuntimeException.class,
                 () -> BlockFile.nestedDirectoriesAllBlockNumbers(Path.of("fake"), CompressionType.NONE));
     }
+
+    @Test
+    void testNestedDirectoriesAllBlockRanges(@TempDir Path tempDir) throws Exception {
+        long[] blockNumbers = {0, 1, 2, 3, 7, 8, 1000, 1001, 1002, 50992902L};
+        for (long blockNumber : blockNumbers) {
+            Path blockFilePath =
+                    BlockFile.nestedDirectoriesBlockFilePath(tempDir, blockNumber, CompressionType.ZSTD, 3);
+            Files.createDirectories(blockFilePath.getParent());
+            Files.createFile(blockFilePath);
+        }
+        // files with other extensions and in the base directory itself are ignored
+        Files.createFile(tempDir.resolve("block-ranges.manifest"));
+        Files.createFile(BlockFile.nestedDirectoriesBlockFilePath(tempDir, 5, CompressionType.NONE, 3));
+        assertEquals(
+                List.of(
+                        new LongRange(0, 3),
+                        new LongRange(7, 8),
+                        new LongRange(1000, 1002),
+                        new LongRange(50992902L, 50992902L)),
+                BlockFile.nestedDirectoriesAllBlockRanges(tempDir, CompressionType.ZSTD));
+        // empty directory has no ranges
+        Path emptyDir = Files.createDirectory(tempDir.resolve("empty"));
+        assertEquals(List.of(), BlockFile.nestedDirectoriesAllBlockRanges(emptyDir, CompressionType.ZSTD));
+        // test exceptions
+        assertThrows(
+                RuntimeException.class,
+                () -> BlockFile.nestedDirectoriesAllBlockRanges(Path.of("fake"), CompressionType.NONE));
+    }
 }
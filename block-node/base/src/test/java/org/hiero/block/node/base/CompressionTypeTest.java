@@ -179,4 +179,40 @@ class CompressionTypeTest {
         final byte[] bytesFromDecompress = compressionType.decompress(compressedData);
         assertThat(bytesFromInputStream).isEqualTo(bytesFromDecompress).containsExactly(bytesFromDecompress);
     }
+
+    /**
+     * This test aims to verify that data compressed at any level is
+     * decompressed correctly, and that higher levels compress better.
+     */
+    @ParameterizedTest
+    @EnumSource(CompressionType.class)
+    @DisplayName("Test compress() at each level can be decompressed")
+    void testCompressLevels(final CompressionType compressionType) throws IOException {
+        final byte[] testData = "test expected data, test expected data, test expected data".repeat(100)
+                .getBytes();
+        final byte[] fastest = compressionType.compress(testData, CompressionType.MIN_ZSTD_COMPRESSION_LEVEL);
+        final byte[] smallest = compressionType.compress(testData, CompressionType.MAX_ZSTD_COMPRESSION_LEVEL);
+        assertThat(compressionType.decompress(fastest)).isEqualTo(testData);
+        assertThat(compressionType.decompress(smallest)).isEqualTo(testData);
+        assertThat(smallest.length).isLessThanOrEqualTo(fastest.length);
+        final ByteArrayOutputStream baosTarget = new ByteArrayOutputStream();
+        try (final OutputStream out =
+                compressionType.wrapStream(baosTarget, CompressionType.MAX_ZSTD_COMPRESSION_LEVEL)) {
+            out.write(testData);
+        }
+        assertThat(compressionType.decompress(baosTarget.toByteArray())).isEqualTo(testData);
+    }
+
+    /**
+     * This test aims to verify that decompress() handles data that
+     * decompresses to much more than its compressed size.
+     */
+    @ParameterizedTest
+    @EnumSource(CompressionType.class)
+    @DisplayName("Test decompress() handles highly compressible data")
+    void testDecompressHighlyCompressible(final CompressionType compressionType) {
+        final byte[] testData = new byte[4 * 1024 * 1024];
+        final byte[] compressedData = compressionType.compress(testData);
+        assertThat(compressionType.decompress(compressedData)).isEqualTo(testData);
+    }
 }
@@ -0,0 +1,176 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link ZstdDictionaries} class.
+ */
+@DisplayName("ZstdDictionaries Tests")
+class ZstdDictionariesTest {
+    /** The directory dictionaries are stored in. */
+    @TempDir
+    private Path dictionaryDir;
+
+    /**
+     * Create samples that are small and very similar to each other, like blocks.
+     *
+     * @param seed the random seed
+     * @param count the number of samples
+     * @return the samples
+     */
+    private static List<byte[]> samples(final long seed, final int count) {
+        final Random random = new Random(seed);
+        final List<byte[]> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final StringBuilder sample = new StringBuilder();
+            for (int j = 0; j < 4; j++) {
+                sample.append("{\"payer\":\"0.0.")
+                        .append(random.nextInt(100_000))
+                        .append("\",\"receiver\":\"0.0.")
+                        .append(random.nextInt(100_000))
+                        .append("\",\"amount\":")
+                        .append(random.nextInt(1_000_000))
+                        .append(",\"memo\":\"crypto transfer\",\"node\":\"0.0.")
+                        .append(3 + random.nextInt(20))
+                        .append("\",\"status\":\"SUCCESS\"}");
+            }
+            samples.add(sample.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return samples;
+    }
+
+    /**
+     * Train a dictionary from samples.
+     *
+     * @param seed the random seed for the samples
+     * @return the trained dictionary
+     */
+    private static byte[] trainDictionary(final long seed) {
+        return ZstdDictionaries.train(samples(seed, 2_000), ZstdDictionaries.DEFAULT_MAX_DICTIONARY_BYTES);
+    }
+
+    @Test
+    @DisplayName("Test added dictionaries are stored as versions and loaded again")
+    void testAddAndLoad() throws IOException {
+        final ZstdDictionaries dictionaries = ZstdDictionaries.load(dictionaryDir.resolve("dictionaries"));
+        assertThat(dictionaries.isEmpty()).isTrue();
+        assertThat(dictionaries.currentId()).isZero();
+        final long firstId = dictionaries.add(trainDictionary(1));
+        final long secondId = dictionaries.add(trainDictionary(2));
+        assertThat(firstId).isNotZero().isNotEqualTo(secondId);
+        assertThat(dictionaries.currentId()).isEqualTo(secondId);
+        assertThat(dictionaryDir.resolve("dictionaries").resolve("1" + ZstdDictionaries.DICTIONARY_EXTENSION))
+                .exists();
+        assertThat(dictionaryDir.resolve("dictionaries").resolve("2" + ZstdDictionaries.DICTIONARY_EXTENSION))
+                .exists();
+        // the highest version is current after loading
+        final ZstdDictionaries loaded = ZstdDictionaries.load(dictionaryDir.resolve("dictionaries"));
+        assertThat(loaded.currentId()).isEqualTo(secondId);
+        assertThat(loaded.dictionary(firstId)).isEqualTo(dictionaries.dictionary(firstId));
+        assertThat(loaded.dictionary(secondId)).isEqualTo(dictionaries.dictionary(secondId));
+    }
+
+    @Test
+    @DisplayName("Test removed dictionaries are deleted and not loaded again, the current dictionary is kept")
+    void testRemove() throws IOException {
+        final ZstdDictionaries dictionaries = ZstdDictionaries.load(dictionaryDir);
+        final long firstId = dictionaries.add(trainDictionary(1));
+        final long secondId = dictionaries.add(trainDictionary(2));
+        final long thirdId = dictionaries.add(trainDictionary(3));
+        assertThat(dictionaries.ids()).containsExactly(firstId, secondId, thirdId);
+        assertThat(dictionaries.remove(secondId)).isTrue();
+        assertThat(dictionaries.remove(secondId)).isFalse();
+        assertThat(dictionaries.dictionary(secondId)).isNull();
+        assertThat(dictionaries.ids()).containsExactly(firstId, thirdId);
+        assertThat(dictionaryDir.resolve("2" + ZstdDictionaries.DICTIONARY_EXTENSION)).doesNotExist();
+        assertThatIllegalArgumentException().isThrownBy(() -> dictionaries.remove(thirdId));
+        // the removed dictionary stays gone after loading
+        final ZstdDictionaries loaded = ZstdDictionaries.load(dictionaryDir);
+        assertThat(loaded.ids()).containsExactly(firstId, thirdId);
+        assertThat(loaded.currentId()).isEqualTo(thirdId);
+    }
+
+    @Test
+    @DisplayName("Test data compressed with a dictionary records it and is decompressed with it")
+    void testCompressWithDictionary() throws IOException {
+        final ZstdDictionaries dictionaries = ZstdDictionaries.load(dictionaryDir);
+        final byte[] data = samples(3, 1).getFirst();
+        final byte[] withoutDictionary = dictionaries.compress(CompressionType.ZSTD, 3, data);
+        assertThat(ZstdDictionaries.frameDictionaryId(withoutDictionary)).isZero();
+        final long firstId = dictionaries.add(trainDictionary(1));
+        final byte[] withFirst = dictionaries.compress(CompressionType.ZSTD, 3, data);
+        assertThat(ZstdDictionaries.frameDictionaryId(withFirst)).isEqualTo(firstId);
+        // small similar data compresses much better with a dictionary
+        assertThat(withFirst.length).isLessThan(withoutDictionary.length);
+        final long secondId = dictionaries.add(trainDictionary(2));
+        final byte[] withSecond = dictionaries.compress(CompressionType.ZSTD, 3, data);
+        assertThat(ZstdDictionaries.frameDictionaryId(withSecond)).isEqualTo(secondId);
+        // every version can be decompressed, after loading as well
+        final ZstdDictionaries loaded = ZstdDictionaries.load(dictionaryDir);
+        for (final byte[] compressed : List.of(withoutDictionary, withFirst, withSecond)) {
+            assertThat(dictionaries.decompress(CompressionType.ZSTD, compressed)).isEqualTo(data);
+            assertThat(loaded.decompress(CompressionType.ZSTD, compressed)).isEqualTo(data);
+        }
+        // data compressed without a dictionary does not need one
+        assertThat(CompressionType.ZSTD.decompress(withoutDictionary)).isEqualTo(data);
+        assertThatThrownBy(() -> ZstdDictionaries.NONE.decompress(CompressionType.ZSTD, withFirst))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    @DisplayName("Test streams are compressed with the current dictionary and decompressed with the recorded one")
+    void testWrapStreams() throws IOException {
+        final ZstdDictionaries dictionaries = ZstdDictionaries.load(dictionaryDir);
+        final long dictionaryId = dictionaries.add(trainDictionary(1));
+        final byte[] data = samples(4, 1).getFirst();
+        final ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        try (OutputStream out = dictionaries.wrapStream(CompressionType.ZSTD, 19, bytesOut)) {
+            out.write(data);
+        }
+        final byte[] compressed = bytesOut.toByteArray();
+        assertThat(ZstdDictionaries.frameDictionaryId(compressed)).isEqualTo(dictionaryId);
+        final Path file = dictionaryDir.resolve("block.zstd");
+        Files.write(file, compressed);
+        assertThat(ZstdDictionaries.frameDictionaryId(file)).isEqualTo(dictionaryId);
+        // a stream that does not support mark is buffered to read the frame header
+        try (InputStream in = dictionaries.wrapStream(CompressionType.ZSTD, Files.newInputStream(file))) {
+            assertThat(in.readAllBytes()).isEqualTo(data);
+        }
+        // streams with no compression are not changed
+        final ByteArrayInputStream plain = new ByteArrayInputStream(data);
+        assertThat(dictionaries.wrapStream(CompressionType.NONE, plain)).isSameAs(plain);
+        assertThat(dictionaries.compress(CompressionType.NONE, 3, data)).isSameAs(data);
+    }
+
+    @Test
+    @DisplayName("Test invalid dictionaries and adding to the empty store are rejected")
+    void testInvalid() throws IOException {
+        final ZstdDictionaries dictionaries = ZstdDictionaries.load(dictionaryDir);
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> dictionaries.add("not a dictionary".getBytes(StandardCharsets.UTF_8)));
+        assertThatIllegalStateException().isThrownBy(() -> ZstdDictionaries.NONE.add(trainDictionary(1)));
+        assertThatIllegalArgumentException().isThrownBy(() -> ZstdDictionaries.train(samples(1, 2), 1024));
+        Files.writeString(dictionaryDir.resolve("1" + ZstdDictionaries.DICTIONARY_EXTENSION), "not a dictionary");
+        assertThatThrownBy(() -> ZstdDictionaries.load(dictionaryDir)).isInstanceOf(IOException.class);
+    }
+}
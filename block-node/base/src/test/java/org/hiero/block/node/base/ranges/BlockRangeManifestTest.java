@@ -0,0 +1,193 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.base.ranges;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the {@link BlockRangeManifest} class.
+ */
+class BlockRangeManifestTest {
+    /** Temporary directory for the manifest files. */
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Constructor should reject a non positive checkpoint interval")
+    void testInvalidCheckpointInterval() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 0));
+    }
+
+    @Test
+    @DisplayName("Load should return null when there is no manifest")
+    void testLoadMissing() {
+        assertNull(new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 10).load());
+    }
+
+    @Test
+    @DisplayName("Checkpoint should round trip through load")
+    void testCheckpointRoundTrip() throws IOException {
+        final ConcurrentLongRangeSet ranges = new ConcurrentLongRangeSet();
+        ranges.addAll(new LongRange(0, 10), new LongRange(20, 30), new LongRange(100, 100));
+        try (BlockRangeManifest manifest = new BlockRangeManifest(tempDir, ranges, 10)) {
+            manifest.checkpoint();
+        }
+        assertEquals(
+                List.of(new LongRange(0, 10), new LongRange(20, 30), new LongRange(100, 100)),
+                new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 10).load());
+        // empty set round trips as well
+        try (BlockRangeManifest manifest = new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 10)) {
+            manifest.checkpoint();
+        }
+        assertEquals(List.of(), new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 10).load());
+    }
+
+    @Test
+    @DisplayName("Load should replay journal records written after the checkpoint")
+    void testJournalReplay() throws IOException {
+        final ConcurrentLongRangeSet ranges = new ConcurrentLongRangeSet(0, 10);
+        try (BlockRangeManifest manifest = new BlockRangeManifest(tempDir, ranges, 100)) {
+            manifest.checkpoint();
+            for (long blockNumber = 11; blockNumber <= 15; blockNumber++) {
+                manifest.recordAdded(blockNumber, blockNumber);
+            }
+            manifest.recordRemoved(0, 4);
+        }
+        assertTrue(Files.exists(tempDir.resolve(BlockRangeManifest.JOURNAL_FILE_NAME)));
+        assertEquals(
+                List.of(new LongRange(5, 15)),
+                new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 100).load());
+    }
+
+    @Test
+    @DisplayName("Ranges queued for deletion should be pending till deleted or added again, through checkpoints")
+    void testPendingDeletes() throws IOException {
+        final ConcurrentLongRangeSet ranges = new ConcurrentLongRangeSet(0, 99);
+        try (BlockRangeManifest manifest = new BlockRangeManifest(tempDir, ranges, 100)) {
+            manifest.checkpoint();
+            ranges.remove(0, 49);
+            manifest.recordDeleteQueued(0, 49);
+            manifest.recordDeleteQueued(60, 69);
+            ranges.remove(60, 69);
+            assertEquals(List.of(new LongRange(0, 49), new LongRange(60, 69)), manifest.pendingDeletes());
+            manifest.recordDeleted(0, 9);
+            // block written again after its delete was queued
+            ranges.add(65);
+            manifest.recordAdded(65, 65);
+        }
+        // replayed from the journal
+        final BlockRangeManifest loaded = new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 100);
+        assertEquals(List.of(), loaded.pendingDeletes());
+        assertEquals(
+                List.of(new LongRange(50, 59), new LongRange(65, 65), new LongRange(70, 99)), loaded.load());
+        final List<LongRange> expectedPending =
+                List.of(new LongRange(10, 49), new LongRange(60, 64), new LongRange(66, 69));
+        assertEquals(expectedPending, loaded.pendingDeletes());
+        // kept in the checkpoint
+        try (BlockRangeManifest manifest = new BlockRangeManifest(tempDir, ranges, 100)) {
+            manifest.load();
+            manifest.checkpoint();
+        }
+        assertFalse(Files.exists(tempDir.resolve(BlockRangeManifest.JOURNAL_FILE_NAME)));
+        final BlockRangeManifest reloaded = new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 100);
+        assertEquals(
+                List.of(new LongRange(50, 59), new LongRange(65, 65), new LongRange(70, 99)), reloaded.load());
+        assertEquals(expectedPending, reloaded.pendingDeletes());
+    }
+
+    @Test
+    @DisplayName("Load should stop replaying the journal at a torn record")
+    void testTornJournalRecord() throws IOException {
+        try (BlockRangeManifest manifest = new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 100)) {
+            manifest.checkpoint();
+            manifest.recordAdded(0, 0);
+            manifest.recordAdded(1, 1);
+            manifest.recordAdded(2, 2);
+        }
+        // chop the last record in half, as if the node crashed while writing it
+        final Path journalPath = tempDir.resolve(BlockRangeManifest.JOURNAL_FILE_NAME);
+        final byte[] journal = Files.readAllBytes(journalPath);
+        Files.write(journalPath, Arrays.copyOf(journal, journal.length - 10));
+        assertEquals(
+                List.of(new LongRange(0, 1)),
+                new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 100).load());
+        // corrupt a byte in the second record, only the first should be replayed
+        final byte[] corrupted = Arrays.copyOf(journal, journal.length);
+        corrupted[corrupted.length / 3 + 3] ^= 0x7F;
+        Files.write(journalPath, corrupted);
+        assertEquals(
+                List.of(new LongRange(0, 0)),
+                new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 100).load());
+    }
+
+    @Test
+    @DisplayName("Load should return null for a corrupt checkpoint")
+    void testCorruptCheckpoint() throws IOException {
+        try (BlockRangeManifest manifest = new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(0, 99), 10)) {
+            manifest.checkpoint();
+        }
+        final Path checkpointPath = tempDir.resolve(BlockRangeManifest.CHECKPOINT_FILE_NAME);
+        final byte[] checkpoint = Files.readAllBytes(checkpointPath);
+        // flip a bit in the range data
+        final byte[] corrupted = Arrays.copyOf(checkpoint, checkpoint.length);
+        corrupted[14] ^= 0x01;
+        Files.write(checkpointPath, corrupted);
+        assertNull(new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 10).load());
+        // truncated file
+        Files.write(checkpointPath, Arrays.copyOf(checkpoint, checkpoint.length - 1));
+        assertNull(new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 10).load());
+        // not a manifest at all
+        Files.writeString(checkpointPath, "junk");
+        assertNull(new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 10).load());
+    }
+
+    @Test
+    @DisplayName("A checkpoint should be written automatically after the checkpoint interval")
+    void testAutomaticCheckpoint() throws IOException {
+        final ConcurrentLongRangeSet ranges = new ConcurrentLongRangeSet();
+        final Path journalPath = tempDir.resolve(BlockRangeManifest.JOURNAL_FILE_NAME);
+        try (BlockRangeManifest manifest = new BlockRangeManifest(tempDir, ranges, 3)) {
+            for (long blockNumber = 0; blockNumber < 3; blockNumber++) {
+                ranges.add(blockNumber);
+                manifest.recordAdded(blockNumber, blockNumber);
+            }
+            // third record triggered a checkpoint, which truncates the journal
+            assertFalse(Files.exists(journalPath));
+            assertTrue(Files.exists(tempDir.resolve(BlockRangeManifest.CHECKPOINT_FILE_NAME)));
+            ranges.add(3);
+            manifest.recordAdded(3, 3);
+            assertTrue(Files.exists(journalPath));
+        }
+        assertEquals(
+                List.of(new LongRange(0, 3)),
+                new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 3).load());
+    }
+
+    @Test
+    @DisplayName("Invalidate should delete the manifest files")
+    void testInvalidate() throws IOException {
+        try (BlockRangeManifest manifest = new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(0, 5), 10)) {
+            manifest.checkpoint();
+            manifest.recordAdded(6, 6);
+            manifest.invalidate();
+        }
+        assertFalse(Files.exists(tempDir.resolve(BlockRangeManifest.CHECKPOINT_FILE_NAME)));
+        assertFalse(Files.exists(tempDir.resolve(BlockRangeManifest.JOURNAL_FILE_NAME)));
+        assertNull(new BlockRangeManifest(tempDir, new ConcurrentLongRangeSet(), 10).load());
+    }
+}
@@ -1,6 +1,7 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.hiero.block.node.base.ranges;
 
+import static org.hiero.block.node.spi.BlockNodePlugin.UNKNOWN_BLOCK_NUMBER;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -9,10 +10,16 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
 import org.hiero.block.node.spi.historicalblocks.LongRange;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -67,18 +74,116 @@ class CombinedBlockRangeSetTest {
     }
 
     @Test
-    @DisplayName("size() returns the sum of sizes of all underlying sets")
+    @DisplayName("size() counts the blocks in the union of all underlying sets once")
     void testSize() {
-        final BlockRangeSet set1 = mock(BlockRangeSet.class);
-        final BlockRangeSet set2 = mock(BlockRangeSet.class);
-        when(set1.size()).thenReturn(5L);
-        when(set2.size()).thenReturn(10L);
+        final ConcurrentLongRangeSet set1 = new ConcurrentLongRangeSet(0, 9);
+        final ConcurrentLongRangeSet set2 = new ConcurrentLongRangeSet(5, 14);
 
-        final CombinedBlockRangeSet combinedSet = new CombinedBlockRangeSet(set1, set2);
+        final CombinedBlockRangeSet combinedSet = new CombinedBlockRangeSet(set1, set2, BlockRangeSet.EMPTY);
         assertEquals(15L, combinedSet.size());
+    }
+
+    @Test
+    @DisplayName("contains(start, end) returns true for a range split across underlying sets")
+    void testContainsRangeSpanningSets() {
+        final ConcurrentLongRangeSet recent = new ConcurrentLongRangeSet(100, 199);
+        final ConcurrentLongRangeSet historic =
+                new ConcurrentLongRangeSet(new LongRange(0, 99), new LongRange(300, 399));
+
+        final CombinedBlockRangeSet combinedSet = new CombinedBlockRangeSet(recent, historic);
+        assertTrue(combinedSet.contains(50L, 150L));
+        assertTrue(combinedSet.contains(0L, 199L));
+        assertFalse(combinedSet.contains(150L, 300L));
+        assertFalse(combinedSet.contains(200L, 200L));
+        assertFalse(combinedSet.contains(20L, 10L));
+
+        // non-indexed sets are combined the same way
+        final BlockRangeSet mockRecent = mock(BlockRangeSet.class);
+        when(mockRecent.streamRanges()).thenAnswer(invocation -> recent.streamRanges());
+        final CombinedBlockRangeSet mockCombinedSet = new CombinedBlockRangeSet(mockRecent, historic);
+        assertTrue(mockCombinedSet.contains(50L, 150L));
+        assertFalse(mockCombinedSet.contains(150L, 300L));
+    }
+
+    @Test
+    @DisplayName("aggregates follow changes to the underlying sets")
+    void testFollowsChanges() {
+        final ConcurrentLongRangeSet recent = new ConcurrentLongRangeSet();
+        final ConcurrentLongRangeSet historic = new ConcurrentLongRangeSet();
+
+        final CombinedBlockRangeSet combinedSet = new CombinedBlockRangeSet(recent, historic);
+        assertEquals(0L, combinedSet.size());
+        assertEquals(UNKNOWN_BLOCK_NUMBER, combinedSet.min());
+        assertEquals(UNKNOWN_BLOCK_NUMBER, combinedSet.max());
+
+        recent.add(0, 19);
+        assertEquals(20L, combinedSet.size());
+        assertEquals(0L, combinedSet.min());
+        assertEquals(19L, combinedSet.max());
+
+        // blocks moved from the recent set to the historic set, as when they are archived
+        historic.add(0, 9);
+        recent.remove(0, 9);
+        assertEquals(20L, combinedSet.size());
+        assertTrue(combinedSet.contains(0L, 19L));
+        assertArrayEquals(new LongRange[] {new LongRange(0, 19)}, combinedSet.streamRanges().toArray());
+
+        historic.remove(5);
+        assertEquals(19L, combinedSet.size());
+        assertFalse(combinedSet.contains(5L));
+        assertFalse(combinedSet.contains(0L, 19L));
+        assertArrayEquals(
+                new LongRange[] {new LongRange(0, 4), new LongRange(6, 19)},
+                combinedSet.streamRanges().toArray());
+    }
 
-        verify(set1).size();
-        verify(set2).size();
+    /**
+     * Property test comparing every operation against a naive reference, the set of all block numbers in any of the
+     * underlying sets, over random changes to random underlying sets.
+     */
+    @RepeatedTest(50)
+    @DisplayName("all operations match a naive reference implementation")
+    void testMatchesReference(final RepetitionInfo repetitionInfo) {
+        final Random random = new Random(repetitionInfo.getCurrentRepetition());
+        final int maxBlockNumber = 200;
+        final ConcurrentLongRangeSet[] sets = new ConcurrentLongRangeSet[1 + random.nextInt(4)];
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = new ConcurrentLongRangeSet();
+        }
+        final CombinedBlockRangeSet combinedSet = new CombinedBlockRangeSet(sets);
+        for (int change = 0; change < 100; change++) {
+            final ConcurrentLongRangeSet set = sets[random.nextInt(sets.length)];
+            final long start = random.nextInt(maxBlockNumber);
+            final long end = start + random.nextInt(20);
+            if (random.nextInt(3) == 0) {
+                set.remove(start, end);
+            } else {
+                set.add(start, end);
+            }
+            final TreeSet<Long> reference = new TreeSet<>();
+            for (ConcurrentLongRangeSet s : sets) {
+                s.stream().forEach(reference::add);
+            }
+            assertEquals(reference.size(), combinedSet.size());
+            assertEquals(reference.isEmpty() ? UNKNOWN_BLOCK_NUMBER : reference.first(), combinedSet.min());
+            assertEquals(reference.isEmpty() ? UNKNOWN_BLOCK_NUMBER : reference.last(), combinedSet.max());
+            assertArrayEquals(
+                    reference.stream().mapToLong(Long::longValue).toArray(),
+                    combinedSet.stream().toArray());
+            for (int query = 0; query < 20; query++) {
+                final long queryStart = random.nextInt(maxBlockNumber + 20);
+                final long queryEnd = queryStart + random.nextInt(40);
+                assertEquals(reference.contains(queryStart), combinedSet.contains(queryStart));
+                final boolean allContained = LongStream.rangeClosed(queryStart, queryEnd)
+                        .allMatch(reference::contains);
+                assertEquals(allContained, combinedSet.contains(queryStart, queryEnd));
+            }
+            // ranges are sorted, and neither overlap nor touch
+            final List<LongRange> ranges = combinedSet.streamRanges().toList();
+            for (int i = 1; i < ranges.size(); i++) {
+                assertTrue(ranges.get(i).start() > ranges.get(i - 1).end() + 1);
+            }
+        }
     }
 
     @Test
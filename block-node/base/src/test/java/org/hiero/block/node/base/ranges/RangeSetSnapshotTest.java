@@ -0,0 +1,58 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.base.ranges;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A test class for {@link RangeSetSnapshot}.
+ */
+class RangeSetSnapshotTest {
+
+    @Test
+    @DisplayName("canTrack() accepts concurrent sets and the empty set only")
+    void testCanTrack() {
+        assertTrue(RangeSetSnapshot.canTrack(new ConcurrentLongRangeSet()));
+        assertTrue(RangeSetSnapshot.canTrack(BlockRangeSet.EMPTY));
+        assertFalse(RangeSetSnapshot.canTrack(mock(BlockRangeSet.class)));
+        assertFalse(RangeSetSnapshot.canTrack(null));
+        assertTrue(RangeSetSnapshot.canTrackAll(new ConcurrentLongRangeSet(), BlockRangeSet.EMPTY));
+        assertFalse(RangeSetSnapshot.canTrackAll(new ConcurrentLongRangeSet(), mock(BlockRangeSet.class)));
+    }
+
+    @Test
+    @DisplayName("A snapshot holds the ranges of each set and is current until one of them changes")
+    void testCurrentUntilChanged() {
+        final ConcurrentLongRangeSet set = new ConcurrentLongRangeSet(0, 9);
+        final RangeSetSnapshot snapshot = RangeSetSnapshot.of(set, BlockRangeSet.EMPTY);
+        assertEquals(2, snapshot.size());
+        assertEquals(List.of(new LongRange(0, 9)), snapshot.ranges(0));
+        assertEquals(List.of(), snapshot.ranges(1));
+        assertTrue(snapshot.isCurrent());
+        set.add(10);
+        assertFalse(snapshot.isCurrent());
+        // the snapshot keeps the ranges it was taken with
+        assertEquals(List.of(new LongRange(0, 9)), snapshot.ranges(0));
+        assertTrue(RangeSetSnapshot.of(set, BlockRangeSet.EMPTY).isCurrent());
+    }
+
+    @Test
+    @DisplayName("A snapshot of a set that can not be tracked is never current")
+    void testUntrackedNeverCurrent() {
+        final BlockRangeSet set = mock(BlockRangeSet.class);
+        when(set.streamRanges()).thenAnswer(invocation -> Stream.of(new LongRange(0, 9)));
+        final RangeSetSnapshot snapshot = RangeSetSnapshot.of(set);
+        assertEquals(List.of(new LongRange(0, 9)), snapshot.ranges(0));
+        assertFalse(snapshot.isCurrent());
+    }
+}
@@ -1,5 +1,8 @@
 // SPDX-License-Identifier: Apache-2.0
-plugins { id("org.hiero.gradle.module.library") }
+plugins {
+    id("org.hiero.gradle.module.library")
+    id("org.hiero.gradle.feature.benchmark")
+}
 
 description = "Hiero Block Node - Blocks File Historic Provider"
 
@@ -22,3 +25,5 @@ testModuleInfo {
     requires("org.hiero.block.node.app.test.fixtures")
     requires("com.swirlds.metrics.api")
 }
+
+jmhModuleInfo { requires("jmh.core") }
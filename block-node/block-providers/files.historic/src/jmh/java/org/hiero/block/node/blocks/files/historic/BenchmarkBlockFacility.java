@@ -0,0 +1,68 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import com.hedera.hapi.block.stream.Block;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.util.Random;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.HistoricalBlockFacility;
+
+/**
+ * Historical block facility for benchmarks that creates a new copy of a block's bytes each time they are requested, so
+ * the heap used holds only the blocks the archive keeps hold of.
+ */
+final class BenchmarkBlockFacility implements HistoricalBlockFacility {
+    /** The protobuf bytes of the block. */
+    private final byte[] protobufBytes;
+    /** The block compressed at the default Zstandard level. */
+    private final byte[] compressedBytes;
+
+    /**
+     * Create the facility.
+     *
+     * @param blockSize the size of each block before compression, in bytes
+     */
+    BenchmarkBlockFacility(final int blockSize) {
+        // half random and half repeated, so blocks compress about as well as real ones
+        protobufBytes = new byte[blockSize];
+        final Random random = new Random(1234);
+        for (int i = 0; i < blockSize / 2; i++) {
+            protobufBytes[i] = (byte) random.nextInt(256);
+        }
+        for (int i = blockSize / 2; i < blockSize; i++) {
+            protobufBytes[i] = (byte) (i % 64);
+        }
+        compressedBytes = CompressionType.ZSTD.compress(protobufBytes);
+    }
+
+    @Override
+    public BlockAccessor block(final long blockNumber) {
+        return new BlockAccessor() {
+            @Override
+            public long blockNumber() {
+                return blockNumber;
+            }
+
+            @Override
+            public Block block() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Bytes blockBytes(final Format format) {
+                return switch (format) {
+                    case PROTOBUF -> Bytes.wrap(protobufBytes.clone());
+                    case ZSTD_PROTOBUF -> Bytes.wrap(compressedBytes.clone());
+                    default -> throw new IllegalArgumentException("Format " + format + " not supported");
+                };
+            }
+        };
+    }
+
+    @Override
+    public BlockRangeSet availableBlocks() {
+        throw new UnsupportedOperationException();
+    }
+}
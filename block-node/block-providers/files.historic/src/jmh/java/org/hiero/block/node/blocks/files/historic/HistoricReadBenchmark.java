@@ -0,0 +1,156 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import com.swirlds.config.api.ConfigurationBuilder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.hiero.block.node.spi.BlockNodeContext;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark comparing historic block reads from zip files and indexed block files. Random reads measure the latency of
+ * finding and reading a single block, sequential reads the throughput of a subscriber streaming through a range of
+ * blocks. Archive files are written to a temporary directory on the default file system once per trial, so after the
+ * first iteration reads come from the page cache rather than the disk.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HistoricReadBenchmark {
+    /** The archive format read. */
+    @Param({"ZIP", "INDEXED"})
+    public FilesHistoricConfig.ArchiveFormat archiveFormat;
+
+    /** The number of blocks in each archive file as a power of ten. */
+    @Param({"3"})
+    public int powersOfTenPerZipFileContents;
+
+    /** The number of archive files written. */
+    @Param({"10"})
+    public int archiveFiles;
+
+    /** The maximum number of archive files of each format kept open, one means most reads open an archive file. */
+    @Param({"1", "64"})
+    public int maxOpenZipFiles;
+
+    /** The size of each block before compression, in bytes. */
+    @Param({"65536"})
+    public int blockSize;
+
+    /** The temporary directory archive files are written to. */
+    private Path tempDir;
+    /** The archive blocks are read from. */
+    private ZipBlockArchive archive;
+    /** The number of blocks stored. */
+    private long blockCount;
+
+    /**
+     * The next block each thread reads sequentially.
+     */
+    @State(Scope.Thread)
+    public static class SequentialCursor {
+        /** The next block number to read. */
+        private long nextBlockNumber = -1;
+    }
+
+    /**
+     * Write the archive files, then open a new archive to read from so no archive file starts open.
+     *
+     * @throws IOException if the archive files could not be written
+     */
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("historic-read-benchmark");
+        final FilesHistoricConfig config = ConfigurationBuilder.create()
+                .withConfigDataType(FilesHistoricConfig.class)
+                .withValue("files.historic.rootPath", tempDir.toString())
+                .withValue(
+                        "files.historic.powersOfTenPerZipFileContents",
+                        String.valueOf(powersOfTenPerZipFileContents))
+                .withValue("files.historic.maxOpenZipFiles", String.valueOf(maxOpenZipFiles))
+                .withValue("files.historic.zipBuildThreads", "0")
+                .withValue("files.historic.zipBuildWindow", "1")
+                .withValue("files.historic.archiveFormat", archiveFormat.name())
+                .withValue("files.historic.zipMoveThreads", "1")
+                .withValue("files.historic.archiveMaxBytesPerSecond", "0")
+                .withValue("files.historic.compactionMaxBytesPerSecond", "0")
+                .build()
+                .getConfigData(FilesHistoricConfig.class);
+        final BlockNodeContext context =
+                new BlockNodeContext(null, null, null, null, new BenchmarkBlockFacility(blockSize), null, null);
+        final int blocksPerArchiveFile = (int) Math.pow(10, powersOfTenPerZipFileContents);
+        try (ZipBlockArchive writer = new ZipBlockArchive(context, config)) {
+            for (int i = 0; i < archiveFiles; i++) {
+                writer.writeNewZipFile((long) i * blocksPerArchiveFile);
+            }
+        }
+        blockCount = (long) archiveFiles * blocksPerArchiveFile;
+        archive = new ZipBlockArchive(context, config);
+    }
+
+    /**
+     * Close the archive and delete the temporary directory.
+     *
+     * @throws IOException if the temporary directory could not be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        archive.close();
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Read a random block, as stored.
+     *
+     * @return the block bytes, so the work is not optimized away
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Threads(4)
+    public Bytes randomRead() {
+        final long blockNumber = ThreadLocalRandom.current().nextLong(blockCount);
+        return archive.blockAccessor(blockNumber).blockBytes(Format.ZSTD_PROTOBUF);
+    }
+
+    /**
+     * Read the next block in order, starting from a random block, as a subscriber streaming history would.
+     *
+     * @param cursor the next block this thread reads
+     * @return the block bytes, so the work is not optimized away
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(4)
+    public Bytes sequentialRead(final SequentialCursor cursor) {
+        if (cursor.nextBlockNumber < 0 || cursor.nextBlockNumber >= blockCount) {
+            cursor.nextBlockNumber = ThreadLocalRandom.current().nextLong(blockCount);
+        }
+        return archive.blockAccessor(cursor.nextBlockNumber++).blockBytes(Format.ZSTD_PROTOBUF);
+    }
+}
@@ -0,0 +1,199 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import com.swirlds.config.api.ConfigurationBuilder;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.hiero.block.node.spi.BlockNodeContext;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.threading.ThreadPoolManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link ZipBlockArchive#writeNewZipFile(long)}, measuring the time to build an archive file of blocks in
+ * each archive format for a range of zip build thread counts. The peak heap used while building is printed after each
+ * iteration, it is read from the heap memory pools so is approximate, but shows whether heap use grows with the number
+ * of blocks per zip. Archive files are written to a temporary directory on the default file system, so results depend
+ * on the disk.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ZipBlockArchiveBenchmark {
+    /** The number of blocks in each zip file as a power of ten. */
+    @Param({"3"})
+    public int powersOfTenPerZipFileContents;
+
+    /** The number of zip build threads, zero to prepare blocks on the writing thread. */
+    @Param({"0", "2", "4"})
+    public int zipBuildThreads;
+
+    /** The maximum number of blocks prepared ahead of the block being written. */
+    @Param({"64"})
+    public int zipBuildWindow;
+
+    /** The Zstandard level, anything other than the default means each block is compressed again. */
+    @Param({"3", "9"})
+    public int compressionLevel;
+
+    /** The archive format written. */
+    @Param({"ZIP", "INDEXED"})
+    public FilesHistoricConfig.ArchiveFormat archiveFormat;
+
+    /** The size of each block before compression, in bytes. */
+    @Param({"65536"})
+    public int blockSize;
+
+    /** The temporary directory zip files are written to. */
+    private Path tempDir;
+    /** The executor the zip build workers run on. */
+    private ExecutorService workers;
+    /** The archive under test. */
+    private ZipBlockArchive archive;
+    /** The path of the archive file written by each invocation. */
+    private Path archiveFilePath;
+    /** The heap memory pools, used to read the peak heap usage. */
+    private List<MemoryPoolMXBean> heapPools;
+    /** The highest peak heap usage seen in the current iteration. */
+    private long peakHeapBytes;
+
+    /**
+     * Create the temporary directory and the archive, reading blocks from a facility that creates each block's bytes
+     * on request, like reading them from disk.
+     *
+     * @throws IOException if the temporary directory could not be created
+     */
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("zip-block-archive-benchmark");
+        final FilesHistoricConfig config = ConfigurationBuilder.create()
+                .withConfigDataType(FilesHistoricConfig.class)
+                .withValue("files.historic.rootPath", tempDir.toString())
+                .withValue(
+                        "files.historic.powersOfTenPerZipFileContents",
+                        String.valueOf(powersOfTenPerZipFileContents))
+                .withValue("files.historic.compressionLevel", String.valueOf(compressionLevel))
+                .withValue("files.historic.zipBuildThreads", String.valueOf(zipBuildThreads))
+                .withValue("files.historic.zipBuildWindow", String.valueOf(zipBuildWindow))
+                .withValue("files.historic.archiveFormat", archiveFormat.name())
+                .withValue("files.historic.zipMoveThreads", "1")
+                .withValue("files.historic.archiveMaxBytesPerSecond", "0")
+                .withValue("files.historic.compactionMaxBytesPerSecond", "0")
+                .build()
+                .getConfigData(FilesHistoricConfig.class);
+        workers = Executors.newFixedThreadPool(
+                Math.max(1, zipBuildThreads), Thread.ofPlatform().daemon().factory());
+        final BlockNodeContext context = new BlockNodeContext(
+                null, null, null, null, new BenchmarkBlockFacility(blockSize), null, new BenchmarkThreadPoolManager());
+        archive = new ZipBlockArchive(context, config);
+        final BlockPath blockPath = BlockPath.computeBlockPath(config, 0);
+        archiveFilePath = switch (archiveFormat) {
+            case ZIP -> blockPath.zipFilePath();
+            case INDEXED -> blockPath.indexedFilePath();};
+        heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    /**
+     * Close the archive, stop the workers and delete the temporary directory.
+     *
+     * @throws IOException if the temporary directory could not be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        archive.close();
+        workers.shutdownNow();
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Delete the archive file written by the last invocation and reset the peak heap usage.
+     *
+     * @throws IOException if the archive file could not be deleted
+     */
+    @Setup(Level.Invocation)
+    public void resetInvocation() throws IOException {
+        Files.deleteIfExists(archiveFilePath);
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    /**
+     * Record the peak heap usage of the last invocation.
+     */
+    @TearDown(Level.Invocation)
+    public void recordPeakHeap() {
+        final long peak = heapPools.stream()
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        peakHeapBytes = Math.max(peakHeapBytes, peak);
+    }
+
+    /**
+     * Print the peak heap usage of the iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void printPeakHeap() {
+        System.out.printf("%nPeak heap building archive files: %,d MB%n", peakHeapBytes / (1024 * 1024));
+        peakHeapBytes = 0;
+    }
+
+    /**
+     * Build one archive file of blocks.
+     *
+     * @return the block accessors written, so the work is not optimized away
+     * @throws IOException if the archive file could not be written
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<BlockAccessor> buildZipFile() throws IOException {
+        return archive.writeNewZipFile(0);
+    }
+
+    /**
+     * Thread pool manager handing out the benchmark workers executor for every zip build worker.
+     */
+    private final class BenchmarkThreadPoolManager implements ThreadPoolManager {
+        @NonNull
+        @Override
+        public ExecutorService createSingleThreadExecutor(@NonNull final String threadName) {
+            return createSingleThreadExecutor(threadName, null);
+        }
+
+        @NonNull
+        @Override
+        public ExecutorService createSingleThreadExecutor(
+                @NonNull final String threadName, final Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+            return workers;
+        }
+    }
+}
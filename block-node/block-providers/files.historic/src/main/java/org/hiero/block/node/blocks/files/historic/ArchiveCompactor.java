@@ -0,0 +1,215 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+import static org.hiero.block.node.spi.BlockNodePlugin.METRICS_CATEGORY;
+
+import com.swirlds.metrics.api.Counter;
+import com.swirlds.metrics.api.Metrics;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.hiero.block.node.spi.threading.ThreadPoolManager;
+
+/**
+ * Compacts archive files in the background, compressing every block in a batch again at
+ * {@link FilesHistoricConfig#compactionLevel()}. Batches are archived at
+ * {@link FilesHistoricConfig#compressionLevel()}, which is best kept low so archiving keeps up with new blocks, then
+ * compacted to a higher level once they are cold. The newest {@link FilesHistoricConfig#compactionDelayBatches()}
+ * batches are left alone.
+ * <p>
+ * Batches are compacted in ascending order, one at a time, with writes throttled to
+ * {@link FilesHistoricConfig#compactionMaxBytesPerSecond()}. The next batch to compact is saved in a progress file in
+ * the root directory after each batch, so compaction carries on where it left off after a restart rather than
+ * compacting every archive file again. Changing the compaction level starts again from the first batch. The bytes
+ * reclaimed are logged after each pass and counted in metrics.
+ */
+final class ArchiveCompactor implements AutoCloseable {
+    /** The name of the file the compaction progress is saved in. */
+    static final String PROGRESS_FILE_NAME = "compaction.progress";
+    /** The time to wait for the batch being compacted to finish when closing. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The configuration for the historic files. */
+    private final FilesHistoricConfig config;
+    /** The archive the batches of blocks are stored in. */
+    private final ZipBlockArchive archive;
+    /** The blocks stored in archive files, only whole batches in this set are compacted. */
+    private final BlockRangeSet availableBlocks;
+    /** The number of blocks per batch. */
+    private final long blocksPerBatch;
+    /** The path of the progress file. */
+    private final Path progressFile;
+    /** Limits the rate compacted archive files are written at. */
+    private final ArchiveWriteThrottle throttle;
+    /** The thread compacting archive files. */
+    private final ExecutorService executor;
+    /** True while a compaction pass is queued or running, so only one is in flight at a time. */
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    /** True once closed, so a running pass stops after the batch it is compacting. */
+    private volatile boolean closed;
+    /** Counter of archive files compacted. */
+    private final Counter compactedArchivesCounter;
+    /** Counter of bytes reclaimed by compacting archive files. */
+    private final Counter reclaimedBytesCounter;
+
+    /**
+     * Create a new archive compactor.
+     *
+     * @param config the configuration for the historic files, with a compaction level set
+     * @param archive the archive the batches of blocks are stored in
+     * @param availableBlocks the blocks stored in archive files
+     * @param threadPoolManager the thread pool manager used to create the compaction thread
+     * @param metrics the metrics to register the compaction metrics with
+     */
+    ArchiveCompactor(
+            @NonNull final FilesHistoricConfig config,
+            @NonNull final ZipBlockArchive archive,
+            @NonNull final BlockRangeSet availableBlocks,
+            @NonNull final ThreadPoolManager threadPoolManager,
+            @NonNull final Metrics metrics) {
+        this.config = Objects.requireNonNull(config);
+        this.archive = Objects.requireNonNull(archive);
+        this.availableBlocks = Objects.requireNonNull(availableBlocks);
+        this.blocksPerBatch = (long) Math.pow(10, config.powersOfTenPerZipFileContents());
+        this.progressFile = config.rootPath().resolve(PROGRESS_FILE_NAME);
+        this.throttle = new ArchiveWriteThrottle(config.compactionMaxBytesPerSecond());
+        this.executor = threadPoolManager.createSingleThreadExecutor("FilesHistoricCompaction");
+        this.compactedArchivesCounter =
+                metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "files_historic_compacted_archives")
+                        .withDescription("Historic archive files compacted"));
+        this.reclaimedBytesCounter =
+                metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "files_historic_compaction_reclaimed_bytes")
+                        .withDescription("Bytes of historic archive files reclaimed by compaction"));
+    }
+
+    /**
+     * Queue a compaction pass, unless one is already queued or running. This can be called on any thread, batches
+     * that become cold while a pass is running are compacted by the next pass.
+     */
+    void requestCompaction() {
+        if (!closed && compacting.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    compact();
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stop compacting once the batch being compacted is done, then stop the compaction thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.log(WARNING, "Timed out waiting for archive compaction to stop");
+                executor.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Compact each cold batch from the saved progress onwards, called on the compaction thread. Batches that are not
+     * all stored, for example because part of an archive file failed validation, are skipped.
+     */
+    private void compact() {
+        if (availableBlocks.size() == 0) {
+            return;
+        }
+        final long lastBatchStart = availableBlocks.max() - Math.floorMod(availableBlocks.max(), blocksPerBatch);
+        final long lastColdBatchStart = lastBatchStart - config.compactionDelayBatches() * blocksPerBatch;
+        long nextBatchStart = loadProgress();
+        if (nextBatchStart > lastColdBatchStart) {
+            return;
+        }
+        int compactedArchives = 0;
+        long reclaimedBytes = 0;
+        final List<LongRange> storedRanges = availableBlocks.streamRanges().toList();
+        for (final LongRange range : storedRanges) {
+            long batchStart = Math.max(nextBatchStart, range.start() - Math.floorMod(range.start(), blocksPerBatch));
+            for (; batchStart <= Math.min(range.end(), lastColdBatchStart) && !closed; batchStart += blocksPerBatch) {
+                if (!availableBlocks.contains(batchStart, batchStart + blocksPerBatch - 1)) {
+                    continue;
+                }
+                try {
+                    final long reclaimed = archive.compactArchive(batchStart, config.compactionLevel(), throttle);
+                    if (reclaimed > 0) {
+                        compactedArchives++;
+                        reclaimedBytes += reclaimed;
+                        compactedArchivesCounter.increment();
+                        reclaimedBytesCounter.add(reclaimed);
+                    }
+                } catch (final InterruptedIOException e) {
+                    LOGGER.log(DEBUG, "Archive compaction interrupted");
+                    return;
+                } catch (final IOException | RuntimeException e) {
+                    LOGGER.log(WARNING, "Failed to compact archive file for block " + batchStart + ", skipping", e);
+                }
+                nextBatchStart = batchStart + blocksPerBatch;
+                saveProgress(nextBatchStart);
+            }
+        }
+        if (compactedArchives > 0) {
+            LOGGER.log(INFO, "Compacted {0} archive files, reclaiming {1} bytes", compactedArchives, reclaimedBytes);
+        }
+    }
+
+    /**
+     * Load the first block number of the next batch to compact from the progress file.
+     *
+     * @return the first block number of the next batch to compact, zero if there is no progress at the configured
+     *     compaction level
+     */
+    private long loadProgress() {
+        try {
+            final String[] fields = Files.readString(progressFile, StandardCharsets.UTF_8).trim().split(" ");
+            if (fields.length == 2 && Integer.parseInt(fields[0]) == config.compactionLevel()) {
+                return Long.parseLong(fields[1]);
+            }
+        } catch (final NoSuchFileException e) {
+            // nothing compacted yet
+        } catch (final IOException | NumberFormatException e) {
+            LOGGER.log(WARNING, "Failed to read archive compaction progress, starting from the first batch", e);
+        }
+        return 0;
+    }
+
+    /**
+     * Save the first block number of the next batch to compact, with the compaction level it applies to.
+     *
+     * @param nextBatchStart the first block number of the next batch to compact
+     */
+    private void saveProgress(final long nextBatchStart) {
+        final Path tempFile = progressFile.resolveSibling(PROGRESS_FILE_NAME + ".tmp");
+        try {
+            Files.writeString(tempFile, config.compactionLevel() + " " + nextBatchStart, StandardCharsets.UTF_8);
+            Files.move(tempFile, progressFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            LOGGER.log(WARNING, "Failed to save archive compaction progress", e);
+        }
+    }
+}
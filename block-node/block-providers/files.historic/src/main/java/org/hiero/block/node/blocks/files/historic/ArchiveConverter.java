@@ -0,0 +1,305 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static org.hiero.block.node.base.BlockFile.BLOCK_FILE_EXTENSION;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+import org.hiero.block.common.utils.FileUtilities;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.blocks.files.historic.FilesHistoricConfig.ArchiveFormat;
+
+/**
+ * Converts archives of historic blocks between the zip file and {@link IndexedBlockFile} formats, and compresses the
+ * blocks in an archive again for compaction. The converted file is written next to the target and moved into place
+ * once complete, the source file is left for the caller to delete.
+ */
+final class ArchiveConverter {
+    /** The suffix of the temporary zip file written before it is moved into place. */
+    static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Private constructor, this is a utility class.
+     */
+    private ArchiveConverter() {}
+
+    /**
+     * Convert a zip file of blocks to an indexed block file. Block files stored with a different compression type than
+     * the target are compressed again.
+     *
+     * @param zipFilePath the zip file to convert
+     * @param indexedFilePath the indexed block file to write, replaced if it exists
+     * @param compressionType the compression type of the indexed block file
+     * @param compressionLevel the Zstandard level used for block files that have to be compressed again
+     * @throws IOException if the zip file could not be read or the indexed block file written
+     */
+    static void zipToIndexed(
+            @NonNull final Path zipFilePath,
+            @NonNull final Path indexedFilePath,
+            @NonNull final CompressionType compressionType,
+            final int compressionLevel)
+            throws IOException {
+        Objects.requireNonNull(compressionType);
+        try (final IndexedZipFile zipFile = IndexedZipFile.open(zipFilePath);
+                final IndexedBlockFileWriter writer = new IndexedBlockFileWriter(indexedFilePath, compressionType)) {
+            for (final long blockNumber : zipFile.blockNumbers()) {
+                final IndexedZipFile.Entry entry = zipFile.entry(blockNumber);
+                final byte[] blockFileBytes = readEntry(zipFile, entry);
+                final CompressionType entryCompression = entryCompressionType(entry);
+                if (entryCompression == compressionType) {
+                    writer.add(blockNumber, Bytes.wrap(blockFileBytes));
+                } else {
+                    final byte[] protobufBytes = entryCompression.decompress(blockFileBytes);
+                    writer.add(blockNumber, Bytes.wrap(compressionType.compress(protobufBytes, compressionLevel)));
+                }
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Convert an indexed block file to a zip file of blocks, with a stored entry for each block file named as
+     * {@link ZipBlockArchive} names them. Block files keep the compression type of the indexed block file.
+     *
+     * @param indexedFilePath the indexed block file to convert
+     * @param zipFilePath the zip file to write, replaced if it exists
+     * @throws IOException if the indexed block file could not be read or the zip file written
+     */
+    static void indexedToZip(@NonNull final Path indexedFilePath, @NonNull final Path zipFilePath)
+            throws IOException {
+        Objects.requireNonNull(zipFilePath);
+        final Path tempPath = zipFilePath.resolveSibling(zipFilePath.getFileName() + TEMP_SUFFIX);
+        try (final IndexedBlockFile blockFile = IndexedBlockFile.open(indexedFilePath)) {
+            try (final ZipOutputStream zipOutputStream = newStoredZipOutputStream(tempPath)) {
+                for (final long blockNumber : blockFile.blockNumbers()) {
+                    putStoredEntry(
+                            zipOutputStream,
+                            BlockFile.blockFileName(blockNumber, blockFile.compressionType()),
+                            blockFile.read(blockNumber),
+                            blockFile.checksum(blockNumber));
+                }
+            }
+            moveIntoPlace(tempPath, zipFilePath);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /**
+     * Write a copy of an archive file, in either format, with every block decompressed and compressed again with
+     * Zstandard at a compression level. Used to compact archive files written at a lower level.
+     *
+     * @param sourcePath the zip file or indexed block file to compress again
+     * @param targetPath the archive file to write, replaced if it exists
+     * @param targetFormat the format of the archive file to write
+     * @param compressionLevel the Zstandard level to compress each block at
+     * @param throttle limits the rate the archive file is written at
+     * @throws IOException if the source could not be read, the target written or interrupted while throttled
+     */
+    static void recompress(
+            @NonNull final Path sourcePath,
+            @NonNull final Path targetPath,
+            @NonNull final ArchiveFormat targetFormat,
+            final int compressionLevel,
+            @NonNull final ArchiveWriteThrottle throttle)
+            throws IOException {
+        Objects.requireNonNull(targetPath);
+        Objects.requireNonNull(throttle);
+        try (final ArchiveFile source = openArchiveFile(sourcePath)) {
+            switch (Objects.requireNonNull(targetFormat)) {
+                case INDEXED -> {
+                    try (final IndexedBlockFileWriter writer =
+                            new IndexedBlockFileWriter(targetPath, CompressionType.ZSTD)) {
+                        recompressBlocks(source, compressionLevel, throttle, (blockNumber, blockFileBytes) ->
+                                writer.add(blockNumber, Bytes.wrap(blockFileBytes)));
+                        writer.finish();
+                    }
+                }
+                case ZIP -> {
+                    final Path tempPath = targetPath.resolveSibling(targetPath.getFileName() + TEMP_SUFFIX);
+                    try {
+                        try (final ZipOutputStream zipOutputStream = newStoredZipOutputStream(tempPath)) {
+                            recompressBlocks(source, compressionLevel, throttle, (blockNumber, blockFileBytes) -> {
+                                final CRC32 crc = new CRC32();
+                                crc.update(blockFileBytes);
+                                putStoredEntry(
+                                        zipOutputStream,
+                                        BlockFile.blockFileName(blockNumber, CompressionType.ZSTD),
+                                        blockFileBytes,
+                                        crc.getValue());
+                            });
+                        }
+                        moveIntoPlace(tempPath, targetPath);
+                    } finally {
+                        Files.deleteIfExists(tempPath);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Move a fully written temporary file over its target. The temporary file is synced before the move and the
+     * directory after it, so a crash leaves either the old target or the complete new one.
+     *
+     * @param tempPath the fully written temporary file
+     * @param targetPath the file to replace
+     * @throws IOException if the file could not be synced or moved
+     */
+    static void moveIntoPlace(final Path tempPath, final Path targetPath) throws IOException {
+        FileUtilities.forceFile(tempPath);
+        Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        FileUtilities.forceDirectory(targetPath.getParent());
+    }
+
+    /**
+     * Takes block files compressed again, in block number order.
+     */
+    @FunctionalInterface
+    private interface BlockFileSink {
+        /**
+         * Add a block file.
+         *
+         * @param blockNumber the block number
+         * @param blockFileBytes the block file bytes, compressed with Zstandard
+         * @throws IOException if the block file could not be written
+         */
+        void add(long blockNumber, byte[] blockFileBytes) throws IOException;
+    }
+
+    /**
+     * Decompress each block in an archive file and compress it again with Zstandard, handing it to a sink.
+     *
+     * @param source the archive file to read
+     * @param compressionLevel the Zstandard level to compress each block at
+     * @param throttle limits the rate block files are handed to the sink
+     * @param sink takes each block file compressed again
+     * @throws IOException if a block could not be read or written, or interrupted while throttled
+     */
+    private static void recompressBlocks(
+            final ArchiveFile source,
+            final int compressionLevel,
+            final ArchiveWriteThrottle throttle,
+            final BlockFileSink sink)
+            throws IOException {
+        for (final long blockNumber : source.blockNumbers()) {
+            final byte[] protobufBytes;
+            if (source instanceof IndexedBlockFile blockFile) {
+                protobufBytes = blockFile.compressionType().decompress(blockFile.read(blockNumber));
+            } else {
+                final IndexedZipFile zipFile = (IndexedZipFile) source;
+                final IndexedZipFile.Entry entry = zipFile.entry(blockNumber);
+                protobufBytes = entryCompressionType(entry).decompress(readEntry(zipFile, entry));
+            }
+            final byte[] blockFileBytes = CompressionType.ZSTD.compress(protobufBytes, compressionLevel);
+            sink.add(blockNumber, blockFileBytes);
+            try {
+                throttle.written(blockFileBytes.length);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling archive file compaction");
+            }
+        }
+    }
+
+    /**
+     * Open an archive file of either format, going by its file extension.
+     *
+     * @param path the path of the zip file or indexed block file
+     * @return the open archive file, which the caller must close
+     * @throws IOException if the archive file could not be opened
+     */
+    private static ArchiveFile openArchiveFile(final Path path) throws IOException {
+        return path.getFileName().toString().endsWith(IndexedBlockFile.EXTENSION)
+                ? IndexedBlockFile.open(path)
+                : IndexedZipFile.open(path);
+    }
+
+    /**
+     * Read the block file bytes of a zip entry, as stored with the block compression type.
+     *
+     * @param zipFile the zip file
+     * @param entry the zip entry of the block file
+     * @return the block file bytes
+     * @throws IOException if the entry could not be read
+     */
+    private static byte[] readEntry(final IndexedZipFile zipFile, final IndexedZipFile.Entry entry)
+            throws IOException {
+        if (entry.method() == IndexedZipFile.METHOD_STORED) {
+            return zipFile.readStored(entry);
+        }
+        try (final InputStream in = zipFile.inputStream(entry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Create a zip output stream for block files, which are already compressed so are stored as is.
+     *
+     * @param zipFilePath the zip file to write, replaced if it exists
+     * @return the zip output stream
+     * @throws IOException if the zip file could not be created
+     */
+    static ZipOutputStream newStoredZipOutputStream(final Path zipFilePath) throws IOException {
+        final ZipOutputStream zipOutputStream = new ZipOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(
+                        zipFilePath,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE),
+                1024 * 1024));
+        zipOutputStream.setMethod(ZipOutputStream.STORED);
+        return zipOutputStream;
+    }
+
+    /**
+     * Write a block file as a stored zip entry.
+     *
+     * @param zipOutputStream the zip output stream
+     * @param name the name of the block file
+     * @param blockFileBytes the block file bytes
+     * @param crc the CRC-32 of the block file bytes
+     * @throws IOException if the entry could not be written
+     */
+    private static void putStoredEntry(
+            final ZipOutputStream zipOutputStream, final String name, final byte[] blockFileBytes, final long crc)
+            throws IOException {
+        final ZipEntry zipEntry = new ZipEntry(name);
+        zipEntry.setSize(blockFileBytes.length);
+        zipEntry.setCompressedSize(blockFileBytes.length);
+        zipEntry.setCrc(crc);
+        zipOutputStream.putNextEntry(zipEntry);
+        zipOutputStream.write(blockFileBytes);
+        zipOutputStream.closeEntry();
+    }
+
+    /**
+     * Get the compression type of a block file in a zip file from the extension of its name.
+     *
+     * @param entry the zip entry of the block file
+     * @return the compression type the block file is stored with
+     * @throws ZipException if the entry is not a block file
+     */
+    private static CompressionType entryCompressionType(final IndexedZipFile.Entry entry) throws ZipException {
+        for (final CompressionType compressionType : CompressionType.values()) {
+            if (entry.name().endsWith(BLOCK_FILE_EXTENSION + compressionType.extension())) {
+                return compressionType;
+            }
+        }
+        throw new ZipException("Zip entry is not a block file: " + entry.name());
+    }
+}
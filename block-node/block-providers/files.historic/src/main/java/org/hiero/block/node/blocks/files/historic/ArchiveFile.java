@@ -0,0 +1,97 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An open archive file of blocks, either a zip file or an indexed block file, with an in-memory index of the blocks it
+ * contains.
+ * <p>
+ * Instances are shared between threads and reference counted. The creator holds the first reference, each
+ * {@link #retain()} adds one and each {@link #close()} releases one. Resources are released once the last reference is
+ * released, so an archive file evicted from an {@link ArchiveFilePool} is never closed under a reader.
+ */
+abstract class ArchiveFile implements AutoCloseable {
+    /** The number of references to this archive file, resources are released when it reaches zero. */
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    /**
+     * Get the path of the archive file.
+     *
+     * @return the path of the archive file
+     */
+    abstract Path path();
+
+    /**
+     * Get the number of blocks in this archive file.
+     *
+     * @return the number of blocks
+     */
+    abstract int size();
+
+    /**
+     * Get the lowest block number in this archive file.
+     *
+     * @return the lowest block number, or -1 if there are no blocks
+     */
+    abstract long minBlockNumber();
+
+    /**
+     * Get the highest block number in this archive file.
+     *
+     * @return the highest block number, or -1 if there are no blocks
+     */
+    abstract long maxBlockNumber();
+
+    /**
+     * Get the block numbers of all blocks in this archive file, in ascending order.
+     *
+     * @return the block numbers
+     */
+    abstract long[] blockNumbers();
+
+    /**
+     * Read every block in this archive file and check it against its checksum. This reads the whole file, so is only
+     * for when the archive file is not trusted, for example checking all archive files at start-up.
+     *
+     * @throws IOException if a block could not be read or does not match its checksum
+     */
+    abstract void validate() throws IOException;
+
+    /**
+     * Release the resources of this archive file, called once when the last reference is released.
+     *
+     * @throws IOException if the resources could not be released
+     */
+    abstract void release() throws IOException;
+
+    /**
+     * Add a reference to this archive file, fails if the last reference has already been released.
+     *
+     * @return true if a reference was added, false if this archive file is closed
+     */
+    final boolean retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Release a reference to this archive file, releasing its resources when the last reference is released.
+     *
+     * @throws IOException if the resources could not be released
+     */
+    @Override
+    public final void close() throws IOException {
+        if (references.decrementAndGet() == 0) {
+            release();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static java.lang.System.Logger.Level.WARNING;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import org.hiero.block.common.utils.Preconditions;
+
+/**
+ * A bounded pool of open {@link ArchiveFile}s, least recently used first out. Historic reads tend to cluster on a
+ * few archive files, for example a subscriber streaming through a range of blocks, so keeping those open means each
+ * read is a single read at an offset from the index rather than opening the archive file and reading its index.
+ * <p>
+ * Archive files are reference counted, the pool holds one reference to each open archive file and each caller of
+ * {@link #acquire(Path)} holds another until it closes the returned archive file. Evicting an archive file from the
+ * pool just releases the pool reference, so it is only closed once the last reader is done with it.
+ *
+ * @param <T> the type of archive file
+ */
+final class ArchiveFilePool<T extends ArchiveFile> implements AutoCloseable {
+    /**
+     * Opens an archive file and reads its index.
+     *
+     * @param <T> the type of archive file
+     */
+    @FunctionalInterface
+    interface Opener<T extends ArchiveFile> {
+        /**
+         * Open an archive file, the caller holds the only reference.
+         *
+         * @param path the path of the archive file
+         * @return the open archive file
+         * @throws IOException if the archive file could not be opened
+         */
+        T open(Path path) throws IOException;
+    }
+
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The maximum number of archive files kept open. */
+    private final int maxOpenFiles;
+    /** Opens archive files that are not already open. */
+    private final Opener<T> opener;
+    /** The open archive files in least recently used order, guarded by synchronizing on the map. */
+    private final LinkedHashMap<Path, T> openFiles;
+
+    /**
+     * Create a new pool.
+     *
+     * @param maxOpenFiles the maximum number of archive files kept open, must be positive
+     * @param opener opens archive files that are not already open
+     */
+    ArchiveFilePool(final int maxOpenFiles, @NonNull final Opener<T> opener) {
+        this.maxOpenFiles = Preconditions.requirePositive(maxOpenFiles);
+        this.opener = Objects.requireNonNull(opener);
+        this.openFiles = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get an open archive file, opening it and reading its index if it is not already open. The caller must close the
+     * returned archive file once done reading from it, this releases its reference rather than closing the file.
+     *
+     * @param path the path of the archive file
+     * @return the open archive file
+     * @throws IOException if the archive file could not be opened, for example because it does not exist
+     */
+    T acquire(@NonNull final Path path) throws IOException {
+        Objects.requireNonNull(path);
+        synchronized (openFiles) {
+            final T open = openFiles.get(path);
+            if (open != null && open.retain()) {
+                return open;
+            }
+        }
+        // open outside the lock, so reading one index does not hold up reads from other archive files
+        final T opened = opener.open(path);
+        final List<T> evicted = new ArrayList<>();
+        final T result;
+        synchronized (openFiles) {
+            final T raced = openFiles.get(path);
+            if (raced != null && raced.retain()) {
+                // another thread opened it first, use theirs and drop ours below
+                evicted.add(opened);
+                result = raced;
+            } else {
+                opened.retain();
+                openFiles.put(path, opened);
+                result = opened;
+                final var iterator = openFiles.entrySet().iterator();
+                while (openFiles.size() > maxOpenFiles && iterator.hasNext()) {
+                    evicted.add(iterator.next().getValue());
+                    iterator.remove();
+                }
+            }
+        }
+        evicted.forEach(this::release);
+        return result;
+    }
+
+    /**
+     * Drop an archive file from the pool, so the next read opens it again. Called when an archive file is written,
+     * replaced or deleted.
+     *
+     * @param path the path of the archive file
+     */
+    void invalidate(@NonNull final Path path) {
+        final T removed;
+        synchronized (openFiles) {
+            removed = openFiles.remove(path);
+        }
+        if (removed != null) {
+            release(removed);
+        }
+    }
+
+    /**
+     * Release the pool reference to all open archive files.
+     */
+    @Override
+    public void close() {
+        final List<T> all;
+        synchronized (openFiles) {
+            all = new ArrayList<>(openFiles.values());
+            openFiles.clear();
+        }
+        all.forEach(this::release);
+    }
+
+    /**
+     * Get the number of archive files open in the pool.
+     *
+     * @return the number of open archive files
+     */
+    int openCount() {
+        synchronized (openFiles) {
+            return openFiles.size();
+        }
+    }
+
+    /**
+     * Release a reference to an archive file, logging rather than throwing if it could not be closed.
+     *
+     * @param archiveFile the archive file
+     */
+    private void release(final T archiveFile) {
+        try {
+            archiveFile.close();
+        } catch (final IOException e) {
+            LOGGER.log(WARNING, "Failed to close archive file: " + archiveFile.path(), e);
+        }
+    }
+}
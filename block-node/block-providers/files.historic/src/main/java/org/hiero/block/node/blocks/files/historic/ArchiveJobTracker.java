@@ -0,0 +1,66 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+
+/**
+ * Tracks the batches of blocks being archived, so the same batch is never archived twice at once and archived batches
+ * are published in block order.
+ * <p>
+ * Batches are archived in parallel, so can finish out of order. A batch that has been archived is held back until
+ * every lower batch still being archived has finished, then it is published along with any higher batches that were
+ * waiting on it. A batch that fails is dropped, so it does not hold back the batches above it.
+ */
+final class ArchiveJobTracker {
+    /** The batches being archived, keyed by first block number, guarded by synchronizing on this tracker. */
+    private final TreeMap<Long, LongRange> inProgress = new TreeMap<>();
+    /** The archived batches waiting on lower batches, keyed by first block number, guarded by this tracker. */
+    private final TreeMap<Long, LongRange> archived = new TreeMap<>();
+
+    /**
+     * Start tracking a batch about to be archived.
+     *
+     * @param batchRange the range of blocks in the batch
+     * @return true if the batch is now tracked, false if it is already being archived
+     */
+    synchronized boolean start(@NonNull final LongRange batchRange) {
+        return inProgress.putIfAbsent(batchRange.start(), Objects.requireNonNull(batchRange)) == null;
+    }
+
+    /**
+     * Finish tracking a batch, publishing it and any archived batches above it that are no longer held back. The
+     * publisher is called while holding the lock of this tracker, so batches finished on different threads are still
+     * published in block order.
+     *
+     * @param batchRange the range of blocks in the batch
+     * @param succeeded true if the batch was archived, false if archiving it failed
+     * @param publisher called with each batch ready to publish, in block order
+     */
+    synchronized void finish(
+            @NonNull final LongRange batchRange,
+            final boolean succeeded,
+            @NonNull final Consumer<LongRange> publisher) {
+        Objects.requireNonNull(publisher);
+        inProgress.remove(batchRange.start(), batchRange);
+        if (succeeded) {
+            archived.put(batchRange.start(), batchRange);
+        }
+        final long lowestInProgress = inProgress.isEmpty() ? Long.MAX_VALUE : inProgress.firstKey();
+        while (!archived.isEmpty() && archived.firstKey() < lowestInProgress) {
+            publisher.accept(archived.pollFirstEntry().getValue());
+        }
+    }
+
+    /**
+     * Get the number of batches being archived.
+     *
+     * @return the number of batches in progress
+     */
+    synchronized int inProgressCount() {
+        return inProgress.size();
+    }
+}
@@ -0,0 +1,55 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import java.util.concurrent.TimeUnit;
+import org.hiero.block.common.utils.Preconditions;
+
+/**
+ * Limits the rate archive files are written at, shared by all the threads writing archive files. Archiving runs in
+ * the background, so left unthrottled a backlog of batches can take all the disk bandwidth from live block writes.
+ * <p>
+ * Each write reserves the time it takes at the maximum rate, after the writes reserved before it, and waits until its
+ * reservation starts. So the combined rate of all writers is limited, whatever the number of writers.
+ */
+final class ArchiveWriteThrottle {
+    /** The number of nanoseconds in a second. */
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** The maximum number of bytes written per second, zero is unlimited. */
+    private final long maxBytesPerSecond;
+    /** The time in nanoseconds the next write may start, guarded by synchronizing on this throttle. */
+    private long nextWriteNanos = System.nanoTime();
+
+    /**
+     * Create a new throttle.
+     *
+     * @param maxBytesPerSecond the maximum number of bytes written per second, zero is unlimited
+     */
+    ArchiveWriteThrottle(final long maxBytesPerSecond) {
+        this.maxBytesPerSecond = Preconditions.requireGreaterOrEqual(maxBytesPerSecond, 0L);
+    }
+
+    /**
+     * Account for bytes written, waiting until writing them keeps within the maximum rate.
+     *
+     * @param bytes the number of bytes written
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void written(final long bytes) throws InterruptedException {
+        if (maxBytesPerSecond == 0 || bytes <= 0) {
+            return;
+        }
+        final long waitNanos;
+        synchronized (this) {
+            final long now = System.nanoTime();
+            // do not bank time while nothing is written, so an idle period is not followed by an unthrottled burst
+            final long start = Math.max(nextWriteNanos, now);
+            nextWriteNanos = start + (long) (bytes * ((double) NANOS_PER_SECOND / maxBytesPerSecond));
+            waitNanos = start - now;
+        }
+        // wait outside the lock, so other writers can reserve their turn meanwhile
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -7,10 +7,9 @@ import static org.hiero.block.node.base.BlockFile.blockNumberFormated;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Objects;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 import org.hiero.block.common.utils.Preconditions;
 import org.hiero.block.node.base.CompressionType;
 
@@ -45,6 +44,18 @@ record BlockPath(
         Objects.requireNonNull(compressionType);
     }
 
+    /**
+     * Get the path of the indexed block file holding the same batch of blocks as the zip file, it is the zip file path
+     * with the {@link IndexedBlockFile#EXTENSION} extension in place of ".zip".
+     *
+     * @return the path to the indexed block file
+     */
+    Path indexedFilePath() {
+        final String zipFileName = zipFilePath.getFileName().toString();
+        return zipFilePath.resolveSibling(
+                zipFileName.substring(0, zipFileName.length() - ".zip".length()) + IndexedBlockFile.EXTENSION);
+    }
+
     /**
      * Compute the path to a block file.
      *
@@ -85,43 +96,100 @@ record BlockPath(
         return new BlockPath(dirPath, dirPath.resolve(zipFileName), blockNumberStr, fileName, config.compression());
     }
 
+    /**
+     * Compute the path to a block file that exists in a zip file. The block may have been stored with a different
+     * compression type than is currently configured, in which case the returned path has the compression type and
+     * file name it was stored with. This opens the zip file and reads its index just for this lookup, prefer
+     * {@link #computeExistingBlockPath(FilesHistoricConfig, long, ArchiveFilePool)} for repeated lookups.
+     *
+     * @param config      The configuration for the block provider, must be non-null
+     * @param blockNumber The block number, must be a whole number
+     * @return The path to the existing block file, or null if the block is not stored
+     * @throws IOException if the zip file could not be read
+     */
     static BlockPath computeExistingBlockPath(@NonNull final FilesHistoricConfig config, final long blockNumber)
             throws IOException {
         // compute the path to the block file based on current configuration
         final BlockPath computed = computeBlockPath(config, blockNumber);
         // check if the zip file exists
-        if (Files.exists(computed.zipFilePath)) {
-            try (final ZipFile zipFile = new ZipFile(computed.zipFilePath.toFile())) {
-                // check if the block file (entry) exists happy path
-                final ZipEntry entry = zipFile.getEntry(computed.blockFileName);
-                if (entry != null) {
-                    return computed;
-                } else {
-                    // if happy path not found, check if persisted with another
-                    // compression extension.
-                    final CompressionType[] compressionOpts =
-                            config.compression().getDeclaringClass().getEnumConstants();
-                    // noinspection ForLoopReplaceableByForEach
-                    for (int i = 0; i < compressionOpts.length; i++) {
-                        final CompressionType currentOpt = compressionOpts[i];
-                        // we are only
-                        if (!currentOpt.equals(config.compression())) {
-                            // check if the block file exists
-                            final String newFileName =
-                                    computed.blockNumStr + BLOCK_FILE_EXTENSION + currentOpt.extension();
-                            final ZipEntry newEntry = zipFile.getEntry(newFileName);
-                            if (newEntry != null) {
-                                // if found, update and return
-                                return new BlockPath(
-                                        computed.dirPath,
-                                        computed.zipFilePath,
-                                        computed.blockNumStr,
-                                        newFileName,
-                                        currentOpt);
-                            }
-                        }
-                    }
-                }
+        if (!Files.exists(computed.zipFilePath)) {
+            return null;
+        }
+        try (final IndexedZipFile zipFile = IndexedZipFile.open(computed.zipFilePath)) {
+            return existingBlockPath(computed, zipFile, blockNumber);
+        }
+    }
+
+    /**
+     * Compute the path to a block file that exists in a zip file, using the index of a pooled open zip file so no zip
+     * central directory needs to be parsed when the zip file is already open.
+     *
+     * @param config      The configuration for the block provider, must be non-null
+     * @param blockNumber The block number, must be a whole number
+     * @param zipFiles    The pool of open zip files, must be non-null
+     * @return The path to the existing block file, or null if the block is not stored
+     * @throws IOException if the zip file could not be read
+     */
+    static BlockPath computeExistingBlockPath(
+            @NonNull final FilesHistoricConfig config,
+            final long blockNumber,
+            @NonNull final ArchiveFilePool<IndexedZipFile> zipFiles)
+            throws IOException {
+        Objects.requireNonNull(zipFiles);
+        // compute the path to the block file based on current configuration
+        final BlockPath computed = computeBlockPath(config, blockNumber);
+        final IndexedZipFile zipFile;
+        try {
+            zipFile = zipFiles.acquire(computed.zipFilePath);
+        } catch (final NoSuchFileException e) {
+            // zip file does not exist
+            return null;
+        }
+        try (zipFile) {
+            return existingBlockPath(computed, zipFile, blockNumber);
+        }
+    }
+
+    /**
+     * Compute the path to a block file that exists in a zip file that is already open, for example when reading a range
+     * of blocks from the same zip file.
+     *
+     * @param config      The configuration for the block provider, must be non-null
+     * @param blockNumber The block number, must be a whole number
+     * @param zipFile     The open zip file the block would be stored in, must be non-null
+     * @return The path to the existing block file, or null if the block is not stored in the zip file
+     */
+    static BlockPath computeExistingBlockPath(
+            @NonNull final FilesHistoricConfig config, final long blockNumber, @NonNull final IndexedZipFile zipFile) {
+        Objects.requireNonNull(zipFile);
+        return existingBlockPath(computeBlockPath(config, blockNumber), zipFile, blockNumber);
+    }
+
+    /**
+     * Look up a block in the index of a zip file. If it is not stored with the configured compression extension, the
+     * entry is checked against the file names for the other compression types.
+     *
+     * @param computed    The block path computed from the current configuration
+     * @param zipFile     The open zip file
+     * @param blockNumber The block number
+     * @return The path to the existing block file, or null if the block is not stored
+     */
+    private static BlockPath existingBlockPath(
+            final BlockPath computed, final IndexedZipFile zipFile, final long blockNumber) {
+        final IndexedZipFile.Entry entry = zipFile.entry(blockNumber);
+        if (entry == null) {
+            return null;
+        }
+        // check if the block file (entry) exists happy path
+        if (entry.name().equals(computed.blockFileName)) {
+            return computed;
+        }
+        // if happy path not found, check if persisted with another compression extension.
+        for (final CompressionType compressionOpt : CompressionType.values()) {
+            if (entry.name().equals(computed.blockNumStr + BLOCK_FILE_EXTENSION + compressionOpt.extension())) {
+                // if found, update and return
+                return new BlockPath(
+                        computed.dirPath, computed.zipFilePath, computed.blockNumStr, entry.name(), compressionOpt);
             }
         }
         // if none found, return null as we could not find the block existing
@@ -5,10 +5,14 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
 import java.lang.System.Logger.Level;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ranges.BlockRangeManifest;
 import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
 import org.hiero.block.node.spi.BlockNodeContext;
 import org.hiero.block.node.spi.ServiceBuilder;
@@ -22,12 +26,34 @@ import org.hiero.block.node.spi.historicalblocks.LongRange;
 /**
  * This plugin provides a block provider that stores historical blocks in file. It is designed to store them in the
  * most compressed optimal way possible. It is designed to be used with the
+ *
+ * <h2>Startup Manifest</h2>
+ * The ranges of blocks stored are kept in a {@link BlockRangeManifest} in the root directory, journaled as each
+ * archive file is written and checkpointed every {@link FilesHistoricConfig#manifestCheckpointInterval()} archive
+ * files and on stop. On start-up the manifest is loaded and checked against the archive files that exist, which takes
+ * time proportional to the number of archive files. Every archive file is only opened if the manifest is missing or
+ * does not match, or {@link FilesHistoricConfig#validateArchivesOnStart()} is set.
+ * <p>
+ * Available blocks only include blocks in archive files that exist, so a missing archive file in the middle is a gap
+ * that reads fail fast for. Gaps are logged at start-up, and backfilled from other block providers when they have the
+ * blocks.
+ *
+ * <h2>Parallel Archiving</h2>
+ * Batches of blocks are archived on {@link FilesHistoricConfig#zipMoveThreads()} threads, so a backlog of batches
+ * drains in parallel. Each batch is added to the available blocks as soon as it is archived, but its
+ * {@link PersistedNotification} is held back until every lower batch being archived has finished, so notifications
+ * are still sent in block order. Archive file writes are throttled to
+ * {@link FilesHistoricConfig#archiveMaxBytesPerSecond()} in total, so archiving does not starve live writes.
+ *
+ * <h2>Compaction</h2>
+ * When {@link FilesHistoricConfig#compactionLevel()} is set, an {@link ArchiveCompactor} compresses cold batches again
+ * at that level in the background, swapping each compacted archive file in while readers keep working.
  */
 public final class BlocksFilesHistoricPlugin implements BlockProviderPlugin, BlockNotificationHandler {
     /** The logger for this class. */
     private final System.Logger LOGGER = System.getLogger(getClass().getName());
-    /** The executor service for moving blocks to zip files in a background thread. */
-    private ExecutorService zipMoveExecutorService;
+    /** The workers moving batches of blocks to zip files in background threads, a batch is handled by one worker. */
+    private ExecutorService[] zipMoveWorkers;
     /** The block node context. */
     private BlockNodeContext context;
     /** The zip block archive. */
@@ -36,8 +62,14 @@ public final class BlocksFilesHistoricPlugin implements BlockProviderPlugin, Blo
     private int numberOfBlocksPerZipFile;
     /** The set of available blocks. */
     private final ConcurrentLongRangeSet availableBlocks = new ConcurrentLongRangeSet();
-    /** List of all zip ranges that are in progress, so we do not start a duplicate job. */
-    private final CopyOnWriteArrayList<LongRange> inProgressZipRanges = new CopyOnWriteArrayList<>();
+    /** The manifest of available block ranges, null if disabled or it could not be kept in step with the files. */
+    private volatile BlockRangeManifest manifest;
+    /** Tracks the zip ranges in progress, so we do not start a duplicate job and publish batches in block order. */
+    private final ArchiveJobTracker zipJobs = new ArchiveJobTracker();
+    /** True while archive files are being converted, zipping is held off until conversion is done. */
+    private volatile boolean converting;
+    /** Compacts cold archive files in the background, null if compaction is disabled. */
+    private ArchiveCompactor compactor;
 
     // ==== BlockProviderPlugin Methods ================================================================================
 
@@ -67,31 +99,76 @@ public final class BlocksFilesHistoricPlugin implements BlockProviderPlugin, Blo
         // register to listen to block notifications
         context.blockMessaging().registerBlockNotificationHandler(this, false, "Blocks Files Historic");
         numberOfBlocksPerZipFile = (int) Math.pow(10, config.powersOfTenPerZipFileContents());
-        // create the executor service for moving blocks to zip files
-        zipMoveExecutorService = context.threadPoolManager().createSingleThreadExecutor("FilesHistoricZipMove");
+        // create the workers for moving blocks to zip files
+        zipMoveWorkers = new ExecutorService[config.zipMoveThreads()];
+        for (int i = 0; i < zipMoveWorkers.length; i++) {
+            zipMoveWorkers[i] = context.threadPoolManager().createSingleThreadExecutor("FilesHistoricZipMove-" + i);
+        }
         zipBlockArchive = new ZipBlockArchive(context, config);
-        // get the first and last block numbers from the zipBlockArchive
-        final long firstZippedBlock = zipBlockArchive.minStoredBlockNumber();
-        final long latestZippedBlock = zipBlockArchive.maxStoredBlockNumber();
-        if (latestZippedBlock > firstZippedBlock) {
-            // we never expect to enter here, if we do, we have an issue that
-            // needs to be investigated
-            throw new IllegalStateException(
-                    "Latest zipped block number [%d] cannot be greater than the first zipped block number [%d]"
-                            .formatted(latestZippedBlock, firstZippedBlock));
+        // find the blocks we have stored, from the manifest if possible as that avoids opening every archive file
+        try {
+            loadAvailableBlocks(config);
+        } catch (final IOException e) {
+            LOGGER.log(Level.ERROR, "Could not read historic blocks directory", e);
+            context.serverHealth().shutdown(name(), "Could not read historic blocks directory");
         }
-        if (firstZippedBlock >= 0) {
-            // add the blocks to the available blocks only if the range is a valid one (positive)
-            availableBlocks.add(firstZippedBlock, latestZippedBlock);
+        final List<LongRange> gaps = gaps();
+        if (!gaps.isEmpty()) {
+            LOGGER.log(Level.WARNING, "Historic blocks missing, to be backfilled when available: {0}", gaps);
+        }
+        if (config.compactionLevel() > 0) {
+            if (config.compression() == CompressionType.ZSTD) {
+                compactor = new ArchiveCompactor(
+                        config, zipBlockArchive, availableBlocks, context.threadPoolManager(), context.metrics());
+            } else {
+                LOGGER.log(Level.WARNING, "Archive compaction only applies to ZSTD compression, it is disabled");
+            }
         }
     }
 
     /**
-     * On plugin start, check if there are any batches of blocks that need to be moved to zip files.
+     * On plugin start, convert any archive files not in the configured archive format in the background, then check if
+     * there are any batches of blocks that need to be moved to zip files and compact cold batches. No batches are
+     * started or compacted until conversion is done, so they never work on the same files at once.
      */
     @Override
     public void start() {
+        if (zipBlockArchive.hasArchivesToConvert()) {
+            converting = true;
+            zipMoveWorkers[0].submit(() -> {
+                try {
+                    zipBlockArchive.convertArchives();
+                } finally {
+                    converting = false;
+                }
+                attemptZipping();
+                requestCompaction();
+            });
+            return;
+        }
         attemptZipping();
+        requestCompaction();
+    }
+
+    /**
+     * On plugin stop, stop compaction and close the zip files kept open for reading blocks.
+     */
+    @Override
+    public void stop() {
+        if (compactor != null) {
+            compactor.close();
+        }
+        final BlockRangeManifest currentManifest = manifest;
+        if (currentManifest != null) {
+            try (currentManifest) {
+                currentManifest.checkpoint();
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to checkpoint block range manifest, it will be replayed on start", e);
+            }
+        }
+        if (zipBlockArchive != null) {
+            zipBlockArchive.close();
+        }
     }
 
     /**
@@ -107,13 +184,31 @@ public final class BlocksFilesHistoricPlugin implements BlockProviderPlugin, Blo
      */
     @Override
     public BlockAccessor block(long blockNumber) {
-        // check if the block number is in the range of blocks
-        if (blockNumber < availableBlocks.min() || blockNumber > availableBlocks.max()) {
+        // check if the block number is stored, so blocks in gaps fail fast without looking for an archive file
+        if (!availableBlocks.contains(blockNumber)) {
             return null;
         }
         return zipBlockArchive.blockAccessor(blockNumber);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each archive file is opened once for all the blocks in the range it holds.
+     */
+    @Override
+    public Stream<BlockAccessor> blocks(final long firstBlockNumber, final long lastBlockNumber) {
+        // only read up to the end of the stored range holding the first block, the range ends at a gap anyway
+        final Optional<LongRange> storedRange = availableBlocks
+                .streamRanges()
+                .filter(range -> range.contains(firstBlockNumber))
+                .findFirst();
+        if (storedRange.isEmpty()) {
+            return Stream.empty();
+        }
+        return zipBlockArchive.blocks(firstBlockNumber, Math.min(lastBlockNumber, storedRange.get().end()));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -121,6 +216,25 @@ public final class BlocksFilesHistoricPlugin implements BlockProviderPlugin, Blo
         return availableBlocks;
     }
 
+    /**
+     * Get the ranges of blocks missing between the lowest and highest stored blocks, for example because an archive
+     * file was deleted or failed validation. Gaps are backfilled when the blocks are available from other block
+     * providers.
+     *
+     * @return the missing block ranges, in ascending order
+     */
+    List<LongRange> gaps() {
+        final List<LongRange> gaps = new ArrayList<>();
+        LongRange previous = null;
+        for (final LongRange range : availableBlocks.streamRanges().toList()) {
+            if (previous != null) {
+                gaps.add(new LongRange(previous.end() + 1, range.start() - 1));
+            }
+            previous = range;
+        }
+        return gaps;
+    }
+
     // ==== BlockNotificationHandler Methods ===========================================================================
 
     /**
@@ -142,13 +256,112 @@ public final class BlocksFilesHistoricPlugin implements BlockProviderPlugin, Blo
     }
 
     // ==== Private Methods ============================================================================================
+
+    /**
+     * Load the set of available blocks at start-up. If the manifest is enabled and valid it is used, otherwise every
+     * archive file is opened to find the blocks it holds and a new manifest checkpoint written.
+     *
+     * @param config the plugin configuration
+     * @throws IOException if the archive directories could not be read
+     */
+    private void loadAvailableBlocks(final FilesHistoricConfig config) throws IOException {
+        if (config.manifestCheckpointInterval() > 0) {
+            manifest = new BlockRangeManifest(config.rootPath(), availableBlocks, config.manifestCheckpointInterval());
+            // validating means reading every archive file anyway, so there is no point loading the manifest
+            if (!config.validateArchivesOnStart()) {
+                final List<LongRange> manifestRanges = manifest.load();
+                if (manifestRanges != null && manifestMatchesFiles(manifestRanges)) {
+                    availableBlocks.addAll(manifestRanges.toArray(LongRange[]::new));
+                    LOGGER.log(Level.DEBUG, "Loaded {0} block ranges from manifest", manifestRanges.size());
+                    return;
+                }
+                LOGGER.log(Level.INFO, "Block range manifest missing or out of date, scanning archive files");
+            }
+        }
+        final List<LongRange> scannedRanges = zipBlockArchive.scanStoredBlockRanges(config.validateArchivesOnStart());
+        availableBlocks.addAll(scannedRanges.toArray(LongRange[]::new));
+        if (manifest != null) {
+            try {
+                manifest.checkpoint();
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to write block range manifest, disabling it", e);
+                manifest = null;
+            }
+        }
+    }
+
+    /**
+     * Sanity check ranges loaded from the manifest against the archive files, checking there is an archive file for
+     * each batch in each range and none for the batch after the one holding the last block. This catches archive files
+     * deleted, or journal records lost in a crash, without opening any archive files.
+     *
+     * @param manifestRanges the ranges loaded from the manifest
+     * @return true if the ranges match the archive files
+     */
+    private boolean manifestMatchesFiles(final List<LongRange> manifestRanges) {
+        for (final LongRange range : manifestRanges) {
+            if (!zipBlockArchive.archiveFilesExist(range)) {
+                return false;
+            }
+        }
+        if (manifestRanges.isEmpty()) {
+            return !zipBlockArchive.archiveFileExists(0);
+        }
+        final long lastBlockNumber = manifestRanges.getLast().end();
+        final long nextBatchStart =
+                lastBlockNumber - Math.floorMod(lastBlockNumber, numberOfBlocksPerZipFile) + numberOfBlocksPerZipFile;
+        return !zipBlockArchive.archiveFileExists(nextBatchStart);
+    }
+
+    /**
+     * Record blocks added to an archive file in the manifest. If the manifest can not be written it is deleted and
+     * disabled, so the next start-up falls back to scanning rather than trusting an out of date manifest.
+     *
+     * @param start the first block number of the range, inclusive
+     * @param end the last block number of the range, inclusive
+     */
+    private void recordInManifest(final long start, final long end) {
+        final BlockRangeManifest currentManifest = manifest;
+        if (currentManifest == null) {
+            return;
+        }
+        try {
+            currentManifest.recordAdded(start, end);
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write block range manifest, disabling it", e);
+            manifest = null;
+            try {
+                currentManifest.invalidate();
+            } catch (final IOException invalidateException) {
+                LOGGER.log(Level.WARNING, "Failed to delete block range manifest", invalidateException);
+            }
+        }
+    }
+
+    /**
+     * Start moving batches of blocks to zip files, for any gaps in the stored blocks and any new batches, where all the
+     * blocks of the batch are available from the historical block facility.
+     */
     private void attemptZipping() {
+        if (converting) {
+            // zipping is attempted again once conversion is done
+            return;
+        }
+        final BlockRangeSet historicalAvailable =
+                context.historicalBlockProvider().availableBlocks();
+        // backfill batches in gaps, for example from an archive file that was deleted or failed validation
+        for (final LongRange gap : gaps()) {
+            long batchStart = gap.start() - Math.floorMod(gap.start(), numberOfBlocksPerZipFile);
+            for (; batchStart <= gap.end(); batchStart += numberOfBlocksPerZipFile) {
+                final long batchEnd = batchStart + numberOfBlocksPerZipFile - 1;
+                if (historicalAvailable.contains(batchStart, batchEnd)) {
+                    startMovingBatchOfBlocksToZipFile(new LongRange(batchStart, batchEnd));
+                }
+            }
+        }
         // compute the min and max block in next batch to zip
         long minBlockNumber = availableBlocks().max() + 1;
         long maxBlockNumber = minBlockNumber + numberOfBlocksPerZipFile - 1;
-        // check all those blocks are available
-        final BlockRangeSet historicalAvailable =
-                context.historicalBlockProvider().availableBlocks();
         // while we can zip blocks, we must keep zipping
         while (historicalAvailable.max() >= maxBlockNumber) {
             if (historicalAvailable.contains(minBlockNumber, maxBlockNumber)) {
@@ -164,13 +377,13 @@ public final class BlocksFilesHistoricPlugin implements BlockProviderPlugin, Blo
 
     /**
      * Start moving a batch of blocks to a zip file in background as long as batch is not already in progress or queued
-     * to be started.
+     * to be started. Batches are handed round robin to the zip move workers by batch number.
      *
      * @param batchRange The range of blocks to move to zip file.
      */
     private void startMovingBatchOfBlocksToZipFile(final LongRange batchRange) {
-        // check if the batch of blocks is already in progress
-        if (inProgressZipRanges.contains(batchRange)) {
+        // check if the batch of blocks is already in progress, if not it is now
+        if (!zipJobs.start(batchRange)) {
             LOGGER.log(
                     System.Logger.Level.DEBUG,
                     "Batch of blocks[{%1} -> {%2}] is already in progress",
@@ -178,14 +391,16 @@ public final class BlocksFilesHistoricPlugin implements BlockProviderPlugin, Blo
                     batchRange.end());
             return;
         }
-        // add the batch of blocks to the in progress ranges
-        inProgressZipRanges.add(batchRange);
         // move the batch of blocks to a zip file
-        zipMoveExecutorService.submit(() -> moveBatchOfBlocksToZipFile(batchRange));
+        final long batchNumber = batchRange.start() / numberOfBlocksPerZipFile;
+        zipMoveWorkers[(int) Math.floorMod(batchNumber, zipMoveWorkers.length)].submit(
+                () -> moveBatchOfBlocksToZipFile(batchRange));
     }
 
     /**
-     * Move a batch of blocks to a zip file. This should be called on background thread through executor service.
+     * Move a batch of blocks to a zip file. This should be called on a zip move worker thread. Once done the batch is
+     * finished with the zip job tracker, whether it succeeded or not, so it does not hold back publishing the batches
+     * above it.
      *
      * @param batchRange The range of blocks to move to zip file.
      */
@@ -200,29 +415,49 @@ public final class BlocksFilesHistoricPlugin implements BlockProviderPlugin, Blo
                     batchFirstBlockNumber,
                     batchLastBlockNumber);
             zipBlockArchive.writeNewZipFile(batchFirstBlockNumber);
-        } catch (final IOException e) {
+        } catch (final IOException | RuntimeException e) {
             LOGGER.log(
                     System.Logger.Level.ERROR,
                     "Failed to move batch of blocks[" + batchFirstBlockNumber + " -> " + batchLastBlockNumber
                             + "] to zip file",
                     e);
+            zipJobs.finish(batchRange, false, this::publishBatch);
             return;
         }
         // if we have reached here, then the batch of blocks has been zipped,
         // now we need to make some updates
         // update the first and last block numbers
         availableBlocks.add(batchFirstBlockNumber, batchLastBlockNumber);
+        recordInManifest(batchFirstBlockNumber, batchLastBlockNumber);
         // log done
         LOGGER.log(
                 System.Logger.Level.INFO,
                 "Moved batch of blocks[%d -> %d] to zip file",
                 batchFirstBlockNumber,
                 batchLastBlockNumber);
-        // now all the blocks are in the zip file and accessible, send notification
+        // now all the blocks are in the zip file and accessible, send notification once lower batches are done
+        zipJobs.finish(batchRange, true, this::publishBatch);
+    }
+
+    /**
+     * Send the persisted notification for a batch of blocks moved to a zip file. Called by the zip job tracker in
+     * block order.
+     *
+     * @param batchRange The range of blocks moved to zip file.
+     */
+    private void publishBatch(final LongRange batchRange) {
         context.blockMessaging()
-                .sendBlockPersisted(
-                        new PersistedNotification(batchFirstBlockNumber, batchLastBlockNumber, defaultPriority()));
-        // remove the batch of blocks from in progress ranges
-        inProgressZipRanges.remove(batchRange);
+                .sendBlockPersisted(new PersistedNotification(batchRange.start(), batchRange.end(), defaultPriority()));
+        // a new batch may leave an older batch cold enough to compact
+        requestCompaction();
+    }
+
+    /**
+     * Queue a compaction pass in the background, if compaction is enabled.
+     */
+    private void requestCompaction() {
+        if (compactor != null) {
+            compactor.requestCompaction();
+        }
     }
 }
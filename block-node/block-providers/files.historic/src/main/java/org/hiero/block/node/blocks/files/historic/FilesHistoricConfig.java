@@ -21,12 +21,67 @@ import org.hiero.block.node.base.Loggable;
  *                                 1 = 10, 2 = 100, 3 = 1000, 4 = 10,000, 5 = 100,000, or 6 = 1,000,000 files per
  *                                 zip. Changing this is handy for testing, as having to wait for 10,000 blocks to be
  *                                 created is a long time.
+ * @param compressionLevel the Zstandard compression level used when compression is ZSTD, from 1 to 22. Historic blocks
+ *                    are written once and kept a long time, so a higher level than recent blocks is often worthwhile.
+ * @param maxOpenZipFiles the maximum number of archive files of each format kept open, with their index loaded, for
+ *                    reading blocks. Reads from an open archive file go straight to the block without parsing the
+ *                    index again.
+ * @param zipBuildThreads the number of threads reading, compressing and checksumming blocks while a zip file is built,
+ *                    zero to do it all on the thread writing the zip file.
+ * @param zipBuildWindow the maximum number of blocks read ahead of the block being written while a zip file is built.
+ *                    This bounds the heap used building a zip file, whatever the number of blocks per zip file.
+ * @param archiveFormat the format new batches of blocks are archived in. Existing archives in either format are still
+ *                    read, and are converted to this format in the background when the plugin starts.
+ * @param manifestCheckpointInterval the number of archive files written journaled after which the manifest of stored
+ *                    block ranges is checkpointed. The manifest lets startup find the stored blocks, including any gaps
+ *                    left by missing archive files, without opening every archive file. Zero disables the manifest so
+ *                    every archive file is opened at startup.
+ * @param validateArchivesOnStart if true, every block in every archive file is checked against its checksum at
+ *                    startup, and archive files that fail are left out of the available blocks. This reads all the
+ *                    historic blocks, so can make startup take a long time.
+ * @param zipMoveThreads the number of batches of blocks archived in parallel, so a backlog of batches, for example
+ *                    after an outage or a bulk import, is not archived one batch at a time. Batches are still
+ *                    published in block order.
+ * @param archiveMaxBytesPerSecond the maximum rate archive files are written at, across all batches being archived,
+ *                    so background archiving does not compete with live writes for disk I/O. Zero is unlimited.
+ * @param compactionLevel the Zstandard level archive files are compacted to in the background, zero to disable
+ *                    compaction. Only used when compression is ZSTD, and only worthwhile when higher than
+ *                    compressionLevel, so batches are archived quickly at a low level and shrunk once they are cold.
+ * @param compactionDelayBatches the number of newest batches of blocks left alone by compaction, as they are read the
+ *                    most.
+ * @param compactionMaxBytesPerSecond the maximum rate compacted archive files are written at, so compaction does not
+ *                    compete with live writes or archiving for disk I/O. Zero is unlimited.
  */
 @ConfigData("files.historic")
 public record FilesHistoricConfig(
         @Loggable @ConfigProperty(defaultValue = "/opt/hashgraph/blocknode/data/historic") Path rootPath,
         @Loggable @ConfigProperty(defaultValue = "ZSTD") CompressionType compression,
-        @Loggable @ConfigProperty(defaultValue = "4") @Min(1) @Max(6) int powersOfTenPerZipFileContents) {
+        @Loggable @ConfigProperty(defaultValue = "4") @Min(1) @Max(6) int powersOfTenPerZipFileContents,
+        @Loggable @ConfigProperty(defaultValue = "3") int compressionLevel,
+        @Loggable @ConfigProperty(defaultValue = "64") int maxOpenZipFiles,
+        @Loggable @ConfigProperty(defaultValue = "4") @Min(0) int zipBuildThreads,
+        @Loggable @ConfigProperty(defaultValue = "64") @Min(1) int zipBuildWindow,
+        @Loggable @ConfigProperty(defaultValue = "ZIP") ArchiveFormat archiveFormat,
+        @Loggable @ConfigProperty(defaultValue = "100") @Min(0) int manifestCheckpointInterval,
+        @Loggable @ConfigProperty(defaultValue = "false") boolean validateArchivesOnStart,
+        @Loggable @ConfigProperty(defaultValue = "2") @Min(1) int zipMoveThreads,
+        @Loggable @ConfigProperty(defaultValue = "104857600") @Min(0) long archiveMaxBytesPerSecond,
+        @Loggable @ConfigProperty(defaultValue = "0") @Min(0) @Max(22) int compactionLevel,
+        @Loggable @ConfigProperty(defaultValue = "10") @Min(0) int compactionDelayBatches,
+        @Loggable @ConfigProperty(defaultValue = "10485760") @Min(0) long compactionMaxBytesPerSecond) {
+    /**
+     * The formats batches of historic blocks can be archived in.
+     */
+    public enum ArchiveFormat {
+        /** A zip file with a stored entry for each block file, readable with any zip tool. */
+        ZIP,
+        /**
+         * A ".blocks" file of the block files concatenated, followed by a fixed width index, so each block is read
+         * with a single slice of the memory mapped file.
+         */
+        INDEXED
+    }
+
     /**
      * Constructor.
      */
@@ -34,5 +89,24 @@ public record FilesHistoricConfig(
         Objects.requireNonNull(rootPath);
         Objects.requireNonNull(compression);
         Preconditions.requireInRange(powersOfTenPerZipFileContents, 1, 6);
+        Preconditions.requireInRange(
+                compressionLevel,
+                CompressionType.MIN_ZSTD_COMPRESSION_LEVEL,
+                CompressionType.MAX_ZSTD_COMPRESSION_LEVEL);
+        Preconditions.requirePositive(maxOpenZipFiles);
+        Preconditions.requireGreaterOrEqual(zipBuildThreads, 0);
+        Preconditions.requirePositive(zipBuildWindow);
+        Objects.requireNonNull(archiveFormat);
+        Preconditions.requireGreaterOrEqual(manifestCheckpointInterval, 0);
+        Preconditions.requirePositive(zipMoveThreads);
+        Preconditions.requireGreaterOrEqual(archiveMaxBytesPerSecond, 0L);
+        if (compactionLevel != 0) {
+            Preconditions.requireInRange(
+                    compactionLevel,
+                    CompressionType.MIN_ZSTD_COMPRESSION_LEVEL,
+                    CompressionType.MAX_ZSTD_COMPRESSION_LEVEL);
+        }
+        Preconditions.requireGreaterOrEqual(compactionDelayBatches, 0);
+        Preconditions.requireGreaterOrEqual(compactionMaxBytesPerSecond, 0L);
     }
 }
@@ -0,0 +1,147 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static java.lang.System.Logger.Level.ERROR;
+
+import com.hedera.hapi.block.stream.Block;
+import com.hedera.pbj.runtime.ParseException;
+import com.hedera.pbj.runtime.UncheckedParseException;
+import com.hedera.pbj.runtime.io.WritableSequentialData;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+
+/**
+ * The IndexedBlockAccessor class provides access to a block stored in an {@link IndexedBlockFile}. The file is read
+ * through an {@link ArchiveFilePool}, so reading a block from an already open file is a single slice of its mapping.
+ */
+final class IndexedBlockAccessor implements BlockAccessor {
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The block number. */
+    private final long blockNumber;
+    /** The path of the indexed block file holding the block. */
+    private final Path filePath;
+    /** The compression type the block is stored with. */
+    private final CompressionType compressionType;
+    /** The pool of open indexed block files to read the block from. */
+    private final ArchiveFilePool<IndexedBlockFile> blockFiles;
+
+    /**
+     * Constructs an IndexedBlockAccessor for a block in an indexed block file.
+     *
+     * @param blockNumber the block number
+     * @param filePath the path of the indexed block file holding the block
+     * @param compressionType the compression type the block is stored with
+     * @param blockFiles the pool of open indexed block files to read the block from
+     */
+    IndexedBlockAccessor(
+            final long blockNumber,
+            @NonNull final Path filePath,
+            @NonNull final CompressionType compressionType,
+            @NonNull final ArchiveFilePool<IndexedBlockFile> blockFiles) {
+        this.blockNumber = blockNumber;
+        this.filePath = Objects.requireNonNull(filePath);
+        this.compressionType = Objects.requireNonNull(compressionType);
+        this.blockFiles = Objects.requireNonNull(blockFiles);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long blockNumber() {
+        return blockNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Block block() {
+        try {
+            return Block.PROTOBUF.parse(blockBytes(Format.PROTOBUF));
+        } catch (final ParseException e) {
+            LOGGER.log(ERROR, "Failed to parse block", e);
+            throw new UncheckedParseException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BlockUnparsed blockUnparsed() {
+        try {
+            return BlockUnparsed.PROTOBUF.parse(blockBytes(Format.PROTOBUF));
+        } catch (final ParseException e) {
+            LOGGER.log(ERROR, "Failed to parse block", e);
+            throw new UncheckedParseException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Bytes blockBytes(@NonNull final Format format) throws IllegalArgumentException {
+        Objects.requireNonNull(format);
+        return switch (format) {
+            case JSON -> Block.JSON.toBytes(block());
+            case PROTOBUF -> Bytes.wrap(compressionType.decompress(readBlockFile()));
+            case ZSTD_PROTOBUF -> {
+                final byte[] blockFileBytes = readBlockFile();
+                if (compressionType == CompressionType.ZSTD) {
+                    yield Bytes.wrap(blockFileBytes);
+                } else {
+                    yield Bytes.wrap(CompressionType.ZSTD.compress(compressionType.decompress(blockFileBytes)));
+                }
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeBytesTo(@NonNull final Format format, @NonNull final WritableSequentialData output)
+            throws IllegalArgumentException {
+        output.writeBytes(blockBytes(format));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writeBytesTo(@NonNull final Format format, @NonNull final OutputStream output)
+            throws IllegalArgumentException {
+        Objects.requireNonNull(output);
+        blockBytes(format).writeTo(output);
+    }
+
+    /**
+     * Read the contents of the block file from its indexed block file, as stored with the block compression type.
+     *
+     * @return the block file bytes
+     * @throws UncheckedIOException if the block could not be read
+     */
+    private byte[] readBlockFile() {
+        try (final IndexedBlockFile blockFile = blockFiles.acquire(filePath)) {
+            final byte[] blockFileBytes = blockFile.read(blockNumber);
+            if (blockFileBytes == null) {
+                throw new IOException("Block " + blockNumber + " not found in " + filePath);
+            }
+            return blockFileBytes;
+        } catch (final IOException e) {
+            LOGGER.log(ERROR, "Failed to read block from indexed block file", e);
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import org.hiero.block.node.base.CompressionType;
+
+/**
+ * An open indexed block file, the alternative to zip files for storing a batch of historic blocks. An indexed block
+ * file is a single data file of block payloads, each block file as it would be stored in a zip file, followed by a
+ * fixed width index and a trailer. All values are little endian.
+ * <pre>
+ *   payload of first block ... payload of last block
+ *   index record for each block, in ascending block number order, {@value #INDEX_RECORD_SIZE} bytes each:
+ *       long block number, long payload offset, int payload length, int payload CRC-32
+ *   trailer, {@value #TRAILER_SIZE} bytes:
+ *       long index offset, int block count, int compression id, int format version, int index CRC-32, long magic
+ * </pre>
+ * Unlike a zip file there is no local header per entry, so the index gives the exact offset of each payload and a read
+ * is a single slice of the mapped file. The file is mapped in regions of whole payloads of up to
+ * {@value #MAX_REGION_SIZE} bytes, so files larger than a single mapping can address are also read with a single
+ * slice. File systems that do not support mapping are read with positional reads on a file channel that is kept open
+ * until the last reference is released.
+ */
+final class IndexedBlockFile extends ArchiveFile {
+    /** The file extension of indexed block files. */
+    static final String EXTENSION = ".blocks";
+    /** The magic number at the very end of an indexed block file, "HBLKIDX1" in ASCII. */
+    static final long MAGIC = 0x315844494b4c4248L;
+    /** The current format version. */
+    static final int FORMAT_VERSION = 1;
+    /** The size of each index record. */
+    static final int INDEX_RECORD_SIZE = 24;
+    /** The size of the trailer. */
+    static final int TRAILER_SIZE = 32;
+    /** The maximum size of each mapped region of the file. */
+    private static final long MAX_REGION_SIZE = 1L << 30;
+
+    /** The path of the file. */
+    private final Path path;
+    /** The compression type of the block payloads. */
+    private final CompressionType compressionType;
+    /** The block numbers, in ascending order. */
+    private final long[] blockNumbers;
+    /** The payload offset of each block, by index. */
+    private final long[] offsets;
+    /** The payload length of each block, by index. */
+    private final int[] lengths;
+    /** The payload CRC-32 of each block, by index. */
+    private final int[] checksums;
+    /** The mapped region each payload is in, by index, null if the file is read with the file channel. */
+    private final int[] regionOfBlock;
+    /** The mapped regions of the file, null if the file is read with the file channel. */
+    private final MappedByteBuffer[] regions;
+    /** The file offset each mapped region starts at. */
+    private final long[] regionOffsets;
+    /** The open file channel, null if the file is mapped. */
+    private final FileChannel channel;
+
+    /**
+     * Create a new indexed block file, use {@link #open(Path)}.
+     */
+    private IndexedBlockFile(
+            final Path path,
+            final CompressionType compressionType,
+            final long[] blockNumbers,
+            final long[] offsets,
+            final int[] lengths,
+            final int[] checksums,
+            final int[] regionOfBlock,
+            final MappedByteBuffer[] regions,
+            final long[] regionOffsets,
+            final FileChannel channel) {
+        this.path = path;
+        this.compressionType = compressionType;
+        this.blockNumbers = blockNumbers;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.checksums = checksums;
+        this.regionOfBlock = regionOfBlock;
+        this.regions = regions;
+        this.regionOffsets = regionOffsets;
+        this.channel = channel;
+    }
+
+    /**
+     * Open an indexed block file and read its index. The caller holds the only reference and must {@link #close()} it.
+     *
+     * @param filePath the path of the indexed block file
+     * @return the indexed block file
+     * @throws IOException if the file could not be read or is not a valid indexed block file
+     */
+    static IndexedBlockFile open(@NonNull final Path filePath) throws IOException {
+        Objects.requireNonNull(filePath);
+        final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        try {
+            final long fileSize = channel.size();
+            if (fileSize < TRAILER_SIZE) {
+                throw new IOException("Indexed block file too short: " + filePath);
+            }
+            final ByteBuffer trailer = read(channel, fileSize - TRAILER_SIZE, TRAILER_SIZE);
+            if (trailer.getLong(24) != MAGIC) {
+                throw new IOException("Not an indexed block file: " + filePath);
+            }
+            final int version = trailer.getInt(16);
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported indexed block file version " + version + ": " + filePath);
+            }
+            final long indexOffset = trailer.getLong(0);
+            final int count = trailer.getInt(8);
+            final CompressionType compressionType = compressionType(trailer.getInt(12));
+            final long indexSize = (long) count * INDEX_RECORD_SIZE;
+            if (count < 0
+                    || indexOffset < 0
+                    || indexSize > Integer.MAX_VALUE
+                    || indexOffset + indexSize + TRAILER_SIZE != fileSize) {
+                throw new IOException("Invalid index of " + count + " blocks at " + indexOffset + ": " + filePath);
+            }
+            final ByteBuffer index = read(channel, indexOffset, (int) indexSize);
+            final CRC32 indexCrc = new CRC32();
+            indexCrc.update(index.duplicate());
+            if ((int) indexCrc.getValue() != trailer.getInt(20)) {
+                throw new IOException("Index checksum mismatch: " + filePath);
+            }
+            final long[] blockNumbers = new long[count];
+            final long[] offsets = new long[count];
+            final int[] lengths = new int[count];
+            final int[] checksums = new int[count];
+            for (int i = 0; i < count; i++) {
+                final int recordOffset = i * INDEX_RECORD_SIZE;
+                blockNumbers[i] = index.getLong(recordOffset);
+                offsets[i] = index.getLong(recordOffset + 8);
+                lengths[i] = index.getInt(recordOffset + 16);
+                checksums[i] = index.getInt(recordOffset + 20);
+                if ((i > 0 && blockNumbers[i] <= blockNumbers[i - 1])
+                        || offsets[i] < 0
+                        || lengths[i] < 0
+                        || offsets[i] + lengths[i] > indexOffset) {
+                    throw new IOException("Invalid index record " + i + ": " + filePath);
+                }
+            }
+            // map regions of whole payloads, so each payload is a slice of a single region
+            final int[] regionOfBlock = new int[count];
+            final List<MappedByteBuffer> regions = new ArrayList<>();
+            final List<Long> regionOffsets = new ArrayList<>();
+            try {
+                int first = 0;
+                while (first < count) {
+                    final long regionStart = offsets[first];
+                    int last = first;
+                    while (last + 1 < count
+                            && offsets[last + 1] + lengths[last + 1] - regionStart <= MAX_REGION_SIZE) {
+                        last++;
+                    }
+                    final long regionEnd = offsets[last] + lengths[last];
+                    regions.add(channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionEnd - regionStart));
+                    regionOffsets.add(regionStart);
+                    Arrays.fill(regionOfBlock, first, last + 1, regions.size() - 1);
+                    first = last + 1;
+                }
+            } catch (final UnsupportedOperationException e) {
+                // file system does not support mapping, fall back to positional reads
+                return new IndexedBlockFile(
+                        filePath,
+                        compressionType,
+                        blockNumbers,
+                        offsets,
+                        lengths,
+                        checksums,
+                        null,
+                        null,
+                        null,
+                        channel);
+            }
+            // the mappings stay valid after the channel is closed
+            channel.close();
+            return new IndexedBlockFile(
+                    filePath,
+                    compressionType,
+                    blockNumbers,
+                    offsets,
+                    lengths,
+                    checksums,
+                    regionOfBlock,
+                    regions.toArray(MappedByteBuffer[]::new),
+                    regionOffsets.stream().mapToLong(Long::longValue).toArray(),
+                    null);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Get the compression type of the block payloads.
+     *
+     * @return the compression type
+     */
+    CompressionType compressionType() {
+        return compressionType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int size() {
+        return blockNumbers.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long minBlockNumber() {
+        return blockNumbers.length == 0 ? -1 : blockNumbers[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long maxBlockNumber() {
+        return blockNumbers.length == 0 ? -1 : blockNumbers[blockNumbers.length - 1];
+    }
+
+    /**
+     * Get the block numbers of all blocks, in ascending order.
+     *
+     * @return the block numbers
+     */
+    @Override
+    long[] blockNumbers() {
+        return blockNumbers.clone();
+    }
+
+    /**
+     * Check if a block is in this file.
+     *
+     * @param blockNumber the block number
+     * @return true if the block is in this file
+     */
+    boolean contains(final long blockNumber) {
+        return Arrays.binarySearch(blockNumbers, blockNumber) >= 0;
+    }
+
+    /**
+     * Get the CRC-32 of the payload of a block, as recorded in the index.
+     *
+     * @param blockNumber the block number
+     * @return the CRC-32 of the payload
+     * @throws IllegalArgumentException if the block is not in this file
+     */
+    long checksum(final long blockNumber) {
+        return Integer.toUnsignedLong(checksums[indexOf(blockNumber)]);
+    }
+
+    /**
+     * Read the payload of a block, the block file as stored with this file's compression type. The payload is checked
+     * against the CRC-32 in the index.
+     *
+     * @param blockNumber the block number
+     * @return the payload, or null if the block is not in this file
+     * @throws IOException if the payload could not be read or does not match its checksum
+     */
+    byte[] read(final long blockNumber) throws IOException {
+        final int i = Arrays.binarySearch(blockNumbers, blockNumber);
+        if (i < 0) {
+            return null;
+        }
+        final byte[] payload = new byte[lengths[i]];
+        if (regions != null) {
+            regions[regionOfBlock[i]].get((int) (offsets[i] - regionOffsets[regionOfBlock[i]]), payload);
+        } else {
+            read(channel, offsets[i], lengths[i]).get(payload);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksums[i]) {
+            throw new IOException("Checksum mismatch for block " + blockNumber + " in " + path);
+        }
+        return payload;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void validate() throws IOException {
+        for (final long blockNumber : blockNumbers) {
+            read(blockNumber);
+        }
+    }
+
+    /**
+     * Close the file channel, if the file is not mapped.
+     *
+     * @throws IOException if the file channel could not be closed
+     */
+    @Override
+    void release() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Get the id a compression type is recorded with in the trailer.
+     *
+     * @param compressionType the compression type
+     * @return the compression id
+     */
+    static int compressionId(@NonNull final CompressionType compressionType) {
+        return switch (compressionType) {
+            case NONE -> 0;
+            case ZSTD -> 1;
+        };
+    }
+
+    /**
+     * Get the compression type for an id recorded in the trailer.
+     *
+     * @param compressionId the compression id
+     * @return the compression type
+     * @throws IOException if the id is unknown
+     */
+    private static CompressionType compressionType(final int compressionId) throws IOException {
+        return switch (compressionId) {
+            case 0 -> CompressionType.NONE;
+            case 1 -> CompressionType.ZSTD;
+            default -> throw new IOException("Unknown compression id " + compressionId);
+        };
+    }
+
+    /**
+     * Get the index of a block in the index arrays.
+     *
+     * @param blockNumber the block number
+     * @return the index
+     * @throws IllegalArgumentException if the block is not in this file
+     */
+    private int indexOf(final long blockNumber) {
+        final int i = Arrays.binarySearch(blockNumbers, blockNumber);
+        if (i < 0) {
+            throw new IllegalArgumentException("Block " + blockNumber + " is not in " + path);
+        }
+        return i;
+    }
+
+    /**
+     * Read a region of a file with positional reads.
+     *
+     * @param channel the file channel
+     * @param position the offset of the region from the start of the file
+     * @param length the length of the region
+     * @return a little endian buffer of the region
+     * @throws IOException if the region could not be read
+     */
+    private static ByteBuffer read(final FileChannel channel, final long position, final int length)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Read past end of indexed block file");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,160 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import org.hiero.block.common.utils.FileUtilities;
+import org.hiero.block.node.base.CompressionType;
+
+/**
+ * Writes an {@link IndexedBlockFile}. Blocks are added in ascending block number order and streamed to a temporary
+ * file next to the target, only the index is held in memory. {@link #finish()} writes the index and trailer then moves
+ * the temporary file into place, so readers never see a partly written file. Closing without finishing deletes the
+ * temporary file.
+ */
+final class IndexedBlockFileWriter implements AutoCloseable {
+    /** The suffix of the temporary file written before it is moved into place. */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** The path of the indexed block file to write. */
+    private final Path path;
+    /** The temporary file the blocks are written to. */
+    private final Path tempPath;
+    /** The compression type of the block payloads. */
+    private final CompressionType compressionType;
+    /** The output stream of the temporary file. */
+    private final OutputStream out;
+    /** The index records written so far. */
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    /** Buffer for building each index record. */
+    private final ByteBuffer indexRecord =
+            ByteBuffer.allocate(IndexedBlockFile.INDEX_RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    /** The number of blocks added. */
+    private int count = 0;
+    /** The block number of the last block added. */
+    private long lastBlockNumber = -1;
+    /** The offset the next payload is written at. */
+    private long position = 0;
+    /** True once the file has been moved into place. */
+    private boolean finished = false;
+    /** True once the file has been finished or closed, so no more blocks can be added. */
+    private boolean closed = false;
+
+    /**
+     * Start writing a new indexed block file.
+     *
+     * @param path the path of the indexed block file to write, replaced if it exists
+     * @param compressionType the compression type of the block payloads that will be added
+     * @throws IOException if the temporary file could not be created
+     */
+    IndexedBlockFileWriter(@NonNull final Path path, @NonNull final CompressionType compressionType)
+            throws IOException {
+        this.path = Objects.requireNonNull(path);
+        this.compressionType = Objects.requireNonNull(compressionType);
+        this.tempPath = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        this.out = new BufferedOutputStream(
+                Files.newOutputStream(
+                        tempPath,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE),
+                1024 * 1024);
+    }
+
+    /**
+     * Add a block, computing the checksum of its payload.
+     *
+     * @param blockNumber the block number, greater than the last block added
+     * @param payload the block file bytes, compressed with this file's compression type
+     * @throws IOException if the payload could not be written
+     */
+    void add(final long blockNumber, @NonNull final Bytes payload) throws IOException {
+        final CRC32 crc = new CRC32();
+        payload.writeTo(new CheckedOutputStream(OutputStream.nullOutputStream(), crc));
+        add(blockNumber, payload, crc.getValue());
+    }
+
+    /**
+     * Add a block whose payload checksum is already known.
+     *
+     * @param blockNumber the block number, greater than the last block added
+     * @param payload the block file bytes, compressed with this file's compression type
+     * @param crc the CRC-32 of the payload
+     * @throws IOException if the payload could not be written
+     */
+    void add(final long blockNumber, @NonNull final Bytes payload, final long crc) throws IOException {
+        Objects.requireNonNull(payload);
+        if (closed) {
+            throw new IllegalStateException("Indexed block file already closed: " + path);
+        }
+        if (count > 0 && blockNumber <= lastBlockNumber) {
+            throw new IllegalArgumentException(
+                    "Block " + blockNumber + " added after block " + lastBlockNumber + ", blocks must be in order");
+        }
+        payload.writeTo(out);
+        indexRecord.clear();
+        indexRecord.putLong(blockNumber).putLong(position).putInt((int) payload.length()).putInt((int) crc);
+        index.write(indexRecord.array(), 0, IndexedBlockFile.INDEX_RECORD_SIZE);
+        position += payload.length();
+        lastBlockNumber = blockNumber;
+        count++;
+    }
+
+    /**
+     * Write the index and trailer, sync the file and move it into place.
+     *
+     * @throws IOException if the file could not be written or moved
+     */
+    void finish() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Indexed block file already closed: " + path);
+        }
+        closed = true;
+        final byte[] indexBytes = index.toByteArray();
+        final CRC32 indexCrc = new CRC32();
+        indexCrc.update(indexBytes);
+        out.write(indexBytes);
+        final ByteBuffer trailer =
+                ByteBuffer.allocate(IndexedBlockFile.TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putLong(position)
+                .putInt(count)
+                .putInt(IndexedBlockFile.compressionId(compressionType))
+                .putInt(IndexedBlockFile.FORMAT_VERSION)
+                .putInt((int) indexCrc.getValue())
+                .putLong(IndexedBlockFile.MAGIC);
+        out.write(trailer.array());
+        out.close();
+        // make sure the contents are on disk before the file is visible to readers, and the move survives a crash
+        FileUtilities.forceFile(tempPath);
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        FileUtilities.forceDirectory(path.getParent());
+        finished = true;
+    }
+
+    /**
+     * Close the writer, deleting the temporary file if the indexed block file was not finished.
+     *
+     * @throws IOException if the temporary file could not be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (!finished) {
+            out.close();
+            Files.deleteIfExists(tempPath);
+        }
+    }
+}
@@ -0,0 +1,408 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static org.hiero.block.node.base.BlockFile.blockNumberFromFile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * An open zip file of blocks with an in-memory index of its entries by block number, so reading a block is a single
+ * read at a known offset rather than parsing the zip central directory on every access like
+ * {@link java.util.zip.ZipFile} does.
+ * <p>
+ * The central directory is parsed once when opened. Zip files up to 2GB are memory mapped, so reads are just copies
+ * from the page cache and the file channel can be closed straight away. Larger zip files, or file systems that do not
+ * support mapping, are read with positional reads on a file channel that is kept open until the last reference is
+ * released.
+ */
+final class IndexedZipFile extends ArchiveFile {
+    /** Signature of the end of central directory record. */
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    /** Signature of the zip64 end of central directory locator. */
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    /** Signature of the zip64 end of central directory record. */
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    /** Signature of a central directory file header. */
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+    /** Signature of a local file header. */
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    /** Header ID of the zip64 extended information extra field. */
+    private static final int ZIP64_EXTRA_FIELD_ID = 0x0001;
+    /** The size of the fixed part of the end of central directory record. */
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    /** The size of the zip64 end of central directory locator. */
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    /** The size of the fixed part of a central directory file header. */
+    private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+    /** The size of the fixed part of a local file header. */
+    private static final int LOCAL_HEADER_SIZE = 30;
+    /** The maximum length of the zip file comment, which sits after the end of central directory record. */
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    /** The value a 16-bit field holds when the real value is in the zip64 records. */
+    private static final int ZIP64_MAGIC_SHORT = 0xFFFF;
+    /** The value a 32-bit field holds when the real value is in the zip64 records. */
+    private static final long ZIP64_MAGIC_INT = 0xFFFFFFFFL;
+    /** Zip compression method for entries stored without compression. */
+    static final int METHOD_STORED = 0;
+    /** Zip compression method for entries compressed with deflate. */
+    static final int METHOD_DEFLATED = 8;
+
+    /**
+     * Location of an entry in the zip file.
+     *
+     * @param name the entry name
+     * @param localHeaderOffset the offset of the entry local file header from the start of the zip file
+     * @param compressedSize the size of the entry data as stored in the zip file
+     * @param size the size of the entry data once inflated
+     * @param method the zip compression method of the entry
+     */
+    record Entry(@NonNull String name, long localHeaderOffset, long compressedSize, long size, int method) {}
+
+    /** The path of the zip file. */
+    private final Path path;
+    /** The entries of the zip file by block number. */
+    private final Map<Long, Entry> entries;
+    /** The whole zip file mapped into memory, null if the zip file is read with the file channel. */
+    private final MappedByteBuffer mapped;
+    /** The open file channel, null if the zip file is mapped. */
+    private final FileChannel channel;
+
+    /**
+     * Create a new indexed zip file, use {@link #open(Path)}.
+     *
+     * @param path the path of the zip file
+     * @param entries the entries of the zip file by block number
+     * @param mapped the mapped zip file, or null
+     * @param channel the open file channel, or null
+     */
+    private IndexedZipFile(
+            final Path path, final Map<Long, Entry> entries, final MappedByteBuffer mapped, final FileChannel channel) {
+        this.path = path;
+        this.entries = entries;
+        this.mapped = mapped;
+        this.channel = channel;
+    }
+
+    /**
+     * Open a zip file and read its central directory into an index. The caller holds the only reference and must
+     * {@link #close()} it.
+     *
+     * @param zipFilePath the path of the zip file
+     * @return the indexed zip file
+     * @throws IOException if the zip file could not be read or is not a valid zip file
+     */
+    static IndexedZipFile open(@NonNull final Path zipFilePath) throws IOException {
+        Objects.requireNonNull(zipFilePath);
+        final FileChannel channel = FileChannel.open(zipFilePath, StandardOpenOption.READ);
+        try {
+            final long fileSize = channel.size();
+            MappedByteBuffer mapped = null;
+            if (fileSize <= Integer.MAX_VALUE) {
+                try {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                } catch (final UnsupportedOperationException e) {
+                    // file system does not support mapping, fall back to positional reads
+                }
+            }
+            final Map<Long, Entry> entries = readCentralDirectory(channel, fileSize);
+            if (mapped != null) {
+                // the mapping stays valid after the channel is closed
+                channel.close();
+                return new IndexedZipFile(zipFilePath, entries, mapped, null);
+            }
+            return new IndexedZipFile(zipFilePath, entries, null, channel);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Get the entry for a block.
+     *
+     * @param blockNumber the block number
+     * @return the entry, or null if the block is not in this zip file
+     */
+    Entry entry(final long blockNumber) {
+        return entries.get(blockNumber);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long minBlockNumber() {
+        return entries.keySet().stream().mapToLong(Long::longValue).min().orElse(-1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long maxBlockNumber() {
+        return entries.keySet().stream().mapToLong(Long::longValue).max().orElse(-1);
+    }
+
+    /**
+     * Get the block numbers of all block entries, in ascending order.
+     *
+     * @return the block numbers
+     */
+    @Override
+    long[] blockNumbers() {
+        return entries.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    /**
+     * Read the data of an entry as stored in the zip file, not inflated.
+     *
+     * @param entry the entry
+     * @return the stored data
+     * @throws IOException if the entry could not be read
+     */
+    byte[] readStored(@NonNull final Entry entry) throws IOException {
+        if (entry.compressedSize() > Integer.MAX_VALUE) {
+            throw new ZipException("Zip entry too large to read: " + entry.name());
+        }
+        final ByteBuffer localHeader = read(entry.localHeaderOffset(), LOCAL_HEADER_SIZE);
+        if (localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("Invalid local header for zip entry: " + entry.name());
+        }
+        final long dataOffset = entry.localHeaderOffset()
+                + LOCAL_HEADER_SIZE
+                + Short.toUnsignedInt(localHeader.getShort(26))
+                + Short.toUnsignedInt(localHeader.getShort(28));
+        final ByteBuffer data = read(dataOffset, (int) entry.compressedSize());
+        final byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Open a stream of the inflated data of an entry.
+     *
+     * @param entry the entry
+     * @return a stream of the entry data
+     * @throws IOException if the entry could not be read or has an unsupported compression method
+     */
+    InputStream inputStream(@NonNull final Entry entry) throws IOException {
+        return switch (entry.method()) {
+            case METHOD_STORED -> new ByteArrayInputStream(readStored(entry));
+            case METHOD_DEFLATED -> {
+                // raw inflate needs an extra dummy byte after the data to detect the end of the stream
+                final byte[] stored = readStored(entry);
+                final Inflater inflater = new Inflater(true);
+                yield new InflaterInputStream(
+                        new ByteArrayInputStream(Arrays.copyOf(stored, stored.length + 1)), inflater) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            inflater.end();
+                        }
+                    }
+                };
+            }
+            default -> throw new ZipException(
+                    "Unsupported compression method " + entry.method() + " for zip entry: " + entry.name());
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The zip file is read with a {@link ZipInputStream}, which checks each entry against the CRC-32 in its header.
+     */
+    @Override
+    void validate() throws IOException {
+        try (ZipInputStream zipInputStream = new ZipInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (zipInputStream.getNextEntry() != null) {
+                zipInputStream.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+    }
+
+    /**
+     * Close the file channel, if the zip file is not mapped.
+     *
+     * @throws IOException if the file channel could not be closed
+     */
+    @Override
+    void release() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Read a region of the zip file.
+     *
+     * @param position the offset of the region from the start of the zip file
+     * @param length the length of the region
+     * @return a little endian buffer of the region
+     * @throws IOException if the region could not be read
+     */
+    private ByteBuffer read(final long position, final int length) throws IOException {
+        if (mapped != null) {
+            if (position + length > mapped.capacity()) {
+                throw new EOFException("Read past end of zip file: " + path);
+            }
+            return mapped.slice((int) position, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return read(channel, position, length);
+    }
+
+    /**
+     * Read a region of a file with positional reads.
+     *
+     * @param channel the file channel
+     * @param position the offset of the region from the start of the file
+     * @param length the length of the region
+     * @return a little endian buffer of the region
+     * @throws IOException if the region could not be read
+     */
+    private static ByteBuffer read(final FileChannel channel, final long position, final int length)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Read past end of zip file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Read the central directory of a zip file into an index of entries by block number. Entries that are not block
+     * files are skipped.
+     *
+     * @param channel the file channel
+     * @param fileSize the size of the zip file
+     * @return the entries by block number
+     * @throws IOException if the central directory could not be read
+     */
+    private static Map<Long, Entry> readCentralDirectory(final FileChannel channel, final long fileSize)
+            throws IOException {
+        // find the end of central directory record, it is followed by a comment of up to 64KB
+        final int tailLength = (int) Math.min(fileSize, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_LENGTH);
+        final long tailStart = fileSize - tailLength;
+        final ByteBuffer tail = read(channel, tailStart, tailLength);
+        int endRecord = -1;
+        for (int i = tailLength - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                endRecord = i;
+                break;
+            }
+        }
+        if (endRecord < 0) {
+            throw new ZipException("End of central directory not found, not a zip file");
+        }
+        long entryCount = Short.toUnsignedInt(tail.getShort(endRecord + 10));
+        long directorySize = Integer.toUnsignedLong(tail.getInt(endRecord + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(endRecord + 16));
+        if (entryCount == ZIP64_MAGIC_SHORT || directorySize == ZIP64_MAGIC_INT || directoryOffset == ZIP64_MAGIC_INT) {
+            final int locator = endRecord - ZIP64_LOCATOR_SIZE;
+            if (locator >= 0 && tail.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+                final ByteBuffer zip64Record = read(channel, tail.getLong(locator + 8), 56);
+                if (zip64Record.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                    throw new ZipException("Invalid zip64 end of central directory record");
+                }
+                entryCount = zip64Record.getLong(32);
+                directorySize = zip64Record.getLong(40);
+                directoryOffset = zip64Record.getLong(48);
+            }
+        }
+        if (directorySize > Integer.MAX_VALUE || directoryOffset + directorySize > fileSize) {
+            throw new ZipException("Invalid central directory size " + directorySize + " at " + directoryOffset);
+        }
+        final ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+        final Map<Long, Entry> entries = new HashMap<>((int) Math.min(entryCount * 2, Integer.MAX_VALUE));
+        int position = 0;
+        for (long i = 0; i < entryCount; i++) {
+            if (position + CENTRAL_DIRECTORY_HEADER_SIZE > directory.limit()
+                    || directory.getInt(position) != CENTRAL_DIRECTORY_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid central directory header for entry " + i);
+            }
+            final int method = Short.toUnsignedInt(directory.getShort(position + 10));
+            long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+            long size = Integer.toUnsignedLong(directory.getInt(position + 24));
+            final int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+            final int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+            final int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(directory.getInt(position + 42));
+            final byte[] nameBytes = new byte[nameLength];
+            directory.get(position + CENTRAL_DIRECTORY_HEADER_SIZE, nameBytes);
+            final String name = new String(nameBytes, StandardCharsets.UTF_8);
+            // zip64 extra field holds, in order, only the values whose 32-bit fields are all ones
+            int extra = position + CENTRAL_DIRECTORY_HEADER_SIZE + nameLength;
+            final int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                final int headerId = Short.toUnsignedInt(directory.getShort(extra));
+                final int dataSize = Short.toUnsignedInt(directory.getShort(extra + 2));
+                if (headerId == ZIP64_EXTRA_FIELD_ID) {
+                    int field = extra + 4;
+                    if (size == ZIP64_MAGIC_INT) {
+                        size = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == ZIP64_MAGIC_INT) {
+                        compressedSize = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (localHeaderOffset == ZIP64_MAGIC_INT) {
+                        localHeaderOffset = directory.getLong(field);
+                    }
+                    break;
+                }
+                extra += 4 + dataSize;
+            }
+            position = extraEnd + commentLength;
+            try {
+                entries.put(
+                        blockNumberFromFile(name), new Entry(name, localHeaderOffset, compressedSize, size, method));
+            } catch (final NumberFormatException | StringIndexOutOfBoundsException e) {
+                // not a block file, for example a directory entry
+            }
+        }
+        return entries;
+    }
+}
@@ -9,33 +9,39 @@ import com.hedera.pbj.runtime.UncheckedParseException;
 import com.hedera.pbj.runtime.io.WritableSequentialData;
 import com.hedera.pbj.runtime.io.buffer.Bytes;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.util.Objects;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.zip.ZipException;
 import org.hiero.block.internal.BlockUnparsed;
 import org.hiero.block.node.base.CompressionType;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
 
 /**
- * The ZipBlockAccessor class provides access to a block stored in a zip file.
+ * The ZipBlockAccessor class provides access to a block stored in a zip file. The zip file is read through an
+ * {@link ArchiveFilePool}, so reading a block from an already open zip file is a single read at the offset of its
+ * entry.
  */
 final class ZipBlockAccessor implements BlockAccessor {
     /** The logger for this class. */
     private final System.Logger LOGGER = System.getLogger(getClass().getName());
     /** The block path. */
     private final BlockPath blockPath;
+    /** The pool of open zip files to read the block from. */
+    private final ArchiveFilePool<IndexedZipFile> zipFiles;
 
     /**
      * Constructs a ZipBlockAccessor with the specified block path.
      *
      * @param blockPath the block path
+     * @param zipFiles the pool of open zip files to read the block from
      */
-    ZipBlockAccessor(@NonNull final BlockPath blockPath) {
+    ZipBlockAccessor(@NonNull final BlockPath blockPath, @NonNull final ArchiveFilePool<IndexedZipFile> zipFiles) {
         this.blockPath = Objects.requireNonNull(blockPath);
+        this.zipFiles = Objects.requireNonNull(zipFiles);
     }
 
     /**
@@ -81,37 +87,17 @@ final class ZipBlockAccessor implements BlockAccessor {
         Objects.requireNonNull(format);
         return switch (format) {
             case JSON -> Block.JSON.toBytes(block());
-            case PROTOBUF -> {
-                try (final ZipFile zipFile = new ZipFile(blockPath.zipFilePath().toFile())) {
-                    final ZipEntry entry = zipFile.getEntry(blockPath.blockFileName());
-                    try (final InputStream in = blockPath.compressionType().wrapStream(zipFile.getInputStream(entry))) {
-                        yield Bytes.wrap(in.readAllBytes());
-                    }
-                } catch (final IOException e) {
-                    LOGGER.log(ERROR, "Failed to read block from zip file", e);
-                    throw new UncheckedIOException(e);
-                }
-            }
+            case PROTOBUF -> Bytes.wrap(blockPath.compressionType().decompress(readBlockFile()));
             case ZSTD_PROTOBUF -> {
-                try (final ZipFile zipFile = new ZipFile(blockPath.zipFilePath().toFile())) {
-                    final ZipEntry entry = zipFile.getEntry(blockPath.blockFileName());
-                    try (final InputStream in = zipFile.getInputStream(entry)) {
-                        // if the compression type of the block is ZSTD then we
-                        // simply need to return the bytes
-                        if (blockPath.compressionType() == CompressionType.ZSTD) {
-                            yield Bytes.wrap(in.readAllBytes());
-                        } else {
-                            // else we need to wrap the stream to read the decompressed
-                            // data and then to compress with ZSTD
-                            try (final InputStream wrapped =
-                                    blockPath.compressionType().wrapStream(in)) {
-                                yield Bytes.wrap(CompressionType.ZSTD.compress(wrapped.readAllBytes()));
-                            }
-                        }
-                    }
-                } catch (final IOException e) {
-                    LOGGER.log(ERROR, "Failed to read block from zip file", e);
-                    throw new UncheckedIOException(e);
+                final byte[] blockFileBytes = readBlockFile();
+                // if the compression type of the block is ZSTD then we
+                // simply need to return the bytes
+                if (blockPath.compressionType() == CompressionType.ZSTD) {
+                    yield Bytes.wrap(blockFileBytes);
+                } else {
+                    // else we need to decompress the data and then to compress with ZSTD
+                    yield Bytes.wrap(CompressionType.ZSTD.compress(
+                            blockPath.compressionType().decompress(blockFileBytes)));
                 }
             }
         };
@@ -138,30 +124,27 @@ final class ZipBlockAccessor implements BlockAccessor {
         switch (format) {
             case JSON -> blockBytes(format).writeTo(output);
             case PROTOBUF -> {
-                try (final ZipFile zipFile = new ZipFile(blockPath.zipFilePath().toFile())) {
-                    final ZipEntry entry = zipFile.getEntry(blockPath.blockFileName());
-                    try (final InputStream in = blockPath.compressionType().wrapStream(zipFile.getInputStream(entry))) {
-                        in.transferTo(output);
-                    }
+                try (final InputStream in =
+                        blockPath.compressionType().wrapStream(new ByteArrayInputStream(readBlockFile()))) {
+                    in.transferTo(output);
                 } catch (final IOException e) {
                     LOGGER.log(ERROR, "Failed to read block from zip file", e);
                     throw new UncheckedIOException(e);
                 }
             }
             case ZSTD_PROTOBUF -> {
-                try (final ZipFile zipFile = new ZipFile(blockPath.zipFilePath().toFile())) {
-                    final ZipEntry entry = zipFile.getEntry(blockPath.blockFileName());
-                    final CompressionType blockCompression = blockPath.compressionType();
+                final byte[] blockFileBytes = readBlockFile();
+                final CompressionType blockCompression = blockPath.compressionType();
+                try {
                     if (blockCompression == CompressionType.ZSTD) {
                         // if the compression type of the block is ZSTD then we
                         // simply need to return the bytes
-                        try (final InputStream in = zipFile.getInputStream(entry)) {
-                            in.transferTo(output);
-                        }
+                        output.write(blockFileBytes);
                     } else {
                         // else we need to wrap the stream to read the decompressed
                         // data and then to compress with ZSTD
-                        try (final InputStream wrappedIn = blockCompression.wrapStream(zipFile.getInputStream(entry));
+                        try (final InputStream wrappedIn =
+                                        blockCompression.wrapStream(new ByteArrayInputStream(blockFileBytes));
                                 final OutputStream wrappedOut = CompressionType.ZSTD.wrapStream(output)) {
                             wrappedIn.transferTo(wrappedOut);
                         }
@@ -173,4 +156,29 @@ final class ZipBlockAccessor implements BlockAccessor {
             }
         }
     }
+
+    /**
+     * Read the contents of the block file from its zip file, as stored with the block compression type.
+     *
+     * @return the block file bytes
+     * @throws UncheckedIOException if the block could not be read
+     */
+    private byte[] readBlockFile() {
+        try (final IndexedZipFile zipFile = zipFiles.acquire(blockPath.zipFilePath())) {
+            final IndexedZipFile.Entry entry = zipFile.entry(blockNumber());
+            if (entry == null || !entry.name().equals(blockPath.blockFileName())) {
+                throw new ZipException("Block file " + blockPath.blockFileName() + " not found in zip file");
+            }
+            if (entry.method() == IndexedZipFile.METHOD_STORED) {
+                // the normal case, blocks are already compressed so are stored in the zip file as is
+                return zipFile.readStored(entry);
+            }
+            try (final InputStream in = zipFile.inputStream(entry)) {
+                return in.readAllBytes();
+            }
+        } catch (final IOException e) {
+            LOGGER.log(ERROR, "Failed to read block from zip file", e);
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -1,38 +1,65 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.hiero.block.node.blocks.files.historic;
 
-import static org.hiero.block.node.base.BlockFile.blockNumberFromFile;
 import static org.hiero.block.node.blocks.files.historic.BlockPath.computeBlockPath;
 import static org.hiero.block.node.blocks.files.historic.BlockPath.computeExistingBlockPath;
 
 import com.hedera.pbj.runtime.io.buffer.Bytes;
 import edu.umd.cs.findbugs.annotations.NonNull;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.util.Comparator;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
+import org.hiero.block.common.utils.FileUtilities;
+import org.hiero.block.node.base.BlockBytesChannel;
 import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
+import org.hiero.block.node.blocks.files.historic.FilesHistoricConfig.ArchiveFormat;
 import org.hiero.block.node.spi.BlockNodeContext;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
 import org.hiero.block.node.spi.historicalblocks.HistoricalBlockFacility;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
 
 /**
  * The ZipBlockArchive class provides methods for creating and managing zip files containing blocks.
- * It allows for writing new zip files and accessing individual blocks within the zip files.
+ * It allows for writing new zip files and accessing individual blocks within the zip files. Zip files are read through
+ * a bounded {@link ArchiveFilePool}, so repeated reads from the same zip file do not parse its central directory
+ * again. New zip files are streamed, with blocks prepared in parallel a bounded window ahead of the one being written.
+ * <p>
+ * Batches of blocks can instead be archived as {@link IndexedBlockFile}s, see
+ * {@link FilesHistoricConfig#archiveFormat()}. Blocks are read from archives of either format, whichever exists, and
+ * {@link #convertArchives()} converts archives of the other format to the configured one.
  */
-class ZipBlockArchive {
+class ZipBlockArchive implements AutoCloseable {
+    /** The file extension of zip files. */
+    private static final String ZIP_EXTENSION = ".zip";
+    /** The suffix of a compacted archive file, before it is moved over the archive file it replaces. */
+    private static final String COMPACTED_SUFFIX = ".compacted";
+
     /** The logger for this class. */
     private final System.Logger LOGGER = System.getLogger(getClass().getName());
     /** The block node context. */
@@ -45,6 +72,38 @@ class ZipBlockArchive {
     private final int numberOfBlocksPerZipFile;
     /** The format for the blocks. */
     private final Format format;
+    /** The pool of open zip files blocks are read from. */
+    private final ArchiveFilePool<IndexedZipFile> zipFiles;
+    /** The pool of open indexed block files blocks are read from. */
+    private final ArchiveFilePool<IndexedBlockFile> blockFiles;
+    /** The workers preparing blocks while a zip file is built, empty to prepare them on the writing thread. */
+    private final ExecutorService[] zipBuildWorkers;
+    /** Limits the rate archive files are written at, across all threads writing archive files. */
+    private final ArchiveWriteThrottle writeThrottle;
+
+    /**
+     * A block ready to be written to an archive file.
+     *
+     * @param blockNumber the block number
+     * @param accessor the accessor the block was read from
+     * @param bytes the bytes to store in the archive file
+     * @param crc the CRC-32 checksum of the bytes
+     */
+    private record PreparedBlock(long blockNumber, BlockAccessor accessor, Bytes bytes, long crc) {}
+
+    /**
+     * Writes prepared blocks to an archive file, in block number order.
+     */
+    @FunctionalInterface
+    private interface PreparedBlockWriter {
+        /**
+         * Write a prepared block.
+         *
+         * @param preparedBlock the prepared block
+         * @throws IOException if the block could not be written
+         */
+        void write(PreparedBlock preparedBlock) throws IOException;
+    }
 
     /**
      * Constructor for ZipBlockArchive.
@@ -60,14 +119,22 @@ class ZipBlockArchive {
         format = switch (this.config.compression()) {
             case ZSTD -> Format.ZSTD_PROTOBUF;
             case NONE -> Format.PROTOBUF;};
+        zipFiles = new ArchiveFilePool<>(this.config.maxOpenZipFiles(), IndexedZipFile::open);
+        blockFiles = new ArchiveFilePool<>(this.config.maxOpenZipFiles(), IndexedBlockFile::open);
+        zipBuildWorkers = new ExecutorService[this.config.zipBuildThreads()];
+        for (int i = 0; i < zipBuildWorkers.length; i++) {
+            zipBuildWorkers[i] = context.threadPoolManager().createSingleThreadExecutor("FilesHistoricZipBuild-" + i);
+        }
+        writeThrottle = new ArchiveWriteThrottle(this.config.archiveMaxBytesPerSecond());
     }
 
     /**
-     * Write a new zip file containing blocks, reads the batch of blocks from the HistoricalBlockFacility.
+     * Write a new archive file containing blocks, reads the batch of blocks from the HistoricalBlockFacility. The
+     * archive file is a zip file or an indexed block file, depending on {@link FilesHistoricConfig#archiveFormat()}.
      *
      * @param firstBlockNumber The first block number to write
      * @throws IOException If an error occurs writing the block
-     * @return A list of block accessors for the blocks written to the zip file, can be used to delete the blocks
+     * @return A list of block accessors for the blocks written to the archive file, can be used to delete the blocks
      */
     List<BlockAccessor> writeNewZipFile(long firstBlockNumber) throws IOException {
         final long lastBlockNumber = firstBlockNumber + numberOfBlocksPerZipFile - 1;
@@ -76,42 +143,57 @@ class ZipBlockArchive {
         // create directories
         Files.createDirectories(firstBlockPath.dirPath());
         // create list for all block accessors, so we can delete files after we are done
-        final List<BlockAccessor> blockAccessors = IntStream.rangeClosed((int) firstBlockNumber, (int) lastBlockNumber)
-                .mapToObj(historicalBlockFacility::block)
-                .toList();
-        // create zip file path
-        try (ZipOutputStream zipOutputStream = new ZipOutputStream(new BufferedOutputStream(
-                Files.newOutputStream(
-                        firstBlockPath.zipFilePath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE),
-                1024 * 1204))) {
-            // don't compress the zip file as files are already compressed
-            zipOutputStream.setMethod(ZipOutputStream.STORED);
-            // todo should we not also set the level to Deflater.NO_COMPRESSION
-            for (long blockNumber = firstBlockNumber; blockNumber <= lastBlockNumber; blockNumber++) {
-                // compute block filename
-                // todo should we also not append the compression extension to the filename?
-                // todo I feel like the accessor should generally be getting us the block file name
-                //   what if the file is zstd compressed but the current runtime compression is none?
-                //   then the file name would be wrong? For now appending, maybe a slight cleanup is in order for this
-                //   logic.
-                final String blockFileName = BlockFile.blockFileName(blockNumber, config.compression());
-                // get block accessor
-                final BlockAccessor blockAccessor = blockAccessors.get((int) (blockNumber - firstBlockNumber));
-                // get the bytes to write, we have to do this as we need to know the size
-                final Bytes bytes = blockAccessor.blockBytes(format);
-                // calculate CRC-32 checksum
-                CRC32 crc = new CRC32();
-                crc.update(bytes.toByteArray());
-                // create zip entry
-                final ZipEntry zipEntry = new ZipEntry(blockFileName);
-                zipEntry.setSize(bytes.length());
-                zipEntry.setCompressedSize(bytes.length());
-                zipEntry.setCrc(crc.getValue());
-                zipOutputStream.putNextEntry(zipEntry);
-                // write compressed block content
-                bytes.writeTo(zipOutputStream);
-                // close zip entry
-                zipOutputStream.closeEntry();
+        final List<BlockAccessor> blockAccessors = new ArrayList<>(numberOfBlocksPerZipFile);
+        switch (config.archiveFormat()) {
+            case ZIP -> {
+                // write next to the zip file and move it into place once complete, so readers that map the zip file
+                // never see it truncated or partly written
+                final Path zipFilePath = firstBlockPath.zipFilePath();
+                final Path tempPath =
+                        zipFilePath.resolveSibling(zipFilePath.getFileName() + ArchiveConverter.TEMP_SUFFIX);
+                try {
+                    try (ZipOutputStream zipOutputStream = ArchiveConverter.newStoredZipOutputStream(tempPath)) {
+                        writePreparedBlocks(firstBlockNumber, lastBlockNumber, preparedBlock -> {
+                            blockAccessors.add(preparedBlock.accessor());
+                            // compute block filename
+                            // todo should we also not append the compression extension to the filename?
+                            // todo I feel like the accessor should generally be getting us the block file name
+                            //   what if the file is zstd compressed but the current runtime compression is none?
+                            //   then the file name would be wrong? For now appending, maybe a slight cleanup is in
+                            //   order for this logic.
+                            final String blockFileName =
+                                    BlockFile.blockFileName(preparedBlock.blockNumber(), config.compression());
+                            // create zip entry
+                            final ZipEntry zipEntry = new ZipEntry(blockFileName);
+                            zipEntry.setSize(preparedBlock.bytes().length());
+                            zipEntry.setCompressedSize(preparedBlock.bytes().length());
+                            zipEntry.setCrc(preparedBlock.crc());
+                            zipOutputStream.putNextEntry(zipEntry);
+                            // write compressed block content
+                            preparedBlock.bytes().writeTo(zipOutputStream);
+                            // close zip entry
+                            zipOutputStream.closeEntry();
+                        });
+                    }
+                    ArchiveConverter.moveIntoPlace(tempPath, zipFilePath);
+                } finally {
+                    Files.deleteIfExists(tempPath);
+                }
+                // drop any index of an earlier version of the zip file, so the next read maps the new one
+                zipFiles.invalidate(zipFilePath);
+            }
+            case INDEXED -> {
+                final Path indexedFilePath = firstBlockPath.indexedFilePath();
+                try (IndexedBlockFileWriter writer =
+                        new IndexedBlockFileWriter(indexedFilePath, config.compression())) {
+                    writePreparedBlocks(firstBlockNumber, lastBlockNumber, preparedBlock -> {
+                        blockAccessors.add(preparedBlock.accessor());
+                        writer.add(preparedBlock.blockNumber(), preparedBlock.bytes(), preparedBlock.crc());
+                    });
+                    writer.finish();
+                }
+                // drop any earlier version of the file, so the next read maps the new one
+                blockFiles.invalidate(indexedFilePath);
             }
         }
         // return block accessors
@@ -121,122 +203,568 @@ class ZipBlockArchive {
     }
 
     /**
-     * Get a block accessor for a block number
+     * Prepare a range of blocks and hand them to a writer in block number order.
+     * <p>
+     * The blocks are looked up as one range from the historical block facility, so providers can serve them without
+     * looking up each block on its own. Reading, compressing and checksumming each block is handed round robin to the
+     * zip build workers, at most {@link FilesHistoricConfig#zipBuildWindow()} blocks ahead of the block being written,
+     * so heap use is bounded by the window rather than the number of blocks per archive file. Writes are throttled to
+     * {@link FilesHistoricConfig#archiveMaxBytesPerSecond()}, shared with any other archive files being written.
+     *
+     * @param firstBlockNumber the first block number to write
+     * @param lastBlockNumber the last block number to write, inclusive
+     * @param writer the writer of the prepared blocks
+     * @throws IOException if a block could not be prepared or written, or interrupted while throttled
+     */
+    private void writePreparedBlocks(
+            final long firstBlockNumber, final long lastBlockNumber, final PreparedBlockWriter writer)
+            throws IOException {
+        // blocks being prepared ahead of the one being written, in block number order. Without workers blocks are
+        // prepared on this thread, so there is nothing to gain from reading ahead.
+        final int windowSize = zipBuildWorkers.length == 0 ? 1 : config.zipBuildWindow();
+        final ArrayDeque<CompletableFuture<PreparedBlock>> window = new ArrayDeque<>(windowSize);
+        long nextBlockToPrepare = firstBlockNumber;
+        try (Stream<BlockAccessor> blocks = historicalBlockFacility.blocks(firstBlockNumber, lastBlockNumber)) {
+            final Iterator<BlockAccessor> accessors = blocks.iterator();
+            for (long blockNumber = firstBlockNumber; blockNumber <= lastBlockNumber; blockNumber++) {
+                // keep the window full, so later blocks are prepared while this one is written
+                while (nextBlockToPrepare <= lastBlockNumber && window.size() < windowSize) {
+                    // the range ends at the first block that is not available
+                    final BlockAccessor accessor = accessors.hasNext() ? accessors.next() : null;
+                    window.add(prepareBlockAsync(nextBlockToPrepare++, accessor));
+                }
+                final PreparedBlock preparedBlock = awaitPreparedBlock(window.poll());
+                writer.write(preparedBlock);
+                writeThrottle.written(preparedBlock.bytes().length());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while throttling archive file writes");
+        } finally {
+            // if writing failed, do not prepare blocks that will never be written
+            window.forEach(future -> future.cancel(false));
+        }
+    }
+
+    /**
+     * Start preparing a block to write to a zip file, on a zip build worker or straight away when there are none.
+     *
+     * @param blockNumber the block number
+     * @param blockAccessor the accessor for the block, null if the block is not available
+     * @return a future for the prepared block
+     */
+    private CompletableFuture<PreparedBlock> prepareBlockAsync(
+            final long blockNumber, final BlockAccessor blockAccessor) {
+        if (zipBuildWorkers.length == 0) {
+            try {
+                return CompletableFuture.completedFuture(prepareBlock(blockNumber, blockAccessor));
+            } catch (final RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        final ExecutorService worker = zipBuildWorkers[(int) Math.floorMod(blockNumber, zipBuildWorkers.length)];
+        return CompletableFuture.supplyAsync(() -> prepareBlock(blockNumber, blockAccessor), worker);
+    }
+
+    /**
+     * Read a block and compute the checksum its zip entry needs.
+     *
+     * @param blockNumber the block number
+     * @param blockAccessor the accessor for the block, null if the block is not available
+     * @return the prepared block
+     * @throws UncheckedIOException if the block is not available
+     */
+    private PreparedBlock prepareBlock(final long blockNumber, final BlockAccessor blockAccessor) {
+        if (blockAccessor == null || blockAccessor.blockNumber() != blockNumber) {
+            throw new UncheckedIOException(new IOException("Block " + blockNumber + " is not available to zip"));
+        }
+        // get the bytes to write, we have to do this as we need to know the size
+        final Bytes bytes = blockBytes(blockAccessor);
+        // calculate CRC-32 checksum, without copying the bytes
+        final CRC32 crc = new CRC32();
+        bytes.writeTo(new CheckedOutputStream(OutputStream.nullOutputStream(), crc));
+        return new PreparedBlock(blockNumber, blockAccessor, bytes, crc.getValue());
+    }
+
+    /**
+     * Wait for a block to be prepared.
+     *
+     * @param future the future for the prepared block
+     * @return the prepared block
+     * @throws IOException if the block could not be prepared
+     */
+    private static PreparedBlock awaitPreparedBlock(final CompletableFuture<PreparedBlock> future) throws IOException {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            throw new IOException("Failed to prepare block for zip file", e.getCause());
+        }
+    }
+
+    /**
+     * Get the bytes of a block to store in a zip file. At the default compression level the accessor can usually
+     * transfer the bytes as already stored straight from its storage, otherwise the block is compressed again at the
+     * configured level.
+     *
+     * @param blockAccessor the block accessor
+     * @return the bytes to store
+     * @throws UncheckedIOException if the block could not be read
+     */
+    private Bytes blockBytes(final BlockAccessor blockAccessor) {
+        if (format == Format.ZSTD_PROTOBUF
+                && config.compressionLevel() != CompressionType.DEFAULT_ZSTD_COMPRESSION_LEVEL) {
+            final byte[] protobufBytes = blockAccessor.blockBytes(Format.PROTOBUF).toByteArray();
+            return Bytes.wrap(config.compression().compress(protobufBytes, config.compressionLevel()));
+        }
+        // a new channel for each block, as the prepared bytes are held till the block is written
+        final BlockBytesChannel channel = new BlockBytesChannel();
+        try {
+            blockAccessor.writeBytesTo(format, channel);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return channel.bytes();
+    }
+
+    /**
+     * Get a block accessor for a block number. The archive file of the configured format is checked first, then the
+     * archive file of the other format, in case it has not been converted yet.
      *
      * @param blockNumber The block number
      * @return The block accessor for the block number
      */
     BlockAccessor blockAccessor(long blockNumber) {
         try {
-            // get existing block path or null if we cannot find it
-            final BlockPath blockPath = computeExistingBlockPath(config, blockNumber);
-            return blockPath == null ? null : new ZipBlockAccessor(blockPath);
+            if (config.archiveFormat() == ArchiveFormat.INDEXED) {
+                final BlockAccessor indexedBlockAccessor = indexedBlockAccessor(blockNumber);
+                return indexedBlockAccessor != null ? indexedBlockAccessor : zipBlockAccessor(blockNumber);
+            }
+            final BlockAccessor zipBlockAccessor = zipBlockAccessor(blockNumber);
+            return zipBlockAccessor != null ? zipBlockAccessor : indexedBlockAccessor(blockNumber);
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
     /**
-     * Finds the minimum block number in a directory structure of zip files.
-     *
-     * @return the minimum block number, or -1 if no block files are found
-     */
-    long minStoredBlockNumber() {
-        // find the lowest block number first
-        Path lowestPath = config.rootPath();
-        while (lowestPath != null) {
-            // get the first directory in the path
-            try (var childFilesStream = Files.list(lowestPath)) {
-                List<Path> childFiles = childFilesStream.toList();
-                // check if we are a directory of directories
-                final Optional<Path> min = childFiles.stream()
-                        .filter(Files::isDirectory)
-                        .min(Comparator.comparingLong(
-                                path -> Long.parseLong(path.getFileName().toString())));
-                if (min.isPresent()) {
-                    lowestPath = min.get();
-                } else {
-                    // we are at the deepest directory, check for block files
-                    final Optional<Path> zipFilePath = childFiles.stream()
-                            .filter(Files::isRegularFile)
-                            .filter(path -> path.getFileName().toString().endsWith(".zip"))
-                            .min(Comparator.comparingLong(filePath -> {
-                                String fileName = filePath.getFileName().toString();
-                                return Long.parseLong(fileName.substring(0, fileName.indexOf('s')));
-                            }));
-                    if (zipFilePath.isPresent()) {
-                        try (var zipFile = new ZipFile(zipFilePath.get().toFile())) {
-                            return zipFile.stream()
-                                    .mapToLong(entry -> blockNumberFromFile(entry.getName()))
-                                    .min()
-                                    .orElse(-1);
-                        }
-                    } else {
-                        // no zip files found in min directory
-                        return -1;
+     * Get a block accessor for a block stored in a zip file.
+     *
+     * @param blockNumber The block number
+     * @return The block accessor, or null if the block is not stored in a zip file
+     * @throws IOException if the zip file could not be read
+     */
+    private BlockAccessor zipBlockAccessor(final long blockNumber) throws IOException {
+        // get existing block path or null if we cannot find it
+        final BlockPath blockPath = computeExistingBlockPath(config, blockNumber, zipFiles);
+        return blockPath == null ? null : new ZipBlockAccessor(blockPath, zipFiles);
+    }
+
+    /**
+     * Get a block accessor for a block stored in an indexed block file.
+     *
+     * @param blockNumber The block number
+     * @return The block accessor, or null if the block is not stored in an indexed block file
+     * @throws IOException if the indexed block file could not be read
+     */
+    private BlockAccessor indexedBlockAccessor(final long blockNumber) throws IOException {
+        final Path indexedFilePath = computeBlockPath(config, blockNumber).indexedFilePath();
+        final IndexedBlockFile blockFile;
+        try {
+            blockFile = blockFiles.acquire(indexedFilePath);
+        } catch (final NoSuchFileException e) {
+            // indexed block file does not exist
+            return null;
+        }
+        try (blockFile) {
+            return blockFile.contains(blockNumber)
+                    ? new IndexedBlockAccessor(blockNumber, indexedFilePath, blockFile.compressionType(), blockFiles)
+                    : null;
+        }
+    }
+
+    /**
+     * Get block accessors for a range of blocks, in ascending block number order. Each archive file is opened once for
+     * the blocks in the range it holds, and kept open until the stream moves on to the next archive file or is closed,
+     * rather than looking up the archive file again for each block. The stream ends at the first block that is not
+     * stored.
+     *
+     * @param firstBlockNumber the first block number of the range, inclusive
+     * @param lastBlockNumber the last block number of the range, inclusive
+     * @return a stream of block accessors, which must be closed
+     */
+    Stream<BlockAccessor> blocks(final long firstBlockNumber, final long lastBlockNumber) {
+        final RangeIterator iterator = new RangeIterator(firstBlockNumber, lastBlockNumber);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Find the ranges of blocks stored, by reading the index of every archive file of either format. Only the blocks
+     * actually in the archive files are included, so a missing or unreadable archive file shows as a gap between
+     * ranges. Archive files that can not be read, or fail validation, are logged and left out.
+     *
+     * @param validate true to also check every block against its checksum, which reads every archive file in full
+     * @return the ranges of stored blocks, in ascending order
+     * @throws IOException if the archive directories could not be walked
+     */
+    List<LongRange> scanStoredBlockRanges(final boolean validate) throws IOException {
+        if (!Files.isDirectory(config.rootPath())) {
+            return List.of();
+        }
+        final List<Path> archiveFilePaths;
+        try (Stream<Path> paths = Files.walk(config.rootPath())) {
+            archiveFilePaths = paths.filter(Files::isRegularFile)
+                    .filter(ZipBlockArchive::isArchiveFile)
+                    .toList();
+        }
+        final ConcurrentLongRangeSet storedBlocks = new ConcurrentLongRangeSet();
+        for (final Path archiveFilePath : archiveFilePaths) {
+            try (ArchiveFile archiveFile = acquireArchiveFile(archiveFilePath)) {
+                if (validate) {
+                    archiveFile.validate();
+                }
+                // add runs of consecutive block numbers as ranges, rather than one block at a time
+                final long[] blockNumbers = archiveFile.blockNumbers();
+                int runStart = 0;
+                for (int i = 1; i <= blockNumbers.length; i++) {
+                    if (i == blockNumbers.length || blockNumbers[i] != blockNumbers[i - 1] + 1) {
+                        storedBlocks.add(blockNumbers[runStart], blockNumbers[i - 1]);
+                        runStart = i;
                     }
                 }
-            } catch (final Exception e) {
-                LOGGER.log(System.Logger.Level.ERROR, "Error reading directory: " + lowestPath, e);
-                context.serverHealth()
-                        .shutdown(
-                                ZipBlockArchive.class.getName(),
-                                "Error reading directory: " + lowestPath + " because " + e.getMessage());
-                lowestPath = null;
-            }
-        }
-        return -1;
-    }
-
-    /**
-     * Finds the maximum block number in a directory structure of zip files.
-     *
-     * @return the maximum block number, or -1 if no block files are found
-     */
-    long maxStoredBlockNumber() {
-        // find the highest block number
-        Path highestPath = config.rootPath();
-        while (highestPath != null) {
-            // get the first directory in the path
-            try (var childFilesStream = Files.list(highestPath)) {
-                List<Path> childFiles = childFilesStream.toList();
-                // check if we are a directory of directories
-                final Optional<Path> max = childFiles.stream()
-                        .filter(Files::isDirectory)
-                        .max(Comparator.comparingLong(
-                                path -> Long.parseLong(path.getFileName().toString())));
-                if (max.isPresent()) {
-                    highestPath = max.get();
-                } else {
-                    // we are at the deepest directory, check for block files
-                    final Optional<Path> zipFilePath = childFiles.stream()
-                            .filter(Files::isRegularFile)
-                            .filter(path -> path.getFileName().toString().endsWith(".zip"))
-                            .max(Comparator.comparingLong(filePath -> {
-                                String fileName = filePath.getFileName().toString();
-                                return Long.parseLong(fileName.substring(0, fileName.indexOf('s')));
-                            }));
-                    if (zipFilePath.isPresent()) {
-                        try (var zipFile = new ZipFile(zipFilePath.get().toFile())) {
-                            return zipFile.stream()
-                                    .mapToLong(entry -> blockNumberFromFile(entry.getName()))
-                                    .max()
-                                    .orElse(-1);
-                        }
-                    } else {
-                        // no zip files found in max directory
-                        return -1;
+            } catch (final IOException | RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Skipping unreadable archive file: " + archiveFilePath, e);
+                invalidate(archiveFilePath);
+            }
+        }
+        return storedBlocks.streamRanges().toList();
+    }
+
+    /**
+     * Check an archive file exists, in either format, for each batch of blocks in a range. This does not open the
+     * archive files, so takes time proportional to the number of archive files rather than the number of blocks.
+     *
+     * @param range the range of blocks
+     * @return true if there is an archive file for every batch the range covers
+     */
+    boolean archiveFilesExist(@NonNull final LongRange range) {
+        long batchStart = range.start() - Math.floorMod(range.start(), numberOfBlocksPerZipFile);
+        for (; batchStart <= range.end(); batchStart += numberOfBlocksPerZipFile) {
+            if (!archiveFileExists(batchStart)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check an archive file exists, in either format, for the batch of blocks holding a block.
+     *
+     * @param blockNumber the block number
+     * @return true if there is an archive file for the block's batch
+     */
+    boolean archiveFileExists(final long blockNumber) {
+        final BlockPath blockPath = computeBlockPath(config, blockNumber);
+        return Files.exists(blockPath.zipFilePath()) || Files.exists(blockPath.indexedFilePath());
+    }
+
+    /**
+     * Check if there are archive files stored in the format other than the configured one, that
+     * {@link #convertArchives()} would convert.
+     *
+     * @return true if there are archive files to convert
+     */
+    boolean hasArchivesToConvert() {
+        return !archivesToConvert().isEmpty();
+    }
+
+    /**
+     * Convert all archive files stored in the format other than the configured one, deleting each source file once its
+     * converted file is in place. Blocks stay readable throughout, as they are read from whichever format exists. A
+     * file that fails to convert is logged and left as it is, to be retried next time.
+     */
+    void convertArchives() {
+        for (final Path sourcePath : archivesToConvert()) {
+            final String fileName = sourcePath.getFileName().toString();
+            try {
+                switch (config.archiveFormat()) {
+                    case INDEXED -> {
+                        final Path targetPath = sourcePath.resolveSibling(
+                                fileName.substring(0, fileName.length() - ZIP_EXTENSION.length())
+                                        + IndexedBlockFile.EXTENSION);
+                        ArchiveConverter.zipToIndexed(
+                                sourcePath, targetPath, config.compression(), config.compressionLevel());
+                        blockFiles.invalidate(targetPath);
+                        Files.delete(sourcePath);
+                        zipFiles.invalidate(sourcePath);
+                    }
+                    case ZIP -> {
+                        final Path targetPath = sourcePath.resolveSibling(
+                                fileName.substring(0, fileName.length() - IndexedBlockFile.EXTENSION.length())
+                                        + ZIP_EXTENSION);
+                        ArchiveConverter.indexedToZip(sourcePath, targetPath);
+                        zipFiles.invalidate(targetPath);
+                        Files.delete(sourcePath);
+                        blockFiles.invalidate(sourcePath);
                     }
                 }
-            } catch (final Exception e) {
-                LOGGER.log(System.Logger.Level.ERROR, "Error reading directory: " + highestPath, e);
-                context.serverHealth()
-                        .shutdown(
-                                ZipBlockArchive.class.getName(),
-                                "Error reading directory: " + highestPath + " because " + e.getMessage());
-                highestPath = null;
+                LOGGER.log(System.Logger.Level.INFO, "Converted archive file: " + sourcePath);
+            } catch (final IOException | RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Failed to convert archive file: " + sourcePath, e);
+            }
+        }
+    }
+
+    /**
+     * Compact the archive file holding a batch of blocks, compressing every block again with Zstandard at a compression
+     * level and writing it in the configured archive format. The compacted file is written next to the archive file and
+     * checked to hold the same blocks, then moved over it. Readers part way through reading the old file keep reading
+     * it, the next read opens the compacted file. The old file is kept if the compacted file is not smaller.
+     *
+     * @param blockNumber any block number in the batch
+     * @param compressionLevel the Zstandard level to compress each block at
+     * @param throttle limits the rate the compacted file is written at
+     * @return the number of bytes reclaimed, zero if the old file was kept or there is no archive file for the batch
+     * @throws IOException if the archive file could not be compacted, the old file is kept
+     */
+    long compactArchive(
+            final long blockNumber, final int compressionLevel, @NonNull final ArchiveWriteThrottle throttle)
+            throws IOException {
+        final BlockPath blockPath = computeBlockPath(config, blockNumber);
+        final Path targetPath = config.archiveFormat() == ArchiveFormat.INDEXED
+                ? blockPath.indexedFilePath()
+                : blockPath.zipFilePath();
+        final Path otherPath = config.archiveFormat() == ArchiveFormat.INDEXED
+                ? blockPath.zipFilePath()
+                : blockPath.indexedFilePath();
+        final Path sourcePath = Files.exists(targetPath) ? targetPath : otherPath;
+        if (!Files.exists(sourcePath)) {
+            return 0;
+        }
+        final Path compactedPath = targetPath.resolveSibling(targetPath.getFileName() + COMPACTED_SUFFIX);
+        try {
+            ArchiveConverter.recompress(
+                    sourcePath, compactedPath, config.archiveFormat(), compressionLevel, throttle);
+            final long sourceSize = Files.size(sourcePath);
+            final long compactedSize = Files.size(compactedPath);
+            if (compactedSize >= sourceSize) {
+                return 0;
+            }
+            // only replace the archive file once the compacted file is known to be readable and hold the same blocks
+            try (final ArchiveFile source = acquireArchiveFile(sourcePath);
+                    final ArchiveFile compacted = config.archiveFormat() == ArchiveFormat.INDEXED
+                            ? IndexedBlockFile.open(compactedPath)
+                            : IndexedZipFile.open(compactedPath)) {
+                if (!Arrays.equals(source.blockNumbers(), compacted.blockNumbers())) {
+                    throw new IOException("Compacted archive file does not hold the same blocks: " + sourcePath);
+                }
+            }
+            // the compacted file was synced before it was moved into place by the converter, so only the moves and
+            // delete here need the directory syncing to survive a crash
+            Files.move(compactedPath, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            invalidate(targetPath);
+            if (!sourcePath.equals(targetPath)) {
+                Files.delete(sourcePath);
+                invalidate(sourcePath);
+            }
+            FileUtilities.forceDirectory(targetPath.getParent());
+            return sourceSize - compactedSize;
+        } finally {
+            Files.deleteIfExists(compactedPath);
+        }
+    }
+
+    /**
+     * Find the archive files stored in the format other than the configured one.
+     *
+     * @return the paths of the archive files to convert
+     */
+    private List<Path> archivesToConvert() {
+        final String sourceExtension = switch (config.archiveFormat()) {
+            case ZIP -> IndexedBlockFile.EXTENSION;
+            case INDEXED -> ZIP_EXTENSION;};
+        if (!Files.isDirectory(config.rootPath())) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.walk(config.rootPath())) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(sourceExtension))
+                    .toList();
+        } catch (final IOException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Error finding archive files to convert", e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Get the open archive file that holds a block, checking the configured archive format first.
+     *
+     * @param blockNumber the block number
+     * @return the open archive file, which the caller must close, or null if there is no archive file for the block
+     * @throws IOException if the archive file could not be opened
+     */
+    private ArchiveFile acquireArchiveFileFor(final long blockNumber) throws IOException {
+        final BlockPath blockPath = computeBlockPath(config, blockNumber);
+        final List<Path> candidates = config.archiveFormat() == ArchiveFormat.INDEXED
+                ? List.of(blockPath.indexedFilePath(), blockPath.zipFilePath())
+                : List.of(blockPath.zipFilePath(), blockPath.indexedFilePath());
+        for (final Path candidate : candidates) {
+            try {
+                return acquireArchiveFile(candidate);
+            } catch (final NoSuchFileException e) {
+                // try the other format
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check if a file is an archive file of either format.
+     *
+     * @param path the path of the file
+     * @return true if the file is a zip file or an indexed block file
+     */
+    private static boolean isArchiveFile(final Path path) {
+        final String fileName = path.getFileName().toString();
+        return fileName.endsWith(ZIP_EXTENSION) || fileName.endsWith(IndexedBlockFile.EXTENSION);
+    }
+
+    /**
+     * Drop an archive file from the pool for its format, so the next read opens it again.
+     *
+     * @param path the path of the zip file or indexed block file
+     */
+    private void invalidate(final Path path) {
+        if (path.getFileName().toString().endsWith(IndexedBlockFile.EXTENSION)) {
+            blockFiles.invalidate(path);
+        } else {
+            zipFiles.invalidate(path);
+        }
+    }
+
+    /**
+     * Get an open archive file from the pool for its format. The caller must close it once done reading from it.
+     *
+     * @param path the path of the zip file or indexed block file
+     * @return the open archive file
+     * @throws IOException if the archive file could not be opened
+     */
+    private ArchiveFile acquireArchiveFile(final Path path) throws IOException {
+        return path.getFileName().toString().endsWith(IndexedBlockFile.EXTENSION)
+                ? blockFiles.acquire(path)
+                : zipFiles.acquire(path);
+    }
+
+    /**
+     * Close all the archive files open for reading and stop the zip build workers once they have prepared the blocks
+     * already queued.
+     */
+    @Override
+    public void close() {
+        zipFiles.close();
+        blockFiles.close();
+        for (final ExecutorService worker : zipBuildWorkers) {
+            worker.shutdown();
+        }
+    }
+
+    /**
+     * Iterator over a range of stored blocks, holding a reference to the archive file of the current block.
+     */
+    private final class RangeIterator implements Iterator<BlockAccessor> {
+        /** The last block number of the range, inclusive. */
+        private final long lastBlockNumber;
+        /** The next block number to return. */
+        private long nextBlockNumber;
+        /** The accessor for the next block, null if it has not been looked up yet. */
+        private BlockAccessor nextAccessor;
+        /** The archive file holding the next block, null if it has not been opened yet. */
+        private ArchiveFile archiveFile;
+        /** The last block number the current archive file can hold. */
+        private long archiveFileLastBlockNumber = -1;
+        /** True once a block in the range is not stored. */
+        private boolean ended;
+
+        /**
+         * Create a new range iterator.
+         *
+         * @param firstBlockNumber the first block number of the range, inclusive
+         * @param lastBlockNumber the last block number of the range, inclusive
+         */
+        private RangeIterator(final long firstBlockNumber, final long lastBlockNumber) {
+            this.nextBlockNumber = firstBlockNumber;
+            this.lastBlockNumber = lastBlockNumber;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            if (nextAccessor != null) {
+                return true;
+            }
+            if (ended || nextBlockNumber > lastBlockNumber) {
+                return false;
+            }
+            if (archiveFile == null || nextBlockNumber > archiveFileLastBlockNumber) {
+                close();
+                try {
+                    archiveFile = acquireArchiveFileFor(nextBlockNumber);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                archiveFileLastBlockNumber = nextBlockNumber
+                        - Math.floorMod(nextBlockNumber, numberOfBlocksPerZipFile)
+                        + numberOfBlocksPerZipFile
+                        - 1;
+            }
+            if (archiveFile instanceof IndexedBlockFile blockFile) {
+                if (blockFile.contains(nextBlockNumber)) {
+                    nextAccessor = new IndexedBlockAccessor(
+                            nextBlockNumber, blockFile.path(), blockFile.compressionType(), blockFiles);
+                }
+            } else if (archiveFile instanceof IndexedZipFile zipFile) {
+                final BlockPath blockPath = computeExistingBlockPath(config, nextBlockNumber, zipFile);
+                if (blockPath != null) {
+                    nextAccessor = new ZipBlockAccessor(blockPath, zipFiles);
+                }
+            }
+            ended = nextAccessor == null;
+            return !ended;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BlockAccessor next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final BlockAccessor accessor = nextAccessor;
+            nextAccessor = null;
+            nextBlockNumber++;
+            return accessor;
+        }
+
+        /**
+         * Release the reference to the current archive file, if there is one.
+         */
+        private void close() {
+            if (archiveFile != null) {
+                try {
+                    archiveFile.close();
+                } catch (final IOException e) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Failed to close archive file: " + archiveFile.path(), e);
+                }
+                archiveFile = null;
             }
         }
-        return -1;
     }
 }
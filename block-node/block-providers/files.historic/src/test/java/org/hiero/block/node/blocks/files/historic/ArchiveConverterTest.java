@@ -0,0 +1,138 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.CompressionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for {@link ArchiveConverter}.
+ */
+@DisplayName("ArchiveConverter Tests")
+class ArchiveConverterTest {
+    /** Temp dir used for testing as mapping files is not supported by jimfs */
+    @TempDir
+    private Path tempDir;
+
+    /**
+     * This test aims to assert that a zip file converted to an indexed block
+     * file and back holds the same block files, stored entries named as
+     * {@link ZipBlockArchive} names them.
+     */
+    @Test
+    @DisplayName("Test converting a zip file to an indexed block file and back")
+    void testRoundTrip() throws IOException {
+        final Path zipFilePath = tempDir.resolve("0000s.zip");
+        final Path indexedFilePath = tempDir.resolve("0000s" + IndexedBlockFile.EXTENSION);
+        final Path convertedZipFilePath = tempDir.resolve("converted.zip");
+        writeZip(zipFilePath, CompressionType.ZSTD, 0, 10);
+        ArchiveConverter.zipToIndexed(zipFilePath, indexedFilePath, CompressionType.ZSTD, 3);
+        try (final IndexedBlockFile blockFile = IndexedBlockFile.open(indexedFilePath)) {
+            assertThat(blockFile.compressionType()).isEqualTo(CompressionType.ZSTD);
+            assertThat(blockFile.size()).isEqualTo(10);
+            for (long blockNumber = 0; blockNumber < 10; blockNumber++) {
+                assertThat(blockFile.read(blockNumber)).isEqualTo(blockFileBytes(blockNumber, CompressionType.ZSTD));
+            }
+        }
+        ArchiveConverter.indexedToZip(indexedFilePath, convertedZipFilePath);
+        try (final IndexedZipFile zipFile = IndexedZipFile.open(convertedZipFilePath)) {
+            assertThat(zipFile.size()).isEqualTo(10);
+            for (long blockNumber = 0; blockNumber < 10; blockNumber++) {
+                final IndexedZipFile.Entry entry = zipFile.entry(blockNumber);
+                assertThat(entry.name()).isEqualTo(BlockFile.blockFileName(blockNumber, CompressionType.ZSTD));
+                assertThat(entry.method()).isEqualTo(IndexedZipFile.METHOD_STORED);
+                assertThat(zipFile.readStored(entry)).isEqualTo(blockFileBytes(blockNumber, CompressionType.ZSTD));
+            }
+        }
+        // no temporary files are left behind
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).containsExactlyInAnyOrder(zipFilePath, indexedFilePath, convertedZipFilePath);
+        }
+    }
+
+    /**
+     * This test aims to assert that block files stored in a zip file with a
+     * different compression type than the indexed block file are compressed
+     * again when converted.
+     */
+    @Test
+    @DisplayName("Test converting a zip file compresses block files again when the compression differs")
+    void testZipToIndexedChangesCompression() throws IOException {
+        final Path zipFilePath = tempDir.resolve("0000s.zip");
+        final Path indexedFilePath = tempDir.resolve("0000s" + IndexedBlockFile.EXTENSION);
+        writeZip(zipFilePath, CompressionType.NONE, 100, 105);
+        ArchiveConverter.zipToIndexed(zipFilePath, indexedFilePath, CompressionType.ZSTD, 3);
+        try (final IndexedBlockFile blockFile = IndexedBlockFile.open(indexedFilePath)) {
+            assertThat(blockFile.compressionType()).isEqualTo(CompressionType.ZSTD);
+            assertThat(blockFile.minBlockNumber()).isEqualTo(100L);
+            assertThat(blockFile.maxBlockNumber()).isEqualTo(104L);
+            for (long blockNumber = 100; blockNumber < 105; blockNumber++) {
+                assertThat(CompressionType.ZSTD.decompress(blockFile.read(blockNumber)))
+                        .isEqualTo(blockContent(blockNumber));
+            }
+        }
+    }
+
+    /**
+     * Write a zip file of block files, like {@link ZipBlockArchive} writes them.
+     *
+     * @param zipFilePath the path of the zip file to write
+     * @param compressionType the compression type of the block files
+     * @param firstBlockNumber the first block number, inclusive
+     * @param endBlockNumber the last block number, exclusive
+     */
+    private static void writeZip(
+            final Path zipFilePath,
+            final CompressionType compressionType,
+            final long firstBlockNumber,
+            final long endBlockNumber)
+            throws IOException {
+        try (final ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(zipFilePath))) {
+            zipOut.setMethod(ZipOutputStream.STORED);
+            for (long blockNumber = firstBlockNumber; blockNumber < endBlockNumber; blockNumber++) {
+                final byte[] content = blockFileBytes(blockNumber, compressionType);
+                final ZipEntry zipEntry = new ZipEntry(BlockFile.blockFileName(blockNumber, compressionType));
+                final CRC32 crc = new CRC32();
+                crc.update(content);
+                zipEntry.setSize(content.length);
+                zipEntry.setCompressedSize(content.length);
+                zipEntry.setCrc(crc.getValue());
+                zipOut.putNextEntry(zipEntry);
+                zipOut.write(content);
+                zipOut.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Get the block file bytes of a block, as stored with a compression type.
+     *
+     * @param blockNumber the block number
+     * @param compressionType the compression type
+     * @return the block file bytes
+     */
+    private static byte[] blockFileBytes(final long blockNumber, final CompressionType compressionType) {
+        return compressionType.compress(blockContent(blockNumber));
+    }
+
+    /**
+     * Get some compressible content that is different for each block.
+     *
+     * @param blockNumber the block number
+     * @return the content
+     */
+    private static byte[] blockContent(final long blockNumber) {
+        return ("block " + blockNumber + " ").repeat(50 + (int) blockNumber).getBytes(StandardCharsets.UTF_8);
+    }
+}
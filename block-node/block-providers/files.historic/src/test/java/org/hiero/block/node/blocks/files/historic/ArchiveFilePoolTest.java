@@ -0,0 +1,169 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for {@link ArchiveFilePool}.
+ */
+@DisplayName("ArchiveFilePool Tests")
+class ArchiveFilePoolTest {
+    /** Temp dir used for testing as mapping files is not supported by jimfs */
+    @TempDir
+    private Path tempDir;
+    /** The pool instance to be tested. */
+    private ArchiveFilePool<IndexedZipFile> toTest;
+
+    @BeforeEach
+    void setup() {
+        toTest = new ArchiveFilePool<>(2, IndexedZipFile::open);
+    }
+
+    @AfterEach
+    void tearDown() {
+        toTest.close();
+    }
+
+    /**
+     * This test aims to assert that the constructor rejects a maximum that
+     * is not positive.
+     */
+    @Test
+    @DisplayName("Test constructor throws IllegalArgumentException when maxOpenFiles is not positive")
+    void testInvalidMaxOpenZipFiles() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ArchiveFilePool<>(0, IndexedZipFile::open));
+    }
+
+    /**
+     * This test aims to assert that acquiring the same zip file twice
+     * returns the same open instance rather than reading it again.
+     */
+    @Test
+    @DisplayName("Test acquire reuses the open zip file")
+    void testAcquireReusesOpenZipFile() throws IOException {
+        final Path zipFilePath = writeZip("0.zip", 0);
+        try (final IndexedZipFile first = toTest.acquire(zipFilePath);
+                final IndexedZipFile second = toTest.acquire(zipFilePath)) {
+            assertThat(second).isSameAs(first);
+            assertThat(toTest.openCount()).isEqualTo(1);
+        }
+    }
+
+    /**
+     * This test aims to assert that the least recently used zip file is
+     * evicted once more than the maximum are open.
+     */
+    @Test
+    @DisplayName("Test the least recently used zip file is evicted over the maximum")
+    void testEvictLeastRecentlyUsed() throws IOException {
+        final Path zip0 = writeZip("0.zip", 0);
+        final Path zip1 = writeZip("1.zip", 1);
+        final Path zip2 = writeZip("2.zip", 2);
+        final IndexedZipFile first;
+        try (final IndexedZipFile zipFile = toTest.acquire(zip0)) {
+            first = zipFile;
+        }
+        toTest.acquire(zip1).close();
+        // use zip0 again so zip1 is the least recently used
+        toTest.acquire(zip0).close();
+        toTest.acquire(zip2).close();
+        assertThat(toTest.openCount()).isEqualTo(2);
+        try (final IndexedZipFile zipFile = toTest.acquire(zip0)) {
+            assertThat(zipFile).isSameAs(first);
+        }
+    }
+
+    /**
+     * This test aims to assert that a zip file evicted from the pool stays
+     * readable until the reader holding it releases it.
+     */
+    @Test
+    @DisplayName("Test an evicted zip file stays open until released by its reader")
+    void testEvictedZipFileReadableUntilReleased() throws IOException {
+        final Path zipFilePath = writeZip("0.zip", 0);
+        final IndexedZipFile zipFile = toTest.acquire(zipFilePath);
+        toTest.invalidate(zipFilePath);
+        assertThat(toTest.openCount()).isZero();
+        try (final InputStream in = zipFile.inputStream(zipFile.entry(0L))) {
+            assertThat(in.readAllBytes()).isEqualTo(blockContent(0));
+        }
+        zipFile.close();
+        assertThat(zipFile.retain()).isFalse();
+    }
+
+    /**
+     * This test aims to assert that an invalidated zip file is read again
+     * on the next acquire, so a rewritten zip file is seen.
+     */
+    @Test
+    @DisplayName("Test invalidate makes the next acquire read the zip file again")
+    void testInvalidateReopens() throws IOException {
+        final Path zipFilePath = writeZip("0.zip", 0);
+        try (final IndexedZipFile zipFile = toTest.acquire(zipFilePath)) {
+            assertThat(zipFile.maxBlockNumber()).isEqualTo(0L);
+        }
+        writeZip("0.zip", 0, 1);
+        toTest.invalidate(zipFilePath);
+        try (final IndexedZipFile zipFile = toTest.acquire(zipFilePath)) {
+            assertThat(zipFile.maxBlockNumber()).isEqualTo(1L);
+        }
+    }
+
+    /**
+     * This test aims to assert that acquiring a missing zip file throws a
+     * {@link NoSuchFileException} and leaves nothing in the pool.
+     */
+    @Test
+    @DisplayName("Test acquire throws NoSuchFileException when the zip file is missing")
+    void testAcquireMissing() {
+        assertThatIOException()
+                .isThrownBy(() -> toTest.acquire(tempDir.resolve("missing.zip")))
+                .isInstanceOf(NoSuchFileException.class);
+        assertThat(toTest.openCount()).isZero();
+    }
+
+    /**
+     * Write a zip file with one deflated entry per block.
+     *
+     * @param fileName the file name of the zip file in the temp dir
+     * @param blockNumbers the block numbers of the entries
+     * @return the path of the zip file
+     */
+    private Path writeZip(final String fileName, final long... blockNumbers) throws IOException {
+        final Path zipFilePath = tempDir.resolve(fileName);
+        try (final ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(zipFilePath))) {
+            for (final long blockNumber : blockNumbers) {
+                zipOut.putNextEntry(new ZipEntry(String.format("%019d.blk", blockNumber)));
+                zipOut.write(blockContent(blockNumber));
+                zipOut.closeEntry();
+            }
+        }
+        return zipFilePath;
+    }
+
+    /**
+     * Get some content that is different for each block.
+     *
+     * @param blockNumber the block number
+     * @return the content
+     */
+    private static byte[] blockContent(final long blockNumber) {
+        return ("block " + blockNumber).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link ArchiveJobTracker}.
+ */
+@DisplayName("ArchiveJobTracker Tests")
+class ArchiveJobTrackerTest {
+    /** The tracker instance to be tested. */
+    private final ArchiveJobTracker toTest = new ArchiveJobTracker();
+    /** The batches published by the tracker, in the order they were published. */
+    private final List<LongRange> published = new ArrayList<>();
+
+    /**
+     * This test aims to assert that a batch already being archived can not
+     * be started again until it has finished.
+     */
+    @Test
+    @DisplayName("Test a batch in progress is not started twice")
+    void testDuplicateStartRejected() {
+        final LongRange batch = new LongRange(0, 9);
+        assertThat(toTest.start(batch)).isTrue();
+        assertThat(toTest.start(new LongRange(0, 9))).isFalse();
+        assertThat(toTest.inProgressCount()).isEqualTo(1);
+        toTest.finish(batch, true, published::add);
+        assertThat(toTest.inProgressCount()).isZero();
+        assertThat(toTest.start(batch)).isTrue();
+    }
+
+    /**
+     * This test aims to assert that a batch finishing before a lower batch
+     * is held back, then published after the lower batch in block order.
+     */
+    @Test
+    @DisplayName("Test batches finished out of order are published in block order")
+    void testOutOfOrderFinishPublishedInOrder() {
+        final LongRange first = new LongRange(0, 9);
+        final LongRange second = new LongRange(10, 19);
+        final LongRange third = new LongRange(20, 29);
+        toTest.start(first);
+        toTest.start(second);
+        toTest.start(third);
+        toTest.finish(third, true, published::add);
+        toTest.finish(second, true, published::add);
+        assertThat(published).isEmpty();
+        toTest.finish(first, true, published::add);
+        assertThat(published).containsExactly(first, second, third);
+    }
+
+    /**
+     * This test aims to assert that a failed batch is not published and no
+     * longer holds back the batches above it.
+     */
+    @Test
+    @DisplayName("Test a failed batch does not hold back higher batches")
+    void testFailedBatchReleasesHigherBatches() {
+        final LongRange first = new LongRange(0, 9);
+        final LongRange second = new LongRange(10, 19);
+        toTest.start(first);
+        toTest.start(second);
+        toTest.finish(second, true, published::add);
+        assertThat(published).isEmpty();
+        toTest.finish(first, false, published::add);
+        assertThat(published).containsExactly(second);
+        assertThat(toTest.inProgressCount()).isZero();
+    }
+
+    /**
+     * This test aims to assert that a batch below one still in progress,
+     * for example a backfilled gap, is published without waiting.
+     */
+    @Test
+    @DisplayName("Test a lower batch is published while a higher batch is in progress")
+    void testLowerBatchNotHeldBack() {
+        final LongRange gap = new LongRange(10, 19);
+        final LongRange tail = new LongRange(50, 59);
+        toTest.start(tail);
+        toTest.start(gap);
+        toTest.finish(gap, true, published::add);
+        assertThat(published).containsExactly(gap);
+    }
+}
@@ -0,0 +1,56 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link ArchiveWriteThrottle}.
+ */
+@DisplayName("ArchiveWriteThrottle Tests")
+class ArchiveWriteThrottleTest {
+    /**
+     * This test aims to assert that the constructor rejects a negative
+     * maximum rate.
+     */
+    @Test
+    @DisplayName("Test constructor throws IllegalArgumentException when maxBytesPerSecond is negative")
+    void testNegativeMaxBytesPerSecond() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new ArchiveWriteThrottle(-1));
+    }
+
+    /**
+     * This test aims to assert that an unlimited throttle never waits.
+     */
+    @Test
+    @DisplayName("Test unlimited throttle does not wait")
+    void testUnlimited() throws InterruptedException {
+        final ArchiveWriteThrottle toTest = new ArchiveWriteThrottle(0);
+        final long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            toTest.written(Long.MAX_VALUE / 2);
+        }
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * This test aims to assert that writes are paced to the maximum rate,
+     * each write waiting for the time the writes before it take.
+     */
+    @Test
+    @DisplayName("Test writes are paced to the maximum rate")
+    void testPacedToMaxRate() throws InterruptedException {
+        // 1,000 bytes per second, so each 100 byte write takes 100ms
+        final ArchiveWriteThrottle toTest = new ArchiveWriteThrottle(1_000);
+        final long start = System.nanoTime();
+        // the first write does not wait, the next two wait for the writes before them
+        toTest.written(100);
+        toTest.written(100);
+        toTest.written(100);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+}
@@ -231,8 +231,15 @@ class BlockPathTest {
             final Path expectedZipFilePath = jimfs.getPath(ROOT_PATH + expectedRelativeZipFilePathStr);
             final Path expectedDirPath = expectedZipFilePath.getParent();
             // create the config to use for the test, resolve paths with jimfs
-            final FilesHistoricConfig testConfig = new FilesHistoricConfig(
-                    jimfs.getPath(ROOT_PATH), expectedCompressionType, digitsPerZipFileContents);
+            final FilesHistoricConfig testConfig = FilesHistoricConfigBuilder.defaults(jimfs.getPath(ROOT_PATH))
+                    .compression(expectedCompressionType)
+                    .powersOfTenPerZipFileContents(digitsPerZipFileContents)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
             final BlockPath actual = BlockPath.computeBlockPath(testConfig, blockNumber);
             assertThat(actual)
                     .isNotNull()
@@ -267,8 +274,15 @@ class BlockPathTest {
             final Path expectedDirPath = expectedZipFilePath.getParent();
             // create the config to use for the test, resolve paths temp dir as jimfs does not support
             // the File abstraction
-            final FilesHistoricConfig testConfig =
-                    new FilesHistoricConfig(tempDir, expectedCompressionType, digitsPerZipFileContents);
+            final FilesHistoricConfig testConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .compression(expectedCompressionType)
+                    .powersOfTenPerZipFileContents(digitsPerZipFileContents)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
             // create the zip file and directory and add entry
             createZipAndAddEntry(expectedDirPath, expectedZipFilePath, expectedBlockFileName);
             // call
@@ -315,8 +329,15 @@ class BlockPathTest {
                     .orElseThrow();
             // create the config to use for the test, resolve paths temp dir as jimfs does not support
             // the File abstraction
-            final FilesHistoricConfig testConfig =
-                    new FilesHistoricConfig(tempDir, differentCompressionType, digitsPerZipFileContents);
+            final FilesHistoricConfig testConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .compression(differentCompressionType)
+                    .powersOfTenPerZipFileContents(digitsPerZipFileContents)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
             // create the zip file and directory and add entry
             createZipAndAddEntry(expectedDirPath, expectedZipFilePath, expectedBlockFileName);
             // call
@@ -346,8 +367,15 @@ class BlockPathTest {
             final Long blockNumber = argAccessor.getLong(3);
             final CompressionType expectedCompressionType = argAccessor.get(4, CompressionType.class);
             final int digitsPerZipFileContents = argAccessor.getInteger(5);
-            final FilesHistoricConfig testConfig =
-                    new FilesHistoricConfig(tempDir, expectedCompressionType, digitsPerZipFileContents);
+            final FilesHistoricConfig testConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .compression(expectedCompressionType)
+                    .powersOfTenPerZipFileContents(digitsPerZipFileContents)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
             // call
             final BlockPath actual = BlockPath.computeExistingBlockPath(testConfig, blockNumber);
             assertThat(actual).isNull();
@@ -374,8 +402,15 @@ class BlockPathTest {
             final Path expectedZipFilePath = tempDir.resolve(tempDir + expectedRelativeZipFilePathStr);
             final Path expectedDirPath = expectedZipFilePath.getParent();
             // create the config to use for the test
-            final FilesHistoricConfig testConfig =
-                    new FilesHistoricConfig(tempDir, expectedCompressionType, digitsPerZipFileContents);
+            final FilesHistoricConfig testConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .compression(expectedCompressionType)
+                    .powersOfTenPerZipFileContents(digitsPerZipFileContents)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
             // create the zip file and directory and add entry
             createZipAndAddEntry(expectedDirPath, expectedZipFilePath, "nonexistent.blk.zstd");
             // call
@@ -32,6 +32,7 @@ import org.hiero.block.node.app.fixtures.plugintest.SimpleInMemoryHistoricalBloc
 import org.hiero.block.node.app.fixtures.plugintest.TestBlockMessagingFacility;
 import org.hiero.block.node.app.fixtures.plugintest.TestHealthFacility;
 import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ranges.BlockRangeManifest;
 import org.hiero.block.node.spi.BlockNodeContext;
 import org.hiero.block.node.spi.ServiceBuilder;
 import org.hiero.block.node.spi.blockmessaging.BlockItems;
@@ -39,6 +40,7 @@ import org.hiero.block.node.spi.blockmessaging.PersistedNotification;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
 import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
 import org.hiero.block.node.spi.historicalblocks.HistoricalBlockFacility;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -65,7 +67,14 @@ class BlocksFilesHistoricPluginTest {
         // use 10 blocks per zip, assuming that the first zip file will contain
         // for example blocks 0-9, the second zip file will contain blocks 10-19
         // also we will not use compression, and we will use the jUnit temp dir
-        testConfig = new FilesHistoricConfig(tempDir, CompressionType.NONE, 1);
+        testConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                .compression(CompressionType.NONE)
+                .powersOfTenPerZipFileContents(1)
+                .zipBuildThreads(0)
+                .zipBuildWindow(4)
+                .archiveMaxBytesPerSecond(0)
+                .compactionMaxBytesPerSecond(0)
+                .build();
         // build the plugin using the test environment
         toTest = new BlocksFilesHistoricPlugin();
         // initialize an in memory historical block facility to use for testing
@@ -126,6 +135,61 @@ class BlocksFilesHistoricPluginTest {
             final BlocksFilesHistoricPlugin toTest = new BlocksFilesHistoricPlugin();
             assertThatNoException().isThrownBy(() -> toTest.init(testContext, null));
         }
+
+        /**
+         * This test aims to verify that
+         * {@link BlocksFilesHistoricPlugin#init(BlockNodeContext, ServiceBuilder)}
+         * only makes available the blocks in archive files that exist, so a
+         * missing archive file shows as a gap, and that the manifest written
+         * on stop is only trusted while it matches the archive files.
+         */
+        @Test
+        @DisplayName("Test init finds gaps left by missing archive files")
+        void testInitWithGap(@TempDir final Path tempDir) throws IOException {
+            final Configuration configuration = ConfigurationBuilder.create()
+                    .withConfigDataType(FilesHistoricConfig.class)
+                    .withValue("files.historic.rootPath", tempDir.toString())
+                    .withValue("files.historic.compression", CompressionType.NONE.name())
+                    .withValue("files.historic.powersOfTenPerZipFileContents", "1")
+                    .withValue("files.historic.zipBuildThreads", "0")
+                    .build();
+            final SimpleInMemoryHistoricalBlockFacility historicalBlockProvider =
+                    new SimpleInMemoryHistoricalBlockFacility();
+            for (int i = 0; i < 30; i++) {
+                final BlockItemUnparsed[] block = SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i);
+                historicalBlockProvider.handleBlockItemsReceived(new BlockItems(List.of(block), i), false);
+            }
+            final BlockNodeContext testContext = new BlockNodeContext(
+                    configuration,
+                    null,
+                    new TestHealthFacility(),
+                    new TestBlockMessagingFacility(),
+                    historicalBlockProvider,
+                    null,
+                    new TestThreadPoolManager<>(new BlockingSerialExecutor(new LinkedBlockingQueue<>())));
+            final FilesHistoricConfig config = configuration.getConfigData(FilesHistoricConfig.class);
+            // write archive files for blocks 0-9 and 20-29, leaving a gap
+            try (final ZipBlockArchive archive = new ZipBlockArchive(testContext, config)) {
+                archive.writeNewZipFile(0);
+                archive.writeNewZipFile(20);
+            }
+            final BlocksFilesHistoricPlugin toTest = new BlocksFilesHistoricPlugin();
+            toTest.init(testContext, null);
+            assertThat(toTest.availableBlocks().streamRanges())
+                    .containsExactly(new LongRange(0, 9), new LongRange(20, 29));
+            assertThat(toTest.gaps()).containsExactly(new LongRange(10, 19));
+            assertThat(toTest.block(15)).isNull();
+            assertThat(toTest.block(25)).isNotNull();
+            toTest.stop();
+            assertThat(tempDir.resolve(BlockRangeManifest.CHECKPOINT_FILE_NAME)).exists();
+            // deleting an archive file means the manifest no longer matches, so the archive files are scanned again
+            Files.delete(BlockPath.computeBlockPath(config, 20).zipFilePath());
+            final BlocksFilesHistoricPlugin restarted = new BlocksFilesHistoricPlugin();
+            restarted.init(testContext, null);
+            assertThat(restarted.availableBlocks().streamRanges()).containsExactly(new LongRange(0, 9));
+            assertThat(restarted.gaps()).isEmpty();
+            restarted.stop();
+        }
     }
 
     /**
@@ -156,7 +220,13 @@ class BlocksFilesHistoricPluginTest {
             final Entry<String, String> powersOfTenPerZipFileContents = Map.entry(
                     "files.historic.powersOfTenPerZipFileContents",
                     String.valueOf(testConfig.powersOfTenPerZipFileContents()));
-            return Map.ofEntries(rootPath, compression, powersOfTenPerZipFileContents);
+            // blocks must be prepared on the zip move thread, as the serial test executor cannot run a worker task
+            // while the zip move task waits for it
+            final Entry<String, String> zipBuildThreads =
+                    Map.entry("files.historic.zipBuildThreads", String.valueOf(testConfig.zipBuildThreads()));
+            final Entry<String, String> zipMoveThreads =
+                    Map.entry("files.historic.zipMoveThreads", String.valueOf(testConfig.zipMoveThreads()));
+            return Map.ofEntries(rootPath, compression, powersOfTenPerZipFileContents, zipBuildThreads, zipMoveThreads);
         }
 
         /**
@@ -553,6 +623,37 @@ class BlocksFilesHistoricPluginTest {
             assertThat(availableBlocks).returns(0L, BlockRangeSet::min).returns(9L, BlockRangeSet::max);
         }
 
+        /**
+         * This test aims to verify that a gap in the archived blocks, left
+         * because its blocks were not available when later batches were
+         * archived, is backfilled once the blocks become available.
+         */
+        @Test
+        @DisplayName("Test gap in archived blocks is backfilled")
+        void testGapBackfilled() {
+            // blocks 0-9 and 20-29 are available, so will be archived with a gap between them
+            for (int i = 0; i < 30; i++) {
+                if (i < 10 || i >= 20) {
+                    final BlockItemUnparsed[] block = SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i);
+                    testHistoricalBlockFacility.handleBlockItemsReceived(new BlockItems(List.of(block), i), false);
+                }
+            }
+            blockMessaging.sendBlockPersisted(new PersistedNotification(0, 29, toTest.defaultPriority() + 1));
+            pluginExecutor.executeSerially();
+            assertThat(toTest.gaps()).containsExactly(new LongRange(10, 19));
+            assertThat(toTest.block(15)).isNull();
+            // the missing blocks become available, so the gap is archived
+            for (int i = 10; i < 20; i++) {
+                final BlockItemUnparsed[] block = SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i);
+                testHistoricalBlockFacility.handleBlockItemsReceived(new BlockItems(List.of(block), i), false);
+            }
+            blockMessaging.sendBlockPersisted(new PersistedNotification(10, 19, toTest.defaultPriority() + 1));
+            pluginExecutor.executeSerially();
+            assertThat(toTest.gaps()).isEmpty();
+            assertThat(toTest.availableBlocks().streamRanges()).containsExactly(new LongRange(0, 29));
+            assertThat(toTest.block(15)).isNotNull();
+        }
+
         /**
          * This test aims to verify that the plugin will not write data if
          * an exception occurs just before actually writing anything.
@@ -687,6 +788,39 @@ class BlocksFilesHistoricPluginTest {
             assertThat(totalSentNotifications).isEqualTo(1);
         }
 
+        /**
+         * This test aims to verify that a batch that fails to archive does
+         * not hold back the {@link PersistedNotification} of the batch above
+         * it, which was archived on another zip move worker.
+         */
+        @Test
+        @DisplayName("Test exception during move does not hold back notifications for higher batches")
+        void testExceptionDuringMoveHigherBatchNotificationSent() throws IOException {
+            // generate first 20 blocks from numbers 0-19 and add them to the
+            // test historical block facility
+            for (int i = 0; i < 20; i++) {
+                final BlockItemUnparsed[] block = SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i);
+                testHistoricalBlockFacility.handleBlockItemsReceived(new BlockItems(List.of(block), i), false);
+            }
+            // send a block persisted notification for the range we just created
+            blockMessaging.sendBlockPersisted(new PersistedNotification(0, 19, toTest.defaultPriority() + 1));
+            // create the first zip file with no permissions to simulate a failure of the first batch
+            final Path targetZipPath = BlockPath.computeBlockPath(testConfig, 0).zipFilePath();
+            Files.createDirectories(targetZipPath.getParent());
+            Files.createFile(targetZipPath);
+            Files.setPosixFilePermissions(targetZipPath, Collections.emptySet());
+            // execute serially to ensure all tasks are completed
+            pluginExecutor.executeSerially();
+            // assert that only the second batch was archived, and its notification sent
+            assertThat(toTest.availableBlocks().streamRanges()).containsExactly(new LongRange(10, 19));
+            assertThat(blockMessaging.getSentPersistedNotifications())
+                    .hasSize(2)
+                    .element(1)
+                    .returns(10L, PersistedNotification::startBlockNumber)
+                    .returns(19L, PersistedNotification::endBlockNumber)
+                    .returns(toTest.defaultPriority(), PersistedNotification::blockProviderPriority);
+        }
+
         /**
          * This test aims to verify that the plugin will correctly zip the blocks
          * that are available at the time of startup.
@@ -717,4 +851,58 @@ class BlocksFilesHistoricPluginTest {
             }
         }
     }
+
+    /**
+     * Compaction tests, with archive files compressed with Zstandard and
+     * compacted once they are a batch behind the newest batch.
+     */
+    @Nested
+    @DisplayName("Compaction Tests")
+    final class CompactionTests extends PluginTestBase<BlocksFilesHistoricPlugin> {
+        /** The test block serial executor service to use for the plugin. */
+        private final BlockingSerialExecutor pluginExecutor;
+
+        /**
+         * Construct plugin base.
+         */
+        CompactionTests() {
+            pluginExecutor = testThreadPoolManager.executor();
+            final Map<String, String> configOverrides = Map.of(
+                    "files.historic.rootPath", testConfig.rootPath().toString(),
+                    "files.historic.compression", CompressionType.ZSTD.name(),
+                    "files.historic.powersOfTenPerZipFileContents", "1",
+                    "files.historic.zipBuildThreads", "0",
+                    "files.historic.compactionLevel", "19",
+                    "files.historic.compactionDelayBatches", "1");
+            start(toTest, testHistoricalBlockFacility, configOverrides);
+        }
+
+        /**
+         * This test aims to verify that once blocks are archived, the batches
+         * older than the compaction delay are compacted, the progress is saved
+         * and the compacted blocks can still be read.
+         */
+        @Test
+        @DisplayName("Test cold batches are compacted after archiving")
+        void testColdBatchesCompacted() throws IOException {
+            for (int i = 0; i < 30; i++) {
+                final BlockItemUnparsed[] block = SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i);
+                testHistoricalBlockFacility.handleBlockItemsReceived(new BlockItems(List.of(block), i), false);
+            }
+            blockMessaging.sendBlockPersisted(new PersistedNotification(0, 29, toTest.defaultPriority() + 1));
+            // execute serially, which also runs the compaction pass queued once the batches are archived
+            pluginExecutor.executeSerially();
+            assertThat(toTest.availableBlocks().max()).isEqualTo(29L);
+            // only the newest batch 20-29 is left alone, so compaction carries on from it next time
+            final Path progressFile = testConfig.rootPath().resolve(ArchiveCompactor.PROGRESS_FILE_NAME);
+            assertThat(Files.readString(progressFile)).isEqualTo("19 20");
+            for (int i = 0; i < 30; i++) {
+                final BlockAccessor accessor = toTest.block(i);
+                assertThat(accessor).isNotNull();
+                assertThat(accessor.blockUnparsed())
+                        .isEqualTo(new BlockUnparsed(
+                                List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i))));
+            }
+        }
+    }
 }
@@ -0,0 +1,174 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import com.swirlds.config.api.ConfigurationBuilder;
+import java.nio.file.Path;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.blocks.files.historic.FilesHistoricConfig.ArchiveFormat;
+
+/**
+ * Test helper building a {@link FilesHistoricConfig} from the configured defaults with named overrides, so a test
+ * states only the settings that matter to it. Needed over {@link ConfigurationBuilder} values as the root path is
+ * often on a Jimfs file system, which the config path converter can not resolve.
+ */
+final class FilesHistoricConfigBuilder {
+    private Path rootPath;
+    private CompressionType compression;
+    private int powersOfTenPerZipFileContents;
+    private int compressionLevel;
+    private int maxOpenZipFiles;
+    private int zipBuildThreads;
+    private int zipBuildWindow;
+    private ArchiveFormat archiveFormat;
+    private int manifestCheckpointInterval;
+    private boolean validateArchivesOnStart;
+    private int zipMoveThreads;
+    private long archiveMaxBytesPerSecond;
+    private int compactionLevel;
+    private int compactionDelayBatches;
+    private long compactionMaxBytesPerSecond;
+
+    /**
+     * Create a builder holding the given config's settings.
+     *
+     * @param config the config to start from
+     */
+    private FilesHistoricConfigBuilder(final FilesHistoricConfig config) {
+        rootPath = config.rootPath();
+        compression = config.compression();
+        powersOfTenPerZipFileContents = config.powersOfTenPerZipFileContents();
+        compressionLevel = config.compressionLevel();
+        maxOpenZipFiles = config.maxOpenZipFiles();
+        zipBuildThreads = config.zipBuildThreads();
+        zipBuildWindow = config.zipBuildWindow();
+        archiveFormat = config.archiveFormat();
+        manifestCheckpointInterval = config.manifestCheckpointInterval();
+        validateArchivesOnStart = config.validateArchivesOnStart();
+        zipMoveThreads = config.zipMoveThreads();
+        archiveMaxBytesPerSecond = config.archiveMaxBytesPerSecond();
+        compactionLevel = config.compactionLevel();
+        compactionDelayBatches = config.compactionDelayBatches();
+        compactionMaxBytesPerSecond = config.compactionMaxBytesPerSecond();
+    }
+
+    /**
+     * Create a builder holding the configured defaults.
+     *
+     * @return a new builder
+     */
+    static FilesHistoricConfigBuilder defaults() {
+        return new FilesHistoricConfigBuilder(ConfigurationBuilder.create()
+                .withConfigDataType(FilesHistoricConfig.class)
+                .build()
+                .getConfigData(FilesHistoricConfig.class));
+    }
+
+    /**
+     * Create a builder holding the configured defaults, with the given root path.
+     *
+     * @param rootPath the root path for historic blocks
+     * @return a new builder
+     */
+    static FilesHistoricConfigBuilder defaults(final Path rootPath) {
+        return defaults().rootPath(rootPath);
+    }
+
+    FilesHistoricConfigBuilder rootPath(final Path value) {
+        rootPath = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder compression(final CompressionType value) {
+        compression = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder powersOfTenPerZipFileContents(final int value) {
+        powersOfTenPerZipFileContents = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder compressionLevel(final int value) {
+        compressionLevel = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder maxOpenZipFiles(final int value) {
+        maxOpenZipFiles = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder zipBuildThreads(final int value) {
+        zipBuildThreads = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder zipBuildWindow(final int value) {
+        zipBuildWindow = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder archiveFormat(final ArchiveFormat value) {
+        archiveFormat = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder manifestCheckpointInterval(final int value) {
+        manifestCheckpointInterval = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder validateArchivesOnStart(final boolean value) {
+        validateArchivesOnStart = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder zipMoveThreads(final int value) {
+        zipMoveThreads = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder archiveMaxBytesPerSecond(final long value) {
+        archiveMaxBytesPerSecond = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder compactionLevel(final int value) {
+        compactionLevel = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder compactionDelayBatches(final int value) {
+        compactionDelayBatches = value;
+        return this;
+    }
+
+    FilesHistoricConfigBuilder compactionMaxBytesPerSecond(final long value) {
+        compactionMaxBytesPerSecond = value;
+        return this;
+    }
+
+    /**
+     * Build the config, which validates the settings.
+     *
+     * @return the config
+     */
+    FilesHistoricConfig build() {
+        return new FilesHistoricConfig(
+                rootPath,
+                compression,
+                powersOfTenPerZipFileContents,
+                compressionLevel,
+                maxOpenZipFiles,
+                zipBuildThreads,
+                zipBuildWindow,
+                archiveFormat,
+                manifestCheckpointInterval,
+                validateArchivesOnStart,
+                zipMoveThreads,
+                archiveMaxBytesPerSecond,
+                compactionLevel,
+                compactionDelayBatches,
+                compactionMaxBytesPerSecond);
+    }
+}
@@ -30,8 +30,6 @@ import org.junit.jupiter.params.provider.MethodSource;
 class FilesHistoricConfigTest {
     private FileSystem jimfs;
     private Path defaultRootPath;
-    private CompressionType defaultCompression;
-    private int powersOfTenPerZipFileContents;
 
     /**
      * Environment setup before each test.
@@ -40,8 +38,15 @@ class FilesHistoricConfigTest {
     void setup() {
         jimfs = Jimfs.newFileSystem(Configuration.unix());
         defaultRootPath = jimfs.getPath("/opt/hashgraph/blocknode/data/historic");
-        defaultCompression = CompressionType.ZSTD;
-        powersOfTenPerZipFileContents = 4;
+    }
+
+    /**
+     * Create a builder holding the default values, with the root path on the test file system.
+     *
+     * @return a new builder
+     */
+    private FilesHistoricConfigBuilder defaults() {
+        return FilesHistoricConfigBuilder.defaults(defaultRootPath);
     }
 
     /**
@@ -68,8 +73,7 @@ class FilesHistoricConfigTest {
         @Test
         @DisplayName("Test that NullPointerException is thrown when rootPath is null")
         void testNullRootPath() {
-            assertThatNullPointerException()
-                    .isThrownBy(() -> new FilesHistoricConfig(null, defaultCompression, powersOfTenPerZipFileContents));
+            assertThatNullPointerException().isThrownBy(() -> defaults().rootPath(null).build());
         }
 
         /**
@@ -80,8 +84,7 @@ class FilesHistoricConfigTest {
         @Test
         @DisplayName("Test that NullPointerException is thrown when compression is null")
         void testNullCompression() {
-            assertThatNullPointerException()
-                    .isThrownBy(() -> new FilesHistoricConfig(defaultRootPath, null, powersOfTenPerZipFileContents));
+            assertThatNullPointerException().isThrownBy(() -> defaults().compression(null).build());
         }
 
         /**
@@ -95,8 +98,7 @@ class FilesHistoricConfigTest {
         @DisplayName("Test that no exception is thrown when powersOfTenPerZipFileContents is in range")
         void testValidDigitsPerZipFileContents(final int validDigitsPerZipFileContents) {
             assertThatNoException()
-                    .isThrownBy(() -> new FilesHistoricConfig(
-                            defaultRootPath, defaultCompression, validDigitsPerZipFileContents));
+                    .isThrownBy(() -> defaults().powersOfTenPerZipFileContents(validDigitsPerZipFileContents).build());
         }
 
         /**
@@ -110,8 +112,135 @@ class FilesHistoricConfigTest {
         @DisplayName("Test that IllegalArgumentException is thrown when powersOfTenPerZipFileContents is out of range")
         void testInvalidPowersOfTenPerZipFileContents(final int invalidPowersOfTenPerZipFileContents) {
             assertThatIllegalArgumentException()
-                    .isThrownBy(() -> new FilesHistoricConfig(
-                            defaultRootPath, defaultCompression, invalidPowersOfTenPerZipFileContents));
+                    .isThrownBy(() -> defaults()
+                            .powersOfTenPerZipFileContents(invalidPowersOfTenPerZipFileContents)
+                            .build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws a {@link IllegalArgumentException}
+         * if the compressionLevel is out of range.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.historic.FilesHistoricConfigTest#invalidCompressionLevel")
+        @DisplayName("Test that IllegalArgumentException is thrown when compressionLevel is out of range")
+        void testInvalidCompressionLevel(final int invalidCompressionLevel) {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().compressionLevel(invalidCompressionLevel).build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws a {@link IllegalArgumentException}
+         * if the maxOpenZipFiles is not positive.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.historic.FilesHistoricConfigTest#invalidMaxOpenZipFiles")
+        @DisplayName("Test that IllegalArgumentException is thrown when maxOpenZipFiles is not positive")
+        void testInvalidMaxOpenZipFiles(final int invalidMaxOpenZipFiles) {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().maxOpenZipFiles(invalidMaxOpenZipFiles).build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws a {@link IllegalArgumentException}
+         * if the zipBuildThreads is negative.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.historic.FilesHistoricConfigTest#invalidZipBuildThreads")
+        @DisplayName("Test that IllegalArgumentException is thrown when zipBuildThreads is negative")
+        void testInvalidZipBuildThreads(final int invalidZipBuildThreads) {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().zipBuildThreads(invalidZipBuildThreads).build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws a {@link IllegalArgumentException}
+         * if the zipBuildWindow is not positive.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.historic.FilesHistoricConfigTest#invalidMaxOpenZipFiles")
+        @DisplayName("Test that IllegalArgumentException is thrown when zipBuildWindow is not positive")
+        void testInvalidZipBuildWindow(final int invalidZipBuildWindow) {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().zipBuildWindow(invalidZipBuildWindow).build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws a {@link NullPointerException} if
+         * the archiveFormat is null.
+         */
+        @Test
+        @DisplayName("Test that NullPointerException is thrown when archiveFormat is null")
+        void testNullArchiveFormat() {
+            assertThatNullPointerException().isThrownBy(() -> defaults().archiveFormat(null).build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws an
+         * {@link IllegalArgumentException} if the manifestCheckpointInterval
+         * is negative.
+         */
+        @Test
+        @DisplayName("Test that IllegalArgumentException is thrown when manifestCheckpointInterval is negative")
+        void testNegativeManifestCheckpointInterval() {
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().manifestCheckpointInterval(-1).build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws a {@link IllegalArgumentException}
+         * if the zipMoveThreads is not positive.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.historic.FilesHistoricConfigTest#invalidMaxOpenZipFiles")
+        @DisplayName("Test that IllegalArgumentException is thrown when zipMoveThreads is not positive")
+        void testInvalidZipMoveThreads(final int invalidZipMoveThreads) {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().zipMoveThreads(invalidZipMoveThreads).build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws an
+         * {@link IllegalArgumentException} if the archiveMaxBytesPerSecond is
+         * negative.
+         */
+        @Test
+        @DisplayName("Test that IllegalArgumentException is thrown when archiveMaxBytesPerSecond is negative")
+        void testNegativeArchiveMaxBytesPerSecond() {
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().archiveMaxBytesPerSecond(-1L).build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws a {@link IllegalArgumentException}
+         * if the compactionLevel is neither zero nor a valid compression level.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.historic.FilesHistoricConfigTest#invalidCompactionLevel")
+        @DisplayName("Test that IllegalArgumentException is thrown when compactionLevel is out of range")
+        void testInvalidCompactionLevel(final int invalidCompactionLevel) {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().compactionLevel(invalidCompactionLevel).build());
+        }
+
+        /**
+         * This test aims to verify that the constructor of
+         * {@link FilesHistoricConfig} throws an
+         * {@link IllegalArgumentException} if the compactionDelayBatches or
+         * compactionMaxBytesPerSecond is negative.
+         */
+        @Test
+        @DisplayName("Test that IllegalArgumentException is thrown when compaction delay or rate is negative")
+        void testNegativeCompactionDelayOrRate() {
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().compactionDelayBatches(-1).build());
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().compactionMaxBytesPerSecond(-1L).build());
         }
 
         /**
@@ -123,8 +252,23 @@ class FilesHistoricConfigTest {
         @DisplayName("Test that constructor does not throw an exception when all inputs are valid")
         void testValidConstructor() {
             assertThatNoException()
-                    .isThrownBy(() -> new FilesHistoricConfig(
-                            defaultRootPath.resolve("valid"), CompressionType.NONE, powersOfTenPerZipFileContents + 1));
+                    .isThrownBy(() -> defaults()
+                            .rootPath(defaultRootPath.resolve("valid"))
+                            .compression(CompressionType.NONE)
+                            .powersOfTenPerZipFileContents(5)
+                            .compressionLevel(CompressionType.MAX_ZSTD_COMPRESSION_LEVEL)
+                            .maxOpenZipFiles(1)
+                            .zipBuildThreads(0)
+                            .zipBuildWindow(1)
+                            .archiveFormat(FilesHistoricConfig.ArchiveFormat.INDEXED)
+                            .manifestCheckpointInterval(0)
+                            .validateArchivesOnStart(true)
+                            .zipMoveThreads(1)
+                            .archiveMaxBytesPerSecond(0)
+                            .compactionLevel(CompressionType.MAX_ZSTD_COMPRESSION_LEVEL)
+                            .compactionDelayBatches(0)
+                            .compactionMaxBytesPerSecond(0)
+                            .build());
         }
 
         /**
@@ -135,9 +279,7 @@ class FilesHistoricConfigTest {
         @Test
         @DisplayName("Test that constructor does not throw an exception with default values")
         void testValidConstructorWithDefaults() {
-            assertThatNoException()
-                    .isThrownBy(() -> new FilesHistoricConfig(
-                            defaultRootPath, defaultCompression, powersOfTenPerZipFileContents));
+            assertThatNoException().isThrownBy(() -> defaults().build());
         }
 
         /**
@@ -148,7 +290,7 @@ class FilesHistoricConfigTest {
         @DisplayName("Test that constructor does not create any paths or directories")
         void testNoPathCreation() {
             assertThat(defaultRootPath).doesNotExist();
-            new FilesHistoricConfig(defaultRootPath, defaultCompression, powersOfTenPerZipFileContents);
+            defaults().build();
             assertThat(defaultRootPath).doesNotExist();
         }
     }
@@ -165,6 +307,41 @@ class FilesHistoricConfigTest {
                 Arguments.of(Integer.MIN_VALUE));
     }
 
+    /**
+     * Stream of invalid compressionLevel values.
+     */
+    private static Stream<Arguments> invalidCompressionLevel() {
+        return Stream.of(
+                Arguments.of(CompressionType.MAX_ZSTD_COMPRESSION_LEVEL + 1),
+                Arguments.of(CompressionType.MIN_ZSTD_COMPRESSION_LEVEL - 1),
+                Arguments.of(-1),
+                Arguments.of(Integer.MIN_VALUE));
+    }
+
+    /**
+     * Stream of invalid compactionLevel values, zero is valid as it disables compaction.
+     */
+    private static Stream<Arguments> invalidCompactionLevel() {
+        return Stream.of(
+                Arguments.of(CompressionType.MAX_ZSTD_COMPRESSION_LEVEL + 1),
+                Arguments.of(-1),
+                Arguments.of(Integer.MIN_VALUE));
+    }
+
+    /**
+     * Stream of invalid maxOpenZipFiles values.
+     */
+    private static Stream<Arguments> invalidMaxOpenZipFiles() {
+        return Stream.of(Arguments.of(0), Arguments.of(-1), Arguments.of(Integer.MIN_VALUE));
+    }
+
+    /**
+     * Stream of invalid zipBuildThreads values.
+     */
+    private static Stream<Arguments> invalidZipBuildThreads() {
+        return Stream.of(Arguments.of(-1), Arguments.of(Integer.MIN_VALUE));
+    }
+
     /**
      * Stream of valid powersOfTenPerZipFileContents values.
      */
@@ -0,0 +1,171 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import org.hiero.block.node.base.CompressionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for {@link IndexedBlockFile} and {@link IndexedBlockFileWriter}.
+ */
+@DisplayName("IndexedBlockFile Tests")
+class IndexedBlockFileTest {
+    /** Temp dir used for testing as mapping files is not supported by jimfs */
+    @TempDir
+    private Path tempDir;
+
+    /**
+     * This test aims to assert that blocks written to an indexed block file
+     * are indexed by block number and each block reads back exactly as
+     * written, with the checksum recorded in the index.
+     */
+    @Test
+    @DisplayName("Test blocks written are indexed and read back")
+    void testWriteAndRead() throws IOException {
+        final Path filePath = tempDir.resolve("0000s" + IndexedBlockFile.EXTENSION);
+        writeBlocks(filePath, CompressionType.ZSTD, 10, 20);
+        try (final IndexedBlockFile blockFile = IndexedBlockFile.open(filePath)) {
+            assertThat(blockFile.path()).isEqualTo(filePath);
+            assertThat(blockFile.compressionType()).isEqualTo(CompressionType.ZSTD);
+            assertThat(blockFile.size()).isEqualTo(10);
+            assertThat(blockFile.minBlockNumber()).isEqualTo(10L);
+            assertThat(blockFile.maxBlockNumber()).isEqualTo(19L);
+            assertThat(blockFile.blockNumbers()).containsExactly(10, 11, 12, 13, 14, 15, 16, 17, 18, 19);
+            for (long blockNumber = 10; blockNumber < 20; blockNumber++) {
+                assertThat(blockFile.contains(blockNumber)).isTrue();
+                assertThat(blockFile.read(blockNumber)).isEqualTo(blockContent(blockNumber));
+                final CRC32 crc = new CRC32();
+                crc.update(blockContent(blockNumber));
+                assertThat(blockFile.checksum(blockNumber)).isEqualTo(crc.getValue());
+            }
+            assertThat(blockFile.contains(9L)).isFalse();
+            assertThat(blockFile.read(9L)).isNull();
+            assertThat(blockFile.read(20L)).isNull();
+            assertThatIllegalArgumentException().isThrownBy(() -> blockFile.checksum(20L));
+        }
+    }
+
+    /**
+     * This test aims to assert that an indexed block file without blocks has
+     * no min or max block number.
+     */
+    @Test
+    @DisplayName("Test an empty indexed block file has no min or max block number")
+    void testEmpty() throws IOException {
+        final Path filePath = tempDir.resolve("empty" + IndexedBlockFile.EXTENSION);
+        writeBlocks(filePath, CompressionType.NONE, 0, 0);
+        try (final IndexedBlockFile blockFile = IndexedBlockFile.open(filePath)) {
+            assertThat(blockFile.compressionType()).isEqualTo(CompressionType.NONE);
+            assertThat(blockFile.size()).isZero();
+            assertThat(blockFile.minBlockNumber()).isEqualTo(-1L);
+            assertThat(blockFile.maxBlockNumber()).isEqualTo(-1L);
+        }
+    }
+
+    /**
+     * This test aims to assert that a block whose payload does not match the
+     * checksum in the index fails to read rather than returning bad bytes.
+     */
+    @Test
+    @DisplayName("Test a corrupted payload fails its checksum")
+    void testCorruptedPayload() throws IOException {
+        final Path filePath = tempDir.resolve("corrupt" + IndexedBlockFile.EXTENSION);
+        writeBlocks(filePath, CompressionType.NONE, 0, 2);
+        // flip a byte of the first payload, which starts at the start of the file
+        try (final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), 0);
+        }
+        try (final IndexedBlockFile blockFile = IndexedBlockFile.open(filePath)) {
+            assertThatIOException().isThrownBy(() -> blockFile.read(0L)).withMessageContaining("Checksum mismatch");
+            assertThat(blockFile.read(1L)).isEqualTo(blockContent(1));
+        }
+    }
+
+    /**
+     * This test aims to assert that opening a file which is not an indexed
+     * block file throws an {@link IOException}.
+     */
+    @Test
+    @DisplayName("Test opening a file that is not an indexed block file throws IOException")
+    void testNotAnIndexedBlockFile() throws IOException {
+        final Path notIndexed = tempDir.resolve("not" + IndexedBlockFile.EXTENSION);
+        Files.writeString(notIndexed, "this is not an indexed block file, it is just some text");
+        assertThatIOException().isThrownBy(() -> IndexedBlockFile.open(notIndexed));
+        final Path emptyFile = Files.createFile(tempDir.resolve("zero" + IndexedBlockFile.EXTENSION));
+        assertThatIOException().isThrownBy(() -> IndexedBlockFile.open(emptyFile));
+        assertThatIOException()
+                .isThrownBy(() -> IndexedBlockFile.open(tempDir.resolve("missing" + IndexedBlockFile.EXTENSION)))
+                .isInstanceOf(NoSuchFileException.class);
+    }
+
+    /**
+     * This test aims to assert that blocks must be added in ascending order,
+     * and that a writer closed without finishing leaves no files behind.
+     */
+    @Test
+    @DisplayName("Test writer rejects out of order blocks and cleans up when not finished")
+    void testWriterOrderAndCleanup() throws IOException {
+        final Path filePath = tempDir.resolve("unfinished" + IndexedBlockFile.EXTENSION);
+        try (final IndexedBlockFileWriter writer = new IndexedBlockFileWriter(filePath, CompressionType.NONE)) {
+            writer.add(5, Bytes.wrap(blockContent(5)));
+            assertThatIllegalArgumentException().isThrownBy(() -> writer.add(5, Bytes.wrap(blockContent(5))));
+            assertThatIllegalArgumentException().isThrownBy(() -> writer.add(4, Bytes.wrap(blockContent(4))));
+        }
+        try (var files = Files.list(tempDir)) {
+            assertThat(files).isEmpty();
+        }
+        final IndexedBlockFileWriter writer = new IndexedBlockFileWriter(filePath, CompressionType.NONE);
+        writer.finish();
+        writer.close();
+        assertThat(filePath).exists();
+        assertThatIllegalStateException().isThrownBy(() -> writer.add(1, Bytes.wrap(blockContent(1))));
+    }
+
+    /**
+     * Write an indexed block file of blocks.
+     *
+     * @param filePath the path of the indexed block file to write
+     * @param compressionType the compression type recorded in the file
+     * @param firstBlockNumber the first block number, inclusive
+     * @param endBlockNumber the last block number, exclusive
+     */
+    private static void writeBlocks(
+            final Path filePath,
+            final CompressionType compressionType,
+            final long firstBlockNumber,
+            final long endBlockNumber)
+            throws IOException {
+        try (final IndexedBlockFileWriter writer = new IndexedBlockFileWriter(filePath, compressionType)) {
+            for (long blockNumber = firstBlockNumber; blockNumber < endBlockNumber; blockNumber++) {
+                writer.add(blockNumber, Bytes.wrap(blockContent(blockNumber)));
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Get some content that is different for each block.
+     *
+     * @param blockNumber the block number
+     * @return the content
+     */
+    private static byte[] blockContent(final long blockNumber) {
+        return ("block " + blockNumber + " ").repeat(50 + (int) blockNumber).getBytes(StandardCharsets.UTF_8);
+    }
+}
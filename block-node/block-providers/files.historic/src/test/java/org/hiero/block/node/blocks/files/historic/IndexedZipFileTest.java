@@ -0,0 +1,217 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.historic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for {@link IndexedZipFile}.
+ */
+@DisplayName("IndexedZipFile Tests")
+class IndexedZipFileTest {
+    /** Temp dir used for testing as mapping files is not supported by jimfs */
+    @TempDir
+    private Path tempDir;
+
+    /**
+     * This test aims to assert that a zip file written with stored entries,
+     * like {@link ZipBlockArchive} writes them, is indexed by block number
+     * and each entry reads back exactly as written.
+     */
+    @Test
+    @DisplayName("Test stored entries are indexed and read back")
+    void testStoredEntries() throws IOException {
+        final Path zipFilePath = tempDir.resolve("stored.zip");
+        writeZip(zipFilePath, ZipOutputStream.STORED, 10, 20);
+        try (final IndexedZipFile zipFile = IndexedZipFile.open(zipFilePath)) {
+            assertThat(zipFile.size()).isEqualTo(10);
+            assertThat(zipFile.minBlockNumber()).isEqualTo(10L);
+            assertThat(zipFile.maxBlockNumber()).isEqualTo(19L);
+            for (long blockNumber = 10; blockNumber < 20; blockNumber++) {
+                final IndexedZipFile.Entry entry = zipFile.entry(blockNumber);
+                assertThat(entry).isNotNull();
+                assertThat(entry.name()).isEqualTo(blockFileName(blockNumber));
+                assertThat(entry.method()).isEqualTo(IndexedZipFile.METHOD_STORED);
+                assertThat(zipFile.readStored(entry)).isEqualTo(blockContent(blockNumber));
+                try (final InputStream in = zipFile.inputStream(entry)) {
+                    assertThat(in.readAllBytes()).isEqualTo(blockContent(blockNumber));
+                }
+            }
+            assertThat(zipFile.entry(9L)).isNull();
+            assertThat(zipFile.entry(20L)).isNull();
+        }
+    }
+
+    /**
+     * This test aims to assert that deflated entries are indexed and
+     * inflated when read.
+     */
+    @Test
+    @DisplayName("Test deflated entries are indexed and inflated when read")
+    void testDeflatedEntries() throws IOException {
+        final Path zipFilePath = tempDir.resolve("deflated.zip");
+        writeZip(zipFilePath, ZipOutputStream.DEFLATED, 0, 5);
+        try (final IndexedZipFile zipFile = IndexedZipFile.open(zipFilePath)) {
+            assertThat(zipFile.size()).isEqualTo(5);
+            for (long blockNumber = 0; blockNumber < 5; blockNumber++) {
+                final IndexedZipFile.Entry entry = zipFile.entry(blockNumber);
+                assertThat(entry).isNotNull();
+                assertThat(entry.method()).isEqualTo(IndexedZipFile.METHOD_DEFLATED);
+                assertThat(entry.size()).isEqualTo(blockContent(blockNumber).length);
+                try (final InputStream in = zipFile.inputStream(entry)) {
+                    assertThat(in.readAllBytes()).isEqualTo(blockContent(blockNumber));
+                }
+            }
+        }
+    }
+
+    /**
+     * This test aims to assert that entries which are not block files are
+     * not indexed.
+     */
+    @Test
+    @DisplayName("Test entries that are not block files are skipped")
+    void testNonBlockEntriesSkipped() throws IOException {
+        final Path zipFilePath = tempDir.resolve("mixed.zip");
+        try (final ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(zipFilePath))) {
+            zipOut.putNextEntry(new ZipEntry("directory/"));
+            zipOut.closeEntry();
+            zipOut.putNextEntry(new ZipEntry("nonexistent.blk.zstd"));
+            zipOut.write(blockContent(1));
+            zipOut.closeEntry();
+            zipOut.putNextEntry(new ZipEntry(blockFileName(7)));
+            zipOut.write(blockContent(7));
+            zipOut.closeEntry();
+        }
+        try (final IndexedZipFile zipFile = IndexedZipFile.open(zipFilePath)) {
+            assertThat(zipFile.size()).isEqualTo(1);
+            assertThat(zipFile.minBlockNumber()).isEqualTo(7L);
+            assertThat(zipFile.maxBlockNumber()).isEqualTo(7L);
+        }
+    }
+
+    /**
+     * This test aims to assert that a zip file without entries has no
+     * min or max block number.
+     */
+    @Test
+    @DisplayName("Test an empty zip file has no min or max block number")
+    void testEmptyZip() throws IOException {
+        final Path zipFilePath = tempDir.resolve("empty.zip");
+        writeZip(zipFilePath, ZipOutputStream.STORED, 0, 0);
+        try (final IndexedZipFile zipFile = IndexedZipFile.open(zipFilePath)) {
+            assertThat(zipFile.size()).isZero();
+            assertThat(zipFile.minBlockNumber()).isEqualTo(-1L);
+            assertThat(zipFile.maxBlockNumber()).isEqualTo(-1L);
+        }
+    }
+
+    /**
+     * This test aims to assert that opening a file which is not a zip file
+     * throws a {@link ZipException}.
+     */
+    @Test
+    @DisplayName("Test opening a file that is not a zip file throws ZipException")
+    void testNotAZipFile() throws IOException {
+        final Path notZip = tempDir.resolve("not.zip");
+        Files.writeString(notZip, "this is not a zip file");
+        assertThatExceptionOfType(ZipException.class).isThrownBy(() -> IndexedZipFile.open(notZip));
+        final Path emptyFile = Files.createFile(tempDir.resolve("zero.zip"));
+        assertThatExceptionOfType(ZipException.class).isThrownBy(() -> IndexedZipFile.open(emptyFile));
+    }
+
+    /**
+     * This test aims to assert that opening a zip file that does not exist
+     * throws a {@link NoSuchFileException}.
+     */
+    @Test
+    @DisplayName("Test opening a missing zip file throws NoSuchFileException")
+    void testMissingZipFile() {
+        assertThatIOException()
+                .isThrownBy(() -> IndexedZipFile.open(tempDir.resolve("missing.zip")))
+                .isInstanceOf(NoSuchFileException.class);
+    }
+
+    /**
+     * This test aims to assert that a zip file can only be retained while
+     * at least one reference to it is held.
+     */
+    @Test
+    @DisplayName("Test retain fails once the last reference is released")
+    void testReferenceCounting() throws IOException {
+        final Path zipFilePath = tempDir.resolve("refs.zip");
+        writeZip(zipFilePath, ZipOutputStream.STORED, 0, 1);
+        final IndexedZipFile zipFile = IndexedZipFile.open(zipFilePath);
+        assertThat(zipFile.retain()).isTrue();
+        zipFile.close();
+        // one reference is still held, so reads still work
+        assertThat(zipFile.readStored(zipFile.entry(0L))).isEqualTo(blockContent(0));
+        zipFile.close();
+        assertThat(zipFile.retain()).isFalse();
+    }
+
+    /**
+     * Write a zip file of block entries.
+     *
+     * @param zipFilePath the path of the zip file to write
+     * @param method the zip compression method for the entries
+     * @param firstBlockNumber the first block number, inclusive
+     * @param endBlockNumber the last block number, exclusive
+     */
+    private static void writeZip(
+            final Path zipFilePath, final int method, final long firstBlockNumber, final long endBlockNumber)
+            throws IOException {
+        try (final ZipOutputStream zipOut = new ZipOutputStream(Files.newOutputStream(zipFilePath))) {
+            zipOut.setMethod(method);
+            for (long blockNumber = firstBlockNumber; blockNumber < endBlockNumber; blockNumber++) {
+                final byte[] content = blockContent(blockNumber);
+                final ZipEntry zipEntry = new ZipEntry(blockFileName(blockNumber));
+                if (method == ZipOutputStream.STORED) {
+                    final CRC32 crc = new CRC32();
+                    crc.update(content);
+                    zipEntry.setSize(content.length);
+                    zipEntry.setCompressedSize(content.length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+                zipOut.putNextEntry(zipEntry);
+                zipOut.write(content);
+                zipOut.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Get the zip entry name of a block.
+     *
+     * @param blockNumber the block number
+     * @return the entry name
+     */
+    private static String blockFileName(final long blockNumber) {
+        return String.format("%019d.blk", blockNumber);
+    }
+
+    /**
+     * Get some compressible content that is different for each block.
+     *
+     * @param blockNumber the block number
+     * @return the content
+     */
+    private static byte[] blockContent(final long blockNumber) {
+        return ("block " + blockNumber + " ").repeat(50 + (int) blockNumber).getBytes(StandardCharsets.UTF_8);
+    }
+}
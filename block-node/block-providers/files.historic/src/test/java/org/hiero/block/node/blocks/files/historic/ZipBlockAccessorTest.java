@@ -46,6 +46,8 @@ class ZipBlockAccessorTest {
     private FileSystem jimfs;
     /** The configuration for the test. */
     private FilesHistoricConfig defaultConfig;
+    /** The pool of open zip files the accessors read from. */
+    private ArchiveFilePool<IndexedZipFile> zipFiles;
 
     @TempDir
     private Path tempDir;
@@ -58,6 +60,7 @@ class ZipBlockAccessorTest {
                 Configuration.unix()); // Set the default configuration for the test, use jimfs for paths
         defaultConfig =
                 createTestConfiguration(tempDir, getDefaultConfiguration().compression());
+        zipFiles = new ArchiveFilePool<>(4, IndexedZipFile::open);
     }
 
     /**
@@ -65,6 +68,7 @@ class ZipBlockAccessorTest {
      */
     @AfterEach
     void tearDown() throws IOException {
+        zipFiles.close();
         // Close the Jimfs file system
         if (jimfs != null) {
             jimfs.close();
@@ -87,7 +91,7 @@ class ZipBlockAccessorTest {
         @DisplayName("Test constructor throws no exception when input is valid")
         void testValidConstructor() {
             final BlockPath blockPath = BlockPath.computeBlockPath(defaultConfig, 1L);
-            assertThatNoException().isThrownBy(() -> new ZipBlockAccessor(blockPath));
+            assertThatNoException().isThrownBy(() -> new ZipBlockAccessor(blockPath, zipFiles));
         }
 
         /**
@@ -99,7 +103,20 @@ class ZipBlockAccessorTest {
         @DisplayName("Test constructor throws NullPointerException when blockPath is null")
         @SuppressWarnings("all")
         void testNullBlockPath() {
-            assertThatNullPointerException().isThrownBy(() -> new ZipBlockAccessor(null));
+            assertThatNullPointerException().isThrownBy(() -> new ZipBlockAccessor(null, zipFiles));
+        }
+
+        /**
+         * This test aims to assert that the constructor of
+         * {@link ZipBlockAccessor} throws a {@link NullPointerException} when
+         * the input zipFiles pool is null.
+         */
+        @Test
+        @DisplayName("Test constructor throws NullPointerException when zipFiles is null")
+        @SuppressWarnings("all")
+        void testNullZipFiles() {
+            final BlockPath blockPath = BlockPath.computeBlockPath(defaultConfig, 1L);
+            assertThatNullPointerException().isThrownBy(() -> new ZipBlockAccessor(blockPath, null));
         }
     }
 
@@ -596,12 +613,18 @@ class ZipBlockAccessorTest {
             final byte[] fromZipEntry = zipFile.getInputStream(entry).readAllBytes();
             assertThat(fromZipEntry).isEqualTo(bytesToWrite);
         }
-        return new ZipBlockAccessor(blockPath);
+        return new ZipBlockAccessor(blockPath, zipFiles);
     }
 
     private FilesHistoricConfig createTestConfiguration(final Path basePath, final CompressionType compressionType) {
-        final FilesHistoricConfig localDefaultConfig = getDefaultConfiguration();
-        return new FilesHistoricConfig(basePath, compressionType, localDefaultConfig.powersOfTenPerZipFileContents());
+        return FilesHistoricConfigBuilder.defaults(basePath)
+                .compression(compressionType)
+                .zipBuildThreads(0)
+                .zipBuildWindow(4)
+                .zipMoveThreads(1)
+                .archiveMaxBytesPerSecond(0)
+                .compactionMaxBytesPerSecond(0)
+                .build();
     }
 
     private FilesHistoricConfig getDefaultConfiguration() {
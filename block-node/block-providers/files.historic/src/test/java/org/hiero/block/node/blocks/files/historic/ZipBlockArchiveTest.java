@@ -2,6 +2,7 @@
 package org.hiero.block.node.blocks.files.historic;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
 import static org.assertj.core.api.Assertions.assertThatNoException;
 import static org.assertj.core.api.Assertions.assertThatNullPointerException;
 import static org.assertj.core.api.Assertions.from;
@@ -14,28 +15,39 @@ import com.swirlds.config.api.Configuration;
 import com.swirlds.config.api.ConfigurationBuilder;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 import org.hiero.block.internal.BlockItemUnparsed;
 import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.app.fixtures.async.TestThreadPoolManager;
 import org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilder;
 import org.hiero.block.node.app.fixtures.plugintest.SimpleInMemoryHistoricalBlockFacility;
 import org.hiero.block.node.app.fixtures.plugintest.TestBlockMessagingFacility;
 import org.hiero.block.node.app.fixtures.plugintest.TestHealthFacility;
 import org.hiero.block.node.base.BlockFile;
 import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.blocks.files.historic.FilesHistoricConfig.ArchiveFormat;
 import org.hiero.block.node.spi.BlockNodeContext;
 import org.hiero.block.node.spi.blockmessaging.BlockItems;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
 import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -58,6 +70,8 @@ class ZipBlockArchiveTest {
     private Path tempDir;
     /** The {@link ZipBlockArchive} instance to be tested. */
     private ZipBlockArchive toTest;
+    /** The pool of open zip files used by the expected accessors. */
+    private ArchiveFilePool<IndexedZipFile> zipFiles;
 
     /**
      * Environment setup before each test.
@@ -85,6 +99,16 @@ class ZipBlockArchiveTest {
                 null);
         historicalBlockProvider.init(testContext, null);
         toTest = new ZipBlockArchive(testContext, testConfig);
+        zipFiles = new ArchiveFilePool<>(4, IndexedZipFile::open);
+    }
+
+    /**
+     * Environment teardown after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        zipFiles.close();
+        toTest.close();
     }
 
     /**
@@ -123,172 +147,6 @@ class ZipBlockArchiveTest {
     @Nested
     @DisplayName("Functional Tests")
     final class FunctionalTests {
-        /**
-         * This test aims to assert that the
-         * {@link ZipBlockArchive#minStoredBlockNumber()} returns -1L if the
-         * archive is empty.
-         */
-        @Test
-        @DisplayName("Test minStoredBlockNumber() returns -1L when zip file is not present")
-        void testMinStoredNoZipFile() {
-            // assert that server is running before we call actual
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-            final long actual = toTest.minStoredBlockNumber();
-            // assert that server is still running and -1 is returned
-            assertThat(actual).isEqualTo(-1L);
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-        }
-
-        /**
-         * This test aims to assert that the
-         * {@link ZipBlockArchive#minStoredBlockNumber()} calls shutdown on the
-         * health facility if an exception occurs.
-         */
-        @Test
-        @DisplayName("Test minStoredBlockNumber() shuts down server if exception occurs")
-        void testMinStoredWithException() throws IOException {
-            // create test environment, in this case we simply create an empty zip file which will produce
-            // an exception when we attempt to look for an entry inside
-            final BlockPath computedBlockPath00s = BlockPath.computeBlockPath(testConfig, 0L);
-            Files.createDirectories(computedBlockPath00s.dirPath());
-            Files.createFile(computedBlockPath00s.zipFilePath());
-            // assert that server is running before we call actual
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-            // call
-            final long actual = toTest.minStoredBlockNumber();
-            // assert no longer running server
-            assertThat(actual).isEqualTo(-1L);
-            assertThat(testContext.serverHealth().isRunning()).isFalse();
-        }
-
-        /**
-         * This test aims to assert that the
-         * {@link ZipBlockArchive#minStoredBlockNumber()} correctly returns the
-         * lowest block number based on single existing zip file.
-         */
-        @Test
-        @DisplayName("Test minStoredBlockNumber() correctly returns lowest block number single zip file")
-        void testMinStoredSingleZipFile() throws IOException {
-            // create test environment, for this test we need one zip file with two zip entries inside
-            final long expected = 3L;
-            createAndAddBlockEntry(expected);
-            createAndAddBlockEntry(4L);
-            // assert that server is running before we call actual
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-            // call
-            final long actual = toTest.minStoredBlockNumber();
-            // assert expected result and still running server
-            assertThat(actual).isEqualTo(expected);
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-        }
-
-        /**
-         * This test aims to assert that the
-         * {@link ZipBlockArchive#minStoredBlockNumber()} correctly returns the
-         * lowest block number based on multiple existing zip files.
-         */
-        @Test
-        @DisplayName("Test minStoredBlockNumber() correctly returns lowest block number multiple zip file")
-        void testMinStoredMultipleZipFile() throws IOException {
-            // create test environment, for this test we need two zip files with two zip entries inside each
-            final long expected = 3L;
-            createAndAddBlockEntry(expected);
-            createAndAddBlockEntry(4L);
-            // zip size are 10 blocks, so the following 2 will be in another file
-            createAndAddBlockEntry(13L);
-            createAndAddBlockEntry(14L);
-            // assert that server is running before we call actual
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-            // call
-            final long actual = toTest.minStoredBlockNumber();
-            // assert expected result and still running server
-            assertThat(actual).isEqualTo(expected);
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-        }
-
-        /**
-         * This test aims to assert that the
-         * {@link ZipBlockArchive#maxStoredBlockNumber()} returns -1L if the
-         * archive is empty.
-         */
-        @Test
-        @DisplayName("Test maxStoredBlockNumber() returns -1L when zip file is not present")
-        void testMaxStoredNoZipFile() {
-            // assert that server is running before we call actual
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-            final long actual = toTest.maxStoredBlockNumber();
-            // assert that server is still running and -1 is returned
-            assertThat(actual).isEqualTo(-1L);
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-        }
-
-        /**
-         * This test aims to assert that the
-         * {@link ZipBlockArchive#maxStoredBlockNumber()} calls shutdown on the
-         * health facility if an exception occurs.
-         */
-        @Test
-        @DisplayName("Test maxStoredBlockNumber() shuts down server if exception occurs")
-        void testMaxStoredWithException() throws IOException {
-            // create test environment, in this case we simply create an empty zip file which will produce
-            // an exception when we attempt to look for an entry inside
-            final BlockPath computedBlockPath00s = BlockPath.computeBlockPath(testConfig, 0L);
-            Files.createDirectories(computedBlockPath00s.dirPath());
-            Files.createFile(computedBlockPath00s.zipFilePath());
-            // assert that server is running before we call actual
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-            // call
-            final long actual = toTest.maxStoredBlockNumber();
-            // assert no longer running server
-            assertThat(actual).isEqualTo(-1L);
-            assertThat(testContext.serverHealth().isRunning()).isFalse();
-        }
-
-        /**
-         * This test aims to assert that the
-         * {@link ZipBlockArchive#maxStoredBlockNumber()} correctly returns the
-         * highest block number based on single existing zip file.
-         */
-        @Test
-        @DisplayName("Test maxStoredBlockNumber() correctly returns highest block number single zip file")
-        void testMaxStoredSingleZipFile() throws IOException {
-            // create test environment, for this test we need one zip file with two zip entries inside
-            final long expected = 4L;
-            createAndAddBlockEntry(3L);
-            createAndAddBlockEntry(expected);
-            // assert that server is running before we call actual
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-            // call
-            final long actual = toTest.maxStoredBlockNumber();
-            // assert expected result and still running server
-            assertThat(actual).isEqualTo(expected);
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-        }
-
-        /**
-         * This test aims to assert that the
-         * {@link ZipBlockArchive#maxStoredBlockNumber()} correctly returns the
-         * highest block number based on multiple existing zip files.
-         */
-        @Test
-        @DisplayName("Test maxStoredBlockNumber() correctly returns highest block number multiple zip file")
-        void testMaxStoredMultipleZipFile() throws IOException {
-            // create test environment, for this test we need two zip files with two zip entries inside each
-            final long expected = 14L;
-            createAndAddBlockEntry(3L);
-            createAndAddBlockEntry(4L);
-            // zip size are 10 blocks, so the following 2 will be in another file
-            createAndAddBlockEntry(13L);
-            createAndAddBlockEntry(expected);
-            // assert that server is running before we call actual
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-            // call
-            final long actual = toTest.maxStoredBlockNumber();
-            // assert expected result and still running server
-            assertThat(actual).isEqualTo(expected);
-            assertThat(testContext.serverHealth().isRunning()).isTrue();
-        }
-
         /**
          * This test aims to assert that the
          * {@link ZipBlockArchive#blockAccessor(long)} returns null if no block
@@ -435,6 +293,309 @@ class ZipBlockArchiveTest {
                 }
             }
         }
+
+        /**
+         * This test aims to assert that the
+         * {@link ZipBlockArchive#writeNewZipFile(long)} will write every block,
+         * in order and with the right contents, when blocks are prepared in
+         * parallel by zip build workers with a window smaller than the batch.
+         */
+        @Test
+        @DisplayName("Test writeNewZipFile() with parallel zip build workers writes all blocks in order")
+        void testZipContentsWithZipBuildWorkers() throws IOException, ParseException {
+            final ExecutorService workers = Executors.newFixedThreadPool(2);
+            final BlockNodeContext workersContext = new BlockNodeContext(
+                    testContext.configuration(),
+                    null,
+                    new TestHealthFacility(),
+                    new TestBlockMessagingFacility(),
+                    historicalBlockProvider,
+                    null,
+                    new TestThreadPoolManager<>(workers));
+            final FilesHistoricConfig workersConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .compression(CompressionType.NONE)
+                    .powersOfTenPerZipFileContents(1)
+                    .zipBuildThreads(2)
+                    .zipBuildWindow(3)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
+            for (int i = 0; i < 10; i++) {
+                final List<BlockItemUnparsed> blockItems =
+                        List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i));
+                historicalBlockProvider.handleBlockItemsReceived(new BlockItems(blockItems, i));
+            }
+            try (final ZipBlockArchive workersArchive = new ZipBlockArchive(workersContext, workersConfig)) {
+                final List<BlockAccessor> written = workersArchive.writeNewZipFile(0L);
+                assertThat(written)
+                        .extracting(BlockAccessor::blockNumber)
+                        .containsExactlyElementsOf(LongStream.range(0, 10).boxed().toList());
+            } finally {
+                workers.shutdownNow();
+            }
+            final Path expected = BlockPath.computeBlockPath(workersConfig, 0L).zipFilePath();
+            try (final ZipFile zipFile = new ZipFile(expected.toFile())) {
+                final List<? extends ZipEntry> entries = zipFile.stream().toList();
+                assertThat(entries).hasSize(10);
+                for (int i = 0; i < 10; i++) {
+                    final ZipEntry zipEntry = entries.get(i);
+                    assertThat(zipEntry.getName()).isEqualTo(BlockFile.blockFileName(i, CompressionType.NONE));
+                    try (final InputStream in = zipFile.getInputStream(zipEntry)) {
+                        final BlockUnparsed actualValue = BlockUnparsed.PROTOBUF.parse(Bytes.wrap(in.readAllBytes()));
+                        assertThat(actualValue)
+                                .isEqualTo(new BlockUnparsed(
+                                        List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i))));
+                    }
+                }
+            }
+        }
+
+        /**
+         * This test aims to assert that the
+         * {@link ZipBlockArchive#writeNewZipFile(long)} will throw an
+         * {@link IOException} if a block in the batch is not available.
+         */
+        @Test
+        @DisplayName("Test writeNewZipFile() throws IOException when a block is missing")
+        void testZipMissingBlock() {
+            // add only the first 5 blocks of the batch of 10
+            for (int i = 0; i < 5; i++) {
+                final List<BlockItemUnparsed> blockItems =
+                        List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i));
+                historicalBlockProvider.handleBlockItemsReceived(new BlockItems(blockItems, i));
+            }
+            assertThatIOException().isThrownBy(() -> toTest.writeNewZipFile(0L)).withMessageContaining("5");
+        }
+
+        /**
+         * This test aims to assert that with the indexed archive format,
+         * {@link ZipBlockArchive#writeNewZipFile(long)} writes an indexed
+         * block file that blocks are read back from, and that the stored block
+         * range is found from it.
+         */
+        @Test
+        @DisplayName("Test writeNewZipFile() with the indexed archive format writes a readable indexed block file")
+        void testIndexedArchiveFormat() throws IOException {
+            final FilesHistoricConfig indexedConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .compression(CompressionType.NONE)
+                    .powersOfTenPerZipFileContents(1)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .archiveFormat(ArchiveFormat.INDEXED)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
+            for (int i = 10; i < 20; i++) {
+                final List<BlockItemUnparsed> blockItems =
+                        List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i));
+                historicalBlockProvider.handleBlockItemsReceived(new BlockItems(blockItems, i));
+            }
+            try (final ZipBlockArchive indexedArchive = new ZipBlockArchive(testContext, indexedConfig)) {
+                assertThat(indexedArchive.writeNewZipFile(10L)).hasSize(10);
+                final BlockPath blockPath = BlockPath.computeBlockPath(indexedConfig, 10L);
+                assertThat(blockPath.indexedFilePath()).exists();
+                assertThat(blockPath.zipFilePath()).doesNotExist();
+                assertThat(indexedArchive.scanStoredBlockRanges(false)).containsExactly(new LongRange(10, 19));
+                for (int i = 10; i < 20; i++) {
+                    final BlockAccessor accessor = indexedArchive.blockAccessor(i);
+                    assertThat(accessor).isInstanceOf(IndexedBlockAccessor.class);
+                    assertThat(accessor.blockNumber()).isEqualTo(i);
+                    assertThat(accessor.blockUnparsed())
+                            .isEqualTo(new BlockUnparsed(
+                                    List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i))));
+                }
+                assertThat(indexedArchive.blockAccessor(20L)).isNull();
+                assertThat(indexedArchive.hasArchivesToConvert()).isFalse();
+            }
+        }
+
+        /**
+         * This test aims to assert that archive files not in the configured
+         * format are converted, and that blocks are read from whichever
+         * format exists.
+         */
+        @Test
+        @DisplayName("Test convertArchives() converts zip files to indexed block files and back")
+        void testConvertArchives() throws IOException {
+            for (int i = 0; i < 10; i++) {
+                final List<BlockItemUnparsed> blockItems =
+                        List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i));
+                historicalBlockProvider.handleBlockItemsReceived(new BlockItems(blockItems, i));
+            }
+            toTest.writeNewZipFile(0L);
+            final BlockPath blockPath = BlockPath.computeBlockPath(testConfig, 0L);
+            final FilesHistoricConfig indexedConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .compression(CompressionType.NONE)
+                    .powersOfTenPerZipFileContents(1)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .archiveFormat(ArchiveFormat.INDEXED)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
+            try (final ZipBlockArchive indexedArchive = new ZipBlockArchive(testContext, indexedConfig)) {
+                // the zip file is read until it is converted
+                assertThat(indexedArchive.blockAccessor(5L)).isInstanceOf(ZipBlockAccessor.class);
+                assertThat(indexedArchive.hasArchivesToConvert()).isTrue();
+                indexedArchive.convertArchives();
+                assertThat(indexedArchive.hasArchivesToConvert()).isFalse();
+                assertThat(blockPath.zipFilePath()).doesNotExist();
+                assertThat(blockPath.indexedFilePath()).exists();
+                final BlockAccessor accessor = indexedArchive.blockAccessor(5L);
+                assertThat(accessor).isInstanceOf(IndexedBlockAccessor.class);
+                assertThat(accessor.blockUnparsed())
+                        .isEqualTo(new BlockUnparsed(
+                                List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(5))));
+            }
+            // the zip archive format reads the indexed block file, then converts it back
+            assertThat(toTest.blockAccessor(5L)).isInstanceOf(IndexedBlockAccessor.class);
+            assertThat(toTest.hasArchivesToConvert()).isTrue();
+            toTest.convertArchives();
+            assertThat(blockPath.zipFilePath()).exists();
+            assertThat(blockPath.indexedFilePath()).doesNotExist();
+            assertThat(toTest.scanStoredBlockRanges(false)).containsExactly(new LongRange(0, 9));
+            final BlockAccessor accessor = toTest.blockAccessor(5L);
+            assertThat(accessor).isInstanceOf(ZipBlockAccessor.class);
+            assertThat(accessor.blockUnparsed())
+                    .isEqualTo(new BlockUnparsed(
+                            List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(5))));
+        }
+
+        /**
+         * This test aims to assert that {@link ZipBlockArchive#blocks(long, long)}
+         * reads a range of blocks across archive files of both formats, ending
+         * at the first block that is not stored.
+         */
+        @Test
+        @DisplayName("Test blocks() reads a range across archive files and ends at the first missing block")
+        void testBlocksRange() throws IOException {
+            for (int i = 0; i < 20; i++) {
+                final List<BlockItemUnparsed> blockItems =
+                        List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i));
+                historicalBlockProvider.handleBlockItemsReceived(new BlockItems(blockItems, i));
+            }
+            toTest.writeNewZipFile(0L);
+            final FilesHistoricConfig indexedConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .compression(CompressionType.NONE)
+                    .powersOfTenPerZipFileContents(1)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .archiveFormat(ArchiveFormat.INDEXED)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
+            try (final ZipBlockArchive indexedArchive = new ZipBlockArchive(testContext, indexedConfig)) {
+                indexedArchive.writeNewZipFile(10L);
+            }
+            try (final Stream<BlockAccessor> blocks = toTest.blocks(5L, 25L)) {
+                final List<BlockAccessor> accessors = blocks.toList();
+                assertThat(accessors).hasSize(15);
+                for (int i = 0; i < accessors.size(); i++) {
+                    final BlockAccessor accessor = accessors.get(i);
+                    assertThat(accessor).isInstanceOf(i < 5 ? ZipBlockAccessor.class : IndexedBlockAccessor.class);
+                    assertThat(accessor.blockNumber()).isEqualTo(i + 5L);
+                    assertThat(accessor.blockUnparsed())
+                            .isEqualTo(new BlockUnparsed(
+                                    List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i + 5))));
+                }
+            }
+            try (final Stream<BlockAccessor> blocks = toTest.blocks(20L, 25L)) {
+                assertThat(blocks).isEmpty();
+            }
+        }
+
+        /**
+         * This test aims to assert that
+         * {@link ZipBlockArchive#scanStoredBlockRanges(boolean)} finds the
+         * blocks in archive files of both formats, with gaps where archive
+         * files are missing, and with validation leaves out archive files
+         * that fail their checksums.
+         */
+        @Test
+        @DisplayName("Test scanStoredBlockRanges() finds gaps and validates archive files")
+        void testScanStoredBlockRanges() throws IOException {
+            for (int i = 0; i < 40; i++) {
+                final List<BlockItemUnparsed> blockItems =
+                        List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i));
+                historicalBlockProvider.handleBlockItemsReceived(new BlockItems(blockItems, i));
+            }
+            toTest.writeNewZipFile(0L);
+            final FilesHistoricConfig indexedConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .compression(CompressionType.NONE)
+                    .powersOfTenPerZipFileContents(1)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .archiveFormat(ArchiveFormat.INDEXED)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
+            try (final ZipBlockArchive indexedArchive = new ZipBlockArchive(testContext, indexedConfig)) {
+                indexedArchive.writeNewZipFile(20L);
+                indexedArchive.writeNewZipFile(30L);
+            }
+            // corrupt the first block of the last archive file, the payloads start at the beginning of the file
+            final Path corruptPath = BlockPath.computeBlockPath(testConfig, 30L).indexedFilePath();
+            try (FileChannel channel = FileChannel.open(corruptPath, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), 0);
+            }
+            assertThat(toTest.scanStoredBlockRanges(true)).containsExactly(new LongRange(0, 9), new LongRange(20, 29));
+            assertThat(toTest.scanStoredBlockRanges(false))
+                    .containsExactly(new LongRange(0, 9), new LongRange(20, 39));
+            assertThat(toTest.archiveFilesExist(new LongRange(0, 9))).isTrue();
+            assertThat(toTest.archiveFilesExist(new LongRange(0, 29))).isFalse();
+            assertThat(toTest.archiveFilesExist(new LongRange(25, 35))).isTrue();
+        }
+
+        /**
+         * This test aims to assert that
+         * {@link ZipBlockArchive#compactArchive(long, int, ArchiveWriteThrottle)}
+         * replaces an archive file with a smaller one in the configured format,
+         * holding the same blocks, and does nothing for a batch with no archive
+         * file.
+         */
+        @Test
+        @DisplayName("Test compactArchive() replaces an archive file with a smaller one holding the same blocks")
+        void testCompactArchive() throws IOException {
+            for (int i = 0; i < 10; i++) {
+                final List<BlockItemUnparsed> blockItems =
+                        List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i));
+                historicalBlockProvider.handleBlockItemsReceived(new BlockItems(blockItems, i));
+            }
+            toTest.writeNewZipFile(0L);
+            final BlockPath blockPath = BlockPath.computeBlockPath(testConfig, 0L);
+            final long zipFileSize = Files.size(blockPath.zipFilePath());
+            final FilesHistoricConfig indexedConfig = FilesHistoricConfigBuilder.defaults(tempDir)
+                    .powersOfTenPerZipFileContents(1)
+                    .zipBuildThreads(0)
+                    .zipBuildWindow(4)
+                    .archiveFormat(ArchiveFormat.INDEXED)
+                    .zipMoveThreads(1)
+                    .archiveMaxBytesPerSecond(0)
+                    .compactionMaxBytesPerSecond(0)
+                    .build();
+            try (final ZipBlockArchive indexedArchive = new ZipBlockArchive(testContext, indexedConfig)) {
+                final long reclaimed = indexedArchive.compactArchive(0L, 19, new ArchiveWriteThrottle(0));
+                assertThat(reclaimed).isPositive();
+                assertThat(blockPath.zipFilePath()).doesNotExist();
+                assertThat(blockPath.indexedFilePath()).exists();
+                assertThat(Files.size(blockPath.indexedFilePath())).isEqualTo(zipFileSize - reclaimed);
+                for (int i = 0; i < 10; i++) {
+                    final BlockAccessor accessor = indexedArchive.blockAccessor(i);
+                    assertThat(accessor).isInstanceOf(IndexedBlockAccessor.class);
+                    assertThat(accessor.blockUnparsed())
+                            .isEqualTo(new BlockUnparsed(
+                                    List.of(SimpleTestBlockItemBuilder.createSimpleBlockUnparsedWithNumber(i))));
+                }
+                assertThat(indexedArchive.compactArchive(10L, 19, new ArchiveWriteThrottle(0)))
+                        .isZero();
+                assertThat(BlockPath.computeBlockPath(testConfig, 10L).indexedFilePath()).doesNotExist();
+            }
+        }
     }
 
     private ZipBlockAccessor createAndAddBlockEntry(final long blockNumber) throws IOException {
@@ -493,11 +654,19 @@ class ZipBlockArchiveTest {
             final byte[] fromZipEntry = zipFile.getInputStream(entry).readAllBytes();
             assertThat(fromZipEntry).isEqualTo(bytesToWrite);
         }
-        return new ZipBlockAccessor(blockPath);
+        return new ZipBlockAccessor(blockPath, zipFiles);
     }
 
     private FilesHistoricConfig createTestConfiguration(final Path basePath, final int powersOfTenPerZipFileContents) {
         // for simplicity let's use no compression
-        return new FilesHistoricConfig(basePath, CompressionType.NONE, powersOfTenPerZipFileContents);
+        return FilesHistoricConfigBuilder.defaults(basePath)
+                .compression(CompressionType.NONE)
+                .powersOfTenPerZipFileContents(powersOfTenPerZipFileContents)
+                .zipBuildThreads(0)
+                .zipBuildWindow(4)
+                .zipMoveThreads(1)
+                .archiveMaxBytesPerSecond(0)
+                .compactionMaxBytesPerSecond(0)
+                .build();
     }
 }
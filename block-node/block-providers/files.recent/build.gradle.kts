@@ -1,5 +1,8 @@
 // SPDX-License-Identifier: Apache-2.0
-plugins { id("org.hiero.gradle.module.library") }
+plugins {
+    id("org.hiero.gradle.module.library")
+    id("org.hiero.gradle.feature.benchmark")
+}
 
 description = "Hiero Block Node - Blocks File Recent Provider"
 
@@ -21,3 +24,5 @@ testModuleInfo {
     requires("org.assertj.core")
     requires("org.hiero.block.node.app.test.fixtures")
 }
+
+jmhModuleInfo { requires("jmh.core") }
@@ -0,0 +1,204 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.hiero.block.internal.BlockItemUnparsed;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ZstdDictionaries;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for compressing and decompressing block files at a range of Zstandard levels, with and without a trained
+ * dictionary. Blocks are made of many small similar items, like real blocks, so a dictionary helps. The compression
+ * ratio is printed during setup, and the {@code uncompressedBytes} counter gives throughput in bytes per second.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BlockCompressionBenchmark {
+    /** The number of blocks compressed or decompressed in each benchmark invocation. */
+    static final int NUMBER_OF_BLOCKS = 256;
+    /** The number of blocks the dictionary is trained from, separate from the benchmark blocks. */
+    private static final int NUMBER_OF_TRAINING_BLOCKS = 2_000;
+
+    /** The Zstandard compression level. */
+    @Param({"1", "3", "9", "19"})
+    public int level;
+
+    /** True to compress with a trained dictionary. */
+    @Param({"false", "true"})
+    public boolean useDictionary;
+
+    /** The number of items in each block. */
+    @Param({"20", "200"})
+    public int itemsPerBlock;
+
+    /** The temporary directory the dictionary is stored in. */
+    private Path tempDir;
+    /** The dictionaries blocks are compressed with. */
+    private ZstdDictionaries dictionaries;
+    /** The protobuf bytes of the blocks to compress. */
+    private byte[][] blocks;
+    /** The compressed bytes of the blocks to decompress. */
+    private byte[][] compressedBlocks;
+    /** The total size of the blocks, uncompressed. */
+    private long totalUncompressedBytes;
+
+    /**
+     * Counts bytes processed, reported by JMH as a rate alongside the operation rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ByteCounters {
+        /** The number of uncompressed bytes compressed or decompressed. */
+        public long uncompressedBytes;
+
+        /**
+         * Reset the counter at the start of each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            uncompressedBytes = 0;
+        }
+    }
+
+    /**
+     * Create the blocks, train a dictionary if needed and compress the blocks for the decompress benchmark.
+     *
+     * @throws IOException if the dictionary could not be stored
+     */
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("block-compression-benchmark");
+        dictionaries = ZstdDictionaries.NONE;
+        if (useDictionary) {
+            final List<byte[]> samples = new ArrayList<>(NUMBER_OF_TRAINING_BLOCKS);
+            for (int i = 0; i < NUMBER_OF_TRAINING_BLOCKS; i++) {
+                samples.add(createBlock(i));
+            }
+            dictionaries = ZstdDictionaries.load(tempDir);
+            dictionaries.add(ZstdDictionaries.train(samples, ZstdDictionaries.DEFAULT_MAX_DICTIONARY_BYTES));
+        }
+        blocks = new byte[NUMBER_OF_BLOCKS][];
+        compressedBlocks = new byte[NUMBER_OF_BLOCKS][];
+        long totalCompressedBytes = 0;
+        totalUncompressedBytes = 0;
+        for (int i = 0; i < NUMBER_OF_BLOCKS; i++) {
+            blocks[i] = createBlock(NUMBER_OF_TRAINING_BLOCKS + i);
+            compressedBlocks[i] = dictionaries.compress(CompressionType.ZSTD, level, blocks[i]);
+            totalUncompressedBytes += blocks[i].length;
+            totalCompressedBytes += compressedBlocks[i].length;
+        }
+        System.out.printf(
+                "%nlevel=%d useDictionary=%b itemsPerBlock=%d compression ratio=%.2f%n",
+                level,
+                useDictionary,
+                itemsPerBlock,
+                (double) totalUncompressedBytes / totalCompressedBytes);
+    }
+
+    /**
+     * Delete the temporary directory.
+     *
+     * @throws IOException if the temporary directory could not be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Compress a batch of blocks. Reported per block.
+     *
+     * @param counters the byte counters
+     * @param blackhole the blackhole to consume the compressed blocks
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(NUMBER_OF_BLOCKS)
+    public void compress(final ByteCounters counters, final Blackhole blackhole) {
+        for (final byte[] block : blocks) {
+            blackhole.consume(dictionaries.compress(CompressionType.ZSTD, level, block));
+        }
+        counters.uncompressedBytes += totalUncompressedBytes;
+    }
+
+    /**
+     * Decompress a batch of blocks. Reported per block.
+     *
+     * @param counters the byte counters
+     * @param blackhole the blackhole to consume the decompressed blocks
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(NUMBER_OF_BLOCKS)
+    public void decompress(final ByteCounters counters, final Blackhole blackhole) {
+        for (final byte[] compressedBlock : compressedBlocks) {
+            blackhole.consume(dictionaries.decompress(CompressionType.ZSTD, compressedBlock));
+        }
+        counters.uncompressedBytes += totalUncompressedBytes;
+    }
+
+    /**
+     * Create the protobuf bytes of a block of small items that share most of their structure but differ in their
+     * values, like the transactions in a real block.
+     *
+     * @param seed the random seed for the block
+     * @return the protobuf bytes of the block
+     */
+    private byte[] createBlock(final long seed) {
+        final Random random = new Random(seed);
+        final List<BlockItemUnparsed> items = new ArrayList<>(itemsPerBlock);
+        for (int i = 0; i < itemsPerBlock; i++) {
+            final byte[] hash = new byte[48];
+            random.nextBytes(hash);
+            final String item = "{\"payer\":\"0.0." + random.nextInt(100_000)
+                    + "\",\"receiver\":\"0.0." + random.nextInt(100_000)
+                    + "\",\"amount\":" + random.nextInt(1_000_000)
+                    + ",\"fee\":" + (80_000 + random.nextInt(1_000))
+                    + ",\"memo\":\"crypto transfer\",\"node\":\"0.0." + (3 + random.nextInt(30))
+                    + "\",\"status\":\"SUCCESS\",\"hash\":\"";
+            final byte[] itemBytes = item.getBytes(StandardCharsets.UTF_8);
+            final byte[] data = new byte[itemBytes.length + hash.length];
+            System.arraycopy(itemBytes, 0, data, 0, itemBytes.length);
+            System.arraycopy(hash, 0, data, itemBytes.length, hash.length);
+            items.add(BlockItemUnparsed.newBuilder()
+                    .eventHeader(Bytes.wrap(data))
+                    .build());
+        }
+        return BlockUnparsed.PROTOBUF.toBytes(new BlockUnparsed(items)).toByteArray();
+    }
+}
@@ -0,0 +1,188 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import com.swirlds.config.api.ConfigurationBuilder;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.hiero.block.internal.BlockItemUnparsed;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.base.ZstdDictionaries;
+import org.hiero.block.node.blocks.files.recent.FilesRecentConfig.Durability;
+import org.hiero.block.node.spi.threading.ThreadPoolManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link GroupCommitBlockWriter}, measuring block write throughput with a full queue and the latency of
+ * writing a single block, for each durability mode and a range of group sizes. Blocks are written to a temporary
+ * directory on the default file system, so results depend on the disk the benchmark is run on.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GroupCommitBlockWriterBenchmark {
+    /** The number of blocks written in each throughput benchmark invocation. */
+    static final int NUMBER_OF_BLOCKS = 256;
+    /** The number of distinct block numbers written, so the benchmark does not fill the disk. */
+    private static final int BLOCK_NUMBER_WRAP = 4096;
+
+    /** The maximum number of blocks committed in one group. */
+    @Param({"1", "4", "16", "64"})
+    public int groupCommitMaxBlocks;
+
+    /** The durability mode. */
+    @Param({"NONE", "PER_BLOCK", "GROUP"})
+    public Durability durability;
+
+    /** The number of writer threads. */
+    @Param({"2"})
+    public int writerThreads;
+
+    /** The size of the block items in each block, in bytes. */
+    @Param({"65536"})
+    public int blockSize;
+
+    /** The temporary directory blocks are written to. */
+    private Path tempDir;
+    /** The writer under test. */
+    private GroupCommitBlockWriter writer;
+    /** Released once for each committed block. */
+    private final Semaphore committed = new Semaphore(0);
+    /** The block written each time, its contents do not matter to the writer. */
+    private BlockUnparsed block;
+    /** The next block number to write. */
+    private long nextBlockNumber = 0;
+
+    /**
+     * Create the temporary directory, the writer and a block of random data.
+     *
+     * @throws IOException if the temporary directory could not be created
+     */
+    @Setup
+    public void setup() throws IOException {
+        tempDir = Files.createTempDirectory("group-commit-benchmark");
+        final FilesRecentConfig config = ConfigurationBuilder.create()
+                .withConfigDataType(FilesRecentConfig.class)
+                .withValue("files.recent.liveRootPath", tempDir.resolve("live").toString())
+                .withValue("files.recent.unverifiedRootPath", tempDir.resolve("unverified").toString())
+                .withValue("files.recent.dictionaryPath", tempDir.resolve("dictionaries").toString())
+                .withValue("files.recent.manifestCheckpointInterval", "0")
+                .withValue("files.recent.writerThreads", Integer.toString(writerThreads))
+                .withValue("files.recent.writerQueueSize", Integer.toString(NUMBER_OF_BLOCKS))
+                .withValue("files.recent.groupCommitMaxBlocks", Integer.toString(groupCommitMaxBlocks))
+                .withValue("files.recent.durability", durability.name())
+                .withValue("files.recent.deleteMaxFilesPerSecond", "0")
+                .build()
+                .getConfigData(FilesRecentConfig.class);
+        writer = new GroupCommitBlockWriter(
+                config, ZstdDictionaries.NONE, new BenchmarkThreadPoolManager(), blockNumber -> committed.release());
+        // random data does not compress, so compression cost is the same for every block
+        final Random random = new Random(1234);
+        final List<BlockItemUnparsed> items = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            final byte[] data = new byte[blockSize / 16];
+            random.nextBytes(data);
+            items.add(BlockItemUnparsed.newBuilder()
+                    .eventHeader(Bytes.wrap(data))
+                    .build());
+        }
+        block = new BlockUnparsed(items);
+    }
+
+    /**
+     * Close the writer and delete the temporary directory.
+     *
+     * @throws IOException if the temporary directory could not be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        writer.close();
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Write a batch of blocks back to back and wait for them all to be committed. Reported per block.
+     *
+     * @throws InterruptedException if interrupted waiting for the writer
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(NUMBER_OF_BLOCKS)
+    public void throughput() throws InterruptedException {
+        for (int i = 0; i < NUMBER_OF_BLOCKS; i++) {
+            writer.write(nextBlockNumber(), block);
+        }
+        committed.acquire(NUMBER_OF_BLOCKS);
+    }
+
+    /**
+     * Write a single block and wait for it to be committed, the latency a block sees when the writer is idle.
+     *
+     * @throws InterruptedException if interrupted waiting for the writer
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency() throws InterruptedException {
+        writer.write(nextBlockNumber(), block);
+        committed.acquire();
+    }
+
+    /**
+     * Get the next block number to write, wrapping so the same files are overwritten.
+     *
+     * @return the next block number
+     */
+    private long nextBlockNumber() {
+        final long blockNumber = nextBlockNumber;
+        nextBlockNumber = (nextBlockNumber + 1) % BLOCK_NUMBER_WRAP;
+        return blockNumber;
+    }
+
+    /**
+     * Simple thread pool manager creating a real thread for each executor.
+     */
+    private static final class BenchmarkThreadPoolManager implements ThreadPoolManager {
+        @NonNull
+        @Override
+        public ExecutorService createSingleThreadExecutor(@NonNull final String threadName) {
+            return createSingleThreadExecutor(threadName, null);
+        }
+
+        @NonNull
+        @Override
+        public ExecutorService createSingleThreadExecutor(
+                @NonNull final String threadName, final Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+            return Executors.newSingleThreadExecutor(Thread.ofPlatform().name(threadName).daemon().factory());
+        }
+    }
+}
@@ -15,22 +15,31 @@ import com.hedera.pbj.runtime.io.stream.WritableStreamingData;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Objects;
 import org.hiero.block.common.utils.Preconditions;
 import org.hiero.block.internal.BlockUnparsed;
 import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ZstdDictionaries;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
 
 /**
  * An implementation of the {@link BlockAccessor} interface that provides access to a block stored in a file with
  * optional compression types on that file. It aims to provide the most efficient transfer for each combination of
  * input and output formats.
+ * <p>
+ * Files compressed with a Zstandard dictionary are decompressed with the dictionary recorded in their frame header.
+ * Their bytes are never returned as {@link Format#ZSTD_PROTOBUF} as is, as readers would need the dictionary.
  */
 final class BlockFileBlockAccessor implements BlockAccessor {
     /** The size of the buffer used for reading and writing files. */
@@ -41,6 +50,8 @@ final class BlockFileBlockAccessor implements BlockAccessor {
     private final Path blockFilePath;
     /** The compression type used for the block file. */
     private final CompressionType compressionType;
+    /** The dictionaries the block file may have been compressed with. */
+    private final ZstdDictionaries dictionaries;
     /** The block number of the block. */
     private final long blockNumber;
 
@@ -49,12 +60,17 @@ final class BlockFileBlockAccessor implements BlockAccessor {
      *
      * @param blockFilePath   the path to the block file, must exist
      * @param compressionType the compression type used for the block file
+     * @param dictionaries    the dictionaries the block file may have been compressed with
      * @param blockNumber     the block number of the block
      */
     BlockFileBlockAccessor(
-            @NonNull final Path blockFilePath, @NonNull final CompressionType compressionType, final long blockNumber) {
+            @NonNull final Path blockFilePath,
+            @NonNull final CompressionType compressionType,
+            @NonNull final ZstdDictionaries dictionaries,
+            final long blockNumber) {
         this.blockFilePath = Preconditions.requireRegularFile(blockFilePath);
         this.compressionType = Objects.requireNonNull(compressionType);
+        this.dictionaries = Objects.requireNonNull(dictionaries);
         this.blockNumber = blockNumber;
     }
 
@@ -71,8 +87,7 @@ final class BlockFileBlockAccessor implements BlockAccessor {
      */
     @Override
     public Block block() {
-        try (final ReadableStreamingData in = new ReadableStreamingData(compressionType.wrapStream(
-                new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE)))) {
+        try (final ReadableStreamingData in = new ReadableStreamingData(openDecompressed())) {
             return Block.PROTOBUF.parse(in);
         } catch (final IOException e) {
             LOGGER.log(WARNING, "Failed to read block from file: " + blockFilePath, e);
@@ -88,8 +103,7 @@ final class BlockFileBlockAccessor implements BlockAccessor {
      */
     @Override
     public BlockUnparsed blockUnparsed() {
-        try (final ReadableStreamingData in = new ReadableStreamingData(compressionType.wrapStream(
-                new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE)))) {
+        try (final ReadableStreamingData in = new ReadableStreamingData(openDecompressed())) {
             return BlockUnparsed.PROTOBUF.parse(in);
         } catch (final IOException e) {
             LOGGER.log(WARNING, "Failed to read block (unparsed) from file: " + blockFilePath, e);
@@ -106,11 +120,19 @@ final class BlockFileBlockAccessor implements BlockAccessor {
     @Override
     public Bytes blockBytes(@NonNull final Format format) throws IllegalArgumentException {
         Objects.requireNonNull(format);
+        if (isStoredFormat(format)) {
+            // the file already holds the bytes in the requested format, so read them in one go with no buffering
+            try {
+                return Bytes.wrap(Files.readAllBytes(blockFilePath));
+            } catch (final IOException e) {
+                LOGGER.log(WARNING, "Failed to read block (bytes) from file: " + blockFilePath, e);
+                throw new UncheckedIOException(e);
+            }
+        }
         return switch (format) {
             case JSON -> Block.JSON.toBytes(block());
             case PROTOBUF -> {
-                try (final InputStream in = compressionType.wrapStream(
-                        new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE))) {
+                try (final InputStream in = openDecompressed()) {
                     yield Bytes.wrap(in.readAllBytes());
                 } catch (final IOException e) {
                     LOGGER.log(WARNING, "Failed to read block (bytes) from file: " + blockFilePath, e);
@@ -118,22 +140,11 @@ final class BlockFileBlockAccessor implements BlockAccessor {
                 }
             }
             case ZSTD_PROTOBUF -> {
-                if (compressionType == CompressionType.ZSTD) {
-                    try (final InputStream in =
-                            new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE)) {
-                        yield Bytes.wrap(in.readAllBytes());
-                    } catch (final IOException e) {
-                        LOGGER.log(WARNING, "Failed to read block (bytes) from file: " + blockFilePath, e);
-                        throw new UncheckedIOException(e);
-                    }
-                } else {
-                    try (final InputStream in = compressionType.wrapStream(
-                            new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE))) {
-                        yield Bytes.wrap(Zstd.compress(in.readAllBytes()));
-                    } catch (final IOException e) {
-                        LOGGER.log(WARNING, "Failed to read block (bytes) from file: " + blockFilePath, e);
-                        throw new UncheckedIOException(e);
-                    }
+                try (final InputStream in = openDecompressed()) {
+                    yield Bytes.wrap(Zstd.compress(in.readAllBytes()));
+                } catch (final IOException e) {
+                    LOGGER.log(WARNING, "Failed to read block (bytes) from file: " + blockFilePath, e);
+                    throw new UncheckedIOException(e);
                 }
             }
         };
@@ -150,7 +161,7 @@ final class BlockFileBlockAccessor implements BlockAccessor {
         switch (format) {
             case JSON -> Block.JSON.toBytes(block()).writeTo(output);
             case PROTOBUF -> {
-                try (final InputStream in = compressionType.wrapStream(Files.newInputStream(blockFilePath))) {
+                try (final InputStream in = openDecompressed()) {
                     final byte[] buffer = new byte[BUFFER_SIZE];
                     int read;
                     while ((read = in.read(buffer, 0, buffer.length)) >= 0) {
@@ -162,7 +173,7 @@ final class BlockFileBlockAccessor implements BlockAccessor {
                 }
             }
             case ZSTD_PROTOBUF -> {
-                if (compressionType == CompressionType.ZSTD) {
+                if (isStoredFormat(Format.ZSTD_PROTOBUF)) {
                     try (final InputStream in = Files.newInputStream(blockFilePath)) {
                         final byte[] buffer = new byte[BUFFER_SIZE];
                         int read;
@@ -174,8 +185,7 @@ final class BlockFileBlockAccessor implements BlockAccessor {
                         throw new UncheckedIOException(e);
                     }
                 } else {
-                    try (final InputStream in = compressionType.wrapStream(
-                            new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE))) {
+                    try (final InputStream in = openDecompressed()) {
                         output.writeBytes(Zstd.compress(in.readAllBytes()));
                     } catch (final IOException e) {
                         LOGGER.log(WARNING, "Failed to read block from file: " + blockFilePath, e);
@@ -197,7 +207,7 @@ final class BlockFileBlockAccessor implements BlockAccessor {
         switch (format) {
             case JSON -> Block.JSON.toBytes(block()).writeTo(output);
             case PROTOBUF -> {
-                try (final InputStream in = compressionType.wrapStream(Files.newInputStream(blockFilePath))) {
+                try (final InputStream in = openDecompressed()) {
                     final byte[] buffer = new byte[BUFFER_SIZE];
                     int read;
                     while ((read = in.read(buffer, 0, buffer.length)) >= 0) {
@@ -209,7 +219,7 @@ final class BlockFileBlockAccessor implements BlockAccessor {
                 }
             }
             case ZSTD_PROTOBUF -> {
-                if (compressionType == CompressionType.ZSTD) {
+                if (isStoredFormat(Format.ZSTD_PROTOBUF)) {
                     try (final InputStream in = Files.newInputStream(blockFilePath)) {
                         in.transferTo(output);
                     } catch (final IOException e) {
@@ -217,8 +227,7 @@ final class BlockFileBlockAccessor implements BlockAccessor {
                         throw new UncheckedIOException(e);
                     }
                 } else {
-                    try (final InputStream in = compressionType.wrapStream(
-                            new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE))) {
+                    try (final InputStream in = openDecompressed()) {
                         output.write(Zstd.compress(in.readAllBytes()));
                     } catch (final IOException e) {
                         LOGGER.log(WARNING, "Failed to read block from file: " + blockFilePath, e);
@@ -229,6 +238,67 @@ final class BlockFileBlockAccessor implements BlockAccessor {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When the file already holds the bytes in the requested format they are transferred straight from the file to the
+     * channel, which for socket and file channels lets the OS copy them without them passing through the Java heap.
+     * If a transfer makes no progress, for example the target is a non-blocking channel that is full, the rest of the
+     * file is copied through a heap buffer instead, failing if the channel still accepts no bytes.
+     */
+    @Override
+    public long writeBytesTo(@NonNull final Format format, @NonNull final WritableByteChannel channel)
+            throws IOException {
+        Objects.requireNonNull(format);
+        Objects.requireNonNull(channel);
+        if (!isStoredFormat(format)) {
+            return BlockAccessor.super.writeBytesTo(format, channel);
+        }
+        try (final FileChannel fileChannel = FileChannel.open(blockFilePath, StandardOpenOption.READ)) {
+            final long size = fileChannel.size();
+            long position = 0;
+            while (position < size) {
+                final long transferred = fileChannel.transferTo(position, size - position, channel);
+                if (transferred <= 0) {
+                    copyThroughHeap(fileChannel, position, size, channel);
+                    break;
+                }
+                position += transferred;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Copy the rest of a file to a channel through a heap buffer, used when a transfer makes no progress.
+     *
+     * @param fileChannel the channel of the block file
+     * @param position the position in the file to copy from
+     * @param size the size of the file
+     * @param channel the channel to write to
+     * @throws IOException if the file ended early, or the channel accepted no bytes
+     */
+    private void copyThroughHeap(
+            final FileChannel fileChannel, final long position, final long size, final WritableByteChannel channel)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, size - position));
+        long filePosition = position;
+        while (filePosition < size) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), size - filePosition));
+            final int read = fileChannel.read(buffer, filePosition);
+            if (read < 0) {
+                throw new EOFException("Block file ended early: " + blockFilePath);
+            }
+            filePosition += read;
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                if (channel.write(buffer) <= 0) {
+                    throw new IOException("Channel accepted no bytes writing block file: " + blockFilePath);
+                }
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -236,6 +306,10 @@ final class BlockFileBlockAccessor implements BlockAccessor {
     public void writeTo(@NonNull final Format format, @NonNull final Path path) throws IOException {
         Objects.requireNonNull(format);
         Objects.requireNonNull(path);
+        if (isStoredFormat(format)) {
+            Files.copy(blockFilePath, path);
+            return;
+        }
         switch (format) {
             case JSON -> {
                 try (final WritableStreamingData out = new WritableStreamingData(Files.newOutputStream(path))) {
@@ -244,23 +318,64 @@ final class BlockFileBlockAccessor implements BlockAccessor {
             }
             case PROTOBUF -> {
                 try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
-                        final InputStream in = compressionType.wrapStream(
-                                new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE))) {
+                        final InputStream in = openDecompressed()) {
                     in.transferTo(out);
                 }
             }
             case ZSTD_PROTOBUF -> {
-                if (compressionType == CompressionType.ZSTD) {
-                    Files.copy(blockFilePath, path);
-                } else {
-                    try (final OutputStream out = new BufferedOutputStream(
-                                    new ZstdOutputStream(Files.newOutputStream(path)), BUFFER_SIZE);
-                            final InputStream in = compressionType.wrapStream(
-                                    new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE))) {
-                        in.transferTo(out);
-                    }
+                try (final OutputStream out = new BufferedOutputStream(
+                                new ZstdOutputStream(Files.newOutputStream(path)), BUFFER_SIZE);
+                        final InputStream in = openDecompressed()) {
+                    in.transferTo(out);
                 }
             }
         }
     }
+
+    /**
+     * Open the block file for reading decompressed protobuf bytes, with buffering.
+     *
+     * @return the decompressing input stream
+     * @throws IOException if the file could not be opened
+     */
+    private InputStream openDecompressed() throws IOException {
+        return dictionaries.wrapStream(
+                compressionType, new BufferedInputStream(Files.newInputStream(blockFilePath), BUFFER_SIZE));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Zstandard files compressed with a dictionary are not stored in {@link Format#ZSTD_PROTOBUF}, as the bytes can not
+     * be read without the dictionary.
+     *
+     * @throws UncheckedIOException if the frame header of the block file could not be read
+     */
+    @Override
+    public boolean isStoredFormat(@NonNull final Format format) {
+        return switch (format) {
+            case JSON -> false;
+            case PROTOBUF -> compressionType == CompressionType.NONE;
+            case ZSTD_PROTOBUF -> compressionType == CompressionType.ZSTD && !usesDictionary();
+        };
+    }
+
+    /**
+     * Check if the block file was compressed with a dictionary, only reading the frame header if there are any
+     * dictionaries.
+     *
+     * @return true if the block file needs a dictionary to decompress
+     * @throws UncheckedIOException if the frame header of the block file could not be read
+     */
+    private boolean usesDictionary() {
+        if (dictionaries.isEmpty()) {
+            return false;
+        }
+        try {
+            return ZstdDictionaries.frameDictionaryId(blockFilePath) != 0;
+        } catch (final IOException e) {
+            LOGGER.log(WARNING, "Failed to read frame header from file: " + blockFilePath, e);
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,326 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.spi.threading.ThreadPoolManager;
+
+/**
+ * Deletes ranges of block files from the live path on a background thread, so deleting blocks that have been persisted
+ * by a lower priority plugin does not hold up the block notification thread.
+ * <p>
+ * Ranges are deleted a leaf directory at a time. Each leaf directory holds {@code 10^maxFilesPerDir} consecutive
+ * blocks, when a range covers all of them every file in the directory is deleted without computing each block file
+ * path. Otherwise just the block files in the range are deleted. Empty directories are cleaned up once at the end of
+ * each range, deepest first, by trying to delete each directory touched rather than listing it to see if it is empty.
+ * The directory the block after the range will be written to, and its parents, are never cleaned up so they are not
+ * removed from under the block writer.
+ * <p>
+ * A block can be written again after the range holding it was queued for deletion, for example when it is re-delivered
+ * after a lower priority plugin persisted it. Each queued range takes the next generation number, and blocks written
+ * while ranges are queued record the current generation, see {@link #blockWritten(long)}. A block file written at or
+ * after the generation of the range being deleted is left in place. The check and the delete are done holding the same
+ * lock the write is recorded with, so a block file can not be written between them.
+ * <p>
+ * Deletes are throttled to {@link FilesRecentConfig#deleteMaxFilesPerSecond()}, so deleting a large range does not
+ * starve block writes of disk I/O. The total size of the files deleted is reported when each range is done, so the
+ * {@link RetentionManager} can keep track of disk usage.
+ */
+final class BlockRangeDeleter implements AutoCloseable {
+    /** The time to wait for queued deletes to finish when closing. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The configuration for the files recent plugin. */
+    private final FilesRecentConfig config;
+    /** The number of consecutive blocks stored in each leaf directory. */
+    private final long blocksPerLeafDirectory;
+    /** The extension of block files in the live path, including the compression extension. */
+    private final String blockFileExtension;
+    /** The thread deleting block files. */
+    private final ExecutorService executor;
+    /** Map of block number to the generation it was last written at, for blocks written while ranges are queued. */
+    private final Map<Long, Long> writtenGenerations = new HashMap<>();
+    /** The generation of the last range queued, guarded by this. */
+    private long generation = 0;
+    /** The number of ranges queued and not yet deleted, guarded by this. */
+    private int queuedRanges = 0;
+    /** The start of the current throttling window in nanoseconds, only accessed on the deleter thread. */
+    private long windowStartNanos;
+    /** The number of files deleted in the current throttling window, only accessed on the deleter thread. */
+    private int deletedInWindow;
+
+    /**
+     * Create a new block range deleter.
+     *
+     * @param config the configuration for the files recent plugin
+     * @param threadPoolManager the thread pool manager used to create the deleter thread
+     */
+    BlockRangeDeleter(@NonNull final FilesRecentConfig config, @NonNull final ThreadPoolManager threadPoolManager) {
+        this.config = Objects.requireNonNull(config);
+        this.blocksPerLeafDirectory = blocksPerLeafDirectory(config.maxFilesPerDir());
+        this.blockFileExtension = BlockFile.BLOCK_FILE_EXTENSION + config.compression().extension();
+        this.executor = threadPoolManager.createSingleThreadExecutor("FilesRecentDeleter");
+    }
+
+    /**
+     * Compute the number of consecutive blocks stored in each leaf directory, {@code 10^maxFilesPerDir} capped so it
+     * does not overflow.
+     *
+     * @param maxFilesPerDir the configured number of files per directory
+     * @return the number of blocks in each leaf directory
+     */
+    static long blocksPerLeafDirectory(final int maxFilesPerDir) {
+        long blocksPerLeaf = 1;
+        for (int i = 0; i < maxFilesPerDir && blocksPerLeaf <= Long.MAX_VALUE / 10; i++) {
+            blocksPerLeaf *= 10;
+        }
+        return blocksPerLeaf;
+    }
+
+    /**
+     * Queue a range of blocks to be deleted from the live path. Blocks in the range that are not stored are ignored.
+     *
+     * @param startBlockNumber the first block number to delete, inclusive
+     * @param endBlockNumber the last block number to delete, inclusive
+     * @return a future completed with the total size in bytes of the files deleted, once the range is deleted
+     */
+    CompletableFuture<Long> deleteRange(final long startBlockNumber, final long endBlockNumber) {
+        final long rangeGeneration;
+        synchronized (this) {
+            rangeGeneration = ++generation;
+            queuedRanges++;
+        }
+        final CompletableFuture<Long> deletedBytes = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                deletedBytes.complete(delete(startBlockNumber, endBlockNumber, rangeGeneration));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.log(
+                        WARNING,
+                        "Interrupted deleting blocks [{0} -> {1}], some block files may be left behind",
+                        startBlockNumber,
+                        endBlockNumber);
+                deletedBytes.completeExceptionally(e);
+            } catch (final RuntimeException e) {
+                LOGGER.log(
+                        WARNING,
+                        "Failed deleting blocks [" + startBlockNumber + " -> " + endBlockNumber
+                                + "], some block files may be left behind",
+                        e);
+                deletedBytes.completeExceptionally(e);
+            } finally {
+                rangeDone();
+            }
+        });
+        return deletedBytes;
+    }
+
+    /**
+     * Record that a block is about to be written to the live path, so queued ranges that include it leave its file in
+     * place. Must be called before the block file is created. This can be called on any thread.
+     *
+     * @param blockNumber the block number of the block being written
+     */
+    synchronized void blockWritten(final long blockNumber) {
+        if (queuedRanges > 0) {
+            writtenGenerations.put(blockNumber, generation);
+        }
+    }
+
+    /**
+     * Wait for all queued ranges to be deleted, then stop the deleter thread.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.log(WARNING, "Timed out waiting for block deletes to finish");
+                executor.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Called on the deleter thread once a range is done, forgetting the written generations when no ranges are queued.
+     */
+    private synchronized void rangeDone() {
+        if (--queuedRanges == 0) {
+            writtenGenerations.clear();
+        }
+    }
+
+    /**
+     * Delete a range of blocks, called on the deleter thread.
+     *
+     * @param startBlockNumber the first block number to delete, inclusive
+     * @param endBlockNumber the last block number to delete, inclusive
+     * @param rangeGeneration the generation of the range, block files written at or after it are not deleted
+     * @return the total size in bytes of the files deleted
+     * @throws InterruptedException if interrupted while throttled
+     */
+    private long delete(final long startBlockNumber, final long endBlockNumber, final long rangeGeneration)
+            throws InterruptedException {
+        LOGGER.log(DEBUG, "Deleting block files [{0} -> {1}]", startBlockNumber, endBlockNumber);
+        windowStartNanos = System.nanoTime();
+        deletedInWindow = 0;
+        // the directory the next block is written to, it and its parents must be left for the block writer
+        final Path nextBlockDirectory = endBlockNumber == Long.MAX_VALUE ? null : leafDirectory(endBlockNumber + 1);
+        // directories to clean up, deepest first
+        final TreeSet<Path> directoriesToClean = new TreeSet<>(
+                Comparator.comparingInt(Path::getNameCount).reversed().thenComparing(Comparator.naturalOrder()));
+        long deletedBytes = 0;
+        long leafStart = startBlockNumber - (startBlockNumber % blocksPerLeafDirectory);
+        while (leafStart <= endBlockNumber) {
+            final long leafEnd = leafStart + Math.min(blocksPerLeafDirectory - 1, Long.MAX_VALUE - leafStart);
+            final Path leafDirectory = leafDirectory(leafStart);
+            if (startBlockNumber <= leafStart && leafEnd <= endBlockNumber) {
+                deletedBytes += deleteAllFiles(leafDirectory, rangeGeneration);
+            } else {
+                final long last = Math.min(leafEnd, endBlockNumber);
+                for (long blockNumber = Math.max(leafStart, startBlockNumber); blockNumber <= last; blockNumber++) {
+                    final Path blockFile = BlockFile.nestedDirectoriesBlockFilePath(
+                            config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
+                    deletedBytes += deleteFile(blockNumber, blockFile, rangeGeneration);
+                }
+            }
+            for (Path dir = leafDirectory; dir != null && !dir.equals(config.liveRootPath()); dir = dir.getParent()) {
+                if (nextBlockDirectory == null || !nextBlockDirectory.startsWith(dir)) {
+                    directoriesToClean.add(dir);
+                }
+            }
+            if (leafEnd == Long.MAX_VALUE) {
+                break;
+            }
+            leafStart = leafEnd + 1;
+        }
+        for (final Path directory : directoriesToClean) {
+            deleteIfEmpty(directory);
+        }
+        return deletedBytes;
+    }
+
+    /**
+     * Compute the leaf directory a block file is stored in.
+     *
+     * @param blockNumber the block number
+     * @return the path of the leaf directory
+     */
+    private Path leafDirectory(final long blockNumber) {
+        return BlockFile.nestedDirectoriesBlockFilePath(
+                        config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir())
+                .getParent();
+    }
+
+    /**
+     * Delete all block files in a leaf directory, all the blocks it can hold are no longer needed. Files that are not
+     * block files, for example left behind by an editor or network file system, are left in place.
+     *
+     * @param leafDirectory the leaf directory
+     * @param rangeGeneration the generation of the range, block files written at or after it are not deleted
+     * @return the total size in bytes of the files deleted
+     * @throws InterruptedException if interrupted while throttled
+     */
+    private long deleteAllFiles(final Path leafDirectory, final long rangeGeneration) throws InterruptedException {
+        long deletedBytes = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                leafDirectory, file -> file.getFileName().toString().endsWith(blockFileExtension))) {
+            for (final Path file : files) {
+                final long blockNumber;
+                try {
+                    blockNumber = BlockFile.blockNumberFromFile(file);
+                } catch (final NumberFormatException e) {
+                    LOGGER.log(DEBUG, "Skipping file that is not a block file: {0}", file);
+                    continue;
+                }
+                deletedBytes += deleteFile(blockNumber, file, rangeGeneration);
+            }
+        } catch (final NoSuchFileException e) {
+            // nothing stored in this directory
+        } catch (final IOException | DirectoryIteratorException e) {
+            LOGGER.log(WARNING, "Failed to list block files in directory: " + leafDirectory, e);
+        }
+        return deletedBytes;
+    }
+
+    /**
+     * Delete a block file if it exists and was not written again after its range was queued, throttled to the
+     * configured maximum deletes per second.
+     *
+     * @param blockNumber the block number of the block file
+     * @param blockFile the block file to delete
+     * @param rangeGeneration the generation of the range, the file is not deleted if written at or after it
+     * @return the size in bytes of the deleted file, zero if it did not exist, was kept or could not be deleted
+     * @throws InterruptedException if interrupted while throttled
+     */
+    private long deleteFile(final long blockNumber, final Path blockFile, final long rangeGeneration)
+            throws InterruptedException {
+        final long size;
+        try {
+            synchronized (this) {
+                final Long writtenGeneration = writtenGenerations.get(blockNumber);
+                if (writtenGeneration != null && writtenGeneration >= rangeGeneration) {
+                    LOGGER.log(DEBUG, "Keeping block file written after delete was queued: {0}", blockFile);
+                    return 0;
+                }
+                size = Files.readAttributes(blockFile, BasicFileAttributes.class).size();
+                Files.delete(blockFile);
+            }
+        } catch (final NoSuchFileException e) {
+            // not stored
+            return 0;
+        } catch (final IOException e) {
+            LOGGER.log(WARNING, "Failed to delete block file: " + blockFile, e);
+            return 0;
+        }
+        final int maxFilesPerSecond = config.deleteMaxFilesPerSecond();
+        if (maxFilesPerSecond > 0 && ++deletedInWindow >= maxFilesPerSecond) {
+            final long remainingNanos = windowStartNanos + TimeUnit.SECONDS.toNanos(1) - System.nanoTime();
+            if (remainingNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(remainingNanos);
+            }
+            windowStartNanos = System.nanoTime();
+            deletedInWindow = 0;
+        }
+        return size;
+    }
+
+    /**
+     * Delete a directory if it is empty. Trying the delete is cheaper than listing the directory to check if it is
+     * empty first.
+     *
+     * @param directory the directory to delete
+     */
+    private void deleteIfEmpty(final Path directory) {
+        try {
+            Files.delete(directory);
+        } catch (final DirectoryNotEmptyException | NoSuchFileException e) {
+            // still in use or already deleted
+        } catch (final IOException e) {
+            LOGGER.log(WARNING, "Failed to delete directory: " + directory, e);
+        }
+    }
+}
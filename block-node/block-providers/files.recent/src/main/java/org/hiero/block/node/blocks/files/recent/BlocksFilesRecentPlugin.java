@@ -3,7 +3,7 @@ package org.hiero.block.node.blocks.files.recent;
 
 import static java.lang.System.Logger.Level.DEBUG;
 import static java.lang.System.Logger.Level.WARNING;
-import static org.hiero.block.node.base.BlockFile.nestedDirectoriesAllBlockNumbers;
+import static org.hiero.block.node.base.BlockFile.nestedDirectoriesAllBlockRanges;
 
 import com.hedera.pbj.runtime.io.stream.WritableStreamingData;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -12,13 +12,26 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.System.Logger.Level;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.hiero.block.internal.BlockItemUnparsed;
 import org.hiero.block.internal.BlockUnparsed;
 import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.ZstdDictionaries;
+import org.hiero.block.node.base.ranges.BlockRangeManifest;
 import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
 import org.hiero.block.node.spi.BlockNodeContext;
 import org.hiero.block.node.spi.ServiceBuilder;
+import org.hiero.block.node.spi.blockmessaging.BlockItemHandler;
+import org.hiero.block.node.spi.blockmessaging.BlockItems;
 import org.hiero.block.node.spi.blockmessaging.BlockMessagingFacility;
 import org.hiero.block.node.spi.blockmessaging.BlockNotificationHandler;
 import org.hiero.block.node.spi.blockmessaging.PersistedNotification;
@@ -26,12 +39,14 @@ import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
 import org.hiero.block.node.spi.historicalblocks.BlockProviderPlugin;
 import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
 
 /**
  * This plugin is responsible for providing the "Files Recent" block provider. This stores incoming blocks in files in
  * the local filesystem. It stores block items as soon as they are received into a temporary file until the ends of the
  * block. The temporary file is stored in unverified path. Once the block is verified, it is moved to the live path.
- * This plugin assumes that it stores blocks forever until asked to delete them.
+ * This plugin stores blocks until asked to delete them, or until they are evicted to stay within the retention
+ * limits.
  * <h2>Threading</h2>
  * There are three threading interactions for this class. Any shared state between the three interactions needs to be
  * considered multithreaded, so handled with thread safe data structures.
@@ -57,8 +72,44 @@ import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
  * there should never be more than a few unverified blocks at a time. The unverified blocks are stored in a compressed
  * format so they are ready to just be moved to the live directory when they are verified. The compression type is
  * configured and can be changed at any time. The compression level is also configured and can be changed at any time.
+ * <p>
+ * Staging of unverified blocks is enabled with {@link FilesRecentConfig#stageUnverifiedBlocks()}. When it is enabled
+ * block items are written to the staging file as they arrive, so a block never needs to be held in memory as a whole.
+ * Verification notifications can then carry just the block number and hash. The block items stream and verification
+ * notifications arrive on different threads and in any order, so a block is promoted by whichever thread sees the
+ * second of the two events, the staged file being complete or the block being verified.
+ * <p>
+ * Blocks that are verified when received are written, and verified staged blocks promoted, by a
+ * {@link GroupCommitBlockWriter}, which compresses and writes them on worker threads and sends the block persisted
+ * notifications in block order once the blocks are durable. Blocks
+ * persisted by lower priority plugins are deleted a range at a time by a {@link BlockRangeDeleter} on a background
+ * thread, throttled so deleting does not slow down writing.
+ * <h2>Compression Dictionaries</h2>
+ * Block files are compressed with the configured {@link FilesRecentConfig#compressionLevel()} and, once there is one,
+ * the current Zstandard dictionary from {@link FilesRecentConfig#dictionaryPath()}. Dictionaries can be trained
+ * offline with the tools {@code train-dictionary} command, or by a {@link DictionaryTrainer} every
+ * {@link FilesRecentConfig#dictionaryTrainingInterval()} blocks. Each block file records the ID of the dictionary it
+ * was compressed with in its frame header, so changing dictionary never affects blocks already stored.
+ * <h2>Retention</h2>
+ * Blocks are normally deleted once a lower priority plugin has persisted them. A node with nowhere else to keep blocks
+ * can instead set limits on the total size, number and age of the stored blocks, see
+ * {@link FilesRecentConfig#retentionMaxBytes()}. A {@link RetentionManager} tracks disk usage as blocks are stored and
+ * deleted, and evicts the oldest blocks in batches on a background thread once a limit is exceeded, down to
+ * {@link FilesRecentConfig#retentionLowWatermarkPercent()} of the limit.
+ * <h2>Startup Manifest</h2>
+ * Walking the whole live directory tree to find the stored blocks gets slow as the number of blocks grows. So the
+ * ranges of stored blocks are kept in a {@link BlockRangeManifest} in the live root directory, checkpointed every
+ * {@link FilesRecentConfig#manifestCheckpointInterval()} blocks written or deleted and on stop. On start-up the
+ * manifest is loaded and sanity checked against the files at the edges of each range. The live directory tree is only
+ * scanned, in parallel, if the manifest is missing, corrupt or does not match the files. Ranges are recorded in the
+ * manifest as queued for deletion when they stop being available, and as deleted once their files are gone, so deletes
+ * that did not finish before a stop or crash are queued again on start-up.
  */
-public final class BlocksFilesRecentPlugin implements BlockProviderPlugin, BlockNotificationHandler {
+public final class BlocksFilesRecentPlugin implements BlockProviderPlugin, BlockNotificationHandler, BlockItemHandler {
+    /** The protobuf tag for field 1 "block_items" of a Block, length delimited wire type. */
+    private static final int BLOCK_ITEMS_FIELD_TAG = (1 << 3) | 2;
+    /** The size of the buffer used for writing block files. */
+    private static final int BUFFER_SIZE = 1024 * 1024;
     /** The logger for this class. */
     private final System.Logger LOGGER = System.getLogger(getClass().getName());
     /** The configuration for this plugin. */
@@ -67,6 +118,24 @@ public final class BlocksFilesRecentPlugin implements BlockProviderPlugin, Block
     private BlockMessagingFacility blockMessaging;
     /** The set of available blocks. */
     private final ConcurrentLongRangeSet availableBlocks = new ConcurrentLongRangeSet();
+    /** Map of block number to blocks that are being staged or are staged waiting for verification. */
+    private final ConcurrentHashMap<Long, StagedBlock> stagedBlocks = new ConcurrentHashMap<>();
+    /** The block currently being written to the staging directory, only accessed on the block item handler thread. */
+    private StagedBlock currentStagedBlock;
+    /** The output for the block currently being staged, only accessed on the block item handler thread. */
+    private WritableStreamingData currentStagedBlockOut;
+    /** The manifest of available block ranges, null if disabled or it could not be kept in step with the files. */
+    private volatile BlockRangeManifest manifest;
+    /** The writer for blocks that are verified when received, so need to be written to the live path. */
+    private GroupCommitBlockWriter blockWriter;
+    /** The deleter for blocks that have been persisted by lower priority plugins, so are no longer needed. */
+    private BlockRangeDeleter blockDeleter;
+    /** The compression dictionaries block files are compressed with. */
+    private ZstdDictionaries dictionaries = ZstdDictionaries.NONE;
+    /** The trainer for new compression dictionaries. */
+    private DictionaryTrainer dictionaryTrainer;
+    /** The manager evicting the oldest blocks to stay within the retention limits. */
+    private RetentionManager retentionManager;
 
     /**
      * Default constructor for the plugin. This is used for normal service loading.
@@ -103,6 +172,19 @@ public final class BlocksFilesRecentPlugin implements BlockProviderPlugin, Block
             this.config = context.configuration().getConfigData(FilesRecentConfig.class);
         }
         this.blockMessaging = context.blockMessaging();
+        // load the compression dictionaries, stored blocks can not be read without them
+        try {
+            this.dictionaries = ZstdDictionaries.load(config.dictionaryPath());
+        } catch (final IOException e) {
+            LOGGER.log(Level.ERROR, "Could not load compression dictionaries", e);
+            context.serverHealth().shutdown(name(), "Could not load compression dictionaries");
+        }
+        this.blockWriter =
+                new GroupCommitBlockWriter(config, dictionaries, context.threadPoolManager(), this::blockCommitted);
+        this.blockDeleter = new BlockRangeDeleter(config, context.threadPoolManager());
+        this.dictionaryTrainer = new DictionaryTrainer(config, dictionaries, context.threadPoolManager(), this::block);
+        this.retentionManager = new RetentionManager(
+                config, context.threadPoolManager(), availableBlocks, this::deleteBlocks, context.metrics());
         // create plugin data root directory if it does not exist
         try {
             Files.createDirectories(config.liveRootPath());
@@ -112,10 +194,58 @@ public final class BlocksFilesRecentPlugin implements BlockProviderPlugin, Block
         }
         // we want to listen to block notifications and to know when blocks are verified
         context.blockMessaging().registerBlockNotificationHandler(this, false, "BlocksFilesRecent");
-        // scan file system to find the oldest and newest blocks
-        // TODO this can be way for efficient, very brute force at the moment
-        nestedDirectoriesAllBlockNumbers(config.liveRootPath(), config.compression())
-                .forEach(availableBlocks::add);
+        if (config.stageUnverifiedBlocks()) {
+            // clean up any staged blocks left over from a previous run, they can never be verified now
+            try {
+                Files.createDirectories(config.unverifiedRootPath());
+                try (Stream<Path> leftOverFiles = Files.list(config.unverifiedRootPath())) {
+                    for (final Path leftOverFile : leftOverFiles.toList()) {
+                        Files.deleteIfExists(leftOverFile);
+                    }
+                }
+            } catch (final IOException e) {
+                LOGGER.log(Level.ERROR, "Could not prepare unverified directory", e);
+                context.serverHealth().shutdown(name(), "Could not prepare unverified directory");
+            }
+            // listen to block items so we can stream them to the unverified directory as they arrive
+            context.blockMessaging().registerBlockItemHandler(this, false, "BlocksFilesRecentStaging");
+        }
+        // find the blocks we have stored, from the manifest if possible as that is much faster than scanning
+        loadAvailableBlocks();
+        // measure the stored blocks and evict any that are outside the retention limits
+        retentionManager.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Finish writing queued blocks and deleting queued block ranges, then write a final checkpoint of the manifest, so
+     * the next start-up does not need to replay the journal.
+     */
+    @Override
+    public void stop() {
+        // wait for queued blocks to be written, so they are included in the manifest checkpoint
+        if (blockWriter != null) {
+            blockWriter.close();
+        }
+        // stop evicting before the deleter so no more ranges are queued for it
+        if (retentionManager != null) {
+            retentionManager.close();
+        }
+        if (blockDeleter != null) {
+            blockDeleter.close();
+        }
+        if (dictionaryTrainer != null) {
+            dictionaryTrainer.close();
+        }
+        final BlockRangeManifest currentManifest = manifest;
+        if (currentManifest != null) {
+            try (currentManifest) {
+                currentManifest.checkpoint();
+            } catch (final IOException e) {
+                LOGGER.log(WARNING, "Failed to checkpoint block range manifest, it will be replayed on start", e);
+            }
+        }
     }
 
     /**
@@ -139,7 +269,7 @@ public final class BlocksFilesRecentPlugin implements BlockProviderPlugin, Block
                     config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
             if (Files.exists(verifiedBlockPath)) {
                 // we have the block so return it
-                return new BlockFileBlockAccessor(verifiedBlockPath, config.compression(), blockNumber);
+                return new BlockFileBlockAccessor(verifiedBlockPath, config.compression(), dictionaries, blockNumber);
             } else {
                 LOGGER.log(
                         Level.WARNING,
@@ -150,6 +280,28 @@ public final class BlocksFilesRecentPlugin implements BlockProviderPlugin, Block
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Block files are stored in directories of {@link FilesRecentConfig#maxFilesPerDir()} files, so each directory is
+     * listed once for all the blocks in the range it holds, rather than checking each block file exists on its own.
+     */
+    @Override
+    public Stream<BlockAccessor> blocks(final long firstBlockNumber, final long lastBlockNumber) {
+        final DirectoryListing listing = new DirectoryListing();
+        return LongStream.rangeClosed(firstBlockNumber, lastBlockNumber)
+                .takeWhile(availableBlocks::contains)
+                .mapToObj(blockNumber -> {
+                    final Path verifiedBlockPath = BlockFile.nestedDirectoriesBlockFilePath(
+                            config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
+                    return listing.contains(verifiedBlockPath)
+                            ? new BlockFileBlockAccessor(
+                                    verifiedBlockPath, config.compression(), dictionaries, blockNumber)
+                            : null;
+                })
+                .takeWhile(Objects::nonNull);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -167,8 +319,20 @@ public final class BlocksFilesRecentPlugin implements BlockProviderPlugin, Block
      */
     @Override
     public void handleVerification(VerificationNotification notification) {
-        // write the block to the live path and send notification of block persisted
-        writeBlockToLivePath(notification.block(), notification.blockNumber());
+        if (config.stageUnverifiedBlocks()) {
+            handleStagedBlockVerification(notification);
+        } else if (notification.success()) {
+            if (notification.block() == null) {
+                LOGGER.log(
+                        WARNING,
+                        "Verified block {0} was not included in notification and staging is disabled, block will "
+                                + "not be stored",
+                        notification.blockNumber());
+                return;
+            }
+            // write the block to the live path and send notification of block persisted
+            writeBlockToLivePath(notification.block(), notification.blockNumber());
+        }
     }
 
     /**
@@ -177,100 +341,432 @@ public final class BlocksFilesRecentPlugin implements BlockProviderPlugin, Block
      * This method is called when a block persisted notification is received. It is called on the block notification
      * thread. We will get notifications from ourselves and other plugins. We are looking for notifications from other
      * plugins with lower priority that have stored blocks so we can delete ours as we do not need to store them anymore
-     * if another plugin has them.
+     * if another plugin has them. The blocks stop being available straight away, their files are deleted in the
+     * background by the {@link BlockRangeDeleter}.
      *
      * @param notification the block persisted notification to handle
      */
     @Override
     public void handlePersisted(PersistedNotification notification) {
         if (notification.blockProviderPriority() < defaultPriority()) {
-            // remove range from available blocks
-            availableBlocks.remove(notification.startBlockNumber(), notification.endBlockNumber());
-            // delete all files in range
-            for (long blockNumber = notification.startBlockNumber();
-                    blockNumber <= notification.endBlockNumber();
-                    blockNumber++) {
-                delete(blockNumber);
+            // remove range from available blocks and delete all files in range
+            deleteBlocks(notification.startBlockNumber(), notification.endBlockNumber())
+                    .thenAccept(retentionManager::blocksDeleted);
+        }
+    }
+
+    // ==== BlockItemHandler Methods ===================================================================================
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This method is called on the block item handler thread, only when staging of unverified blocks is enabled. Each
+     * block item is streamed to the staging file for its block as soon as it is received.
+     */
+    @Override
+    public void handleBlockItemsReceived(BlockItems blockItems) {
+        if (blockItems.isStartOfNewBlock()) {
+            startStagingBlock(blockItems.newBlockNumber());
+        }
+        if (currentStagedBlock == null) {
+            // we have joined the stream part way through a block, so ignore items till the next block starts
+            return;
+        }
+        try {
+            for (final BlockItemUnparsed item : blockItems.blockItems()) {
+                // each item is written as a repeated "block_items" field, so the file is a valid serialized Block
+                currentStagedBlockOut.writeVarInt(BLOCK_ITEMS_FIELD_TAG, false);
+                currentStagedBlockOut.writeVarInt(BlockItemUnparsed.PROTOBUF.measureRecord(item), false);
+                BlockItemUnparsed.PROTOBUF.write(item, currentStagedBlockOut);
+            }
+            if (blockItems.isEndOfBlock()) {
+                final StagedBlock stagedBlock = currentStagedBlock;
+                currentStagedBlockOut.close();
+                currentStagedBlockOut = null;
+                currentStagedBlock = null;
+                final Boolean verified;
+                synchronized (stagedBlock) {
+                    stagedBlock.written = true;
+                    verified = stagedBlock.verified;
+                }
+                // if verification has already happened, we are the second event and need to finish the block
+                if (verified != null) {
+                    completeStagedBlock(stagedBlock, verified);
+                }
             }
+        } catch (final IOException | UncheckedIOException e) {
+            LOGGER.log(
+                    Level.ERROR,
+                    "Failed to write staged block: {0}, error: {1}",
+                    currentStagedBlock.blockNumber,
+                    e);
+            abortCurrentStagedBlock();
         }
     }
 
     // ==== Action Methods =============================================================================================
 
     /**
-     * Directly write a block to verified storage. This is used when the block is already verified when we receive it.
+     * Load the set of available blocks at start-up. If the manifest is enabled and valid it is used, otherwise the live
+     * directory tree is scanned and a new manifest checkpoint written. Ranges the manifest has pending deletion are
+     * queued for deletion again, and left out of the available blocks if the directory tree is scanned.
+     */
+    private void loadAvailableBlocks() {
+        List<LongRange> pendingDeletes = List.of();
+        if (config.manifestCheckpointInterval() > 0) {
+            manifest = new BlockRangeManifest(
+                    config.liveRootPath(), availableBlocks, config.manifestCheckpointInterval());
+            final List<LongRange> manifestRanges = manifest.load();
+            pendingDeletes = manifest.pendingDeletes();
+            if (manifestRanges != null && manifestMatchesFiles(manifestRanges, pendingDeletes)) {
+                availableBlocks.addAll(manifestRanges.toArray(LongRange[]::new));
+                LOGGER.log(DEBUG, "Loaded {0} block ranges from manifest", manifestRanges.size());
+                resumePendingDeletes(pendingDeletes);
+                return;
+            }
+            LOGGER.log(Level.INFO, "Block range manifest missing or out of date, scanning live blocks directory");
+        }
+        final List<LongRange> scannedRanges =
+                nestedDirectoriesAllBlockRanges(config.liveRootPath(), config.compression());
+        availableBlocks.addAll(scannedRanges.toArray(LongRange[]::new));
+        availableBlocks.removeAll(pendingDeletes.toArray(LongRange[]::new));
+        resumePendingDeletes(pendingDeletes);
+        if (manifest != null) {
+            try {
+                manifest.checkpoint();
+            } catch (final IOException e) {
+                LOGGER.log(WARNING, "Failed to write block range manifest, disabling it", e);
+                manifest = null;
+            }
+        }
+    }
+
+    /**
+     * Sanity check ranges loaded from the manifest against the live directory, checking the files at the edges of each
+     * range exist and the block after the last range does not. This catches journal records lost in a crash without
+     * having to check every block. The block after the last range is expected to exist if it is pending deletion.
      *
-     * @param block       the block to write
-     * @param blockNumber the block number of the block to write
+     * @param manifestRanges the ranges loaded from the manifest
+     * @param pendingDeletes the ranges the manifest has pending deletion
+     * @return true if the ranges match the files
      */
-    private void writeBlockToLivePath(final BlockUnparsed block, final long blockNumber) {
-        final Path verifiedBlockPath = BlockFile.nestedDirectoriesBlockFilePath(
+    private boolean manifestMatchesFiles(final List<LongRange> manifestRanges, final List<LongRange> pendingDeletes) {
+        for (final LongRange range : manifestRanges) {
+            if (!Files.exists(liveBlockFilePath(range.start())) || !Files.exists(liveBlockFilePath(range.end()))) {
+                return false;
+            }
+        }
+        final long nextBlockNumber = manifestRanges.isEmpty() ? 0 : manifestRanges.getLast().end() + 1;
+        return pendingDeletes.stream().anyMatch(range -> range.contains(nextBlockNumber))
+                || !Files.exists(liveBlockFilePath(nextBlockNumber));
+    }
+
+    /**
+     * Queue the deletes the manifest has pending again, they were not finished before the last stop or crash.
+     *
+     * @param pendingDeletes the ranges the manifest has pending deletion
+     */
+    private void resumePendingDeletes(final List<LongRange> pendingDeletes) {
+        for (final LongRange range : pendingDeletes) {
+            LOGGER.log(DEBUG, "Resuming delete of block files [{0} -> {1}]", range.start(), range.end());
+            deleteBlocks(range.start(), range.end()).thenAccept(retentionManager::blocksDeleted);
+        }
+    }
+
+    /**
+     * Compute the path of a block file in the live directory.
+     *
+     * @param blockNumber the block number
+     * @return the path of the block file
+     */
+    private Path liveBlockFilePath(final long blockNumber) {
+        return BlockFile.nestedDirectoriesBlockFilePath(
                 config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
+    }
+
+    /**
+     * Remove a range of blocks from the available blocks and queue their files for deletion by the
+     * {@link BlockRangeDeleter}, when persisted by a lower priority plugin or evicted by the {@link RetentionManager}.
+     * The range is recorded in the manifest as queued for deletion straight away, and as deleted once the files are
+     * gone, so the delete is run again on start-up if it does not finish.
+     *
+     * @param start the first block number to delete, inclusive
+     * @param end the last block number to delete, inclusive
+     * @return a future completed with the total size in bytes of the files deleted
+     */
+    private CompletableFuture<Long> deleteBlocks(final long start, final long end) {
+        availableBlocks.remove(start, end);
+        recordInManifest(currentManifest -> currentManifest.recordDeleteQueued(start, end));
+        return blockDeleter.deleteRange(start, end).thenApply(deletedBytes -> {
+            recordInManifest(currentManifest -> currentManifest.recordDeleted(start, end));
+            return deletedBytes;
+        });
+    }
+
+    /**
+     * Record a change to the available blocks in the manifest. If the manifest can not be written it is deleted and
+     * disabled, so the next start-up falls back to scanning rather than trusting an out of date manifest.
+     *
+     * @param record writes the record to the manifest
+     */
+    private void recordInManifest(final ManifestRecord record) {
+        final BlockRangeManifest currentManifest = manifest;
+        if (currentManifest == null) {
+            return;
+        }
         try {
-            // create parent directory if it does not exist
-            Files.createDirectories(verifiedBlockPath.getParent());
+            record.writeTo(currentManifest);
         } catch (final IOException e) {
-            LOGGER.log(
-                    System.Logger.Level.ERROR,
-                    "Failed to create directories for path: {0} error: {1}",
-                    verifiedBlockPath.toAbsolutePath().toString(),
-                    e);
-            throw new UncheckedIOException(e);
+            LOGGER.log(WARNING, "Failed to write block range manifest, disabling it", e);
+            manifest = null;
+            try {
+                currentManifest.invalidate();
+            } catch (final IOException invalidateException) {
+                LOGGER.log(WARNING, "Failed to delete block range manifest", invalidateException);
+            }
         }
-        try (final WritableStreamingData streamingData = new WritableStreamingData(new BufferedOutputStream(
-                config.compression().wrapStream(Files.newOutputStream(verifiedBlockPath)), 1024 * 1024))) {
-            BlockUnparsed.PROTOBUF.write(block, streamingData);
-            streamingData.flush();
+    }
+
+    /**
+     * Start staging a new block, called on the block item handler thread when a block header is received. Any block
+     * that was being staged and did not receive its block proof is aborted.
+     *
+     * @param blockNumber the block number of the new block
+     */
+    private void startStagingBlock(final long blockNumber) {
+        if (currentStagedBlock != null) {
             LOGGER.log(
-                    Level.DEBUG,
-                    "Wrote verified block: {0} to file: {1}",
-                    blockNumber,
-                    verifiedBlockPath.toAbsolutePath().toString());
-            // update the oldest and newest verified block numbers
-            availableBlocks.add(blockNumber);
-            // send block persisted notification
-            blockMessaging.sendBlockPersisted(new PersistedNotification(blockNumber, blockNumber, defaultPriority()));
+                    WARNING,
+                    "Block {0} was not complete when block {1} started, discarding staged block",
+                    currentStagedBlock.blockNumber,
+                    blockNumber);
+            abortCurrentStagedBlock();
+        }
+        // any earlier blocks that have not been fully written can never be completed, as the block stream is ordered
+        stagedBlocks.values().removeIf(staged -> {
+            synchronized (staged) {
+                return staged.blockNumber < blockNumber && !staged.written;
+            }
+        });
+        if (availableBlocks.contains(blockNumber)) {
+            // already stored, for example from a verification notification that included the block
+            return;
+        }
+        final Path stagedBlockPath =
+                config.unverifiedRootPath().resolve(BlockFile.blockFileName(blockNumber, config.compression()));
+        // the block may already have an entry if its verification notification arrived before its block header
+        final StagedBlock stagedBlock = stagedBlocks.computeIfAbsent(blockNumber, StagedBlock::new);
+        synchronized (stagedBlock) {
+            stagedBlock.path = stagedBlockPath;
+            stagedBlock.written = false;
+        }
+        try {
+            currentStagedBlockOut = new WritableStreamingData(new BufferedOutputStream(
+                    dictionaries.wrapStream(
+                            config.compression(), config.compressionLevel(), Files.newOutputStream(stagedBlockPath)),
+                    BUFFER_SIZE));
+            currentStagedBlock = stagedBlock;
         } catch (final IOException e) {
+            LOGGER.log(Level.ERROR, "Failed to create staged file for block: {0}, error: {1}", blockNumber, e);
+            stagedBlocks.remove(blockNumber, stagedBlock);
+        }
+    }
+
+    /**
+     * Abort the block currently being staged, closing and deleting its staging file. Called on the block item handler
+     * thread.
+     */
+    private void abortCurrentStagedBlock() {
+        final StagedBlock stagedBlock = currentStagedBlock;
+        try {
+            currentStagedBlockOut.close();
+        } catch (final Exception e) {
+            LOGGER.log(DEBUG, "Failed to close aborted staged block: " + stagedBlock.blockNumber, e);
+        }
+        currentStagedBlockOut = null;
+        currentStagedBlock = null;
+        stagedBlocks.remove(stagedBlock.blockNumber, stagedBlock);
+        deleteStagedFile(stagedBlock.path);
+    }
+
+    /**
+     * Handle a verification notification when staging is enabled. Called on the block notification thread.
+     *
+     * @param notification the verification notification to handle
+     */
+    private void handleStagedBlockVerification(final VerificationNotification notification) {
+        final long blockNumber = notification.blockNumber();
+        final StagedBlock stagedBlock = stagedBlocks.computeIfAbsent(blockNumber, StagedBlock::new);
+        final boolean written;
+        final boolean itemsReceived;
+        synchronized (stagedBlock) {
+            stagedBlock.verified = notification.success();
+            written = stagedBlock.written;
+            itemsReceived = stagedBlock.path != null;
+        }
+        if (written) {
+            // staged file is complete, we are the second event and need to finish the block
+            completeStagedBlock(stagedBlock, notification.success());
+        } else if (notification.success() && notification.block() != null && !itemsReceived) {
+            // we never saw the start of this block, but the notification includes it so we can store it directly
+            stagedBlocks.remove(blockNumber, stagedBlock);
+            writeBlockToLivePath(notification.block(), blockNumber);
+        }
+    }
+
+    /**
+     * Complete a staged block that is fully written and has a verification result, either promoting it into the live
+     * path or deleting it. This can be called on the block item handler thread or the block notification thread. The
+     * block persisted notification is sent once the promoted block is durable, see {@link GroupCommitBlockWriter}.
+     *
+     * @param stagedBlock the staged block to complete
+     * @param verified true if the block was successfully verified
+     */
+    private void completeStagedBlock(final StagedBlock stagedBlock, final boolean verified) {
+        // only one thread can complete the staged block, so claim it by removing it from the map
+        if (!stagedBlocks.remove(stagedBlock.blockNumber, stagedBlock)) {
+            return;
+        }
+        if (!verified) {
+            LOGGER.log(DEBUG, "Discarding staged block {0} as it failed verification", stagedBlock.blockNumber);
+            deleteStagedFile(stagedBlock.path);
+            return;
+        }
+        // promote through the block writer, so the persisted notification waits for the configured durability
+        try {
+            blockDeleter.blockWritten(stagedBlock.blockNumber);
+            blockWriter.promote(stagedBlock.blockNumber, stagedBlock.path);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
             LOGGER.log(
-                    System.Logger.Level.ERROR,
-                    "Failed to create verified file for block: {0}, error: {1}",
-                    blockNumber,
-                    e);
-            throw new UncheckedIOException(e);
+                    WARNING,
+                    "Interrupted waiting to promote staged block: {0}, block will not be stored",
+                    stagedBlock.blockNumber);
+            deleteStagedFile(stagedBlock.path);
+        } catch (final UncheckedIOException e) {
+            // already logged by the block writer, which deletes the staged file if it could not be moved
+            LOGGER.log(DEBUG, "Failed to promote staged block: " + stagedBlock.blockNumber, e);
         }
     }
 
     /**
-     * Delete a block file from the live path. This is used when the block is no longer needed as it is stored by
-     * another plugin.
+     * Delete a staged block file, logging rather than throwing on failure as the file is cleaned up on next start.
+     *
+     * @param stagedBlockPath the path of the staged file, can be null if the file was never created
      */
-    private void delete(long blockNumber) {
-        // compute file path for the block
-        final Path blockFilePath = BlockFile.nestedDirectoriesBlockFilePath(
-                config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
+    private void deleteStagedFile(final Path stagedBlockPath) {
+        if (stagedBlockPath != null) {
+            try {
+                Files.deleteIfExists(stagedBlockPath);
+            } catch (final IOException e) {
+                LOGGER.log(WARNING, "Failed to delete staged block file: " + stagedBlockPath, e);
+            }
+        }
+    }
+
+    /**
+     * Directly write a block to verified storage. This is used when the block is already verified when we receive it.
+     * The block persisted notification is sent once the block is durable, see {@link GroupCommitBlockWriter}.
+     *
+     * @param block       the block to write
+     * @param blockNumber the block number of the block to write
+     */
+    private void writeBlockToLivePath(final BlockUnparsed block, final long blockNumber) {
         try {
-            // log we are deleting the block file
-            LOGGER.log(DEBUG, "Deleting block file: " + blockFilePath);
-            // delete the block file
-            Files.deleteIfExists(blockFilePath);
-            // clean up any empty parent directories up to the base directory
-            Path parentDir = blockFilePath.getParent();
-            while (parentDir != null && !parentDir.equals(config.liveRootPath())) {
-                try (var filesList = Files.list(parentDir)) {
-                    if (filesList.findAny().isPresent()) {
-                        break;
-                    }
-                } catch (IOException e) {
-                    LOGGER.log(WARNING, "Failed to list files in directory: " + parentDir, e);
+            // any queued delete of this block number must leave the new file in place
+            blockDeleter.blockWritten(blockNumber);
+            blockWriter.write(blockNumber, block);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.log(WARNING, "Interrupted waiting to write block: {0}, block will not be stored", blockNumber);
+        }
+    }
+
+    /**
+     * Called once a block written or promoted by the block writer is durable, on the block writer commit thread, or on
+     * the thread that wrote it when writing synchronously.
+     *
+     * @param blockNumber the block number of the committed block
+     */
+    private void blockCommitted(final long blockNumber) {
+        LOGGER.log(DEBUG, "Wrote verified block: {0}", blockNumber);
+        // update the oldest and newest verified block numbers
+        availableBlocks.add(blockNumber);
+        recordInManifest(currentManifest -> currentManifest.recordAdded(blockNumber, blockNumber));
+        dictionaryTrainer.blockStored(blockNumber);
+        retentionManager.blockStored(blockNumber);
+        // send block persisted notification
+        blockMessaging.sendBlockPersisted(new PersistedNotification(blockNumber, blockNumber, defaultPriority()));
+    }
+
+    /**
+     * A change to record in the block range manifest.
+     */
+    @FunctionalInterface
+    private interface ManifestRecord {
+        /**
+         * Write the record to the manifest.
+         *
+         * @param currentManifest the manifest to write to
+         * @throws IOException if the journal could not be written
+         */
+        void writeTo(BlockRangeManifest currentManifest) throws IOException;
+    }
+
+    /**
+     * State of a block that is being staged in the unverified path. Fields other than block number are guarded by
+     * synchronizing on the instance, as they are shared between the block item and block notification threads.
+     */
+    private static final class StagedBlock {
+        /** The block number of the staged block. */
+        private final long blockNumber;
+        /** The path of the staged file, null if items for this block have not been received yet. */
+        private Path path;
+        /** True once all items including the block proof have been written and the file closed. */
+        private boolean written;
+        /** The verification result, null if the verification notification has not been received yet. */
+        private Boolean verified;
+
+        /**
+         * Create a new staged block.
+         *
+         * @param blockNumber the block number of the staged block
+         */
+        private StagedBlock(final long blockNumber) {
+            this.blockNumber = blockNumber;
+        }
+    }
+
+    /**
+     * The names of the files in the directory of the block files being read for a range, listed once for all the block
+     * files read from that directory. Only used by one thread at a time, as streams are read sequentially.
+     */
+    private static final class DirectoryListing {
+        /** The directory listed, null if no directory has been listed yet. */
+        private Path directory;
+        /** The names of the files in the directory. */
+        private Set<String> fileNames = Set.of();
+
+        /**
+         * Check if a file exists, listing its directory if it is not the directory last listed.
+         *
+         * @param file the path of the file
+         * @return true if the file was in its directory when the directory was listed
+         * @throws UncheckedIOException if the directory could not be listed
+         */
+        private boolean contains(final Path file) {
+            final Path parent = file.getParent();
+            if (!parent.equals(directory)) {
+                directory = parent;
+                try (Stream<Path> files = Files.list(parent)) {
+                    fileNames = files.map(path -> path.getFileName().toString()).collect(Collectors.toSet());
+                } catch (final NoSuchFileException e) {
+                    fileNames = Set.of();
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-                // we did not find any files in the directory, so delete it
-                Files.deleteIfExists(parentDir);
-                // move up to the parent directory
-                parentDir = parentDir.getParent();
             }
-        } catch (IOException e) {
-            LOGGER.log(WARNING, "Failed to delete block file: " + blockFilePath, e);
-            throw new RuntimeException(e);
+            return fileNames.contains(file.getFileName().toString());
         }
     }
 }
@@ -0,0 +1,224 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ZstdDictionaries;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
+import org.hiero.block.node.spi.threading.ThreadPoolManager;
+
+/**
+ * Trains a new Zstandard dictionary from recently stored blocks every
+ * {@link FilesRecentConfig#dictionaryTrainingInterval()} blocks, on a background thread. The new dictionary becomes
+ * the current dictionary in the {@link ZstdDictionaries} store, so block files written from then on are compressed with
+ * it. Retraining keeps the dictionary in step with how the content of blocks changes over time.
+ * <p>
+ * Samples are the protobuf bytes of the newest stored blocks, up to the training interval and a hundred times the
+ * maximum dictionary size in total, which is plenty for Zstandard to train from.
+ * <p>
+ * The number of dictionaries is capped at {@link FilesRecentConfig#dictionaryMaxCount()}. Once reached, the live and
+ * unverified block files are scanned for the dictionaries they were compressed with, and dictionaries no block file
+ * references are deleted before training. The current dictionary is always kept, as blocks may be being written with
+ * it. If every dictionary is still referenced, training is skipped until retention has removed the old blocks.
+ */
+final class DictionaryTrainer implements AutoCloseable {
+    /** The minimum number of samples needed to train a useful dictionary. */
+    static final int MIN_SAMPLES = 10;
+    /** The maximum total size of samples to train from. */
+    private static final long MAX_SAMPLE_BYTES = 100L * ZstdDictionaries.DEFAULT_MAX_DICTIONARY_BYTES;
+    /** The time to wait for a running training to finish when closing. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The number of blocks stored between each training, zero if training is disabled. */
+    private final int trainingInterval;
+    /** The maximum number of dictionaries kept. */
+    private final int maxDictionaries;
+    /** The directories holding block files that may reference dictionaries, in the order blocks move through them. */
+    private final List<Path> blockRootPaths;
+    /** The store new dictionaries are added to. */
+    private final ZstdDictionaries dictionaries;
+    /** Function to look up stored blocks by block number, returning null if the block is not stored. */
+    private final LongFunction<BlockAccessor> blockLookup;
+    /** The number of blocks stored since start-up. */
+    private final AtomicLong storedBlockCount = new AtomicLong();
+    /** The thread training dictionaries, null if training is disabled. */
+    private final ExecutorService executor;
+
+    /**
+     * Create a new dictionary trainer.
+     *
+     * @param config the configuration for the files recent plugin
+     * @param dictionaries the store new dictionaries are added to
+     * @param threadPoolManager the thread pool manager used to create the trainer thread
+     * @param blockLookup function to look up stored blocks by block number, returning null if the block is not stored
+     */
+    DictionaryTrainer(
+            @NonNull final FilesRecentConfig config,
+            @NonNull final ZstdDictionaries dictionaries,
+            @NonNull final ThreadPoolManager threadPoolManager,
+            @NonNull final LongFunction<BlockAccessor> blockLookup) {
+        this.trainingInterval = config.dictionaryTrainingInterval();
+        this.maxDictionaries = config.dictionaryMaxCount();
+        this.blockRootPaths = List.of(config.unverifiedRootPath(), config.liveRootPath());
+        this.dictionaries = Objects.requireNonNull(dictionaries);
+        this.blockLookup = Objects.requireNonNull(blockLookup);
+        this.executor = trainingInterval > 0
+                ? threadPoolManager.createSingleThreadExecutor("FilesRecentDictionaryTrainer")
+                : null;
+    }
+
+    /**
+     * Called each time a block is stored, queues training of a new dictionary every training interval blocks. This can
+     * be called on any thread.
+     *
+     * @param blockNumber the block number of the stored block
+     */
+    void blockStored(final long blockNumber) {
+        if (executor != null && storedBlockCount.incrementAndGet() % trainingInterval == 0) {
+            executor.execute(() -> train(blockNumber));
+        }
+    }
+
+    /**
+     * Wait for any running training to finish, then stop the trainer thread.
+     */
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.log(WARNING, "Timed out waiting for dictionary training to finish");
+                executor.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Train a new dictionary from the blocks stored up to and including the given block, called on the trainer thread.
+     *
+     * @param newestBlockNumber the newest block number to sample
+     */
+    private void train(final long newestBlockNumber) {
+        try {
+            if (dictionaries.ids().size() >= maxDictionaries && !pruneUnreferenced()) {
+                LOGGER.log(
+                        INFO,
+                        "All {0} compression dictionaries are still used by stored blocks, not training",
+                        maxDictionaries);
+                return;
+            }
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(WARNING, "Failed to prune compression dictionaries, keeping current dictionary", e);
+            return;
+        }
+        final List<byte[]> samples = new ArrayList<>();
+        long sampleBytes = 0;
+        final long oldestBlockNumber = Math.max(0, newestBlockNumber - trainingInterval + 1);
+        for (long blockNumber = newestBlockNumber;
+                blockNumber >= oldestBlockNumber && sampleBytes < MAX_SAMPLE_BYTES;
+                blockNumber--) {
+            final BlockAccessor accessor = blockLookup.apply(blockNumber);
+            if (accessor == null) {
+                // deleted already or never stored
+                continue;
+            }
+            try {
+                final byte[] sample = accessor.blockBytes(Format.PROTOBUF).toByteArray();
+                samples.add(sample);
+                sampleBytes += sample.length;
+            } catch (final UncheckedIOException e) {
+                LOGGER.log(DEBUG, "Failed to read block " + blockNumber + " as dictionary training sample", e);
+            }
+        }
+        if (samples.size() < MIN_SAMPLES) {
+            LOGGER.log(DEBUG, "Only {0} blocks available to sample, not training dictionary", samples.size());
+            return;
+        }
+        try {
+            final byte[] dictionary = ZstdDictionaries.train(samples, ZstdDictionaries.DEFAULT_MAX_DICTIONARY_BYTES);
+            final long dictionaryId = dictionaries.add(dictionary);
+            LOGGER.log(
+                    INFO,
+                    "Trained compression dictionary {0} of {1} bytes from {2} blocks",
+                    dictionaryId,
+                    dictionary.length,
+                    samples.size());
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(WARNING, "Failed to train compression dictionary, keeping current dictionary", e);
+        }
+    }
+
+    /**
+     * Delete the dictionaries no stored block file references, apart from the current dictionary, called on the
+     * trainer thread.
+     *
+     * @return true if there is now room for a new dictionary
+     * @throws IOException if the block files could not be scanned or a dictionary file deleted
+     */
+    private boolean pruneUnreferenced() throws IOException {
+        final Set<Long> referencedIds = referencedDictionaryIds();
+        final List<Long> ids = dictionaries.ids();
+        // the newest is the current dictionary, which is kept
+        for (final long dictionaryId : ids.subList(0, ids.size() - 1)) {
+            if (!referencedIds.contains(dictionaryId) && dictionaries.remove(dictionaryId)) {
+                LOGGER.log(INFO, "Deleted compression dictionary {0}, no stored blocks use it", dictionaryId);
+            }
+        }
+        return dictionaries.ids().size() < maxDictionaries;
+    }
+
+    /**
+     * Scan the unverified and live block files for the IDs of the dictionaries they were compressed with, reading only
+     * the frame header of each file.
+     *
+     * @return the IDs of the dictionaries referenced by stored block files
+     * @throws IOException if the block files could not be scanned
+     */
+    private Set<Long> referencedDictionaryIds() throws IOException {
+        final String extension = BlockFile.BLOCK_FILE_EXTENSION + CompressionType.ZSTD.extension();
+        final Set<Long> referencedIds = new HashSet<>();
+        for (final Path rootPath : blockRootPaths) {
+            if (!Files.isDirectory(rootPath)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(rootPath)) {
+                for (final Path file : files.filter(path -> path.getFileName().toString().endsWith(extension))
+                        .toList()) {
+                    try {
+                        referencedIds.add(ZstdDictionaries.frameDictionaryId(file));
+                    } catch (final NoSuchFileException e) {
+                        // deleted or promoted since listed, promoted files are found as the live path is scanned last
+                    }
+                }
+            }
+        }
+        return referencedIds;
+    }
+}
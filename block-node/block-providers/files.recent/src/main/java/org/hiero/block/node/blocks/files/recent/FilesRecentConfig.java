@@ -17,12 +17,70 @@ import org.hiero.block.node.base.Loggable;
  *                    and has existing files.
  * @param maxFilesPerDir number of files per directory. This is used to limit the number of files in a directory to avoid
  *                    file system issues.
+ * @param unverifiedRootPath provides the root path for staging blocks while they are being received and are not yet
+ *                    verified. Should be on the same file system as the live root path so blocks can be atomically
+ *                    moved into the live path once verified.
+ * @param stageUnverifiedBlocks when true block items are streamed to a staging file in the unverified root path as they
+ *                    arrive, and the staged file is promoted into the live path when the block is verified. This
+ *                    allows the verification service to not include blocks in its notifications, making peak heap
+ *                    usage independent of block size.
+ * @param manifestCheckpointInterval the number of block writes and deletes journaled after which the manifest of stored
+ *                    block ranges is checkpointed. The manifest lets startup find the stored blocks without scanning
+ *                    the whole live directory tree. Zero disables the manifest so the live directory is always scanned.
+ * @param writerThreads the number of worker threads compressing and writing verified blocks to the live path, and
+ *                    promoting staged blocks into it. Zero writes each block synchronously on the thread that received
+ *                    it.
+ * @param writerQueueSize the maximum number of verified blocks queued or being written before the block notification
+ *                    thread is blocked. This provides back pressure and bounds the memory used by blocks waiting to be
+ *                    written.
+ * @param groupCommitMaxBlocks the maximum number of written blocks committed together in one group. With
+ *                    {@link Durability#GROUP} durability the files in a group are synced to disk together.
+ * @param durability when a written or promoted block is considered durable, block persisted notifications are only
+ *                    sent once this point has been reached.
+ * @param deleteMaxFilesPerSecond the maximum rate at which block files that are no longer needed are deleted in the
+ *                    background, so bulk deletes do not compete with live writes for disk I/O. Zero is unlimited.
+ * @param compressionLevel the Zstandard compression level used when compression is ZSTD, from 1 to 22. Higher levels
+ *                    give smaller files at the cost of slower writes, reads are about the same speed at any level.
+ * @param dictionaryPath the directory of trained Zstandard dictionaries. New blocks are compressed with the latest
+ *                    dictionary, each file records the dictionary it needs so a dictionary is only deleted once no
+ *                    stored block file references it.
+ * @param dictionaryTrainingInterval the number of blocks written after which a new dictionary is trained in the
+ *                    background from the most recent blocks. Zero disables training, dictionaries in the dictionary
+ *                    path, for example trained with the block stream tool, are still used.
+ * @param dictionaryMaxCount the maximum number of dictionaries kept in the dictionary path. Once reached, dictionaries
+ *                    no stored block file references are deleted before a new one is trained, and training is skipped
+ *                    if every dictionary is still referenced.
+ * @param retentionMaxBytes the maximum total size in bytes of the block files in the live path. When exceeded the
+ *                    oldest blocks are evicted, even if no other plugin has persisted them. Zero is unlimited.
+ * @param retentionMaxBlocks the maximum number of blocks kept in the live path. When exceeded the oldest blocks are
+ *                    evicted, even if no other plugin has persisted them. Zero is unlimited.
+ * @param retentionMaxAgeSeconds the maximum age in seconds of blocks kept in the live path, by block file modification
+ *                    time. Older blocks are evicted, even if no other plugin has persisted them. Zero is unlimited.
+ * @param retentionLowWatermarkPercent once a size or block limit is exceeded, the oldest blocks are evicted until the
+ *                    live path is down to this percentage of the limit. This means eviction happens in large batches
+ *                    rather than a block at a time.
  */
 @ConfigData("files.recent")
 public record FilesRecentConfig(
         @Loggable @ConfigProperty(defaultValue = "/opt/hashgraph/blocknode/data/live") Path liveRootPath,
         @Loggable @ConfigProperty(defaultValue = "ZSTD") CompressionType compression,
-        @Loggable @ConfigProperty(defaultValue = "3") int maxFilesPerDir) {
+        @Loggable @ConfigProperty(defaultValue = "3") int maxFilesPerDir,
+        @Loggable @ConfigProperty(defaultValue = "/opt/hashgraph/blocknode/data/unverified") Path unverifiedRootPath,
+        @Loggable @ConfigProperty(defaultValue = "false") boolean stageUnverifiedBlocks,
+        @Loggable @ConfigProperty(defaultValue = "1000") int manifestCheckpointInterval,
+        @Loggable @ConfigProperty(defaultValue = "0") int writerThreads,
+        @Loggable @ConfigProperty(defaultValue = "64") int writerQueueSize,
+        @Loggable @ConfigProperty(defaultValue = "16") int groupCommitMaxBlocks,
+        @Loggable @ConfigProperty(defaultValue = "NONE") Durability durability,
+        @Loggable @ConfigProperty(defaultValue = "10000") int deleteMaxFilesPerSecond,
+        @Loggable @ConfigProperty(defaultValue = "3") int compressionLevel,
+        @Loggable @ConfigProperty(defaultValue = "/opt/hashgraph/blocknode/data/dictionaries") Path dictionaryPath,
+        @Loggable @ConfigProperty(defaultValue = "0") int dictionaryTrainingInterval,
+        @Loggable @ConfigProperty(defaultValue = "16") int dictionaryMaxCount,
+        @Loggable @ConfigProperty(defaultValue = "0") long retentionMaxBytes,
+        @Loggable @ConfigProperty(defaultValue = "0") long retentionMaxBlocks,
+        @Loggable @ConfigProperty(defaultValue = "0") long retentionMaxAgeSeconds,
+        @Loggable @ConfigProperty(defaultValue = "90") int retentionLowWatermarkPercent) {
     /**
      * Constructor.
      */
@@ -30,5 +88,43 @@ public record FilesRecentConfig(
         Objects.requireNonNull(liveRootPath);
         Objects.requireNonNull(compression);
         Preconditions.requirePositive(maxFilesPerDir);
+        Objects.requireNonNull(unverifiedRootPath);
+        Preconditions.requireGreaterOrEqual(manifestCheckpointInterval, 0);
+        Preconditions.requireGreaterOrEqual(writerThreads, 0);
+        Preconditions.requirePositive(writerQueueSize);
+        Preconditions.requirePositive(groupCommitMaxBlocks);
+        Objects.requireNonNull(durability);
+        Preconditions.requireGreaterOrEqual(deleteMaxFilesPerSecond, 0);
+        Preconditions.requireInRange(
+                compressionLevel,
+                CompressionType.MIN_ZSTD_COMPRESSION_LEVEL,
+                CompressionType.MAX_ZSTD_COMPRESSION_LEVEL);
+        Objects.requireNonNull(dictionaryPath);
+        Preconditions.requireGreaterOrEqual(dictionaryTrainingInterval, 0);
+        Preconditions.requirePositive(dictionaryMaxCount);
+        Preconditions.requireGreaterOrEqual(retentionMaxBytes, 0);
+        Preconditions.requireGreaterOrEqual(retentionMaxBlocks, 0);
+        Preconditions.requireGreaterOrEqual(retentionMaxAgeSeconds, 0);
+        Preconditions.requireInRange(retentionLowWatermarkPercent, 1, 100);
+    }
+
+    /**
+     * When a block written to the live path is considered durable and its block persisted notification is sent.
+     */
+    public enum Durability {
+        /**
+         * Blocks are not synced to disk, the notification is sent as soon as the block file is closed. Blocks can be
+         * lost on power failure even though other plugins have been told they are persisted.
+         */
+        NONE,
+        /**
+         * Each block file and its directory is synced to disk before its notification is sent.
+         */
+        PER_BLOCK,
+        /**
+         * Written blocks are committed in groups, syncing all the files in the group and then each distinct directory
+         * once, before the notifications for the group are sent in block order.
+         */
+        GROUP,
     }
 }
@@ -0,0 +1,391 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.ERROR;
+import static java.lang.System.Logger.Level.WARNING;
+
+import com.hedera.pbj.runtime.io.stream.WritableStreamingData;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import org.hiero.block.common.utils.FileUtilities;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.ZstdDictionaries;
+import org.hiero.block.node.blocks.files.recent.FilesRecentConfig.Durability;
+import org.hiero.block.node.spi.threading.ThreadPoolManager;
+
+/**
+ * Writes verified blocks to the live path off the block notification thread, and commits them in block order. Staged
+ * blocks promoted from the unverified path go through the same stages, so they are only reported as persisted once
+ * they are as durable as blocks written directly.
+ * <p>
+ * Writing is done in two stages:
+ * <ol>
+ *     <li><b>Write</b> - blocks are handed round robin to {@link FilesRecentConfig#writerThreads()} worker threads,
+ *     which compress and write the block files, or move staged files into place, in parallel. With
+ *     {@link Durability#PER_BLOCK} the worker also syncs the file and its directory.</li>
+ *     <li><b>Commit</b> - a single committer thread takes the longest run of written blocks from the head of the queue,
+ *     up to {@link FilesRecentConfig#groupCommitMaxBlocks()}. With {@link Durability#GROUP} it syncs all the files in
+ *     the group and then each distinct directory once, so the cost of syncing a directory is shared by all the blocks
+ *     in it. The commit listener is then called for each block in the group in the order the blocks were written.</li>
+ * </ol>
+ * At most {@link FilesRecentConfig#writerQueueSize()} blocks can be queued or in flight, after that {@link #write}
+ * blocks the caller. This provides back pressure to the block notification thread and bounds the memory held by blocks
+ * waiting to be written.
+ * <p>
+ * When {@link FilesRecentConfig#writerThreads()} is zero, blocks are written, synced and committed synchronously on the
+ * calling thread.
+ */
+final class GroupCommitBlockWriter implements AutoCloseable {
+    /** The size of the buffer used for writing block files. */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    /** The time to wait for queued writes to finish when closing. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The configuration for the files recent plugin. */
+    private final FilesRecentConfig config;
+    /** The dictionaries, blocks are compressed with the current dictionary if there is one. */
+    private final ZstdDictionaries dictionaries;
+    /** Called for each block once it is durable, in block write order. */
+    private final LongConsumer commitListener;
+    /** Permits for blocks queued or being written, bounding the queue. */
+    private final Semaphore queuePermits;
+    /** The worker threads compressing and writing block files, empty when writing synchronously. */
+    private final ExecutorService[] workers;
+    /** The thread committing written blocks, null when writing synchronously. */
+    private final ExecutorService committer;
+    /** Blocks submitted and not yet committed, in submission order. Guarded by this queue. */
+    private final ArrayDeque<PendingWrite> pendingWrites = new ArrayDeque<>();
+    /** The number of blocks submitted, used to pick a worker. Guarded by the pending writes queue. */
+    private long submittedCount = 0;
+
+    /**
+     * Create a new block writer.
+     *
+     * @param config the configuration for the files recent plugin
+     * @param dictionaries the dictionaries, blocks are compressed with the current dictionary if there is one
+     * @param threadPoolManager the thread pool manager used to create the worker and committer threads
+     * @param commitListener called with the block number of each block once it is durable, in block write order. It
+     *                       is called on the committer thread, or on the calling thread when writing synchronously.
+     */
+    GroupCommitBlockWriter(
+            @NonNull final FilesRecentConfig config,
+            @NonNull final ZstdDictionaries dictionaries,
+            @NonNull final ThreadPoolManager threadPoolManager,
+            @NonNull final LongConsumer commitListener) {
+        this.config = Objects.requireNonNull(config);
+        this.dictionaries = Objects.requireNonNull(dictionaries);
+        this.commitListener = Objects.requireNonNull(commitListener);
+        this.queuePermits = new Semaphore(config.writerQueueSize());
+        this.workers = new ExecutorService[config.writerThreads()];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = threadPoolManager.createSingleThreadExecutor("FilesRecentWriter-" + i);
+        }
+        this.committer =
+                workers.length == 0 ? null : threadPoolManager.createSingleThreadExecutor("FilesRecentCommitter");
+    }
+
+    /**
+     * Write a verified block to the live path. Blocks the calling thread if the write queue is full.
+     *
+     * @param blockNumber the block number of the block to write
+     * @param block the block to write
+     * @throws InterruptedException if interrupted while waiting for space in the write queue
+     * @throws UncheckedIOException if writing synchronously and the block could not be written
+     */
+    void write(final long blockNumber, @NonNull final BlockUnparsed block) throws InterruptedException {
+        Objects.requireNonNull(block);
+        submit(blockNumber, path -> writeBlockFile(path, block));
+    }
+
+    /**
+     * Promote a verified block staged in the unverified path by moving it into the live path. Blocks the calling thread
+     * if the write queue is full. The staged file is deleted if it can not be moved.
+     *
+     * @param blockNumber the block number of the staged block
+     * @param stagedPath the path of the complete staged block file
+     * @throws InterruptedException if interrupted while waiting for space in the write queue
+     * @throws UncheckedIOException if writing synchronously and the block could not be moved
+     */
+    void promote(final long blockNumber, @NonNull final Path stagedPath) throws InterruptedException {
+        Objects.requireNonNull(stagedPath);
+        submit(blockNumber, path -> moveStagedFile(stagedPath, path));
+    }
+
+    /**
+     * Write a block file, synchronously or on a worker thread, and commit it once it is durable.
+     *
+     * @param blockNumber the block number of the block
+     * @param fileWriter creates the block file at the live path
+     * @throws InterruptedException if interrupted while waiting for space in the write queue
+     * @throws UncheckedIOException if writing synchronously and the block file could not be created
+     */
+    private void submit(final long blockNumber, final BlockFileWriter fileWriter) throws InterruptedException {
+        final PendingWrite pendingWrite = new PendingWrite(blockNumber, liveBlockFilePath(blockNumber));
+        if (workers.length == 0) {
+            try {
+                fileWriter.writeTo(pendingWrite.path);
+                if (config.durability() != Durability.NONE) {
+                    FileUtilities.forceFile(pendingWrite.path);
+                    FileUtilities.forceDirectory(pendingWrite.path.getParent());
+                }
+            } catch (final IOException e) {
+                LOGGER.log(ERROR, "Failed to create verified file for block: {0}, error: {1}", blockNumber, e);
+                throw new UncheckedIOException(e);
+            }
+            commitListener.accept(blockNumber);
+            return;
+        }
+        queuePermits.acquire();
+        final ExecutorService worker;
+        synchronized (pendingWrites) {
+            pendingWrites.addLast(pendingWrite);
+            worker = workers[(int) (submittedCount++ % workers.length)];
+        }
+        worker.execute(() -> writePending(pendingWrite, fileWriter));
+    }
+
+    /**
+     * Wait for all queued blocks to be written and committed, then stop the writer threads.
+     */
+    @Override
+    public void close() {
+        // the workers must finish first, as they hand work to the committer
+        for (final ExecutorService worker : workers) {
+            awaitShutdown(worker);
+        }
+        if (committer != null) {
+            awaitShutdown(committer);
+        }
+    }
+
+    /**
+     * Create the block file of a pending block, called on a worker thread. Then try and commit, as this block may
+     * complete a run of written blocks at the head of the queue.
+     *
+     * @param pendingWrite the pending write
+     * @param fileWriter creates the block file at the live path
+     */
+    private void writePending(final PendingWrite pendingWrite, final BlockFileWriter fileWriter) {
+        try {
+            fileWriter.writeTo(pendingWrite.path);
+            if (config.durability() == Durability.PER_BLOCK) {
+                FileUtilities.forceFile(pendingWrite.path);
+                FileUtilities.forceDirectory(pendingWrite.path.getParent());
+            }
+            pendingWrite.state = WriteState.WRITTEN;
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.log(
+                    ERROR, "Failed to create verified file for block: {0}, error: {1}", pendingWrite.blockNumber, e);
+            deleteQuietly(pendingWrite.path);
+            pendingWrite.state = WriteState.FAILED;
+        }
+        committer.execute(this::commit);
+    }
+
+    /**
+     * Commit groups of written blocks from the head of the queue, called on the committer thread. Stops at the first
+     * block that is still being written, so blocks are always committed in the order they were submitted.
+     */
+    private void commit() {
+        while (true) {
+            final List<PendingWrite> group = new ArrayList<>();
+            synchronized (pendingWrites) {
+                while (group.size() < config.groupCommitMaxBlocks()
+                        && !pendingWrites.isEmpty()
+                        && pendingWrites.peekFirst().state != WriteState.WRITING) {
+                    group.add(pendingWrites.pollFirst());
+                }
+            }
+            if (group.isEmpty()) {
+                return;
+            }
+            if (config.durability() == Durability.GROUP) {
+                syncGroup(group);
+            }
+            for (final PendingWrite pendingWrite : group) {
+                if (pendingWrite.state == WriteState.WRITTEN) {
+                    try {
+                        commitListener.accept(pendingWrite.blockNumber);
+                    } catch (final RuntimeException e) {
+                        LOGGER.log(ERROR, "Commit listener failed for block: " + pendingWrite.blockNumber, e);
+                    }
+                }
+                queuePermits.release();
+            }
+        }
+    }
+
+    /**
+     * Sync all files in a group, then each distinct parent directory once. A block whose file can not be synced is
+     * marked failed and deleted, so it is never reported as durable.
+     *
+     * @param group the group of blocks to sync
+     */
+    private void syncGroup(final List<PendingWrite> group) {
+        final Set<Path> directories = new LinkedHashSet<>();
+        for (final PendingWrite pendingWrite : group) {
+            if (pendingWrite.state == WriteState.WRITTEN) {
+                try {
+                    FileUtilities.forceFile(pendingWrite.path);
+                    directories.add(pendingWrite.path.getParent());
+                } catch (final IOException e) {
+                    LOGGER.log(ERROR, "Failed to sync file for block: {0}, error: {1}", pendingWrite.blockNumber, e);
+                    deleteQuietly(pendingWrite.path);
+                    pendingWrite.state = WriteState.FAILED;
+                }
+            }
+        }
+        directories.forEach(FileUtilities::forceDirectory);
+        LOGGER.log(DEBUG, "Committed group of {0} blocks in {1} directories", group.size(), directories.size());
+    }
+
+    /**
+     * Compute the path of a block file in the live directory.
+     *
+     * @param blockNumber the block number
+     * @return the path of the block file
+     */
+    private Path liveBlockFilePath(final long blockNumber) {
+        return BlockFile.nestedDirectoriesBlockFilePath(
+                config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
+    }
+
+    /**
+     * Compress and write a block to a file, creating parent directories as needed.
+     *
+     * @param path the path of the block file
+     * @param block the block to write
+     * @throws IOException if the file could not be written
+     */
+    private void writeBlockFile(final Path path, final BlockUnparsed block) throws IOException {
+        Files.createDirectories(path.getParent());
+        try (final WritableStreamingData streamingData = new WritableStreamingData(new BufferedOutputStream(
+                dictionaries.wrapStream(config.compression(), config.compressionLevel(), Files.newOutputStream(path)),
+                BUFFER_SIZE))) {
+            BlockUnparsed.PROTOBUF.write(block, streamingData);
+            streamingData.flush();
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Move a staged block file into the live path, creating parent directories as needed. The staged file is deleted
+     * if it can not be moved, as it can never be promoted later.
+     *
+     * @param stagedPath the path of the staged block file
+     * @param path the path of the block file in the live path
+     * @throws IOException if the file could not be moved
+     */
+    private void moveStagedFile(final Path stagedPath, final Path path) throws IOException {
+        try {
+            Files.createDirectories(path.getParent());
+            try {
+                Files.move(stagedPath, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                // unverified and live paths are on different file systems, fall back to copy and delete
+                Files.move(stagedPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException e) {
+            deleteQuietly(stagedPath);
+            throw e;
+        }
+    }
+
+    /**
+     * Delete a file, logging rather than throwing on failure.
+     *
+     * @param path the file to delete
+     */
+    private void deleteQuietly(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException e) {
+            LOGGER.log(WARNING, "Failed to delete block file: " + path, e);
+        }
+    }
+
+    /**
+     * Shut down an executor, waiting for its queued tasks to complete.
+     *
+     * @param executor the executor to shut down
+     */
+    private void awaitShutdown(final ExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.log(WARNING, "Timed out waiting for block writes to finish");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates a block file at its path in the live path.
+     */
+    @FunctionalInterface
+    private interface BlockFileWriter {
+        /**
+         * Create the block file.
+         *
+         * @param path the path of the block file in the live path
+         * @throws IOException if the file could not be created
+         */
+        void writeTo(Path path) throws IOException;
+    }
+
+    /**
+     * The state of a pending block write.
+     */
+    private enum WriteState {
+        /** The block is queued or being written by a worker. */
+        WRITING,
+        /** The block file has been written and is waiting to be committed. */
+        WRITTEN,
+        /** The block file could not be written, it is skipped when committing. */
+        FAILED
+    }
+
+    /**
+     * A block that has been submitted and not yet committed.
+     */
+    private static final class PendingWrite {
+        /** The block number of the block. */
+        private final long blockNumber;
+        /** The path of the block file. */
+        private final Path path;
+        /** The state of the write, set by the worker and read by the committer. */
+        private volatile WriteState state = WriteState.WRITING;
+
+        /**
+         * Create a new pending write.
+         *
+         * @param blockNumber the block number of the block
+         * @param path the path of the block file
+         */
+        private PendingWrite(final long blockNumber, final Path path) {
+            this.blockNumber = blockNumber;
+            this.path = path;
+        }
+    }
+}
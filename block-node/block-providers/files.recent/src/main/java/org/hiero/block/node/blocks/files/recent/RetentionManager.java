@@ -0,0 +1,427 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+import static org.hiero.block.node.spi.BlockNodePlugin.METRICS_CATEGORY;
+import static org.hiero.block.node.spi.BlockNodePlugin.UNKNOWN_BLOCK_NUMBER;
+
+import com.swirlds.metrics.api.Counter;
+import com.swirlds.metrics.api.LongGauge;
+import com.swirlds.metrics.api.Metrics;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.hiero.block.node.spi.threading.ThreadPoolManager;
+
+/**
+ * Keeps the live path within the retention limits of {@link FilesRecentConfig#retentionMaxBytes()},
+ * {@link FilesRecentConfig#retentionMaxBlocks()} and {@link FilesRecentConfig#retentionMaxAgeSeconds()}, by evicting
+ * the oldest blocks on a background thread. Without limits blocks are only deleted once a lower priority plugin has
+ * persisted them, so a node without one would fill its disk.
+ * <p>
+ * The size and block limits are high watermarks. Once one is exceeded the oldest blocks are evicted as a single range
+ * until the live path is down to {@link FilesRecentConfig#retentionLowWatermarkPercent()} of the limit, so eviction
+ * happens in large batches rather than a block at a time. The number of blocks to evict for the size limit is
+ * estimated from the average block file size, any shortfall is picked up by the next check. Ages are checked at most
+ * once every {@link #AGE_CHECK_INTERVAL_SECONDS} seconds as blocks are stored, and on a schedule at the same interval
+ * so blocks still expire when no new blocks arrive. Each check goes a leaf directory at a time by the modification
+ * time of its newest block file, so blocks are evicted a whole leaf directory at once.
+ * <p>
+ * The total size of the block files is measured once when started, by walking the live path, and then kept up to date
+ * as blocks are stored and deleted. Disk usage is only tracked when a limit is set.
+ */
+final class RetentionManager implements AutoCloseable {
+    /** The minimum time between checks for blocks older than the maximum age. */
+    static final long AGE_CHECK_INTERVAL_SECONDS = 60;
+    /** The time to wait for a running eviction to finish when closing. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The configuration for the files recent plugin. */
+    private final FilesRecentConfig config;
+    /** The set of blocks stored in the live path. */
+    private final BlockRangeSet availableBlocks;
+    /** Evicts ranges of blocks from the live path. */
+    private final BlockRangeEvictor evictor;
+    /** The number of consecutive blocks stored in each leaf directory. */
+    private final long blocksPerLeafDirectory;
+    /** The total size in bytes of the block files in the live path, only tracked when a limit is set. */
+    private final AtomicLong storedBytes = new AtomicLong();
+    /** True while an eviction is queued or running, so only one is in flight at a time. */
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    /** The time in nanoseconds of the last check for blocks older than the maximum age. */
+    private volatile long lastAgeCheckNanos;
+    /** The thread evicting blocks, null if no retention limit is set. */
+    private final ExecutorService executor;
+    /** Gauge of the total size in bytes of the block files in the live path. */
+    private final LongGauge storedBytesGauge;
+    /** Gauge of the number of blocks stored in the live path. */
+    private final LongGauge storedBlocksGauge;
+    /** Counter of blocks evicted to stay within the retention limits. */
+    private final Counter evictedBlocksCounter;
+    /** Counter of bytes evicted to stay within the retention limits. */
+    private final Counter evictedBytesCounter;
+
+    /**
+     * Evicts a range of blocks from the live path.
+     */
+    @FunctionalInterface
+    interface BlockRangeEvictor {
+        /**
+         * Stop a range of blocks being available and queue their files to be deleted.
+         *
+         * @param startBlockNumber the first block number to evict, inclusive
+         * @param endBlockNumber the last block number to evict, inclusive
+         * @return a future completed with the total size in bytes of the files deleted
+         */
+        CompletableFuture<Long> evict(long startBlockNumber, long endBlockNumber);
+    }
+
+    /**
+     * Create a new retention manager.
+     *
+     * @param config the configuration for the files recent plugin
+     * @param threadPoolManager the thread pool manager used to create the eviction thread
+     * @param availableBlocks the set of blocks stored in the live path
+     * @param evictor evicts ranges of blocks from the live path
+     * @param metrics the metrics to register the disk usage and eviction metrics with
+     */
+    RetentionManager(
+            @NonNull final FilesRecentConfig config,
+            @NonNull final ThreadPoolManager threadPoolManager,
+            @NonNull final BlockRangeSet availableBlocks,
+            @NonNull final BlockRangeEvictor evictor,
+            @NonNull final Metrics metrics) {
+        this.config = Objects.requireNonNull(config);
+        this.availableBlocks = Objects.requireNonNull(availableBlocks);
+        this.evictor = Objects.requireNonNull(evictor);
+        this.blocksPerLeafDirectory = BlockRangeDeleter.blocksPerLeafDirectory(config.maxFilesPerDir());
+        this.lastAgeCheckNanos = System.nanoTime() - TimeUnit.SECONDS.toNanos(AGE_CHECK_INTERVAL_SECONDS);
+        final boolean enabled = config.retentionMaxBytes() > 0
+                || config.retentionMaxBlocks() > 0
+                || config.retentionMaxAgeSeconds() > 0;
+        this.executor = enabled ? threadPoolManager.createSingleThreadExecutor("FilesRecentRetention") : null;
+        this.storedBytesGauge =
+                metrics.getOrCreate(new LongGauge.Config(METRICS_CATEGORY, "files_recent_stored_bytes")
+                        .withDescription("Total size of stored recent block files, when a retention limit is set"));
+        this.storedBlocksGauge =
+                metrics.getOrCreate(new LongGauge.Config(METRICS_CATEGORY, "files_recent_stored_blocks")
+                        .withDescription("Number of stored recent blocks"));
+        this.evictedBlocksCounter =
+                metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "files_recent_evicted_blocks")
+                        .withDescription("Recent blocks evicted by the retention policy"));
+        this.evictedBytesCounter =
+                metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "files_recent_evicted_bytes")
+                        .withDescription("Bytes of recent block files evicted by the retention policy"));
+    }
+
+    /**
+     * Start tracking the live path, called once the available blocks have been loaded. When a limit is set the size of
+     * the live path is measured and the limits checked on the eviction thread.
+     */
+    void start() {
+        storedBlocksGauge.set(availableBlocks.size());
+        if (executor == null) {
+            return;
+        }
+        evicting.set(true);
+        executor.execute(() -> {
+            try {
+                storedBytes.set(measureStoredBytes());
+                storedBytesGauge.set(storedBytes.get());
+                LOGGER.log(DEBUG, "Measured {0} bytes of stored blocks", storedBytes.get());
+            } catch (final UncheckedIOException e) {
+                LOGGER.log(WARNING, "Failed to measure stored blocks, size limit is only applied to new blocks", e);
+            }
+            evict();
+        });
+        if (config.retentionMaxAgeSeconds() > 0) {
+            scheduleAgeCheck();
+        }
+    }
+
+    /**
+     * Called each time a block is stored in the live path, queues an eviction if a limit has been exceeded. This can be
+     * called on any thread.
+     *
+     * @param blockNumber the block number of the stored block
+     */
+    void blockStored(final long blockNumber) {
+        storedBlocksGauge.set(availableBlocks.size());
+        if (executor == null) {
+            return;
+        }
+        final Path blockFile = BlockFile.nestedDirectoriesBlockFilePath(
+                config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
+        try {
+            storedBytesGauge.set(storedBytes.addAndGet(Files.size(blockFile)));
+        } catch (final IOException e) {
+            LOGGER.log(DEBUG, "Failed to read size of block file: " + blockFile, e);
+        }
+        if ((isOverSizeOrBlockLimit() || isAgeCheckDue()) && evicting.compareAndSet(false, true)) {
+            executor.execute(this::evict);
+        }
+    }
+
+    /**
+     * Evict the blocks older than the maximum age, unless an eviction is already in flight, which checks ages itself.
+     * Called on the eviction thread by the scheduled age check.
+     */
+    void evictExpired() {
+        if (evicting.compareAndSet(false, true)) {
+            evict();
+        }
+    }
+
+    /**
+     * Called each time a range of block files has been deleted from the live path, for any reason. This can be called
+     * on any thread.
+     *
+     * @param deletedBytes the total size in bytes of the files deleted
+     */
+    void blocksDeleted(final long deletedBytes) {
+        storedBlocksGauge.set(availableBlocks.size());
+        if (executor != null) {
+            storedBytesGauge.set(storedBytes.addAndGet(-deletedBytes));
+        }
+    }
+
+    /**
+     * Wait for any running eviction to be queued for deletion, then stop the eviction thread.
+     */
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.log(WARNING, "Timed out waiting for block eviction to finish");
+                executor.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Schedule the next age check on the eviction thread. Each check schedules the next one, so there is never more
+     * than one check waiting.
+     */
+    private void scheduleAgeCheck() {
+        CompletableFuture.delayedExecutor(AGE_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS, executor)
+                .execute(() -> {
+                    evictExpired();
+                    if (!executor.isShutdown()) {
+                        scheduleAgeCheck();
+                    }
+                });
+    }
+
+    /**
+     * Check if the size or block limit is exceeded.
+     *
+     * @return true if the live path holds more bytes or blocks than allowed
+     */
+    private boolean isOverSizeOrBlockLimit() {
+        return (config.retentionMaxBlocks() > 0 && availableBlocks.size() > config.retentionMaxBlocks())
+                || (config.retentionMaxBytes() > 0 && storedBytes.get() > config.retentionMaxBytes());
+    }
+
+    /**
+     * Check if it is time to look for blocks older than the maximum age.
+     *
+     * @return true if an age limit is set and it has not been checked recently
+     */
+    private boolean isAgeCheckDue() {
+        return config.retentionMaxAgeSeconds() > 0
+                && System.nanoTime() - lastAgeCheckNanos >= TimeUnit.SECONDS.toNanos(AGE_CHECK_INTERVAL_SECONDS);
+    }
+
+    /**
+     * Evict the oldest blocks needed to get back within all the limits as a single range, called on the eviction
+     * thread. The newest block is never evicted, so there is always a latest block to extend.
+     */
+    private void evict() {
+        boolean evictionQueued = false;
+        try {
+            final long oldest = availableBlocks.min();
+            final long newest = availableBlocks.max();
+            if (oldest == UNKNOWN_BLOCK_NUMBER) {
+                return;
+            }
+            final long storedBlocks = availableBlocks.size();
+            long evictEnd = UNKNOWN_BLOCK_NUMBER;
+            if (config.retentionMaxBlocks() > 0 && storedBlocks > config.retentionMaxBlocks()) {
+                final long blocksToEvict = storedBlocks - lowWatermark(config.retentionMaxBlocks());
+                evictEnd = Math.max(evictEnd, availableBlock(blocksToEvict - 1));
+            }
+            final long bytes = storedBytes.get();
+            if (config.retentionMaxBytes() > 0 && bytes > config.retentionMaxBytes()) {
+                final long averageBlockBytes = Math.max(1, bytes / storedBlocks);
+                final long blocksToEvict =
+                        Math.ceilDiv(bytes - lowWatermark(config.retentionMaxBytes()), averageBlockBytes);
+                evictEnd = Math.max(evictEnd, availableBlock(blocksToEvict - 1));
+            }
+            if (config.retentionMaxAgeSeconds() > 0) {
+                lastAgeCheckNanos = System.nanoTime();
+                evictEnd = Math.max(evictEnd, newestExpiredBlock());
+            }
+            evictEnd = Math.min(evictEnd, newest - 1);
+            if (evictEnd < oldest) {
+                return;
+            }
+            final long evictedBlocks = countAvailable(oldest, evictEnd);
+            LOGGER.log(
+                    INFO,
+                    "Evicting {0} blocks [{1} -> {2}] to stay within retention limits",
+                    evictedBlocks,
+                    oldest,
+                    evictEnd);
+            if (evictedBlocks > 0) {
+                evictedBlocksCounter.add(evictedBlocks);
+            }
+            evictor.evict(oldest, evictEnd).whenComplete((deletedBytes, error) -> {
+                if (deletedBytes != null) {
+                    blocksDeleted(deletedBytes);
+                    if (deletedBytes > 0) {
+                        evictedBytesCounter.add(deletedBytes);
+                    }
+                }
+                evicting.set(false);
+            });
+            evictionQueued = true;
+        } catch (final RuntimeException e) {
+            LOGGER.log(WARNING, "Failed to evict blocks to stay within retention limits", e);
+        } finally {
+            if (!evictionQueued) {
+                evicting.set(false);
+            }
+        }
+    }
+
+    /**
+     * Compute the low watermark for a limit.
+     *
+     * @param limit the limit
+     * @return the value eviction brings the live path down to
+     */
+    private long lowWatermark(final long limit) {
+        return limit / 100 * config.retentionLowWatermarkPercent()
+                + limit % 100 * config.retentionLowWatermarkPercent() / 100;
+    }
+
+    /**
+     * Find the n-th oldest available block.
+     *
+     * @param index the zero based index of the block, from oldest
+     * @return the block number, or the newest block if there are not that many blocks
+     */
+    private long availableBlock(final long index) {
+        long remaining = index;
+        final Iterator<LongRange> ranges = availableBlocks.streamRanges().iterator();
+        while (ranges.hasNext()) {
+            final LongRange range = ranges.next();
+            if (remaining < range.size()) {
+                return range.start() + remaining;
+            }
+            remaining -= range.size();
+        }
+        return availableBlocks.max();
+    }
+
+    /**
+     * Count the available blocks in a range.
+     *
+     * @param start the first block number, inclusive
+     * @param end the last block number, inclusive
+     * @return the number of available blocks in the range
+     */
+    private long countAvailable(final long start, final long end) {
+        return availableBlocks
+                .streamRanges()
+                .filter(range -> range.start() <= end && range.end() >= start)
+                .mapToLong(range -> Math.min(range.end(), end) - Math.max(range.start(), start) + 1)
+                .sum();
+    }
+
+    /**
+     * Find the newest block older than the maximum age, a leaf directory at a time from the oldest. Block files are
+     * written in order, so the search stops at the first leaf directory whose newest block file is not expired.
+     *
+     * @return the newest expired block number, or {@link org.hiero.block.node.spi.BlockNodePlugin#UNKNOWN_BLOCK_NUMBER}
+     *     if there is none
+     */
+    private long newestExpiredBlock() {
+        final FileTime cutoff = FileTime.from(Instant.now().minusSeconds(config.retentionMaxAgeSeconds()));
+        long newestExpired = UNKNOWN_BLOCK_NUMBER;
+        final Iterator<LongRange> ranges = availableBlocks.streamRanges().iterator();
+        while (ranges.hasNext()) {
+            final LongRange range = ranges.next();
+            long blockNumber = range.start();
+            while (true) {
+                final long leafStart = blockNumber - (blockNumber % blocksPerLeafDirectory);
+                final long leafEnd = leafStart + Math.min(blocksPerLeafDirectory - 1, Long.MAX_VALUE - leafStart);
+                // the newest block in this range and leaf directory
+                final long leafNewest = Math.min(leafEnd, range.end());
+                final Path blockFile = BlockFile.nestedDirectoriesBlockFilePath(
+                        config.liveRootPath(), leafNewest, config.compression(), config.maxFilesPerDir());
+                try {
+                    if (Files.getLastModifiedTime(blockFile).compareTo(cutoff) >= 0) {
+                        return newestExpired;
+                    }
+                } catch (final IOException e) {
+                    // deleted since the ranges were read
+                    return newestExpired;
+                }
+                newestExpired = leafNewest;
+                if (leafNewest == range.end()) {
+                    break;
+                }
+                blockNumber = leafNewest + 1;
+            }
+        }
+        return newestExpired;
+    }
+
+    /**
+     * Measure the total size of the block files in the live path.
+     *
+     * @return the total size in bytes
+     * @throws UncheckedIOException if the live path could not be walked
+     */
+    private long measureStoredBytes() {
+        try (Stream<Path> files = Files.walk(config.liveRootPath())) {
+            return files.filter(file -> file.getFileName().toString().contains(BlockFile.BLOCK_FILE_EXTENSION))
+                    .mapToLong(file -> {
+                        try {
+                            return Files.size(file);
+                        } catch (final IOException e) {
+                            // deleted while walking
+                            return 0;
+                        }
+                    })
+                    .sum();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -18,14 +18,23 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import org.hiero.block.internal.BlockItemUnparsed;
 import org.hiero.block.internal.BlockUnparsed;
 import org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilder;
 import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ZstdDictionaries;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -83,7 +92,7 @@ class BlockFileBlockAccessorTest {
         void testNullBlockFilePath() {
             // call && assert
             assertThatNullPointerException()
-                    .isThrownBy(() -> new BlockFileBlockAccessor(null, CompressionType.NONE, 0));
+                    .isThrownBy(() -> new BlockFileBlockAccessor(null, CompressionType.NONE, ZstdDictionaries.NONE, 0));
         }
 
         /**
@@ -102,7 +111,23 @@ class BlockFileBlockAccessorTest {
                     .isReadable()
                     .isWritable();
             // call && assert
-            assertThatNullPointerException().isThrownBy(() -> new BlockFileBlockAccessor(blockFilePath, null, 0));
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new BlockFileBlockAccessor(blockFilePath, null, ZstdDictionaries.NONE, 0));
+        }
+
+        /**
+         * This test asserts that a {@link NullPointerException} is thrown when
+         * the input dictionaries are null.
+         */
+        @Test
+        void testNullDictionaries() throws IOException {
+            // resolve, create & assert existing block file path before call
+            final Path blockFilePath = testBasePath.resolve("1.blk");
+            Files.createFile(blockFilePath);
+            assertThat(blockFilePath).exists().isRegularFile();
+            // call && assert
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new BlockFileBlockAccessor(blockFilePath, CompressionType.NONE, null, 0));
         }
 
         /**
@@ -113,7 +138,8 @@ class BlockFileBlockAccessorTest {
         void testBlockFilePathNotAFile() {
             // call && assert
             assertThatIllegalArgumentException()
-                    .isThrownBy(() -> new BlockFileBlockAccessor(testBasePath, CompressionType.NONE, 0));
+                    .isThrownBy(() ->
+                            new BlockFileBlockAccessor(testBasePath, CompressionType.NONE, ZstdDictionaries.NONE, 0));
         }
 
         /**
@@ -127,7 +153,8 @@ class BlockFileBlockAccessorTest {
             assertThat(blockFilePath).doesNotExist();
             // call && assert
             assertThatIllegalArgumentException()
-                    .isThrownBy(() -> new BlockFileBlockAccessor(blockFilePath, CompressionType.NONE, 0));
+                    .isThrownBy(() ->
+                            new BlockFileBlockAccessor(blockFilePath, CompressionType.NONE, ZstdDictionaries.NONE, 0));
         }
 
         /**
@@ -147,7 +174,8 @@ class BlockFileBlockAccessorTest {
                     .isWritable();
             // call && assert
             assertThatNoException()
-                    .isThrownBy(() -> new BlockFileBlockAccessor(blockFilePath, CompressionType.NONE, 0));
+                    .isThrownBy(() ->
+                            new BlockFileBlockAccessor(blockFilePath, CompressionType.NONE, ZstdDictionaries.NONE, 0));
         }
     }
 
@@ -535,6 +563,202 @@ class BlockFileBlockAccessorTest {
                     .isThrownBy(() -> toTest.writeBytesTo(Format.ZSTD_PROTOBUF, bufferedData));
         }
 
+        /**
+         * This test aims to verify that the {@link BlockFileBlockAccessor#writeBytesTo(Format, WritableByteChannel)}
+         * will correctly transfer the stored bytes to the target channel when they are already in the requested format.
+         */
+        @ParameterizedTest
+        @EnumSource(CompressionType.class)
+        @DisplayName("Test writeBytesTo method will correctly transfer stored bytes to the target channel")
+        void testWriteBytesToChannel(final CompressionType compressionType) throws IOException {
+            // create block file path before call
+            final Path blockFilePath = testBasePath.resolve("0.blk".concat(compressionType.extension()));
+            // create instance to test
+            final BlockFileBlockAccessor toTest =
+                    buildAndCreateBlockAndGetAssociatedAccessor(0, blockFilePath, compressionType, 1);
+            // test accessor.writeBytesTo(WritableByteChannel)
+            final Format format =
+                    switch (compressionType) {
+                        case ZSTD -> Format.ZSTD_PROTOBUF;
+                        case NONE -> Format.PROTOBUF;
+                    };
+            final byte[] expected = Files.readAllBytes(blockFilePath);
+            final Path targetPath = testBasePath.resolve("1.blk");
+            try (final FileChannel target =
+                    FileChannel.open(targetPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                assertThat(toTest.writeBytesTo(format, target)).isEqualTo(expected.length);
+            }
+            assertThat(Files.readAllBytes(targetPath)).isEqualTo(expected);
+        }
+
+        /**
+         * This test aims to verify that the {@link BlockFileBlockAccessor#isStoredFormat(Format)} reports only the
+         * format the block file holds its bytes in.
+         */
+        @ParameterizedTest
+        @EnumSource(CompressionType.class)
+        @DisplayName("Test isStoredFormat method reports the format of the block file")
+        void testIsStoredFormat(final CompressionType compressionType) throws IOException {
+            // create block file path before call
+            final Path blockFilePath = testBasePath.resolve("0.blk".concat(compressionType.extension()));
+            // create instance to test
+            final BlockFileBlockAccessor toTest =
+                    buildAndCreateBlockAndGetAssociatedAccessor(0, blockFilePath, compressionType, 1);
+            assertThat(toTest.isStoredFormat(Format.PROTOBUF)).isEqualTo(compressionType == CompressionType.NONE);
+            assertThat(toTest.isStoredFormat(Format.ZSTD_PROTOBUF)).isEqualTo(compressionType == CompressionType.ZSTD);
+            assertThat(toTest.isStoredFormat(Format.JSON)).isFalse();
+        }
+
+        /**
+         * This test aims to verify that the {@link BlockFileBlockAccessor#writeBytesTo(Format, WritableByteChannel)}
+         * will correctly convert the stored bytes when they are not in the requested format.
+         */
+        @ParameterizedTest
+        @EnumSource(CompressionType.class)
+        @DisplayName("Test writeBytesTo method will correctly convert bytes written to the target channel")
+        void testWriteBytesToChannelConverted(final CompressionType compressionType) throws IOException {
+            // create block file path before call
+            final Path blockFilePath = testBasePath.resolve("0.blk".concat(compressionType.extension()));
+            // create instance to test
+            final BlockFileBlockAccessor toTest =
+                    buildAndCreateBlockAndGetAssociatedAccessor(0, blockFilePath, compressionType, 1);
+            // request the format the block is not stored in
+            final Format format =
+                    switch (compressionType) {
+                        case ZSTD -> Format.PROTOBUF;
+                        case NONE -> Format.ZSTD_PROTOBUF;
+                    };
+            final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            final long written = toTest.writeBytesTo(format, Channels.newChannel(byteArrayOutputStream));
+            assertThat(written).isEqualTo(byteArrayOutputStream.size());
+            assertThat(Bytes.wrap(byteArrayOutputStream.toByteArray()).toHex())
+                    .isEqualTo(toTest.blockBytes(format).toHex());
+        }
+
+        /**
+         * This test aims to verify that the {@link BlockFileBlockAccessor#writeBytesTo(Format, WritableByteChannel)}
+         * will correctly throw IOExceptions encountered.
+         */
+        @ParameterizedTest
+        @EnumSource(CompressionType.class)
+        @DisplayName("Test writeBytesTo method will correctly throw IOException when writing to a channel")
+        void testWriteBytesToChannelIOException(final CompressionType compressionType) throws IOException {
+            // create block file path before call
+            final Path blockFilePath = testBasePath.resolve("0.blk".concat(compressionType.extension()));
+            // create instance to test
+            final BlockFileBlockAccessor toTest =
+                    buildAndCreateBlockAndGetAssociatedAccessor(0, blockFilePath, compressionType, 1);
+            final Format format =
+                    switch (compressionType) {
+                        case ZSTD -> Format.ZSTD_PROTOBUF;
+                        case NONE -> Format.PROTOBUF;
+                    };
+            // delete the file to simulate NoSuchFileException IOException
+            Files.delete(blockFilePath);
+            assertThatExceptionOfType(IOException.class)
+                    .isThrownBy(() -> toTest.writeBytesTo(format, Channels.newChannel(new ByteArrayOutputStream())));
+        }
+
+        /**
+         * This test aims to verify that the {@link BlockFileBlockAccessor#writeBytesTo(Format, WritableByteChannel)}
+         * falls back to copying through the heap when a transfer makes no progress, and throws rather than spinning
+         * when the channel never accepts any bytes.
+         */
+        @Test
+        @DisplayName("Test writeBytesTo method will fall back when a channel transfer makes no progress")
+        void testWriteBytesToChannelNoProgress() throws IOException {
+            final Path blockFilePath = testBasePath.resolve("0.blk");
+            final BlockFileBlockAccessor toTest =
+                    buildAndCreateBlockAndGetAssociatedAccessor(0, blockFilePath, CompressionType.NONE, 1);
+            final byte[] expected = Files.readAllBytes(blockFilePath);
+            // a channel that accepts nothing for its first write, like a full non-blocking channel
+            final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            final WritableByteChannel target = Channels.newChannel(byteArrayOutputStream);
+            final WritableByteChannel stallsOnce = new WritableByteChannel() {
+                private boolean stalled = false;
+
+                @Override
+                public int write(final ByteBuffer source) throws IOException {
+                    if (!stalled) {
+                        stalled = true;
+                        return 0;
+                    }
+                    return target.write(source);
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {}
+            };
+            assertThat(toTest.writeBytesTo(Format.PROTOBUF, stallsOnce)).isEqualTo(expected.length);
+            assertThat(byteArrayOutputStream.toByteArray()).isEqualTo(expected);
+            // a channel that never accepts anything
+            final WritableByteChannel alwaysStalls = new WritableByteChannel() {
+                @Override
+                public int write(final ByteBuffer source) {
+                    return 0;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {}
+            };
+            assertThatExceptionOfType(IOException.class)
+                    .isThrownBy(() -> toTest.writeBytesTo(Format.PROTOBUF, alwaysStalls));
+        }
+
+        /**
+         * This test aims to verify that a block file compressed with a dictionary is read with the dictionary, and that
+         * the {@link Format#ZSTD_PROTOBUF} bytes served for it can be decompressed without the dictionary.
+         */
+        @Test
+        @DisplayName("Test block files compressed with a dictionary are served as ZSTD_PROTOBUF without the dictionary")
+        void testDictionaryCompressedBlock() throws IOException {
+            final ZstdDictionaries dictionaries = ZstdDictionaries.load(testBasePath.resolve("dictionaries"));
+            final List<byte[]> samples = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                final BlockUnparsed block = new BlockUnparsed(List.of(SimpleTestBlockItemBuilder
+                        .createNumberOfVerySimpleBlocksUnparsed(i, i + 4L, Instant.EPOCH, Duration.ofSeconds(2))));
+                samples.add(BlockUnparsed.PROTOBUF.toBytes(block).toByteArray());
+            }
+            final long dictionaryId =
+                    dictionaries.add(ZstdDictionaries.train(samples, ZstdDictionaries.DEFAULT_MAX_DICTIONARY_BYTES));
+            final BlockUnparsed expected =
+                    new BlockUnparsed(List.of(SimpleTestBlockItemBuilder.createNumberOfVerySimpleBlocksUnparsed(1)));
+            final Bytes protoBytes = BlockUnparsed.PROTOBUF.toBytes(expected);
+            final Path blockFilePath = testBasePath.resolve("0.blk.zstd");
+            try (final OutputStream out =
+                    dictionaries.wrapStream(CompressionType.ZSTD, 3, Files.newOutputStream(blockFilePath))) {
+                protoBytes.writeTo(out);
+            }
+            assertThat(ZstdDictionaries.frameDictionaryId(blockFilePath)).isEqualTo(dictionaryId);
+            final BlockFileBlockAccessor toTest =
+                    new BlockFileBlockAccessor(blockFilePath, CompressionType.ZSTD, dictionaries, 0);
+            assertThat(toTest.blockUnparsed()).isEqualTo(expected);
+            assertThat(toTest.blockBytes(Format.PROTOBUF)).isEqualTo(protoBytes);
+            final byte[] zstdBytes = toTest.blockBytes(Format.ZSTD_PROTOBUF).toByteArray();
+            assertThat(ZstdDictionaries.frameDictionaryId(zstdBytes)).isZero();
+            assertThat(CompressionType.ZSTD.decompress(zstdBytes)).isEqualTo(protoBytes.toByteArray());
+            // the stored file needs the dictionary, so it is not transferred as is
+            final ByteArrayOutputStream channelBytes = new ByteArrayOutputStream();
+            toTest.writeBytesTo(Format.ZSTD_PROTOBUF, Channels.newChannel(channelBytes));
+            assertThat(CompressionType.ZSTD.decompress(channelBytes.toByteArray()))
+                    .isEqualTo(protoBytes.toByteArray());
+            // without the dictionary the block can not be read
+            final BlockFileBlockAccessor withoutDictionary =
+                    new BlockFileBlockAccessor(blockFilePath, CompressionType.ZSTD, ZstdDictionaries.NONE, 0);
+            assertThatExceptionOfType(UncheckedIOException.class)
+                    .isThrownBy(() -> withoutDictionary.blockBytes(Format.PROTOBUF));
+        }
+
         /**
          * This test aims to verify that the
          * {@link BlockFileBlockAccessor#writeTo(Format, Path)}
@@ -577,7 +801,7 @@ class BlockFileBlockAccessorTest {
             }
             // assert the test block file is populated
             assertThat(blockFilePath).isNotEmptyFile();
-            return new BlockFileBlockAccessor(blockFilePath, compressionType, blockNumber);
+            return new BlockFileBlockAccessor(blockFilePath, compressionType, ZstdDictionaries.NONE, blockNumber);
         }
 
         private BlockFileBlockAccessor buildAndCreateBlockAndGetAssociatedAccessor(
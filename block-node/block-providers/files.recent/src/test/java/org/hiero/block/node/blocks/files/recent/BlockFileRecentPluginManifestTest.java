@@ -0,0 +1,248 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static org.hiero.block.node.app.fixtures.blocks.BlockItemUtils.toBlockItemsUnparsed;
+import static org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilder.createNumberOfVerySimpleBlocks;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.hedera.hapi.block.stream.BlockItem;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.app.HistoricalBlockFacilityImpl;
+import org.hiero.block.node.app.fixtures.plugintest.PluginTestBase;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.ranges.BlockRangeManifest;
+import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
+import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Plugin test for the {@link BlocksFilesRecentPlugin} plugin loading available blocks from the block range manifest at
+ * start-up, and falling back to scanning the live directory when the manifest can not be trusted.
+ */
+class BlockFileRecentPluginManifestTest {
+    /** The testing file system. */
+    private final FileSystem fileSystem;
+    /** The plugin configuration, customized with testing file system. */
+    private final FilesRecentConfig filesRecentConfig;
+    /** The plugin under test. */
+    private final BlocksFilesRecentPlugin blocksFilesRecentPlugin;
+    /** The historical block facility. */
+    private final HistoricalBlockFacilityImpl historicalBlockFacility;
+
+    /**
+     * Construct test environment.
+     */
+    BlockFileRecentPluginManifestTest() throws IOException {
+        this.fileSystem = Jimfs.newFileSystem(Configuration.unix());
+        this.filesRecentConfig = FilesRecentConfigBuilder.defaults(fileSystem)
+                .deleteMaxFilesPerSecond(0)
+                .build();
+        Files.createDirectories(filesRecentConfig.liveRootPath());
+        this.blocksFilesRecentPlugin = new BlocksFilesRecentPlugin(this.filesRecentConfig);
+        this.historicalBlockFacility = new HistoricalBlockFacilityImpl(List.of(blocksFilesRecentPlugin));
+    }
+
+    /**
+     * Create empty block files in the live directory, the plugin only needs them to exist at start-up.
+     *
+     * @param blockNumbers the block numbers to create files for
+     */
+    private void createBlockFiles(final long... blockNumbers) {
+        try {
+            for (final long blockNumber : blockNumbers) {
+                final Path blockFilePath = BlockFile.nestedDirectoriesBlockFilePath(
+                        filesRecentConfig.liveRootPath(),
+                        blockNumber,
+                        filesRecentConfig.compression(),
+                        filesRecentConfig.maxFilesPerDir());
+                Files.createDirectories(blockFilePath.getParent());
+                Files.createFile(blockFilePath);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write a manifest checkpoint to the live directory.
+     *
+     * @param start the first block number in the manifest
+     * @param end the last block number in the manifest
+     */
+    private void writeManifest(final long start, final long end) {
+        try (BlockRangeManifest manifest = new BlockRangeManifest(
+                filesRecentConfig.liveRootPath(), new ConcurrentLongRangeSet(start, end), 1000)) {
+            manifest.checkpoint();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Load the manifest from the live directory.
+     *
+     * @return the ranges in the manifest, null if missing or corrupt
+     */
+    private List<LongRange> loadManifest() {
+        return new BlockRangeManifest(filesRecentConfig.liveRootPath(), new ConcurrentLongRangeSet(), 1000).load();
+    }
+
+    /**
+     * Tests with a valid manifest present at start-up.
+     */
+    @Nested
+    @DisplayName("Valid Manifest Tests")
+    final class ValidManifestTest extends PluginTestBase<BlocksFilesRecentPlugin> {
+        ValidManifestTest() {
+            // only create the files at the edges of the range, so we can tell the manifest was used and not a scan
+            createBlockFiles(0, 4);
+            writeManifest(0, 4);
+            start(blocksFilesRecentPlugin, historicalBlockFacility);
+        }
+
+        @Test
+        @DisplayName("Test available blocks are loaded from the manifest")
+        void testAvailableBlocksFromManifest() {
+            assertEquals(List.of(new LongRange(0, 4)), plugin.availableBlocks().streamRanges().toList());
+        }
+
+        @Test
+        @DisplayName("Test new blocks are recorded in the manifest and checkpointed on stop")
+        void testNewBlocksRecorded() {
+            final BlockItem[] blockBlockItems = createNumberOfVerySimpleBlocks(5, 5);
+            blockMessaging.sendBlockVerification(new VerificationNotification(
+                    true, 5, Bytes.EMPTY, new BlockUnparsed(toBlockItemsUnparsed(blockBlockItems))));
+            // the journal is replayed on load even before a checkpoint
+            assertEquals(List.of(new LongRange(0, 5)), loadManifest());
+            plugin.stop();
+            assertEquals(List.of(new LongRange(0, 5)), loadManifest());
+            assertFalse(Files.exists(filesRecentConfig.liveRootPath().resolve(BlockRangeManifest.JOURNAL_FILE_NAME)));
+        }
+
+        @AfterEach
+        void close() throws IOException {
+            tearDown();
+            fileSystem.close();
+        }
+    }
+
+    /**
+     * Tests with a manifest that has a range pending deletion at start-up, as if the node stopped before the delete
+     * finished.
+     */
+    @Nested
+    @DisplayName("Pending Delete Manifest Tests")
+    final class PendingDeleteManifestTest extends PluginTestBase<BlocksFilesRecentPlugin> {
+        PendingDeleteManifestTest() {
+            createBlockFiles(0, 4, 5, 6, 7, 8, 9);
+            final ConcurrentLongRangeSet ranges = new ConcurrentLongRangeSet(0, 9);
+            try (BlockRangeManifest manifest =
+                    new BlockRangeManifest(filesRecentConfig.liveRootPath(), ranges, 1000)) {
+                manifest.checkpoint();
+                ranges.remove(5, 9);
+                manifest.recordDeleteQueued(5, 9);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            start(blocksFilesRecentPlugin, historicalBlockFacility);
+        }
+
+        @Test
+        @DisplayName("Test pending deletes are not available and are deleted again on start-up")
+        void testPendingDeleteResumed() {
+            // the block after the last range is pending deletion, so the manifest is still trusted
+            assertEquals(List.of(new LongRange(0, 4)), plugin.availableBlocks().streamRanges().toList());
+            testThreadPoolManager.executor().executeSerially();
+            for (long blockNumber = 5; blockNumber <= 9; blockNumber++) {
+                assertFalse(Files.exists(BlockFile.nestedDirectoriesBlockFilePath(
+                        filesRecentConfig.liveRootPath(),
+                        blockNumber,
+                        filesRecentConfig.compression(),
+                        filesRecentConfig.maxFilesPerDir())));
+            }
+            final BlockRangeManifest manifest =
+                    new BlockRangeManifest(filesRecentConfig.liveRootPath(), new ConcurrentLongRangeSet(), 1000);
+            assertEquals(List.of(new LongRange(0, 4)), manifest.load());
+            assertEquals(List.of(), manifest.pendingDeletes());
+        }
+
+        @AfterEach
+        void close() throws IOException {
+            tearDown();
+            fileSystem.close();
+        }
+    }
+
+    /**
+     * Tests with a manifest that is missing blocks written after its last record, as if journal records were lost in a
+     * crash.
+     */
+    @Nested
+    @DisplayName("Stale Manifest Tests")
+    final class StaleManifestTest extends PluginTestBase<BlocksFilesRecentPlugin> {
+        StaleManifestTest() {
+            createBlockFiles(0, 1, 2, 3, 4);
+            writeManifest(0, 2);
+            start(blocksFilesRecentPlugin, historicalBlockFacility);
+        }
+
+        @Test
+        @DisplayName("Test stale manifest falls back to scan and is rewritten")
+        void testStaleManifestRescanned() {
+            assertEquals(List.of(new LongRange(0, 4)), plugin.availableBlocks().streamRanges().toList());
+            assertEquals(List.of(new LongRange(0, 4)), loadManifest());
+        }
+
+        @AfterEach
+        void close() throws IOException {
+            tearDown();
+            fileSystem.close();
+        }
+    }
+
+    /**
+     * Tests with a corrupt manifest present at start-up.
+     */
+    @Nested
+    @DisplayName("Corrupt Manifest Tests")
+    final class CorruptManifestTest extends PluginTestBase<BlocksFilesRecentPlugin> {
+        CorruptManifestTest() {
+            createBlockFiles(0, 1, 2, 10, 11);
+            try {
+                Files.writeString(
+                        filesRecentConfig.liveRootPath().resolve(BlockRangeManifest.CHECKPOINT_FILE_NAME), "junk");
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            start(blocksFilesRecentPlugin, historicalBlockFacility);
+        }
+
+        @Test
+        @DisplayName("Test corrupt manifest falls back to scan and is rewritten")
+        void testCorruptManifestRescanned() {
+            final List<LongRange> expected = List.of(new LongRange(0, 2), new LongRange(10, 11));
+            assertEquals(expected, plugin.availableBlocks().streamRanges().toList());
+            assertEquals(expected, loadManifest());
+        }
+
+        @AfterEach
+        void close() throws IOException {
+            tearDown();
+            fileSystem.close();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static org.hiero.block.node.app.fixtures.blocks.BlockItemUtils.toBlockItemsUnparsed;
+import static org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilder.createNumberOfVerySimpleBlocks;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.hedera.hapi.block.stream.Block;
+import com.hedera.hapi.block.stream.BlockItem;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hiero.block.internal.BlockItemUnparsed;
+import org.hiero.block.node.app.HistoricalBlockFacilityImpl;
+import org.hiero.block.node.app.fixtures.plugintest.PluginTestBase;
+import org.hiero.block.node.spi.blockmessaging.BlockItems;
+import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Plugin test for the {@link BlocksFilesRecentPlugin} plugin with staging of unverified blocks enabled.
+ */
+class BlockFileRecentPluginStagingTest {
+    /** The testing file system. */
+    private final FileSystem fileSystem;
+    /** The plugin configuration, customized with testing file system. */
+    private final FilesRecentConfig filesRecentConfig;
+    /** The plugin under test. */
+    private final BlocksFilesRecentPlugin blocksFilesRecentPlugin;
+    /** The historical block facility. */
+    private final HistoricalBlockFacilityImpl historicalBlockFacility;
+
+    /**
+     * Construct test environment.
+     */
+    BlockFileRecentPluginStagingTest() throws IOException {
+        this.fileSystem = Jimfs.newFileSystem(Configuration.unix());
+        this.filesRecentConfig = FilesRecentConfigBuilder.defaults(fileSystem)
+                .stageUnverifiedBlocks(true)
+                .deleteMaxFilesPerSecond(0)
+                .build();
+        // create a left over file from a previous run, it should be cleaned up on init
+        Files.createDirectories(filesRecentConfig.unverifiedRootPath());
+        Files.writeString(filesRecentConfig.unverifiedRootPath().resolve("0000000000000000999.blk.zstd"), "junk");
+        this.blocksFilesRecentPlugin = new BlocksFilesRecentPlugin(this.filesRecentConfig);
+        this.historicalBlockFacility = new HistoricalBlockFacilityImpl(List.of(blocksFilesRecentPlugin));
+    }
+
+    /**
+     * Nested class for testing the plugin, it is a nested class so environment can be built outside.
+     */
+    @Nested
+    @DisplayName("Staging Plugin Tests")
+    final class PluginTest extends PluginTestBase<BlocksFilesRecentPlugin> {
+
+        /**
+         * Test Constructor.
+         */
+        PluginTest() {
+            start(blocksFilesRecentPlugin, historicalBlockFacility);
+        }
+
+        /**
+         * Test that files left over in the unverified directory are deleted on init.
+         */
+        @Test
+        @DisplayName("Test left over staged files are cleaned up")
+        void testLeftOverStagedFilesDeleted() throws IOException {
+            assertEquals(0, countStagedFiles());
+        }
+
+        /**
+         * Test that a block is streamed to the staging directory and promoted when verified without the block in the
+         * verification notification.
+         */
+        @SuppressWarnings("DataFlowIssue")
+        @Test
+        @DisplayName("Test staged block promoted on verification after items")
+        void testStagedBlockPromotedItemsFirst() throws IOException {
+            final BlockItem[] blockBlockItems = createNumberOfVerySimpleBlocks(1);
+            final long blockNumber = blockBlockItems[0].blockHeader().number();
+            final List<BlockItemUnparsed> items = toBlockItemsUnparsed(blockBlockItems);
+            // send the items in two batches, so the block is written incrementally
+            blockMessaging.sendBlockItems(new BlockItems(items.subList(0, 1), blockNumber));
+            assertEquals(1, countStagedFiles());
+            blockMessaging.sendBlockItems(new BlockItems(items.subList(1, items.size()), -1));
+            // not verified yet, so not readable
+            assertNull(plugin.block(blockNumber));
+            assertEquals(1, countStagedFiles());
+            // send verified block notification without the block
+            blockMessaging.sendBlockVerification(new VerificationNotification(true, blockNumber, Bytes.EMPTY, null));
+            // now try and read it back
+            final Block block = plugin.block(blockNumber).block();
+            assertArrayEquals(blockBlockItems, block.items().toArray());
+            assertEquals(blockNumber, plugin.availableBlocks().max());
+            assertEquals(0, countStagedFiles());
+            assertEquals(
+                    blockNumber,
+                    blockMessaging.getSentPersistedNotifications().getLast().endBlockNumber());
+        }
+
+        /**
+         * Test that a block is promoted when the verification notification arrives before the block proof has been
+         * written to the staging directory.
+         */
+        @SuppressWarnings("DataFlowIssue")
+        @Test
+        @DisplayName("Test staged block promoted on items after verification")
+        void testStagedBlockPromotedVerificationFirst() throws IOException {
+            final BlockItem[] blockBlockItems = createNumberOfVerySimpleBlocks(1);
+            final long blockNumber = blockBlockItems[0].blockHeader().number();
+            final List<BlockItemUnparsed> items = toBlockItemsUnparsed(blockBlockItems);
+            blockMessaging.sendBlockItems(new BlockItems(items.subList(0, 1), blockNumber));
+            blockMessaging.sendBlockVerification(new VerificationNotification(true, blockNumber, Bytes.EMPTY, null));
+            // block proof not written yet so block should not be available
+            assertNull(plugin.block(blockNumber));
+            blockMessaging.sendBlockItems(new BlockItems(items.subList(1, items.size()), -1));
+            final Block block = plugin.block(blockNumber).block();
+            assertArrayEquals(blockBlockItems, block.items().toArray());
+            assertEquals(0, countStagedFiles());
+        }
+
+        /**
+         * Test that a block that fails verification is never promoted and its staged file is deleted.
+         */
+        @Test
+        @DisplayName("Test staged block deleted on failed verification")
+        void testStagedBlockDeletedOnFailure() throws IOException {
+            final BlockItem[] blockBlockItems = createNumberOfVerySimpleBlocks(1);
+            final long blockNumber = blockBlockItems[0].blockHeader().number();
+            blockMessaging.sendBlockItems(new BlockItems(toBlockItemsUnparsed(blockBlockItems), blockNumber));
+            blockMessaging.sendBlockVerification(new VerificationNotification(false, blockNumber, null, null));
+            assertNull(plugin.block(blockNumber));
+            assertFalse(plugin.availableBlocks().contains(blockNumber));
+            assertEquals(0, countStagedFiles());
+            assertTrue(blockMessaging.getSentPersistedNotifications().isEmpty());
+        }
+
+        /**
+         * Test that a block that never receives its block proof is discarded when the next block starts.
+         */
+        @Test
+        @DisplayName("Test incomplete staged block discarded when next block starts")
+        void testIncompleteStagedBlockDiscarded() throws IOException {
+            final BlockItem[] blockBlockItems = createNumberOfVerySimpleBlocks(2);
+            final List<BlockItemUnparsed> items = toBlockItemsUnparsed(blockBlockItems);
+            final int secondHeaderIndex = items.size() / 2;
+            // send the first block header only, then the whole second block
+            blockMessaging.sendBlockItems(new BlockItems(items.subList(0, 1), 0));
+            blockMessaging.sendBlockItems(new BlockItems(items.subList(secondHeaderIndex, items.size()), 1));
+            assertEquals(1, countStagedFiles());
+            blockMessaging.sendBlockVerification(new VerificationNotification(true, 1, Bytes.EMPTY, null));
+            assertNotNull(plugin.block(1));
+            assertNull(plugin.block(0));
+            assertEquals(0, countStagedFiles());
+        }
+
+        /**
+         * Count the files in the unverified directory.
+         *
+         * @return the number of staged files
+         */
+        private long countStagedFiles() throws IOException {
+            try (Stream<Path> files = Files.list(filesRecentConfig.unverifiedRootPath())) {
+                return files.count();
+            }
+        }
+
+        /**
+         * Cleanup after each test.
+         */
+        @AfterEach
+        void close() throws IOException {
+            tearDown();
+            // close the file system
+            fileSystem.close();
+        }
+    }
+}
@@ -16,10 +16,11 @@ import com.hedera.pbj.runtime.io.buffer.Bytes;
 import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.util.List;
+import java.util.stream.Stream;
 import org.hiero.block.internal.BlockUnparsed;
 import org.hiero.block.node.app.HistoricalBlockFacilityImpl;
 import org.hiero.block.node.app.fixtures.plugintest.PluginTestBase;
-import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
 import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
@@ -44,7 +45,9 @@ class BlockFileRecentPluginTest {
      */
     BlockFileRecentPluginTest() {
         this.fileSystem = Jimfs.newFileSystem(Configuration.unix());
-        this.filesRecentConfig = new FilesRecentConfig(fileSystem.getPath("/live"), CompressionType.ZSTD, 3);
+        this.filesRecentConfig = FilesRecentConfigBuilder.defaults(fileSystem)
+                .deleteMaxFilesPerSecond(0)
+                .build();
         this.blocksFilesRecentPlugin = new BlocksFilesRecentPlugin(this.filesRecentConfig);
         this.historicalBlockFacility = new HistoricalBlockFacilityImpl(List.of(blocksFilesRecentPlugin));
     }
@@ -171,6 +174,34 @@ class BlockFileRecentPluginTest {
                     blockNodeContext.historicalBlockProvider().availableBlocks().min());
         }
 
+        /**
+         * Test that a range of blocks spread over several directories is read back in order, ending at the first block
+         * that is not stored.
+         */
+        @Test
+        @DisplayName("Test retrieve a range of blocks")
+        void testReadingBlockRange() {
+            for (long blockNumber = 0; blockNumber < 8; blockNumber++) {
+                final BlockItem[] blockBlockItems = createNumberOfVerySimpleBlocks(blockNumber, blockNumber);
+                blockMessaging.sendBlockVerification(new VerificationNotification(
+                        true, blockNumber, Bytes.EMPTY, new BlockUnparsed(toBlockItemsUnparsed(blockBlockItems))));
+            }
+            try (Stream<BlockAccessor> blocks = plugin.blocks(2, 20)) {
+                final List<BlockAccessor> accessors = blocks.toList();
+                assertEquals(6, accessors.size());
+                for (int i = 0; i < accessors.size(); i++) {
+                    final long blockNumber = i + 2;
+                    assertEquals(blockNumber, accessors.get(i).blockNumber());
+                    assertArrayEquals(
+                            createNumberOfVerySimpleBlocks(blockNumber, blockNumber),
+                            accessors.get(i).block().items().toArray());
+                }
+            }
+            try (Stream<BlockAccessor> blocks = plugin.blocks(8, 20)) {
+                assertEquals(0, blocks.count());
+            }
+        }
+
         /**
          * Cleanup after each test.
          */
@@ -0,0 +1,222 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.hiero.block.node.app.fixtures.async.BlockingSerialExecutor;
+import org.hiero.block.node.app.fixtures.async.TestThreadPoolManager;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.CompressionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BlockRangeDeleter}. The deleter is configured with one digit per directory, so each leaf
+ * directory holds ten blocks.
+ */
+class BlockRangeDeleterTest {
+    /** The testing file system. */
+    private FileSystem fileSystem;
+    /** The executor the deleter runs on, tasks are run when the test calls executeSerially. */
+    private BlockingSerialExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        fileSystem = Jimfs.newFileSystem(Configuration.unix());
+        executor = new BlockingSerialExecutor(new LinkedBlockingQueue<>());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        fileSystem.close();
+    }
+
+    /**
+     * Create a config for the test file system.
+     *
+     * @param deleteMaxFilesPerSecond the maximum number of files deleted per second, zero for unlimited
+     * @return the config
+     */
+    private FilesRecentConfig config(final int deleteMaxFilesPerSecond) {
+        return FilesRecentConfigBuilder.defaults(fileSystem)
+                .compression(CompressionType.NONE)
+                .maxFilesPerDir(1)
+                .groupCommitMaxBlocks(2)
+                .deleteMaxFilesPerSecond(deleteMaxFilesPerSecond)
+                .build();
+    }
+
+    /**
+     * Get the path of a block file.
+     *
+     * @param config the config
+     * @param blockNumber the block number
+     * @return the block file path
+     */
+    private static Path blockPath(final FilesRecentConfig config, final long blockNumber) {
+        return BlockFile.nestedDirectoriesBlockFilePath(
+                config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
+    }
+
+    /**
+     * Create empty block files for a range of blocks.
+     *
+     * @param config the config
+     * @param startBlockNumber the first block number, inclusive
+     * @param endBlockNumber the last block number, inclusive
+     * @throws IOException if a file could not be created
+     */
+    private static void createBlockFiles(
+            final FilesRecentConfig config, final long startBlockNumber, final long endBlockNumber)
+            throws IOException {
+        for (long blockNumber = startBlockNumber; blockNumber <= endBlockNumber; blockNumber++) {
+            final Path path = blockPath(config, blockNumber);
+            Files.createDirectories(path.getParent());
+            Files.createFile(path);
+        }
+    }
+
+    /**
+     * Count all the block files under the live root.
+     *
+     * @param config the config
+     * @return the number of block files
+     * @throws IOException if the directories could not be walked
+     */
+    private static long countBlockFiles(final FilesRecentConfig config) throws IOException {
+        try (Stream<Path> paths = Files.walk(config.liveRootPath())) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Test whole leaf directories and partial ranges are deleted on the deleter thread")
+    void testDeleteRange() throws IOException {
+        final FilesRecentConfig config = config(0);
+        createBlockFiles(config, 0, 34);
+        try (BlockRangeDeleter deleter = new BlockRangeDeleter(config, new TestThreadPoolManager<>(executor))) {
+            deleter.deleteRange(5, 24);
+            // nothing is deleted on the calling thread
+            assertTrue(Files.exists(blockPath(config, 5)));
+            executor.executeSerially();
+        }
+        for (long blockNumber = 0; blockNumber <= 34; blockNumber++) {
+            assertEquals(
+                    blockNumber < 5 || blockNumber > 24,
+                    Files.exists(blockPath(config, blockNumber)),
+                    "Unexpected state for block " + blockNumber);
+        }
+        assertEquals(15, countBlockFiles(config));
+        // the fully deleted leaf directory is removed, the partially deleted ones still hold blocks
+        assertFalse(Files.exists(blockPath(config, 10).getParent()));
+        assertTrue(Files.exists(blockPath(config, 0).getParent()));
+        assertTrue(Files.exists(blockPath(config, 20).getParent()));
+    }
+
+    @Test
+    @DisplayName("Test files that are not block files are left in a deleted leaf directory and the delete completes")
+    void testStrayFilesInLeafDirectory() throws Exception {
+        final FilesRecentConfig config = config(0);
+        createBlockFiles(config, 0, 24);
+        final Path leafDirectory = blockPath(config, 10).getParent();
+        final Path dotFile = Files.createFile(leafDirectory.resolve(".nfs0000000000000001"));
+        final Path badBlockName = Files.createFile(leafDirectory.resolve("x" + blockPath(config, 11).getFileName()));
+        try (BlockRangeDeleter deleter = new BlockRangeDeleter(config, new TestThreadPoolManager<>(executor))) {
+            final CompletableFuture<Long> deletedBytes = deleter.deleteRange(0, 19);
+            executor.executeSerially();
+            assertTrue(deletedBytes.isDone());
+            assertEquals(0, deletedBytes.get(1, TimeUnit.SECONDS));
+        }
+        for (long blockNumber = 0; blockNumber <= 19; blockNumber++) {
+            assertFalse(Files.exists(blockPath(config, blockNumber)), "block " + blockNumber);
+        }
+        assertTrue(Files.exists(blockPath(config, 20)));
+        // the stray files are kept, so their directory is too
+        assertTrue(Files.exists(dotFile));
+        assertTrue(Files.exists(badBlockName));
+    }
+
+    @Test
+    @DisplayName("Test empty directories are cleaned up except where the next block will be written")
+    void testEmptyDirectoryCleanup() throws IOException {
+        final FilesRecentConfig config = config(0);
+        createBlockFiles(config, 0, 14);
+        createBlockFiles(config, 100, 104);
+        try (BlockRangeDeleter deleter = new BlockRangeDeleter(config, new TestThreadPoolManager<>(executor))) {
+            // deleting blocks that are not stored is fine
+            deleter.deleteRange(50, 60);
+            deleter.deleteRange(0, 12);
+            deleter.deleteRange(100, 109);
+            executor.executeSerially();
+        }
+        assertEquals(2, countBlockFiles(config));
+        assertTrue(Files.exists(blockPath(config, 13)));
+        assertTrue(Files.exists(blockPath(config, 14)));
+        assertFalse(Files.exists(blockPath(config, 0).getParent()));
+        // the directories for blocks 100 and up are empty, but block 110 is written beside them so they are kept
+        final Path leafDirectory = blockPath(config, 100).getParent();
+        assertFalse(Files.exists(leafDirectory));
+        assertTrue(Files.exists(leafDirectory.getParent()));
+        assertEquals(blockPath(config, 110).getParent().getParent(), leafDirectory.getParent());
+        // once the range covers the leaf the next block is written to, it is cleaned up
+        createBlockFiles(config, 110, 119);
+        try (BlockRangeDeleter deleter = new BlockRangeDeleter(config, new TestThreadPoolManager<>(executor))) {
+            deleter.deleteRange(110, 119);
+            executor.executeSerially();
+        }
+        assertFalse(Files.exists(blockPath(config, 110).getParent()));
+    }
+
+    @Test
+    @DisplayName("Test block files written after their range was queued are kept, unless queued for deletion again")
+    void testBlockWrittenAfterQueued() throws IOException {
+        final FilesRecentConfig config = config(0);
+        createBlockFiles(config, 0, 19);
+        try (BlockRangeDeleter deleter = new BlockRangeDeleter(config, new TestThreadPoolManager<>(executor))) {
+            // written before any range was queued, so deleted as normal
+            deleter.blockWritten(3);
+            deleter.deleteRange(0, 19);
+            // written again after the range was queued
+            deleter.blockWritten(5);
+            deleter.blockWritten(15);
+            deleter.blockWritten(16);
+            // queued again after it was written, so deleted
+            deleter.deleteRange(15, 15);
+            executor.executeSerially();
+        }
+        for (long blockNumber = 0; blockNumber <= 19; blockNumber++) {
+            assertEquals(
+                    blockNumber == 5 || blockNumber == 16,
+                    Files.exists(blockPath(config, blockNumber)),
+                    "Unexpected state for block " + blockNumber);
+        }
+    }
+
+    @Test
+    @DisplayName("Test deletes are throttled to the configured maximum files per second")
+    void testThrottle() throws IOException {
+        final FilesRecentConfig config = config(100);
+        createBlockFiles(config, 0, 149);
+        final long startNanos = System.nanoTime();
+        try (BlockRangeDeleter deleter = new BlockRangeDeleter(config, new TestThreadPoolManager<>(executor))) {
+            deleter.deleteRange(0, 149);
+            executor.executeSerially();
+        }
+        assertEquals(0, countBlockFiles(config));
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.SECONDS.toNanos(1));
+    }
+}
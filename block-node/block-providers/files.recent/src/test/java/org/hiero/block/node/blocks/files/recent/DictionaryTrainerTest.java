@@ -0,0 +1,211 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.hedera.hapi.block.stream.Block;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.LongFunction;
+import org.hiero.block.node.app.fixtures.async.BlockingSerialExecutor;
+import org.hiero.block.node.app.fixtures.async.TestThreadPoolManager;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ZstdDictionaries;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link DictionaryTrainer}.
+ */
+class DictionaryTrainerTest {
+    /** The testing file system. */
+    private FileSystem fileSystem;
+    /** The work queue of the trainer executor, so tests can check if training was queued. */
+    private BlockingQueue<Runnable> workQueue;
+    /** The executor the trainer runs on, tasks are run when the test calls executeSerially. */
+    private BlockingSerialExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        fileSystem = Jimfs.newFileSystem(Configuration.unix());
+        workQueue = new LinkedBlockingQueue<>();
+        executor = new BlockingSerialExecutor(workQueue);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        fileSystem.close();
+    }
+
+    /**
+     * Create a config for the test file system.
+     *
+     * @param dictionaryTrainingInterval the number of blocks between each training, zero to disable
+     * @return the config
+     */
+    private FilesRecentConfig config(final int dictionaryTrainingInterval) {
+        return FilesRecentConfigBuilder.defaults(fileSystem)
+                .groupCommitMaxBlocks(2)
+                .deleteMaxFilesPerSecond(0)
+                .dictionaryTrainingInterval(dictionaryTrainingInterval)
+                .build();
+    }
+
+    /**
+     * Create an accessor for a block with small, similar protobuf bytes, like real blocks.
+     *
+     * @param blockNumber the block number
+     * @return the accessor
+     */
+    private static BlockAccessor accessor(final long blockNumber) {
+        final Random random = new Random(blockNumber);
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            content.append("{\"payer\":\"0.0.")
+                    .append(random.nextInt(100_000))
+                    .append("\",\"amount\":")
+                    .append(random.nextInt(1_000_000))
+                    .append(",\"memo\":\"crypto transfer\",\"status\":\"SUCCESS\"}");
+        }
+        final Bytes bytes = Bytes.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+        return new BlockAccessor() {
+            @Override
+            public long blockNumber() {
+                return blockNumber;
+            }
+
+            @Override
+            public Block block() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Bytes blockBytes(final Format format) {
+                return bytes;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Test a new dictionary is trained every training interval blocks")
+    void testTrainEveryInterval() throws IOException {
+        final FilesRecentConfig config = config(1000);
+        final ZstdDictionaries dictionaries = ZstdDictionaries.load(config.dictionaryPath());
+        try (DictionaryTrainer trainer = new DictionaryTrainer(
+                config, dictionaries, new TestThreadPoolManager<>(executor), DictionaryTrainerTest::accessor)) {
+            for (long blockNumber = 0; blockNumber < 999; blockNumber++) {
+                trainer.blockStored(blockNumber);
+            }
+            assertTrue(workQueue.isEmpty());
+            trainer.blockStored(999);
+            executor.executeSerially();
+            final long firstId = dictionaries.currentId();
+            assertNotEquals(0, firstId);
+            assertTrue(Files.exists(config.dictionaryPath().resolve("1" + ZstdDictionaries.DICTIONARY_EXTENSION)));
+            for (long blockNumber = 1000; blockNumber < 2000; blockNumber++) {
+                trainer.blockStored(blockNumber);
+            }
+            executor.executeSerially();
+            assertNotEquals(firstId, dictionaries.currentId());
+            assertTrue(Files.exists(config.dictionaryPath().resolve("2" + ZstdDictionaries.DICTIONARY_EXTENSION)));
+        }
+    }
+
+    @Test
+    @DisplayName("Test dictionaries no stored block uses are deleted once the maximum count is reached")
+    void testPruneUnreferenced() throws IOException {
+        final FilesRecentConfig config = FilesRecentConfigBuilder.defaults(fileSystem)
+                .dictionaryTrainingInterval(1000)
+                .dictionaryMaxCount(2)
+                .build();
+        final ZstdDictionaries dictionaries = ZstdDictionaries.load(config.dictionaryPath());
+        try (DictionaryTrainer trainer = new DictionaryTrainer(
+                config, dictionaries, new TestThreadPoolManager<>(executor), DictionaryTrainerTest::accessor)) {
+            long blockNumber = 0;
+            for (; blockNumber < 1000; blockNumber++) {
+                trainer.blockStored(blockNumber);
+            }
+            executor.executeSerially();
+            final long firstId = dictionaries.currentId();
+            // store a block compressed with the first dictionary, so it is still referenced
+            final Path blockFile = config.liveRootPath().resolve(BlockFile.blockFileName(0, CompressionType.ZSTD));
+            Files.createDirectories(blockFile.getParent());
+            final byte[] blockBytes =
+                    accessor(0).blockBytes(BlockAccessor.Format.PROTOBUF).toByteArray();
+            Files.write(blockFile, dictionaries.compress(CompressionType.ZSTD, 3, blockBytes));
+            for (; blockNumber < 2000; blockNumber++) {
+                trainer.blockStored(blockNumber);
+            }
+            executor.executeSerially();
+            final long secondId = dictionaries.currentId();
+            assertEquals(List.of(firstId, secondId), dictionaries.ids());
+            // at the maximum and the first dictionary is still referenced, so no training
+            for (; blockNumber < 3000; blockNumber++) {
+                trainer.blockStored(blockNumber);
+            }
+            executor.executeSerially();
+            assertEquals(List.of(firstId, secondId), dictionaries.ids());
+            // once the block is gone the first dictionary is deleted and a new one trained
+            Files.delete(blockFile);
+            for (; blockNumber < 4000; blockNumber++) {
+                trainer.blockStored(blockNumber);
+            }
+            executor.executeSerially();
+            assertEquals(2, dictionaries.ids().size());
+            assertEquals(secondId, dictionaries.ids().getFirst());
+            assertNotEquals(secondId, dictionaries.currentId());
+            assertFalse(Files.exists(config.dictionaryPath().resolve("1" + ZstdDictionaries.DICTIONARY_EXTENSION)));
+        }
+    }
+
+    @Test
+    @DisplayName("Test no dictionary is trained when too few blocks are available to sample")
+    void testTooFewSamples() throws IOException {
+        final FilesRecentConfig config = config(1000);
+        final ZstdDictionaries dictionaries = ZstdDictionaries.load(config.dictionaryPath());
+        // only the newest few blocks are still stored
+        final LongFunction<BlockAccessor> lookup = blockNumber ->
+                blockNumber > 999 - DictionaryTrainer.MIN_SAMPLES + 1 ? accessor(blockNumber) : null;
+        try (DictionaryTrainer trainer =
+                new DictionaryTrainer(config, dictionaries, new TestThreadPoolManager<>(executor), lookup)) {
+            for (long blockNumber = 0; blockNumber < 1000; blockNumber++) {
+                trainer.blockStored(blockNumber);
+            }
+            executor.executeSerially();
+        }
+        assertTrue(dictionaries.isEmpty());
+        assertFalse(Files.exists(config.dictionaryPath()));
+    }
+
+    @Test
+    @DisplayName("Test no training is queued when training is disabled")
+    void testDisabled() throws IOException {
+        final FilesRecentConfig config = config(0);
+        final ZstdDictionaries dictionaries = ZstdDictionaries.load(config.dictionaryPath());
+        try (DictionaryTrainer trainer = new DictionaryTrainer(
+                config, dictionaries, new TestThreadPoolManager<>(executor), DictionaryTrainerTest::accessor)) {
+            for (long blockNumber = 0; blockNumber < 5000; blockNumber++) {
+                trainer.blockStored(blockNumber);
+            }
+        }
+        assertFalse(executor.wasAnyTaskSubmitted());
+        assertEquals(0, dictionaries.currentId());
+    }
+}
@@ -0,0 +1,211 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import com.swirlds.config.api.ConfigurationBuilder;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.blocks.files.recent.FilesRecentConfig.Durability;
+
+/**
+ * Builds {@link FilesRecentConfig}s for tests, starting from the configured defaults so each test only names the
+ * settings it cares about. Paths can not be set through {@link ConfigurationBuilder} for an in memory file system, so
+ * this is used in place of it wherever the paths are on a test file system.
+ */
+final class FilesRecentConfigBuilder {
+    private Path liveRootPath;
+    private CompressionType compression;
+    private int maxFilesPerDir;
+    private Path unverifiedRootPath;
+    private boolean stageUnverifiedBlocks;
+    private int manifestCheckpointInterval;
+    private int writerThreads;
+    private int writerQueueSize;
+    private int groupCommitMaxBlocks;
+    private Durability durability;
+    private int deleteMaxFilesPerSecond;
+    private int compressionLevel;
+    private Path dictionaryPath;
+    private int dictionaryTrainingInterval;
+    private int dictionaryMaxCount;
+    private long retentionMaxBytes;
+    private long retentionMaxBlocks;
+    private long retentionMaxAgeSeconds;
+    private int retentionLowWatermarkPercent;
+
+    /**
+     * Create a builder holding the given config's settings.
+     *
+     * @param config the config to start from
+     */
+    private FilesRecentConfigBuilder(final FilesRecentConfig config) {
+        liveRootPath = config.liveRootPath();
+        compression = config.compression();
+        maxFilesPerDir = config.maxFilesPerDir();
+        unverifiedRootPath = config.unverifiedRootPath();
+        stageUnverifiedBlocks = config.stageUnverifiedBlocks();
+        manifestCheckpointInterval = config.manifestCheckpointInterval();
+        writerThreads = config.writerThreads();
+        writerQueueSize = config.writerQueueSize();
+        groupCommitMaxBlocks = config.groupCommitMaxBlocks();
+        durability = config.durability();
+        deleteMaxFilesPerSecond = config.deleteMaxFilesPerSecond();
+        compressionLevel = config.compressionLevel();
+        dictionaryPath = config.dictionaryPath();
+        dictionaryTrainingInterval = config.dictionaryTrainingInterval();
+        dictionaryMaxCount = config.dictionaryMaxCount();
+        retentionMaxBytes = config.retentionMaxBytes();
+        retentionMaxBlocks = config.retentionMaxBlocks();
+        retentionMaxAgeSeconds = config.retentionMaxAgeSeconds();
+        retentionLowWatermarkPercent = config.retentionLowWatermarkPercent();
+    }
+
+    /**
+     * Create a builder holding the configured defaults.
+     *
+     * @return a new builder
+     */
+    static FilesRecentConfigBuilder defaults() {
+        return new FilesRecentConfigBuilder(ConfigurationBuilder.create()
+                .withConfigDataType(FilesRecentConfig.class)
+                .build()
+                .getConfigData(FilesRecentConfig.class));
+    }
+
+    /**
+     * Create a builder holding the configured defaults, with the live, unverified and dictionary paths in the root of
+     * the given file system.
+     *
+     * @param fileSystem the file system for the paths
+     * @return a new builder
+     */
+    static FilesRecentConfigBuilder defaults(final FileSystem fileSystem) {
+        return defaults()
+                .liveRootPath(fileSystem.getPath("/live"))
+                .unverifiedRootPath(fileSystem.getPath("/unverified"))
+                .dictionaryPath(fileSystem.getPath("/dictionaries"));
+    }
+
+    FilesRecentConfigBuilder liveRootPath(final Path value) {
+        liveRootPath = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder compression(final CompressionType value) {
+        compression = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder maxFilesPerDir(final int value) {
+        maxFilesPerDir = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder unverifiedRootPath(final Path value) {
+        unverifiedRootPath = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder stageUnverifiedBlocks(final boolean value) {
+        stageUnverifiedBlocks = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder manifestCheckpointInterval(final int value) {
+        manifestCheckpointInterval = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder writerThreads(final int value) {
+        writerThreads = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder writerQueueSize(final int value) {
+        writerQueueSize = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder groupCommitMaxBlocks(final int value) {
+        groupCommitMaxBlocks = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder durability(final Durability value) {
+        durability = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder deleteMaxFilesPerSecond(final int value) {
+        deleteMaxFilesPerSecond = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder compressionLevel(final int value) {
+        compressionLevel = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder dictionaryPath(final Path value) {
+        dictionaryPath = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder dictionaryTrainingInterval(final int value) {
+        dictionaryTrainingInterval = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder dictionaryMaxCount(final int value) {
+        dictionaryMaxCount = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder retentionMaxBytes(final long value) {
+        retentionMaxBytes = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder retentionMaxBlocks(final long value) {
+        retentionMaxBlocks = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder retentionMaxAgeSeconds(final long value) {
+        retentionMaxAgeSeconds = value;
+        return this;
+    }
+
+    FilesRecentConfigBuilder retentionLowWatermarkPercent(final int value) {
+        retentionLowWatermarkPercent = value;
+        return this;
+    }
+
+    /**
+     * Build the config, which validates the settings.
+     *
+     * @return the config
+     */
+    FilesRecentConfig build() {
+        return new FilesRecentConfig(
+                liveRootPath,
+                compression,
+                maxFilesPerDir,
+                unverifiedRootPath,
+                stageUnverifiedBlocks,
+                manifestCheckpointInterval,
+                writerThreads,
+                writerQueueSize,
+                groupCommitMaxBlocks,
+                durability,
+                deleteMaxFilesPerSecond,
+                compressionLevel,
+                dictionaryPath,
+                dictionaryTrainingInterval,
+                dictionaryMaxCount,
+                retentionMaxBytes,
+                retentionMaxBlocks,
+                retentionMaxAgeSeconds,
+                retentionLowWatermarkPercent);
+    }
+}
@@ -13,6 +13,7 @@ import java.nio.file.FileSystem;
 import java.nio.file.Path;
 import java.util.stream.Stream;
 import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.blocks.files.recent.FilesRecentConfig.Durability;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -30,10 +31,10 @@ class FilesRecentConfigTest {
     private FileSystem jimfs;
     /** Default live root path value. */
     private Path defaultLiveRootPath;
-    /** Default compression value. */
-    private CompressionType defaultCompression;
-    /** Default max files per dir value. */
-    private int defaultMaxFilesPerDir;
+    /** Default unverified root path value. */
+    private Path defaultUnverifiedRootPath;
+    /** Default dictionary path value. */
+    private Path defaultDictionaryPath;
 
     /**
      * Set up the test environment before each test.
@@ -45,8 +46,8 @@ class FilesRecentConfigTest {
         // and should be void of any logic
         jimfs = Jimfs.newFileSystem(Configuration.unix());
         defaultLiveRootPath = jimfs.getPath("/opt/hiero/blocknode/data/live");
-        defaultCompression = CompressionType.ZSTD;
-        defaultMaxFilesPerDir = 3;
+        defaultUnverifiedRootPath = jimfs.getPath("/opt/hiero/blocknode/data/unverified");
+        defaultDictionaryPath = jimfs.getPath("/opt/hiero/blocknode/data/dictionaries");
     }
 
     /**
@@ -60,6 +61,18 @@ class FilesRecentConfigTest {
         }
     }
 
+    /**
+     * Create a builder holding the default values, with the paths on the test file system.
+     *
+     * @return a new builder
+     */
+    private FilesRecentConfigBuilder defaults() {
+        return FilesRecentConfigBuilder.defaults()
+                .liveRootPath(defaultLiveRootPath)
+                .unverifiedRootPath(defaultUnverifiedRootPath)
+                .dictionaryPath(defaultDictionaryPath);
+    }
+
     /**
      * Tests for the {@link FilesRecentConfig} constructor.
      */
@@ -74,8 +87,7 @@ class FilesRecentConfigTest {
         @DisplayName("Test that NullPointerException is thrown when liveRootPath is null")
         void testNullLiveRootPath() {
             // call && assert
-            assertThatNullPointerException()
-                    .isThrownBy(() -> new FilesRecentConfig(null, defaultCompression, defaultMaxFilesPerDir));
+            assertThatNullPointerException().isThrownBy(() -> defaults().liveRootPath(null).build());
         }
 
         /**
@@ -86,8 +98,18 @@ class FilesRecentConfigTest {
         @DisplayName("Test that NullPointerException is thrown when compression is null")
         void testNullCompression() {
             // call && assert
-            assertThatNullPointerException()
-                    .isThrownBy(() -> new FilesRecentConfig(defaultLiveRootPath, null, defaultMaxFilesPerDir));
+            assertThatNullPointerException().isThrownBy(() -> defaults().compression(null).build());
+        }
+
+        /**
+         * This test asserts that a {@link NullPointerException} is thrown when
+         * the input unverifiedRootPath is null.
+         */
+        @Test
+        @DisplayName("Test that NullPointerException is thrown when unverifiedRootPath is null")
+        void testNullUnverifiedRootPath() {
+            // call && assert
+            assertThatNullPointerException().isThrownBy(() -> defaults().unverifiedRootPath(null).build());
         }
 
         /**
@@ -97,11 +119,140 @@ class FilesRecentConfigTest {
         @ParameterizedTest
         @MethodSource("org.hiero.block.node.blocks.files.recent.FilesRecentConfigTest#invalidMaxFilesPerDir")
         @DisplayName("Test that IllegalArgumentException is thrown when maxFilesPerDir is negative")
-        void testNegativeMaxFilesPerDir(final int invalidMaxFilesPerDir) {
+        void testNegativeMaxFilesPerDir(final int invalidValue) {
+            // call && assert
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().maxFilesPerDir(invalidValue).build());
+        }
+
+        /**
+         * This test asserts that a {@link IllegalArgumentException} is thrown
+         * when the input manifestCheckpointInterval is negative.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.recent.FilesRecentConfigTest#invalidMaxFilesPerDir")
+        @DisplayName("Test that IllegalArgumentException is thrown when manifestCheckpointInterval is negative")
+        void testNegativeManifestCheckpointInterval(final int invalidValue) {
+            // call && assert
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().manifestCheckpointInterval(invalidValue).build());
+        }
+
+        /**
+         * This test asserts that a {@link NullPointerException} is thrown when
+         * the input durability is null.
+         */
+        @Test
+        @DisplayName("Test that NullPointerException is thrown when durability is null")
+        void testNullDurability() {
+            // call && assert
+            assertThatNullPointerException().isThrownBy(() -> defaults().durability(null).build());
+        }
+
+        /**
+         * This test asserts that a {@link IllegalArgumentException} is thrown
+         * when the input writer settings are out of range.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.recent.FilesRecentConfigTest#invalidMaxFilesPerDir")
+        @DisplayName("Test that IllegalArgumentException is thrown when writer settings are negative")
+        void testNegativeWriterSettings(final int invalidValue) {
+            // call && assert
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().writerThreads(invalidValue).build());
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().writerQueueSize(invalidValue).build());
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().groupCommitMaxBlocks(invalidValue).build());
+        }
+
+        /**
+         * This test asserts that a {@link IllegalArgumentException} is thrown
+         * when the input deleteMaxFilesPerSecond is negative.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.recent.FilesRecentConfigTest#invalidMaxFilesPerDir")
+        @DisplayName("Test that IllegalArgumentException is thrown when deleteMaxFilesPerSecond is negative")
+        void testNegativeDeleteMaxFilesPerSecond(final int invalidValue) {
+            // call && assert
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().deleteMaxFilesPerSecond(invalidValue).build());
+        }
+
+        /**
+         * This test asserts that a {@link IllegalArgumentException} is thrown
+         * when the input compressionLevel is out of range.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.recent.FilesRecentConfigTest#invalidCompressionLevel")
+        @DisplayName("Test that IllegalArgumentException is thrown when compressionLevel is out of range")
+        void testInvalidCompressionLevel(final int invalidValue) {
+            // call && assert
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().compressionLevel(invalidValue).build());
+        }
+
+        /**
+         * This test asserts that a {@link NullPointerException} is thrown when
+         * the input dictionaryPath is null.
+         */
+        @Test
+        @DisplayName("Test that NullPointerException is thrown when dictionaryPath is null")
+        void testNullDictionaryPath() {
+            // call && assert
+            assertThatNullPointerException().isThrownBy(() -> defaults().dictionaryPath(null).build());
+        }
+
+        /**
+         * This test asserts that a {@link IllegalArgumentException} is thrown
+         * when the input dictionaryTrainingInterval is negative.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.recent.FilesRecentConfigTest#invalidMaxFilesPerDir")
+        @DisplayName("Test that IllegalArgumentException is thrown when dictionaryTrainingInterval is negative")
+        void testNegativeDictionaryTrainingInterval(final int invalidValue) {
+            // call && assert
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().dictionaryTrainingInterval(invalidValue).build());
+        }
+
+        /**
+         * This test asserts that a {@link IllegalArgumentException} is thrown
+         * when the input dictionaryMaxCount is not positive.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.recent.FilesRecentConfigTest#invalidMaxFilesPerDir")
+        @DisplayName("Test that IllegalArgumentException is thrown when dictionaryMaxCount is not positive")
+        void testInvalidDictionaryMaxCount(final int invalidValue) {
+            // call && assert
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().dictionaryMaxCount(invalidValue).build());
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().dictionaryMaxCount(0).build());
+        }
+
+        /**
+         * This test asserts that a {@link IllegalArgumentException} is thrown
+         * when the input retention limits are negative.
+         */
+        @ParameterizedTest
+        @MethodSource("org.hiero.block.node.blocks.files.recent.FilesRecentConfigTest#invalidMaxFilesPerDir")
+        @DisplayName("Test that IllegalArgumentException is thrown when retention limits are negative")
+        void testNegativeRetentionLimits(final int invalidValue) {
+            // call && assert
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().retentionMaxBytes(invalidValue).build());
+            assertThatIllegalArgumentException().isThrownBy(() -> defaults().retentionMaxBlocks(invalidValue).build());
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> defaults().retentionMaxAgeSeconds(invalidValue).build());
+        }
+
+        /**
+         * This test asserts that a {@link IllegalArgumentException} is thrown
+         * when the input retentionLowWatermarkPercent is out of range.
+         */
+        @ParameterizedTest
+        @MethodSource(
+                "org.hiero.block.node.blocks.files.recent.FilesRecentConfigTest#invalidRetentionLowWatermarkPercent")
+        @DisplayName("Test that IllegalArgumentException is thrown when retentionLowWatermarkPercent is out of range")
+        void testInvalidRetentionLowWatermarkPercent(final int invalidValue) {
             // call && assert
             assertThatIllegalArgumentException()
-                    .isThrownBy(() ->
-                            new FilesRecentConfig(defaultLiveRootPath, defaultCompression, invalidMaxFilesPerDir));
+                    .isThrownBy(() -> defaults().retentionLowWatermarkPercent(invalidValue).build());
         }
 
         /**
@@ -113,8 +264,27 @@ class FilesRecentConfigTest {
         void testValidConstructor() {
             // call && assert
             assertThatNoException()
-                    .isThrownBy(() -> new FilesRecentConfig(
-                            defaultLiveRootPath.resolve("valid"), CompressionType.NONE, defaultMaxFilesPerDir + 1));
+                    .isThrownBy(() -> defaults()
+                            .liveRootPath(defaultLiveRootPath.resolve("valid"))
+                            .compression(CompressionType.NONE)
+                            .maxFilesPerDir(4)
+                            .unverifiedRootPath(defaultUnverifiedRootPath.resolve("valid"))
+                            .stageUnverifiedBlocks(true)
+                            .manifestCheckpointInterval(0)
+                            .writerThreads(0)
+                            .writerQueueSize(1)
+                            .groupCommitMaxBlocks(1)
+                            .durability(Durability.PER_BLOCK)
+                            .deleteMaxFilesPerSecond(0)
+                            .compressionLevel(CompressionType.MAX_ZSTD_COMPRESSION_LEVEL)
+                            .dictionaryPath(defaultDictionaryPath.resolve("valid"))
+                            .dictionaryTrainingInterval(1)
+                            .dictionaryMaxCount(1)
+                            .retentionMaxBytes(1)
+                            .retentionMaxBlocks(1)
+                            .retentionMaxAgeSeconds(1)
+                            .retentionLowWatermarkPercent(1)
+                            .build());
         }
 
         /**
@@ -125,9 +295,7 @@ class FilesRecentConfigTest {
         @DisplayName("Test that constructor does not throw an exception with default values")
         void testValidConstructorWithDefaults() {
             // call && assert
-            assertThatNoException()
-                    .isThrownBy(() ->
-                            new FilesRecentConfig(defaultLiveRootPath, defaultCompression, defaultMaxFilesPerDir));
+            assertThatNoException().isThrownBy(() -> defaults().build());
         }
 
         /**
@@ -139,13 +307,35 @@ class FilesRecentConfigTest {
         void testNoPathCreation() {
             // assert that no paths exist before the constructor is called
             assertThat(defaultLiveRootPath).doesNotExist();
+            assertThat(defaultUnverifiedRootPath).doesNotExist();
+            assertThat(defaultDictionaryPath).doesNotExist();
             // call
-            new FilesRecentConfig(defaultLiveRootPath, defaultCompression, defaultMaxFilesPerDir);
+            defaults().build();
             // assert that no paths exist after the constructor is called
             assertThat(defaultLiveRootPath).doesNotExist();
+            assertThat(defaultUnverifiedRootPath).doesNotExist();
+            assertThat(defaultDictionaryPath).doesNotExist();
         }
     }
 
+    /**
+     * A stream of compression level values outside the supported range.
+     */
+    private static Stream<Arguments> invalidCompressionLevel() {
+        return Stream.of(
+                Arguments.of(-1),
+                Arguments.of(0),
+                Arguments.of(CompressionType.MAX_ZSTD_COMPRESSION_LEVEL + 1),
+                Arguments.of(100));
+    }
+
+    /**
+     * A stream of retention low watermark percent values outside the supported range.
+     */
+    private static Stream<Arguments> invalidRetentionLowWatermarkPercent() {
+        return Stream.of(Arguments.of(-1), Arguments.of(0), Arguments.of(101), Arguments.of(Integer.MAX_VALUE));
+    }
+
     /**
      * A stream of invalid maxFilesPerDir values.
      */
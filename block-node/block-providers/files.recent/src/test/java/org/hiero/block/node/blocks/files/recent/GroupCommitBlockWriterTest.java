@@ -0,0 +1,266 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static org.hiero.block.node.app.fixtures.blocks.BlockItemUtils.toBlockItemsUnparsed;
+import static org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilder.createNumberOfVerySimpleBlocks;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.hedera.hapi.block.stream.BlockItem;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.app.fixtures.async.BlockingSerialExecutor;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.ZstdDictionaries;
+import org.hiero.block.node.blocks.files.recent.FilesRecentConfig.Durability;
+import org.hiero.block.node.spi.threading.ThreadPoolManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Unit tests for {@link GroupCommitBlockWriter}.
+ */
+class GroupCommitBlockWriterTest {
+    /** The testing file system. */
+    private FileSystem fileSystem;
+    /** Each executor created by the writer, in creation order, workers first then the committer. */
+    private final List<BlockingSerialExecutor> executors = new ArrayList<>();
+    /** Thread pool manager that creates a separate serial executor for each thread, so each can be run separately. */
+    private final ThreadPoolManager threadPoolManager = new ThreadPoolManager() {
+        @NonNull
+        @Override
+        public ExecutorService createSingleThreadExecutor(@NonNull final String threadName) {
+            return createSingleThreadExecutor(threadName, null);
+        }
+
+        @NonNull
+        @Override
+        public ExecutorService createSingleThreadExecutor(
+                @NonNull final String threadName, final Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+            final BlockingSerialExecutor executor = new BlockingSerialExecutor(new LinkedBlockingQueue<>());
+            executors.add(executor);
+            return executor;
+        }
+    };
+    /** The block numbers committed, in commit order. */
+    private final List<Long> committed = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fileSystem = Jimfs.newFileSystem(Configuration.unix());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        fileSystem.close();
+    }
+
+    /**
+     * Create a config for the test file system.
+     *
+     * @param writerThreads the number of writer threads
+     * @param durability the durability mode
+     * @return the config
+     */
+    private FilesRecentConfig config(final int writerThreads, final Durability durability) {
+        return FilesRecentConfigBuilder.defaults(fileSystem)
+                .writerThreads(writerThreads)
+                .groupCommitMaxBlocks(2)
+                .durability(durability)
+                .deleteMaxFilesPerSecond(0)
+                .build();
+    }
+
+    /**
+     * Create a simple block.
+     *
+     * @param blockNumber the block number
+     * @return the block items of the block
+     */
+    private static BlockItem[] createBlock(final long blockNumber) {
+        return createNumberOfVerySimpleBlocks(blockNumber, blockNumber);
+    }
+
+    /**
+     * Check a block file was written with the expected items.
+     *
+     * @param config the config the block was written with
+     * @param blockItems the expected block items
+     */
+    private static void assertBlockWritten(final FilesRecentConfig config, final BlockItem[] blockItems) {
+        final long blockNumber = blockItems[0].blockHeader().number();
+        final Path path = BlockFile.nestedDirectoriesBlockFilePath(
+                config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
+        assertTrue(Files.exists(path));
+        assertArrayEquals(
+                blockItems,
+                new BlockFileBlockAccessor(path, config.compression(), ZstdDictionaries.NONE, blockNumber)
+                        .block()
+                        .items()
+                        .toArray());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Durability.class)
+    @DisplayName("Test synchronous writes are committed before write returns")
+    void testSynchronousWrite(final Durability durability) throws InterruptedException {
+        final FilesRecentConfig config = config(0, durability);
+        try (GroupCommitBlockWriter writer =
+                new GroupCommitBlockWriter(config, ZstdDictionaries.NONE, threadPoolManager, committed::add)) {
+            final BlockItem[] blockItems = createBlock(0);
+            writer.write(0, new BlockUnparsed(toBlockItemsUnparsed(blockItems)));
+            assertEquals(List.of(0L), committed);
+            assertBlockWritten(config, blockItems);
+        }
+        assertTrue(executors.isEmpty(), "No threads should be created for synchronous writes");
+    }
+
+    @Test
+    @DisplayName("Test synchronous write failure is thrown to the caller")
+    void testSynchronousWriteFailure() throws IOException {
+        final FilesRecentConfig config = config(0, Durability.NONE);
+        // a file where the block directory should be, so creating the directories fails
+        Files.writeString(config.liveRootPath(), "not a directory");
+        try (GroupCommitBlockWriter writer =
+                new GroupCommitBlockWriter(config, ZstdDictionaries.NONE, threadPoolManager, committed::add)) {
+            assertThrows(
+                    UncheckedIOException.class,
+                    () -> writer.write(0, new BlockUnparsed(toBlockItemsUnparsed(createBlock(0)))));
+        }
+        assertTrue(committed.isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Durability.class)
+    @DisplayName("Test blocks written out of order are committed in order")
+    void testCommittedInOrder(final Durability durability) throws InterruptedException {
+        final FilesRecentConfig config = config(2, durability);
+        final GroupCommitBlockWriter writer =
+                new GroupCommitBlockWriter(config, ZstdDictionaries.NONE, threadPoolManager, committed::add);
+        assertEquals(3, executors.size());
+        final BlockingSerialExecutor firstWorker = executors.get(0);
+        final BlockingSerialExecutor secondWorker = executors.get(1);
+        final BlockingSerialExecutor committer = executors.get(2);
+        final List<BlockItem[]> blocks = List.of(createBlock(0), createBlock(1), createBlock(2));
+        for (int i = 0; i < blocks.size(); i++) {
+            writer.write(i, new BlockUnparsed(toBlockItemsUnparsed(blocks.get(i))));
+        }
+        // nothing is written or committed until the workers run
+        assertTrue(committed.isEmpty());
+        // block 1 is written first, but can not be committed till block 0 is written
+        secondWorker.executeSerially();
+        committer.executeSerially();
+        assertTrue(committed.isEmpty());
+        assertBlockWritten(config, blocks.get(1));
+        // writing blocks 0 and 2 lets all three be committed, in two groups as the max group size is 2
+        firstWorker.executeSerially();
+        committer.executeSerially();
+        assertEquals(List.of(0L, 1L, 2L), committed);
+        for (final BlockItem[] blockItems : blocks) {
+            assertBlockWritten(config, blockItems);
+        }
+        writer.close();
+    }
+
+    @Test
+    @DisplayName("Test a failed write is skipped and does not hold up later blocks")
+    void testFailedWriteSkipped() throws IOException, InterruptedException {
+        final FilesRecentConfig config = config(1, Durability.GROUP);
+        final GroupCommitBlockWriter writer =
+                new GroupCommitBlockWriter(config, ZstdDictionaries.NONE, threadPoolManager, committed::add);
+        final BlockItem[] block0 = createBlock(0);
+        final BlockItem[] block1 = createBlock(1);
+        final BlockItem[] block2000 = createBlock(2000);
+        // a file where the directory for block 2000 should be, so writing it fails
+        final Path block2000Path = BlockFile.nestedDirectoriesBlockFilePath(
+                config.liveRootPath(), 2000, config.compression(), config.maxFilesPerDir());
+        Files.createDirectories(block2000Path.getParent().getParent());
+        Files.writeString(block2000Path.getParent(), "not a directory");
+        writer.write(0, new BlockUnparsed(toBlockItemsUnparsed(block0)));
+        writer.write(2000, new BlockUnparsed(toBlockItemsUnparsed(block2000)));
+        writer.write(1, new BlockUnparsed(toBlockItemsUnparsed(block1)));
+        // run the worker to write all three blocks, then the committer
+        executors.get(0).executeSerially();
+        executors.get(1).executeSerially();
+        assertEquals(List.of(0L, 1L), committed);
+        assertBlockWritten(config, block0);
+        assertBlockWritten(config, block1);
+        writer.close();
+    }
+
+    /**
+     * Write a block to a staging file in the unverified path, as the plugin does when staging blocks.
+     *
+     * @param config the config for the unverified path
+     * @param blockItems the block items of the block
+     * @return the path of the staged file
+     * @throws IOException if the file could not be written
+     */
+    private static Path stageBlock(final FilesRecentConfig config, final BlockItem[] blockItems) throws IOException {
+        final long blockNumber = blockItems[0].blockHeader().number();
+        final Path stagedPath =
+                config.unverifiedRootPath().resolve(BlockFile.blockFileName(blockNumber, config.compression()));
+        Files.createDirectories(config.unverifiedRootPath());
+        final BlockUnparsed block = new BlockUnparsed(toBlockItemsUnparsed(blockItems));
+        Files.write(stagedPath, config.compression().compress(BlockUnparsed.PROTOBUF.toBytes(block).toByteArray()));
+        return stagedPath;
+    }
+
+    @ParameterizedTest
+    @EnumSource(Durability.class)
+    @DisplayName("Test promoted staged blocks are committed in order with written blocks")
+    void testPromoteCommittedInOrder(final Durability durability) throws IOException, InterruptedException {
+        final FilesRecentConfig config = config(1, durability);
+        final GroupCommitBlockWriter writer =
+                new GroupCommitBlockWriter(config, ZstdDictionaries.NONE, threadPoolManager, committed::add);
+        final BlockItem[] block0 = createBlock(0);
+        final BlockItem[] block1 = createBlock(1);
+        final Path stagedPath = stageBlock(config, block1);
+        writer.write(0, new BlockUnparsed(toBlockItemsUnparsed(block0)));
+        writer.promote(1, stagedPath);
+        // nothing is moved or committed until the worker runs
+        assertTrue(Files.exists(stagedPath));
+        assertTrue(committed.isEmpty());
+        executors.get(0).executeSerially();
+        assertTrue(committed.isEmpty(), "Promoted blocks should wait for the committer like written blocks");
+        executors.get(1).executeSerially();
+        assertEquals(List.of(0L, 1L), committed);
+        assertFalse(Files.exists(stagedPath));
+        assertBlockWritten(config, block0);
+        assertBlockWritten(config, block1);
+        writer.close();
+    }
+
+    @Test
+    @DisplayName("Test a staged block that can not be moved is deleted and not committed")
+    void testPromoteFailure() throws IOException {
+        final FilesRecentConfig config = config(0, Durability.PER_BLOCK);
+        final Path stagedPath = stageBlock(config, createBlock(0));
+        // a file where the block directory should be, so creating the directories fails
+        Files.writeString(config.liveRootPath(), "not a directory");
+        try (GroupCommitBlockWriter writer =
+                new GroupCommitBlockWriter(config, ZstdDictionaries.NONE, threadPoolManager, committed::add)) {
+            assertThrows(UncheckedIOException.class, () -> writer.promote(0, stagedPath));
+        }
+        assertTrue(committed.isEmpty());
+        assertFalse(Files.exists(stagedPath));
+    }
+}
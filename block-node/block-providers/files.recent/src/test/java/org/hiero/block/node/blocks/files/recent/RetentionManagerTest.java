@@ -0,0 +1,294 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.files.recent;
+
+import static org.hiero.block.node.app.fixtures.blocks.BlockItemUtils.toBlockItemsUnparsed;
+import static org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilder.createNumberOfVerySimpleBlocks;
+import static org.hiero.block.node.spi.BlockNodePlugin.METRICS_CATEGORY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import com.swirlds.metrics.api.Counter;
+import com.swirlds.metrics.api.LongGauge;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.app.HistoricalBlockFacilityImpl;
+import org.hiero.block.node.app.fixtures.plugintest.PluginTestBase;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RetentionManager}, run through the {@link BlocksFilesRecentPlugin} so blocks are really stored and
+ * evicted. Evictions and deletes are queued on the test executor and run when the test calls executeSerially.
+ */
+class RetentionManagerTest {
+    /** The testing file system. */
+    private final FileSystem fileSystem = Jimfs.newFileSystem(Configuration.unix());
+
+    /**
+     * Create a config for the test file system, with 10 blocks per leaf directory.
+     *
+     * @param maxBytes the maximum total size of block files, zero for unlimited
+     * @param maxBlocks the maximum number of blocks, zero for unlimited
+     * @param maxAgeSeconds the maximum age of blocks, zero for unlimited
+     * @return the config
+     */
+    private FilesRecentConfig config(final long maxBytes, final long maxBlocks, final long maxAgeSeconds) {
+        return FilesRecentConfigBuilder.defaults(fileSystem)
+                .compression(CompressionType.NONE)
+                .maxFilesPerDir(1)
+                .deleteMaxFilesPerSecond(0)
+                .retentionMaxBytes(maxBytes)
+                .retentionMaxBlocks(maxBlocks)
+                .retentionMaxAgeSeconds(maxAgeSeconds)
+                .build();
+    }
+
+    /**
+     * Compute the path of a block file in the live directory.
+     *
+     * @param config the config
+     * @param blockNumber the block number
+     * @return the path of the block file
+     */
+    private static Path blockFile(final FilesRecentConfig config, final long blockNumber) {
+        return BlockFile.nestedDirectoriesBlockFilePath(
+                config.liveRootPath(), blockNumber, config.compression(), config.maxFilesPerDir());
+    }
+
+    /**
+     * Get the size of a file.
+     *
+     * @param file the file
+     * @return the size in bytes
+     */
+    private static long sizeOf(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Base for the retention tests, starts the plugin with the given config and provides helpers.
+     */
+    abstract class RetentionPluginTest extends PluginTestBase<BlocksFilesRecentPlugin> {
+        /** The plugin configuration. */
+        final FilesRecentConfig config;
+
+        /**
+         * Start the plugin with the given config.
+         *
+         * @param config the plugin configuration
+         */
+        RetentionPluginTest(final FilesRecentConfig config) {
+            this.config = config;
+            final BlocksFilesRecentPlugin filesRecentPlugin = new BlocksFilesRecentPlugin(config);
+            start(filesRecentPlugin, new HistoricalBlockFacilityImpl(List.of(filesRecentPlugin)));
+        }
+
+        /**
+         * Send verified blocks, which are written straight away as the config has no writer threads.
+         *
+         * @param start the first block number, inclusive
+         * @param end the last block number, inclusive
+         */
+        void sendVerifiedBlocks(final long start, final long end) {
+            for (long blockNumber = start; blockNumber <= end; blockNumber++) {
+                final BlockUnparsed block = new BlockUnparsed(
+                        toBlockItemsUnparsed(createNumberOfVerySimpleBlocks(blockNumber, blockNumber)));
+                blockMessaging.sendBlockVerification(
+                        new VerificationNotification(true, blockNumber, Bytes.EMPTY, block));
+            }
+        }
+
+        /**
+         * Get the value of a gauge.
+         *
+         * @param name the gauge name
+         * @return the gauge value
+         */
+        long gauge(final String name) {
+            return ((LongGauge) blockNodeContext.metrics().getMetric(METRICS_CATEGORY, name)).get();
+        }
+
+        /**
+         * Get the value of a counter.
+         *
+         * @param name the counter name
+         * @return the counter value
+         */
+        long counter(final String name) {
+            return ((Counter) blockNodeContext.metrics().getMetric(METRICS_CATEGORY, name)).get();
+        }
+
+        /**
+         * Cleanup after each test.
+         */
+        @AfterEach
+        void close() throws IOException {
+            tearDown();
+            fileSystem.close();
+        }
+    }
+
+    @Nested
+    @DisplayName("Block Limit Tests")
+    final class BlockLimitTest extends RetentionPluginTest {
+        BlockLimitTest() {
+            super(config(0, 100, 0));
+        }
+
+        @Test
+        @DisplayName("Test the oldest blocks are evicted down to the low watermark once the block limit is exceeded")
+        void testEvictDownToLowWatermark() {
+            sendVerifiedBlocks(0, 100);
+            assertEquals(101, plugin.availableBlocks().size());
+            testThreadPoolManager.executor().executeSerially();
+            assertEquals(90, plugin.availableBlocks().size());
+            assertEquals(11, plugin.availableBlocks().min());
+            assertEquals(100, plugin.availableBlocks().max());
+            assertNull(plugin.block(10));
+            assertNotNull(plugin.block(11));
+            assertFalse(Files.exists(blockFile(config, 0)));
+            assertFalse(Files.exists(blockFile(config, 10)));
+            assertTrue(Files.exists(blockFile(config, 11)));
+            assertEquals(11, counter("files_recent_evicted_blocks"));
+            assertEquals(90, gauge("files_recent_stored_blocks"));
+        }
+
+        @Test
+        @DisplayName("Test nothing is evicted while within the block limit")
+        void testWithinLimit() {
+            sendVerifiedBlocks(0, 99);
+            testThreadPoolManager.executor().executeSerially();
+            assertEquals(100, plugin.availableBlocks().size());
+            assertEquals(0, counter("files_recent_evicted_blocks"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Size Limit Tests")
+    final class SizeLimitTest extends RetentionPluginTest {
+        /** The maximum total size of block files. */
+        private static final long MAX_BYTES = 4096;
+
+        SizeLimitTest() {
+            super(config(MAX_BYTES, 0, 0));
+        }
+
+        @Test
+        @DisplayName("Test the oldest blocks are evicted once the size limit is exceeded and disk usage is tracked")
+        void testEvictOverSizeLimit() throws IOException {
+            long blockNumber = 0;
+            while (gauge("files_recent_stored_bytes") <= MAX_BYTES) {
+                sendVerifiedBlocks(blockNumber, blockNumber);
+                blockNumber++;
+            }
+            final long newestBlockNumber = blockNumber - 1;
+            testThreadPoolManager.executor().executeSerially();
+            final long storedBytes;
+            try (Stream<Path> files = Files.walk(config.liveRootPath())) {
+                storedBytes = files.filter(Files::isRegularFile)
+                        .filter(file -> file.getFileName().toString().contains(BlockFile.BLOCK_FILE_EXTENSION))
+                        .mapToLong(RetentionManagerTest::sizeOf)
+                        .sum();
+            }
+            assertEquals(storedBytes, gauge("files_recent_stored_bytes"));
+            assertTrue(storedBytes <= MAX_BYTES);
+            assertTrue(plugin.availableBlocks().min() > 0);
+            assertEquals(newestBlockNumber, plugin.availableBlocks().max());
+            assertTrue(counter("files_recent_evicted_blocks") > 0);
+            assertTrue(counter("files_recent_evicted_bytes") > 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Age Limit Tests")
+    final class AgeLimitTest extends RetentionPluginTest {
+        AgeLimitTest() {
+            super(config(0, 0, 3600));
+        }
+
+        @Test
+        @DisplayName("Test whole leaf directories of blocks older than the maximum age are evicted")
+        void testEvictExpiredLeafDirectories() throws IOException {
+            sendVerifiedBlocks(0, 24);
+            // make the first two leaf directories of blocks two hours old
+            final FileTime twoHoursAgo = FileTime.from(Instant.now().minusSeconds(7200));
+            for (long blockNumber = 0; blockNumber < 20; blockNumber++) {
+                Files.setLastModifiedTime(blockFile(config, blockNumber), twoHoursAgo);
+            }
+            testThreadPoolManager.executor().executeSerially();
+            assertEquals(20, plugin.availableBlocks().min());
+            assertEquals(24, plugin.availableBlocks().max());
+            assertFalse(Files.exists(blockFile(config, 19)));
+            assertTrue(Files.exists(blockFile(config, 20)));
+            assertEquals(20, counter("files_recent_evicted_blocks"));
+        }
+
+        @Test
+        @DisplayName("Test the scheduled age check evicts expired blocks when no new blocks are stored")
+        void testAgeCheckWithoutNewBlocks() throws IOException {
+            sendVerifiedBlocks(0, 24);
+            testThreadPoolManager.executor().executeSerially();
+            assertEquals(0, plugin.availableBlocks().min());
+            // blocks expire after the last block was stored
+            final FileTime twoHoursAgo = FileTime.from(Instant.now().minusSeconds(7200));
+            for (long blockNumber = 0; blockNumber < 10; blockNumber++) {
+                Files.setLastModifiedTime(blockFile(config, blockNumber), twoHoursAgo);
+            }
+            final List<LongRange> evicted = new ArrayList<>();
+            final RetentionManager retentionManager = new RetentionManager(
+                    config,
+                    testThreadPoolManager,
+                    plugin.availableBlocks(),
+                    (start, end) -> {
+                        evicted.add(new LongRange(start, end));
+                        return CompletableFuture.completedFuture(0L);
+                    },
+                    blockNodeContext.metrics());
+            retentionManager.evictExpired();
+            assertEquals(List.of(new LongRange(0, 9)), evicted);
+        }
+    }
+
+    @Nested
+    @DisplayName("No Limit Tests")
+    final class NoLimitTest extends RetentionPluginTest {
+        NoLimitTest() {
+            super(config(0, 0, 0));
+        }
+
+        @Test
+        @DisplayName("Test blocks are kept and counted when no retention limit is set")
+        void testNoEviction() {
+            sendVerifiedBlocks(0, 199);
+            assertEquals(200, plugin.availableBlocks().size());
+            assertEquals(200, gauge("files_recent_stored_blocks"));
+            assertEquals(0, gauge("files_recent_stored_bytes"));
+        }
+    }
+}
@@ -0,0 +1,249 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.segments.recent;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.ERROR;
+import static java.lang.System.Logger.Level.INFO;
+import static java.lang.System.Logger.Level.WARNING;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
+import org.hiero.block.node.spi.BlockNodeContext;
+import org.hiero.block.node.spi.ServiceBuilder;
+import org.hiero.block.node.spi.blockmessaging.BlockNotificationHandler;
+import org.hiero.block.node.spi.blockmessaging.PersistedNotification;
+import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
+import org.hiero.block.node.spi.historicalblocks.BlockProviderPlugin;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+
+/**
+ * This plugin provides the "Segments Recent" block provider. It stores verified blocks in an append only
+ * {@link SegmentLog}, a directory of segment files each holding a contiguous range of blocks followed by a fixed width
+ * index. Compared to one file per block this avoids creating a file and directory entries for every block, and reading
+ * a block does not need to open a file. Like the files recent plugin it stores blocks until a lower priority plugin has
+ * persisted them, it then deletes whole segments once none of their blocks are needed.
+ * <p>
+ * Its priority sits between the files recent and files historic plugins. So it can replace the files recent plugin, or
+ * run alongside it, in which case the files recent plugin hands blocks over to the segment log once they are appended
+ * and the segment log keeps them until the files historic plugin has archived them.
+ * <p>
+ * Verified blocks are appended from the verification notification when it includes the block. Blocks staged by the
+ * files recent plugin are verified without the block being included, these are appended when a higher priority plugin
+ * notifies that it has persisted them, reading them back through the historical block facility. The segment log is
+ * append only, so a block older than the last stored block is rejected and left to other plugins, while a block that is
+ * already stored is notified as persisted again.
+ * <h2>Threading</h2>
+ * <ul>
+ *     <li><b>BlockProviderPlugin methods</b> - The init() and start() methods are called at startup only and only ever
+ *     by one thread at a time and before any listeners are called. The reading methods block() and availableBlocks()
+ *     can be called on any thread, reads from the segment log are thread safe.</li>
+ *     <li><b>BlockNotificationHandler methods</b> - These are always called on the same single dedicated thread for
+ *     this handler. All appending to and deleting from the segment log is done on this thread.</li>
+ * </ul>
+ */
+public final class BlocksSegmentsRecentPlugin implements BlockProviderPlugin, BlockNotificationHandler {
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The set of available blocks. */
+    private final ConcurrentLongRangeSet availableBlocks = new ConcurrentLongRangeSet();
+    /** The block node context. */
+    private BlockNodeContext context;
+    /** The configuration for this plugin. */
+    private SegmentsRecentConfig config;
+    /** The segment log blocks are stored in, null if it could not be opened. */
+    private SegmentLog segmentLog;
+
+    // ==== BlockProviderPlugin Methods ================================================================================
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public List<Class<? extends Record>> configDataTypes() {
+        return List.of(SegmentsRecentConfig.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void init(final BlockNodeContext context, final ServiceBuilder serviceBuilder) {
+        this.context = Objects.requireNonNull(context);
+        this.config = context.configuration().getConfigData(SegmentsRecentConfig.class);
+        try {
+            segmentLog = new SegmentLog(config.rootPath(), config.maxSegmentBytes(), config.syncOnAppend());
+        } catch (final IOException e) {
+            LOGGER.log(ERROR, "Could not open segment log", e);
+            context.serverHealth().shutdown(name(), "Could not open segment log");
+            return;
+        }
+        for (final LongRange range : segmentLog.storedRanges()) {
+            availableBlocks.add(range.start(), range.end());
+        }
+        // register to listen to block notifications
+        context.blockMessaging().registerBlockNotificationHandler(this, false, "BlocksSegmentsRecent");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop() {
+        if (segmentLog != null) {
+            segmentLog.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int defaultPriority() {
+        return 1_500;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * We only provide read access to verified blocks.
+     */
+    @Override
+    public BlockAccessor block(final long blockNumber) {
+        if (availableBlocks.contains(blockNumber)) {
+            final BlockAccessor accessor = segmentLog.read(blockNumber);
+            if (accessor == null) {
+                LOGGER.log(WARNING, "Failed to find block {0} in segment log", blockNumber);
+            }
+            return accessor;
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * We only provide read access to verified blocks, each segment in the range is looked up once.
+     */
+    @Override
+    public Stream<BlockAccessor> blocks(final long firstBlockNumber, final long lastBlockNumber) {
+        // only read up to the end of the verified range holding the first block
+        final Optional<LongRange> verifiedRange = availableBlocks
+                .streamRanges()
+                .filter(range -> range.contains(firstBlockNumber))
+                .findFirst();
+        if (verifiedRange.isEmpty()) {
+            return Stream.empty();
+        }
+        return segmentLog
+                .scan(firstBlockNumber, Math.min(lastBlockNumber, verifiedRange.get().end()))
+                .map(BlockAccessor.class::cast);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BlockRangeSet availableBlocks() {
+        return availableBlocks;
+    }
+
+    // ==== BlockNotificationHandler Methods ===========================================================================
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This method is called when a block verification notification is received. It is called on the block notification
+     * thread. Verified blocks are compressed and appended to the segment log, then a block persisted notification is
+     * sent. Blocks not included in the notification are appended once a higher priority plugin has persisted them.
+     */
+    @Override
+    public void handleVerification(VerificationNotification notification) {
+        if (!notification.success()) {
+            return;
+        }
+        final long blockNumber = notification.blockNumber();
+        if (notification.block() == null) {
+            // staged blocks are not included, they are appended when the plugin that staged them has persisted them
+            LOGGER.log(DEBUG, "Verified block {0} not included in notification, waiting until persisted", blockNumber);
+            return;
+        }
+        appendBlock(blockNumber, BlockUnparsed.PROTOBUF.toBytes(notification.block()).toByteArray());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This method is called when a block persisted notification is received. It is called on the block notification
+     * thread. When a higher priority plugin has persisted blocks newer than the last stored block, they are read back
+     * and appended, these are blocks that were verified without being included in the verification notification. When
+     * a lower priority plugin has persisted blocks we no longer need to provide them, and any segments with no blocks
+     * left to provide are deleted.
+     *
+     * @param notification the block persisted notification to handle
+     */
+    @Override
+    public void handlePersisted(PersistedNotification notification) {
+        if (notification.blockProviderPriority() > defaultPriority()) {
+            // blocks at or before the last stored block were appended from their verification notification already
+            for (long blockNumber = Math.max(notification.startBlockNumber(), segmentLog.lastBlockNumber() + 1);
+                    blockNumber <= notification.endBlockNumber();
+                    blockNumber++) {
+                final BlockAccessor accessor = context.historicalBlockProvider().block(blockNumber);
+                if (accessor == null) {
+                    LOGGER.log(WARNING, "Persisted block {0} could not be read, block will not be stored", blockNumber);
+                    continue;
+                }
+                appendBlock(blockNumber, accessor.blockBytes(Format.PROTOBUF).toByteArray());
+            }
+        } else if (notification.blockProviderPriority() < defaultPriority()) {
+            availableBlocks.remove(notification.startBlockNumber(), notification.endBlockNumber());
+            for (final LongRange deleted : segmentLog.deleteSegmentsNotIn(availableBlocks)) {
+                LOGGER.log(DEBUG, "Deleted segment with blocks [{0} -> {1}]", deleted.start(), deleted.end());
+            }
+        }
+    }
+
+    // ==== Private Methods ============================================================================================
+
+    /**
+     * Compress a verified block and append it to the segment log, then send a block persisted notification. Called on
+     * the block notification thread. A block that is already stored is notified as persisted again, so a block that is
+     * delivered again is acknowledged. The segment log is append only, so a block older than the last stored block is
+     * rejected and left to other plugins to store.
+     *
+     * @param blockNumber the block number
+     * @param protobufBytes the block serialized as protobuf
+     */
+    private void appendBlock(final long blockNumber, final byte[] protobufBytes) {
+        if (availableBlocks.contains(blockNumber)) {
+            LOGGER.log(DEBUG, "Block {0} is already stored", blockNumber);
+        } else if (blockNumber <= segmentLog.lastBlockNumber()) {
+            LOGGER.log(
+                    INFO,
+                    "Rejecting block {0}, the segment log is append only and already holds block {1}",
+                    blockNumber,
+                    segmentLog.lastBlockNumber());
+            return;
+        } else {
+            try {
+                segmentLog.append(blockNumber, config.compression().compress(protobufBytes), config.compression());
+            } catch (final IOException e) {
+                LOGGER.log(WARNING, "Failed to append block " + blockNumber + " to segment log", e);
+                return;
+            }
+            availableBlocks.add(blockNumber);
+        }
+        context.blockMessaging()
+                .sendBlockPersisted(new PersistedNotification(blockNumber, blockNumber, defaultPriority()));
+    }
+}
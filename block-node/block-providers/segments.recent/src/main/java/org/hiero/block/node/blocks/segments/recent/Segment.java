@@ -0,0 +1,360 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.segments.recent;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.CompressionType;
+
+/**
+ * A single segment of the segment log, a contiguous range of blocks stored in two files:
+ * <ul>
+ *     <li><b>Data file</b> - the stored bytes of each block, appended one after the other in block order.</li>
+ *     <li><b>Index file</b> - one fixed width entry per block, in block order, so the entry for a block is found at
+ *     {@code (blockNumber - firstBlockNumber) * INDEX_ENTRY_SIZE}. Each entry has the offset and length of the block in
+ *     the data file and the compression type of the stored bytes.</li>
+ * </ul>
+ * Both files are named after the first block number in the segment. The index entry for a block is written after its
+ * data, and when appending durably the data is synced before the index entry is written, so a crash can only leave
+ * data without an index entry, which is truncated when the segment is opened.
+ * <p>
+ * A segment is active while blocks are being appended to it, and read through its file channels. Once it is sealed both
+ * files are memory mapped read only and the channels closed, so reads are just a copy from the mapped buffer. Blocks
+ * are only ever appended on one thread, reads can happen on any thread.
+ */
+final class Segment {
+    /** The file extension of segment data files. */
+    static final String DATA_EXTENSION = ".seg";
+    /** The file extension of segment index files. */
+    static final String INDEX_EXTENSION = ".idx";
+    /** The size of an index entry, offset long, length int and compression type ordinal int. */
+    static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    /** The first block number in this segment. */
+    private final long firstBlockNumber;
+    /** The path of the data file. */
+    private final Path dataPath;
+    /** The path of the index file. */
+    private final Path indexPath;
+    /** The data file channel, closed once sealed. */
+    private final FileChannel dataChannel;
+    /** The index file channel, closed once sealed. */
+    private final FileChannel indexChannel;
+    /** Buffer for writing index entries, only used on the appending thread. */
+    private final ByteBuffer indexEntryBuffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+    /** The number of blocks in this segment, written after the block data and index entry so readers see both. */
+    private volatile long blockCount;
+    /** The size of the data file. */
+    private volatile long dataSize;
+    /** The memory mapped data file, null until sealed. */
+    private volatile MappedByteBuffer dataMap;
+    /** The memory mapped index file, null until sealed. */
+    private volatile MappedByteBuffer indexMap;
+
+    /**
+     * Create a segment object for files that have been opened.
+     *
+     * @param firstBlockNumber the first block number in the segment
+     * @param dataPath the path of the data file
+     * @param indexPath the path of the index file
+     * @param dataChannel the open data file channel
+     * @param indexChannel the open index file channel
+     * @param blockCount the number of blocks in the segment
+     * @param dataSize the size of the data file
+     */
+    private Segment(
+            final long firstBlockNumber,
+            final Path dataPath,
+            final Path indexPath,
+            final FileChannel dataChannel,
+            final FileChannel indexChannel,
+            final long blockCount,
+            final long dataSize) {
+        this.firstBlockNumber = firstBlockNumber;
+        this.dataPath = dataPath;
+        this.indexPath = indexPath;
+        this.dataChannel = dataChannel;
+        this.indexChannel = indexChannel;
+        this.blockCount = blockCount;
+        this.dataSize = dataSize;
+    }
+
+    /**
+     * Create a new empty segment.
+     *
+     * @param directory the directory to create the segment files in
+     * @param firstBlockNumber the first block number in the segment
+     * @return the new active segment
+     * @throws IOException if the files could not be created
+     */
+    static Segment create(@NonNull final Path directory, final long firstBlockNumber) throws IOException {
+        final String baseName = BlockFile.blockNumberFormated(firstBlockNumber);
+        final Path dataPath = directory.resolve(baseName + DATA_EXTENSION);
+        final Path indexPath = directory.resolve(baseName + INDEX_EXTENSION);
+        final FileChannel dataChannel = FileChannel.open(
+                dataPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final FileChannel indexChannel = FileChannel.open(
+                indexPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(firstBlockNumber, dataPath, indexPath, dataChannel, indexChannel, 0, 0);
+    }
+
+    /**
+     * Open an existing segment, truncating any index entries that point past the end of the data file and any data
+     * that is not indexed. These can be left by a crash while appending.
+     *
+     * @param dataPath the path of the data file, named after the first block number in the segment
+     * @return the opened segment, active so it can be appended to or sealed
+     * @throws IOException if the files could not be opened or truncated
+     */
+    static Segment open(@NonNull final Path dataPath) throws IOException {
+        final String fileName = dataPath.getFileName().toString();
+        final long firstBlockNumber =
+                Long.parseLong(fileName.substring(0, fileName.length() - DATA_EXTENSION.length()));
+        final Path indexPath = dataPath.resolveSibling(fileName.replace(DATA_EXTENSION, INDEX_EXTENSION));
+        final FileChannel dataChannel =
+                FileChannel.open(dataPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final FileChannel indexChannel = FileChannel.open(
+                indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final long dataFileSize = dataChannel.size();
+        long entries = indexChannel.size() / INDEX_ENTRY_SIZE;
+        long validDataSize = 0;
+        final ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        // walk back from the last entry to the last one that is complete and points inside the data file
+        while (entries > 0) {
+            entry.clear();
+            readFully(indexChannel, entry, (entries - 1) * INDEX_ENTRY_SIZE);
+            final long offset = entry.getLong(0);
+            final int length = entry.getInt(Long.BYTES);
+            final int compression = entry.getInt(Long.BYTES + Integer.BYTES);
+            if (offset >= 0
+                    && length >= 0
+                    && offset + length <= dataFileSize
+                    && compression >= 0
+                    && compression < CompressionType.values().length) {
+                validDataSize = offset + length;
+                break;
+            }
+            entries--;
+        }
+        indexChannel.truncate(entries * INDEX_ENTRY_SIZE);
+        dataChannel.truncate(validDataSize);
+        return new Segment(firstBlockNumber, dataPath, indexPath, dataChannel, indexChannel, entries, validDataSize);
+    }
+
+    /**
+     * Get the first block number in this segment.
+     *
+     * @return the first block number
+     */
+    long firstBlockNumber() {
+        return firstBlockNumber;
+    }
+
+    /**
+     * Get the last block number in this segment.
+     *
+     * @return the last block number, or one less than the first block number if the segment is empty
+     */
+    long lastBlockNumber() {
+        return firstBlockNumber + blockCount - 1;
+    }
+
+    /**
+     * Get the number of blocks in this segment.
+     *
+     * @return the number of blocks
+     */
+    long blockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Get the size of the data file.
+     *
+     * @return the size of the data file in bytes
+     */
+    long dataSize() {
+        return dataSize;
+    }
+
+    /**
+     * Append a block to the end of this segment. Must only be called on the appending thread, before the segment is
+     * sealed.
+     *
+     * @param blockNumber the block number, must be the next block number after the last in this segment
+     * @param storedBytes the bytes to store for the block
+     * @param compression the compression type of the stored bytes
+     * @param sync true to sync the data and then the index entry to disk before returning, so the block survives a
+     *             crash once this returns
+     * @throws IOException if the block could not be written
+     */
+    void append(
+            final long blockNumber,
+            @NonNull final byte[] storedBytes,
+            @NonNull final CompressionType compression,
+            final boolean sync)
+            throws IOException {
+        if (blockNumber != firstBlockNumber + blockCount) {
+            throw new IllegalArgumentException("Block " + blockNumber + " is not the next block in segment starting at "
+                    + firstBlockNumber + " with " + blockCount + " blocks");
+        }
+        final long offset = dataSize;
+        writeFully(dataChannel, ByteBuffer.wrap(storedBytes), offset);
+        if (sync) {
+            // the data must be on disk before an index entry pointing at it can be
+            dataChannel.force(true);
+        }
+        indexEntryBuffer.clear();
+        indexEntryBuffer.putLong(offset).putInt(storedBytes.length).putInt(compression.ordinal());
+        indexEntryBuffer.flip();
+        writeFully(indexChannel, indexEntryBuffer, blockCount * INDEX_ENTRY_SIZE);
+        if (sync) {
+            indexChannel.force(true);
+        }
+        dataSize = offset + storedBytes.length;
+        blockCount = blockCount + 1;
+    }
+
+    /**
+     * Seal this segment, no more blocks can be appended. The files are memory mapped and the channels closed.
+     *
+     * @throws IOException if the files could not be mapped
+     */
+    void seal() throws IOException {
+        if (dataMap != null) {
+            return;
+        }
+        // map the index first, so a reader that sees the data map can always use the index map as well
+        indexMap = indexChannel.map(MapMode.READ_ONLY, 0, blockCount * INDEX_ENTRY_SIZE);
+        dataMap = dataChannel.map(MapMode.READ_ONLY, 0, dataSize);
+        close();
+    }
+
+    /**
+     * Check if this segment is sealed.
+     *
+     * @return true if sealed
+     */
+    boolean isSealed() {
+        return dataMap != null;
+    }
+
+    /**
+     * Read a block from this segment.
+     *
+     * @param blockNumber the block number to read
+     * @return an accessor for the block, or null if the block is not in this segment
+     * @throws IOException if the block could not be read
+     */
+    SegmentBlockAccessor read(final long blockNumber) throws IOException {
+        final long index = blockNumber - firstBlockNumber;
+        if (index < 0 || index >= blockCount) {
+            return null;
+        }
+        final ByteBuffer entry = readBytes(indexMap, indexChannel, index * INDEX_ENTRY_SIZE, INDEX_ENTRY_SIZE);
+        final long offset = entry.getLong(0);
+        final int length = entry.getInt(Long.BYTES);
+        final CompressionType compression = CompressionType.values()[entry.getInt(Long.BYTES + Integer.BYTES)];
+        final ByteBuffer data = readBytes(dataMap, dataChannel, offset, length);
+        return new SegmentBlockAccessor(blockNumber, data.array(), compression);
+    }
+
+    /**
+     * Close the file channels, if the segment is not sealed it can not be read or appended to after this.
+     *
+     * @throws IOException if the channels could not be closed
+     */
+    void close() throws IOException {
+        dataChannel.close();
+        indexChannel.close();
+    }
+
+    /**
+     * Close and delete the segment files. Sealed segments can still be read by any reader that already has a reference
+     * to the mapped buffers.
+     *
+     * @throws IOException if the files could not be deleted
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(indexPath);
+        Files.deleteIfExists(dataPath);
+    }
+
+    /**
+     * Read bytes from the mapped buffer if the segment is sealed, or the channel if not. Handles the segment being
+     * sealed, and the channel closed, during the read.
+     *
+     * @param map the mapped buffer field value, read before calling
+     * @param channel the channel to read from if not sealed
+     * @param position the position to read from
+     * @param length the number of bytes to read
+     * @return a heap buffer containing the bytes read
+     * @throws IOException if the bytes could not be read
+     */
+    private ByteBuffer readBytes(
+            final MappedByteBuffer map, final FileChannel channel, final long position, final int length)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        if (map != null) {
+            buffer.put(0, map, (int) position, length);
+            return buffer;
+        }
+        try {
+            readFully(channel, buffer, position);
+            return buffer;
+        } catch (final ClosedChannelException e) {
+            // sealed while reading, the mapped buffers are set before the channels are closed
+            final MappedByteBuffer sealedMap = channel == dataChannel ? dataMap : indexMap;
+            if (sealedMap == null) {
+                throw e;
+            }
+            buffer.clear();
+            buffer.put(0, sealedMap, (int) position, length);
+            return buffer;
+        }
+    }
+
+    /**
+     * Read from a channel at a position until the buffer is full.
+     *
+     * @param channel the channel to read from
+     * @param buffer the buffer to fill
+     * @param position the position to start reading from
+     * @throws IOException if the channel could not be read or ended before the buffer was filled
+     */
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long readPosition = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, readPosition);
+            if (read < 0) {
+                throw new IOException("Unexpected end of segment file at position " + readPosition);
+            }
+            readPosition += read;
+        }
+    }
+
+    /**
+     * Write a buffer to a channel at a position.
+     *
+     * @param channel the channel to write to
+     * @param buffer the buffer to write
+     * @param position the position to start writing at
+     * @throws IOException if the channel could not be written
+     */
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long writePosition = position;
+        while (buffer.hasRemaining()) {
+            writePosition += channel.write(buffer, writePosition);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.segments.recent;
+
+import static java.lang.System.Logger.Level.ERROR;
+
+import com.hedera.hapi.block.stream.Block;
+import com.hedera.pbj.runtime.ParseException;
+import com.hedera.pbj.runtime.UncheckedParseException;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+
+/**
+ * A block read from a segment. The stored bytes have already been copied out of the segment, so the accessor stays
+ * valid even if the segment is deleted.
+ */
+final class SegmentBlockAccessor implements BlockAccessor {
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The block number. */
+    private final long blockNumber;
+    /** The bytes of the block as stored in the segment, protobuf compressed with the compression type. */
+    private final byte[] storedBytes;
+    /** The compression type of the stored bytes. */
+    private final CompressionType compressionType;
+
+    /**
+     * Constructs a SegmentBlockAccessor.
+     *
+     * @param blockNumber the block number
+     * @param storedBytes the bytes of the block as stored in the segment
+     * @param compressionType the compression type of the stored bytes
+     */
+    SegmentBlockAccessor(
+            final long blockNumber, @NonNull final byte[] storedBytes, @NonNull final CompressionType compressionType) {
+        this.blockNumber = blockNumber;
+        this.storedBytes = Objects.requireNonNull(storedBytes);
+        this.compressionType = Objects.requireNonNull(compressionType);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long blockNumber() {
+        return blockNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Block block() {
+        try {
+            return Block.PROTOBUF.parse(blockBytes(Format.PROTOBUF));
+        } catch (final ParseException e) {
+            LOGGER.log(ERROR, "Failed to parse block " + blockNumber, e);
+            throw new UncheckedParseException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BlockUnparsed blockUnparsed() {
+        try {
+            return BlockUnparsed.PROTOBUF.parse(blockBytes(Format.PROTOBUF));
+        } catch (final ParseException e) {
+            LOGGER.log(ERROR, "Failed to parse block " + blockNumber, e);
+            throw new UncheckedParseException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Bytes blockBytes(@NonNull final Format format) throws IllegalArgumentException {
+        Objects.requireNonNull(format);
+        return switch (format) {
+            case JSON -> Block.JSON.toBytes(block());
+            case PROTOBUF -> Bytes.wrap(decompress());
+            case ZSTD_PROTOBUF ->
+                // if the block is stored with ZSTD compression then we simply need to return the stored bytes
+                compressionType == CompressionType.ZSTD
+                        ? Bytes.wrap(storedBytes)
+                        : Bytes.wrap(CompressionType.ZSTD.compress(decompress()));
+        };
+    }
+
+    /**
+     * Decompress the stored bytes.
+     *
+     * @return the protobuf bytes of the block
+     */
+    private byte[] decompress() {
+        if (compressionType == CompressionType.NONE) {
+            return storedBytes;
+        }
+        try (final InputStream in = compressionType.wrapStream(new ByteArrayInputStream(storedBytes))) {
+            return in.readAllBytes();
+        } catch (final IOException e) {
+            LOGGER.log(ERROR, "Failed to decompress block " + blockNumber, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.segments.recent;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.hiero.block.common.utils.FileUtilities;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+
+/**
+ * An append only log of blocks, stored in a directory of {@link Segment}s. Blocks are appended to the single active
+ * segment, which is sealed and replaced with a new one when it reaches the maximum size or the next block appended is
+ * not the next block number after the last in the segment. So every segment holds a contiguous range of blocks and the
+ * segments are keyed by their first block number, finding the segment for a block is a floor lookup and finding the
+ * block in the segment is a single index entry read.
+ * <p>
+ * When syncing on append, each block is on disk when {@link #append} returns, and new segment files are synced into the
+ * directory when they are created, so appended blocks survive a crash.
+ * <p>
+ * Appending and deleting must only be done on one thread, reading can be done on any thread.
+ */
+final class SegmentLog implements AutoCloseable {
+    /** The logger for this class. */
+    private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The directory containing the segment files. */
+    private final Path directory;
+    /** The maximum size of a segment data file. */
+    private final long maxSegmentBytes;
+    /** True if each appended block is synced to disk before append returns. */
+    private final boolean syncOnAppend;
+    /** All segments, keyed by first block number. */
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    /** The segment blocks are appended to, null if there is none yet. */
+    private Segment activeSegment;
+
+    /**
+     * Open the segment log in a directory, creating the directory if needed. All existing segments are recovered and
+     * all but the last are sealed. The last is left active so appending can carry on where it left off.
+     *
+     * @param directory the directory containing the segment files
+     * @param maxSegmentBytes the maximum size of a segment data file
+     * @param syncOnAppend true to sync each appended block to disk before append returns
+     * @throws IOException if the directory could not be created or the segments could not be opened
+     */
+    SegmentLog(@NonNull final Path directory, final long maxSegmentBytes, final boolean syncOnAppend)
+            throws IOException {
+        this.directory = Objects.requireNonNull(directory);
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.syncOnAppend = syncOnAppend;
+        Files.createDirectories(directory);
+        final List<Path> dataFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            dataFiles = files.filter(path -> path.getFileName().toString().endsWith(Segment.DATA_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+        for (final Path dataFile : dataFiles) {
+            final Segment segment = Segment.open(dataFile);
+            if (segment.blockCount() == 0) {
+                // nothing was committed to this segment before it was closed
+                LOGGER.log(DEBUG, "Deleting empty segment: {0}", dataFile);
+                segment.delete();
+                continue;
+            }
+            if (activeSegment != null) {
+                activeSegment.seal();
+            }
+            segments.put(segment.firstBlockNumber(), segment);
+            activeSegment = segment;
+        }
+    }
+
+    /**
+     * Get the ranges of blocks stored in the log, one per segment, in block order.
+     *
+     * @return the stored ranges
+     */
+    List<LongRange> storedRanges() {
+        final List<LongRange> ranges = new ArrayList<>();
+        for (final Segment segment : segments.values()) {
+            if (segment.blockCount() > 0) {
+                ranges.add(new LongRange(segment.firstBlockNumber(), segment.lastBlockNumber()));
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Get the last block number appended to the log.
+     *
+     * @return the last block number, or -1 if the log is empty
+     */
+    long lastBlockNumber() {
+        return activeSegment == null ? -1 : activeSegment.lastBlockNumber();
+    }
+
+    /**
+     * Append a block to the log, rolling to a new segment if the block does not follow on from the active segment or
+     * would make it too large. When syncing on append the block is on disk when this returns.
+     *
+     * @param blockNumber the block number, must be greater than the last block number in the log
+     * @param storedBytes the bytes to store for the block
+     * @param compression the compression type of the stored bytes
+     * @throws IOException if the block could not be written
+     */
+    void append(final long blockNumber, @NonNull final byte[] storedBytes, @NonNull final CompressionType compression)
+            throws IOException {
+        if (blockNumber <= lastBlockNumber()) {
+            throw new IllegalArgumentException(
+                    "Block " + blockNumber + " is not after the last block in the log " + lastBlockNumber());
+        }
+        if (activeSegment == null
+                || blockNumber != activeSegment.lastBlockNumber() + 1
+                || (activeSegment.blockCount() > 0
+                        && activeSegment.dataSize() + storedBytes.length > maxSegmentBytes)) {
+            roll(blockNumber);
+        }
+        activeSegment.append(blockNumber, storedBytes, compression, syncOnAppend);
+    }
+
+    /**
+     * Read a block from the log.
+     *
+     * @param blockNumber the block number to read
+     * @return an accessor for the block, or null if it is not stored
+     */
+    SegmentBlockAccessor read(final long blockNumber) {
+        final Map.Entry<Long, Segment> entry = segments.floorEntry(blockNumber);
+        return entry == null ? null : read(entry.getValue(), blockNumber);
+    }
+
+    /**
+     * Read a block from a segment, logging rather than throwing on failure.
+     *
+     * @param segment the segment to read from
+     * @param blockNumber the block number to read
+     * @return an accessor for the block, or null if it is not in the segment or could not be read
+     */
+    private SegmentBlockAccessor read(final Segment segment, final long blockNumber) {
+        try {
+            return segment.read(blockNumber);
+        } catch (final IOException e) {
+            LOGGER.log(WARNING, "Failed to read block " + blockNumber + " from segment log", e);
+            return null;
+        }
+    }
+
+    /**
+     * Scan blocks in block order, ending at the first block that is not stored. Each segment in the range is looked up
+     * once and blocks are read lazily as the stream is consumed, so consecutive blocks are read sequentially from the
+     * same segment.
+     *
+     * @param startBlockNumber the first block number, inclusive
+     * @param endBlockNumber the last block number, inclusive
+     * @return a sequential stream of the stored blocks in the range, up to the first block that is not stored
+     */
+    Stream<SegmentBlockAccessor> scan(final long startBlockNumber, final long endBlockNumber) {
+        if (startBlockNumber > endBlockNumber) {
+            return Stream.empty();
+        }
+        final Long firstSegmentKey = segments.floorKey(startBlockNumber);
+        // the block number expected next, so a gap between segments also ends the scan
+        final long[] nextBlockNumber = {startBlockNumber};
+        return segments
+                .subMap(firstSegmentKey == null ? startBlockNumber : firstSegmentKey, true, endBlockNumber, true)
+                .values()
+                .stream()
+                .flatMap(segment -> LongStream.rangeClosed(
+                                Math.max(startBlockNumber, segment.firstBlockNumber()),
+                                Math.min(endBlockNumber, segment.lastBlockNumber()))
+                        .mapToObj(blockNumber -> read(segment, blockNumber)))
+                .takeWhile(accessor -> accessor != null && accessor.blockNumber() == nextBlockNumber[0]++);
+    }
+
+    /**
+     * Delete every sealed segment that has no blocks in the given set of blocks to keep. The active segment is never
+     * deleted.
+     *
+     * @param blocksToKeep the blocks that must be kept
+     * @return the ranges of blocks deleted
+     */
+    List<LongRange> deleteSegmentsNotIn(@NonNull final BlockRangeSet blocksToKeep) {
+        final List<LongRange> deleted = new ArrayList<>();
+        for (final Segment segment : segments.values()) {
+            if (segment == activeSegment || !segment.isSealed()) {
+                continue;
+            }
+            final LongRange segmentRange = new LongRange(segment.firstBlockNumber(), segment.lastBlockNumber());
+            if (blocksToKeep.streamRanges().noneMatch(segmentRange::overlaps)) {
+                // remove from the map first so no new reads start on the segment
+                segments.remove(segment.firstBlockNumber());
+                try {
+                    segment.delete();
+                    deleted.add(segmentRange);
+                } catch (final IOException e) {
+                    LOGGER.log(WARNING, "Failed to delete segment starting at block " + segmentRange.start(), e);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Close the log, sealing is not needed as the active segment is recovered when the log is next opened.
+     */
+    @Override
+    public void close() {
+        for (final Segment segment : segments.values()) {
+            try {
+                segment.close();
+            } catch (final IOException e) {
+                LOGGER.log(WARNING, "Failed to close segment starting at block " + segment.firstBlockNumber(), e);
+            }
+        }
+    }
+
+    /**
+     * Seal the active segment, deleting it if it is empty, and start a new active segment.
+     *
+     * @param firstBlockNumber the first block number of the new segment
+     * @throws IOException if the segments could not be sealed or created
+     */
+    private void roll(final long firstBlockNumber) throws IOException {
+        final Segment newSegment = Segment.create(directory, firstBlockNumber);
+        if (syncOnAppend) {
+            // make the new segment files durable, so blocks synced into them can be found after a crash
+            FileUtilities.forceDirectory(directory);
+        }
+        final Segment previousSegment = activeSegment;
+        segments.put(firstBlockNumber, newSegment);
+        activeSegment = newSegment;
+        if (previousSegment != null) {
+            if (previousSegment.blockCount() == 0) {
+                segments.remove(previousSegment.firstBlockNumber());
+                previousSegment.delete();
+            } else {
+                previousSegment.seal();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.segments.recent;
+
+import com.swirlds.config.api.ConfigData;
+import com.swirlds.config.api.ConfigProperty;
+import java.nio.file.Path;
+import java.util.Objects;
+import org.hiero.block.common.utils.Preconditions;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.Loggable;
+
+/**
+ * Use this configuration across the segments recent plugin.
+ *
+ * @param rootPath provides the root path for the segment files
+ * @param compression compression type used for newly stored blocks. Each stored block records its own compression type
+ *                    so this can be changed while a node has existing segments.
+ * @param maxSegmentBytes the maximum size of a segment data file in bytes. A new segment is started when appending a
+ *                    block would make the active segment larger than this. Sealed segments are memory mapped, so this
+ *                    is limited to the size of a single mapped buffer.
+ * @param syncOnAppend when true each block is synced to disk as it is appended, before its block persisted notification
+ *                    is sent, so a crash never loses a block other plugins were told is persisted. Disabling this
+ *                    trades that guarantee for faster appends.
+ */
+@ConfigData("segments.recent")
+public record SegmentsRecentConfig(
+        @Loggable @ConfigProperty(defaultValue = "/opt/hashgraph/blocknode/data/segments") Path rootPath,
+        @Loggable @ConfigProperty(defaultValue = "ZSTD") CompressionType compression,
+        @Loggable @ConfigProperty(defaultValue = "268435456") int maxSegmentBytes,
+        @Loggable @ConfigProperty(defaultValue = "true") boolean syncOnAppend) {
+    /**
+     * Constructor.
+     */
+    public SegmentsRecentConfig {
+        Objects.requireNonNull(rootPath);
+        Objects.requireNonNull(compression);
+        Preconditions.requirePositive(maxSegmentBytes);
+    }
+}
@@ -0,0 +1,275 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.segments.recent;
+
+import static org.hiero.block.node.app.fixtures.blocks.BlockItemUtils.toBlockItemsUnparsed;
+import static org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilder.createNumberOfVerySimpleBlocks;
+import static org.hiero.block.node.spi.BlockNodePlugin.UNKNOWN_BLOCK_NUMBER;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hedera.hapi.block.stream.Block;
+import com.hedera.hapi.block.stream.BlockItem;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.hiero.block.internal.BlockUnparsed;
+import org.hiero.block.node.app.HistoricalBlockFacilityImpl;
+import org.hiero.block.node.app.fixtures.plugintest.PluginTestBase;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
+import org.hiero.block.node.spi.blockmessaging.PersistedNotification;
+import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
+import org.hiero.block.node.spi.historicalblocks.BlockProviderPlugin;
+import org.hiero.block.node.spi.historicalblocks.BlockRangeSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Complete plugin test for the {@link BlocksSegmentsRecentPlugin} plugin. Segments are stored in a real temporary
+ * directory as sealed segments are memory mapped.
+ */
+@DisplayName("BlocksSegmentsRecentPlugin Tests")
+class BlocksSegmentsRecentPluginTest extends PluginTestBase<BlocksSegmentsRecentPlugin> {
+    /** The directory for the segment files. */
+    private final Path segmentsDir;
+    /** A higher priority provider holding blocks staged before they were verified, like the files recent plugin. */
+    private final StagedBlocksProvider stagedBlocks = new StagedBlocksProvider();
+
+    /**
+     * Start the plugin with a maximum segment size of one byte, so every block is stored in its own segment.
+     *
+     * @throws IOException if the temporary directory could not be created
+     */
+    BlocksSegmentsRecentPluginTest() throws IOException {
+        segmentsDir = Files.createTempDirectory("segments-recent-test");
+        final BlocksSegmentsRecentPlugin segmentsPlugin = new BlocksSegmentsRecentPlugin();
+        start(
+                segmentsPlugin,
+                new HistoricalBlockFacilityImpl(List.of(segmentsPlugin, stagedBlocks)),
+                Map.of(
+                        "segments.recent.rootPath", segmentsDir.toString(),
+                        "segments.recent.maxSegmentBytes", "1"));
+    }
+
+    /**
+     * Stop the plugin and delete the temporary directory.
+     *
+     * @throws IOException if the directory could not be deleted
+     */
+    @AfterEach
+    void deleteSegmentsDir() throws IOException {
+        plugin.stop();
+        try (Stream<Path> paths = Files.walk(segmentsDir)) {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Send a verified block notification for a simple block.
+     *
+     * @param blockNumber the block number
+     * @return the block items of the block
+     */
+    private BlockItem[] sendVerifiedBlock(final long blockNumber) {
+        final BlockItem[] blockItems = createNumberOfVerySimpleBlocks(blockNumber, blockNumber);
+        blockMessaging.sendBlockVerification(new VerificationNotification(
+                true, blockNumber, Bytes.EMPTY, new BlockUnparsed(toBlockItemsUnparsed(blockItems))));
+        return blockItems;
+    }
+
+    /**
+     * Count the segment data files.
+     *
+     * @return the number of segment data files
+     */
+    private long segmentCount() {
+        try (Stream<Path> files = Files.list(segmentsDir)) {
+            return files.filter(path -> path.toString().endsWith(Segment.DATA_EXTENSION))
+                    .count();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Test
+    @DisplayName("Test verified blocks are stored, read back and notified as persisted")
+    void testStoreAndReadBack() {
+        assertNull(plugin.block(0));
+        assertEquals(UNKNOWN_BLOCK_NUMBER, plugin.availableBlocks().max());
+        final BlockItem[] blockItems = sendVerifiedBlock(0);
+        assertArrayEquals(blockItems, plugin.block(0).block().items().toArray());
+        assertEquals(
+                blockItems.length,
+                plugin.block(0).blockUnparsed().blockItems().size());
+        // blocks are stored with ZSTD by default so the compressed bytes are returned as stored
+        assertArrayEquals(
+                CompressionType.ZSTD.compress(
+                        plugin.block(0).blockBytes(Format.PROTOBUF).toByteArray()),
+                plugin.block(0).blockBytes(Format.ZSTD_PROTOBUF).toByteArray());
+        assertEquals(0, plugin.availableBlocks().min());
+        assertEquals(0, plugin.availableBlocks().max());
+        assertEquals(0, blockNodeContext.historicalBlockProvider().availableBlocks().max());
+        assertEquals(
+                List.of(new PersistedNotification(0, 0, plugin.defaultPriority())),
+                blockMessaging.getSentPersistedNotifications());
+    }
+
+    @Test
+    @DisplayName("Test failed verification and blocks older than the last stored block are not stored")
+    void testNotStored() {
+        blockMessaging.sendBlockVerification(new VerificationNotification(
+                false,
+                0,
+                Bytes.EMPTY,
+                new BlockUnparsed(toBlockItemsUnparsed(createNumberOfVerySimpleBlocks(0, 0)))));
+        assertNull(plugin.block(0));
+        sendVerifiedBlock(5);
+        sendVerifiedBlock(3);
+        assertNull(plugin.block(3));
+        assertTrue(plugin.availableBlocks().contains(5));
+        assertFalse(plugin.availableBlocks().contains(3));
+        assertEquals(1, blockMessaging.getSentPersistedNotifications().size());
+    }
+
+    @Test
+    @DisplayName("Test reading a range returns the verified blocks in order up to the first missing block")
+    void testBlocksRange() {
+        for (long blockNumber = 0; blockNumber < 5; blockNumber++) {
+            sendVerifiedBlock(blockNumber);
+        }
+        sendVerifiedBlock(7);
+        try (Stream<BlockAccessor> blocks = plugin.blocks(1, 9)) {
+            assertEquals(
+                    List.of(1L, 2L, 3L, 4L),
+                    blocks.map(BlockAccessor::blockNumber).toList());
+        }
+        try (Stream<BlockAccessor> blocks = plugin.blocks(7, 9)) {
+            assertEquals(List.of(7L), blocks.map(BlockAccessor::blockNumber).toList());
+        }
+        try (Stream<BlockAccessor> blocks = plugin.blocks(5, 9)) {
+            assertEquals(0, blocks.count());
+        }
+    }
+
+    @SuppressWarnings("DataFlowIssue")
+    @Test
+    @DisplayName("Test segments are deleted once a lower priority plugin has persisted their blocks")
+    void testRetention() {
+        for (long blockNumber = 0; blockNumber < 5; blockNumber++) {
+            sendVerifiedBlock(blockNumber);
+        }
+        assertEquals(5, segmentCount());
+        // a higher priority plugin persisting blocks does not change anything
+        blockMessaging.sendBlockPersisted(new PersistedNotification(0, 4, plugin.defaultPriority() + 1));
+        assertTrue(plugin.availableBlocks().contains(0, 4));
+        assertEquals(5, segmentCount());
+        // a lower priority plugin persisting blocks means they are no longer needed
+        blockMessaging.sendBlockPersisted(new PersistedNotification(0, 2, plugin.defaultPriority() - 1));
+        assertFalse(plugin.availableBlocks().contains(0));
+        assertFalse(plugin.availableBlocks().contains(2));
+        assertNull(plugin.block(1));
+        assertEquals(2, segmentCount());
+        assertEquals(3, plugin.block(3).blockNumber());
+        assertEquals(4, plugin.block(4).blockNumber());
+    }
+
+    @Test
+    @DisplayName("Test blocks verified without the block included are stored once a higher priority plugin has them")
+    void testStagedBlocksStoredWhenPersisted() {
+        sendVerifiedBlock(0);
+        final BlockItem[] blockItems = createNumberOfVerySimpleBlocks(1, 1);
+        stagedBlocks.store(1, blockItems);
+        blockMessaging.sendBlockVerification(new VerificationNotification(true, 1, Bytes.EMPTY, null));
+        assertFalse(plugin.availableBlocks().contains(1));
+        // the staging plugin persisting the block means it can be read back and stored
+        blockMessaging.sendBlockPersisted(new PersistedNotification(0, 1, stagedBlocks.defaultPriority()));
+        assertTrue(plugin.availableBlocks().contains(1));
+        assertArrayEquals(blockItems, plugin.block(1).block().items().toArray());
+        assertEquals(
+                List.of(
+                        new PersistedNotification(0, 0, plugin.defaultPriority()),
+                        new PersistedNotification(1, 1, plugin.defaultPriority())),
+                blockMessaging.getSentPersistedNotifications().stream()
+                        .filter(notification -> notification.blockProviderPriority() == plugin.defaultPriority())
+                        .toList());
+    }
+
+    @Test
+    @DisplayName("Test a block delivered again is notified as persisted again without being stored twice")
+    void testDuplicateBlockNotifiedAgain() {
+        sendVerifiedBlock(0);
+        sendVerifiedBlock(0);
+        assertEquals(1, segmentCount());
+        assertEquals(
+                List.of(
+                        new PersistedNotification(0, 0, plugin.defaultPriority()),
+                        new PersistedNotification(0, 0, plugin.defaultPriority())),
+                blockMessaging.getSentPersistedNotifications());
+    }
+
+    /**
+     * An in memory block provider with a higher priority than the segments recent plugin, standing in for a plugin that
+     * stages blocks before they are verified.
+     */
+    private static final class StagedBlocksProvider implements BlockProviderPlugin {
+        /** The stored blocks by block number. */
+        private final Map<Long, Block> blocks = new ConcurrentHashMap<>();
+        /** The set of available blocks. */
+        private final ConcurrentLongRangeSet availableBlocks = new ConcurrentLongRangeSet();
+
+        /**
+         * Store a block.
+         *
+         * @param blockNumber the block number
+         * @param blockItems the block items of the block
+         */
+        void store(final long blockNumber, final BlockItem[] blockItems) {
+            blocks.put(blockNumber, new Block(List.of(blockItems)));
+            availableBlocks.add(blockNumber);
+        }
+
+        @Override
+        public int defaultPriority() {
+            return 2_000;
+        }
+
+        @Override
+        public BlockAccessor block(final long blockNumber) {
+            final Block block = blocks.get(blockNumber);
+            return block == null
+                    ? null
+                    : new BlockAccessor() {
+                        @Override
+                        public long blockNumber() {
+                            return blockNumber;
+                        }
+
+                        @Override
+                        public Block block() {
+                            return block;
+                        }
+                    };
+        }
+
+        @Override
+        public BlockRangeSet availableBlocks() {
+            return availableBlocks;
+        }
+    }
+}
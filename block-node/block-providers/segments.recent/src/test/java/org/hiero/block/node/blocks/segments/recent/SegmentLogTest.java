@@ -0,0 +1,212 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.blocks.segments.recent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hiero.block.node.base.BlockFile;
+import org.hiero.block.node.base.CompressionType;
+import org.hiero.block.node.base.ranges.ConcurrentLongRangeSet;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
+import org.hiero.block.node.spi.historicalblocks.LongRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link SegmentLog} and {@link Segment}. These use a real temporary directory as sealed segments are
+ * memory mapped, which the in memory test file system does not support.
+ */
+class SegmentLogTest {
+    /** The directory for the segment files. */
+    @TempDir
+    private Path segmentsDir;
+
+    /**
+     * Create the stored bytes for a block, uncompressed so they can be compared directly.
+     *
+     * @param blockNumber the block number
+     * @return the bytes to store
+     */
+    private static byte[] blockBytes(final long blockNumber) {
+        return ("block-" + blockNumber).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check a block can be read from the log with the expected bytes.
+     *
+     * @param log the segment log
+     * @param blockNumber the block number
+     */
+    private static void assertBlockStored(final SegmentLog log, final long blockNumber) {
+        final SegmentBlockAccessor accessor = log.read(blockNumber);
+        assertNotNull(accessor, "Block " + blockNumber + " should be stored");
+        assertEquals(blockNumber, accessor.blockNumber());
+        assertArrayEquals(
+                blockBytes(blockNumber), accessor.blockBytes(Format.PROTOBUF).toByteArray());
+    }
+
+    /**
+     * List the segment data files in the segments directory.
+     *
+     * @return the data files in sorted order
+     * @throws IOException if the directory could not be listed
+     */
+    private List<Path> dataFiles() throws IOException {
+        try (Stream<Path> files = Files.list(segmentsDir)) {
+            return files.filter(path -> path.toString().endsWith(Segment.DATA_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Test appended blocks can be read back, before and after the segment is sealed")
+    void testAppendAndRead() throws IOException {
+        try (SegmentLog log = new SegmentLog(segmentsDir, 1024, true)) {
+            assertEquals(-1, log.lastBlockNumber());
+            assertNull(log.read(0));
+            for (long blockNumber = 0; blockNumber < 10; blockNumber++) {
+                log.append(blockNumber, blockBytes(blockNumber), CompressionType.NONE);
+                assertBlockStored(log, blockNumber);
+            }
+            assertEquals(9, log.lastBlockNumber());
+            assertNull(log.read(10));
+            assertEquals(List.of(new LongRange(0, 9)), log.storedRanges());
+        }
+    }
+
+    @Test
+    @DisplayName("Test blocks are compressed and decompressed with their stored compression type")
+    void testCompressedBlocks() throws IOException {
+        try (SegmentLog log = new SegmentLog(segmentsDir, 1024, true)) {
+            log.append(0, CompressionType.ZSTD.compress(blockBytes(0)), CompressionType.ZSTD);
+            log.append(1, blockBytes(1), CompressionType.NONE);
+            assertBlockStored(log, 0);
+            assertBlockStored(log, 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Test segments roll when full and when there is a gap in block numbers")
+    void testRolling() throws IOException {
+        // each block is 7 bytes, so three blocks fit in a segment
+        try (SegmentLog log = new SegmentLog(segmentsDir, 21, true)) {
+            for (long blockNumber = 0; blockNumber < 5; blockNumber++) {
+                log.append(blockNumber, blockBytes(blockNumber), CompressionType.NONE);
+            }
+            log.append(8, blockBytes(8), CompressionType.NONE);
+            assertEquals(
+                    List.of(new LongRange(0, 2), new LongRange(3, 4), new LongRange(8, 8)), log.storedRanges());
+            assertEquals(3, dataFiles().size());
+            assertEquals(
+                    BlockFile.blockNumberFormated(3) + Segment.DATA_EXTENSION,
+                    dataFiles().get(1).getFileName().toString());
+            for (final long blockNumber : new long[] {0, 1, 2, 3, 4, 8}) {
+                assertBlockStored(log, blockNumber);
+            }
+            assertNull(log.read(5));
+            assertNull(log.read(7));
+            assertThrows(IllegalArgumentException.class, () -> log.append(8, blockBytes(8), CompressionType.NONE));
+        }
+    }
+
+    @Test
+    @DisplayName("Test scanning a range returns the stored blocks in order up to the first missing block")
+    void testScan() throws IOException {
+        try (SegmentLog log = new SegmentLog(segmentsDir, 21, true)) {
+            for (long blockNumber = 0; blockNumber < 5; blockNumber++) {
+                log.append(blockNumber, blockBytes(blockNumber), CompressionType.NONE);
+            }
+            log.append(7, blockBytes(7), CompressionType.NONE);
+            // the blocks span more than one segment and the scan ends at the gap before block 7
+            assertEquals(
+                    List.of(1L, 2L, 3L, 4L),
+                    log.scan(1, 9).map(SegmentBlockAccessor::blockNumber).toList());
+            assertEquals(List.of(7L), log.scan(7, 9).map(SegmentBlockAccessor::blockNumber).toList());
+            assertEquals(List.of(), log.scan(5, 9).toList());
+            assertEquals(List.of(), log.scan(9, 2).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Test reopening the log finds all stored blocks and appends carry on from the last block")
+    void testReopen() throws IOException {
+        try (SegmentLog log = new SegmentLog(segmentsDir, 21, true)) {
+            for (long blockNumber = 0; blockNumber < 5; blockNumber++) {
+                log.append(blockNumber, blockBytes(blockNumber), CompressionType.NONE);
+            }
+        }
+        try (SegmentLog log = new SegmentLog(segmentsDir, 21, true)) {
+            assertEquals(List.of(new LongRange(0, 2), new LongRange(3, 4)), log.storedRanges());
+            assertEquals(4, log.lastBlockNumber());
+            log.append(5, blockBytes(5), CompressionType.NONE);
+            assertEquals(List.of(new LongRange(0, 2), new LongRange(3, 5)), log.storedRanges());
+            for (long blockNumber = 0; blockNumber <= 5; blockNumber++) {
+                assertBlockStored(log, blockNumber);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test a torn write at the end of the active segment is truncated on open")
+    void testRecoverTornWrite() throws IOException {
+        try (SegmentLog log = new SegmentLog(segmentsDir, 1024, true)) {
+            for (long blockNumber = 0; blockNumber < 3; blockNumber++) {
+                log.append(blockNumber, blockBytes(blockNumber), CompressionType.NONE);
+            }
+        }
+        final Path dataFile = dataFiles().getFirst();
+        final Path indexFile = dataFile.resolveSibling(
+                dataFile.getFileName().toString().replace(Segment.DATA_EXTENSION, Segment.INDEX_EXTENSION));
+        // cut the last block short, and leave half an index entry after it
+        try (FileChannel data = FileChannel.open(dataFile, StandardOpenOption.WRITE)) {
+            data.truncate(data.size() - 2);
+        }
+        Files.write(indexFile, new byte[Segment.INDEX_ENTRY_SIZE / 2], StandardOpenOption.APPEND);
+        try (SegmentLog log = new SegmentLog(segmentsDir, 1024, true)) {
+            assertEquals(List.of(new LongRange(0, 1)), log.storedRanges());
+            assertBlockStored(log, 0);
+            assertBlockStored(log, 1);
+            assertNull(log.read(2));
+            // the lost block can be stored again
+            log.append(2, blockBytes(2), CompressionType.NONE);
+            assertBlockStored(log, 2);
+        }
+        assertEquals(3L * Segment.INDEX_ENTRY_SIZE, Files.size(indexFile));
+    }
+
+    @Test
+    @DisplayName("Test only sealed segments with no blocks to keep are deleted")
+    void testDeleteSegmentsNotIn() throws IOException {
+        try (SegmentLog log = new SegmentLog(segmentsDir, 21, true)) {
+            for (long blockNumber = 0; blockNumber < 8; blockNumber++) {
+                log.append(blockNumber, blockBytes(blockNumber), CompressionType.NONE);
+            }
+            // segments are [0-2], [3-5] and the active [6-7]
+            final ConcurrentLongRangeSet blocksToKeep = new ConcurrentLongRangeSet();
+            blocksToKeep.add(5, 5);
+            assertEquals(List.of(new LongRange(0, 2)), log.deleteSegmentsNotIn(blocksToKeep));
+            assertEquals(List.of(new LongRange(3, 5), new LongRange(6, 7)), log.storedRanges());
+            assertNull(log.read(0));
+            assertBlockStored(log, 3);
+            // the active segment is never deleted
+            assertEquals(List.of(new LongRange(3, 5)), log.deleteSegmentsNotIn(new ConcurrentLongRangeSet()));
+            assertEquals(List.of(new LongRange(6, 7)), log.storedRanges());
+            assertEquals(1, dataFiles().size());
+            assertTrue(Files.exists(segmentsDir.resolve(BlockFile.blockNumberFormated(6) + Segment.INDEX_EXTENSION)));
+        }
+    }
+}
@@ -167,11 +167,12 @@ public class BlockMessagingFacilityImpl implements BlockMessagingFacility {
                 VIRTUAL_THREAD_FACTORY,
                 ProducerType.SINGLE,
                 new SleepingWaitStrategy());
+        // notifications are sent from many threads, block item handlers, notification handlers and background workers
         blockNotificationDisruptor = new Disruptor<>(
                 BlockNotificationRingEvent::new,
                 messagingConfig.blockNotificationQueueSize(),
                 VIRTUAL_THREAD_FACTORY,
-                ProducerType.SINGLE,
+                ProducerType.MULTI,
                 new SleepingWaitStrategy());
         // Set the exception handler for the disruptors
         blockItemDisruptor.setDefaultExceptionHandler(BLOCK_ITEM_EXCEPTION_HANDLER);
@@ -12,7 +12,9 @@ import com.hedera.pbj.runtime.ParseException;
 import com.hedera.pbj.runtime.grpc.Pipeline;
 import com.swirlds.metrics.api.Counter;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -27,6 +29,7 @@ import org.hiero.block.api.PublishStreamResponse.ResendBlock;
 import org.hiero.block.api.PublishStreamResponse.ResponseOneOfType;
 import org.hiero.block.api.PublishStreamResponse.SkipBlock;
 import org.hiero.block.api.PublishStreamResponseCode;
+import org.hiero.block.common.hasher.HashingUtilities;
 import org.hiero.block.internal.BlockItemUnparsed;
 import org.hiero.block.node.publisher.UpdateCallback.UpdateType;
 import org.hiero.block.node.spi.BlockNodePlugin;
@@ -64,14 +67,21 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
     private final Consumer<BlockItems> sendToBlockMessaging;
     /** The subscription for the GRPC connection with client */
     private Flow.Subscription subscription;
-    /** The current state of this session, i.e. state machine state */
-    private BlockState currentBlockState = BlockState.NEW;
+    /** True if leaf hashes of received items should be computed on the receiving thread, before taking the lock */
+    private final boolean hashOnIngest;
+    /**
+     * The current state of this session, i.e. state machine state. Volatile so the receiving thread can check if it is
+     * worth hashing items before taking the lock.
+     */
+    private volatile BlockState currentBlockState = BlockState.NEW;
     /** The current block number we are receiving from client */
     private long currentBlockNumber = BlockNodePlugin.UNKNOWN_BLOCK_NUMBER;
     /** The start of receiving time of the current block */
     private long startTimeOfCurrentBlock = 0;
     /** list used to store items if we are new and ahead of the current message stream block */
     private final List<BlockItemUnparsed> newBlockItems = new ArrayList<>();
+    /** list of leaf hashes for newBlockItems, only used if hashOnIngest is enabled, entries may be null */
+    private final List<ByteBuffer> newBlockItemHashes = new ArrayList<>();
     /**
      * Set of ids of blocks that have been acknowledged that are >= the currentBlockNumber. This should only happen if
      * this publisher is a way behind
@@ -99,7 +109,40 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
             @NonNull final ReentrantLock stateLock,
             @NonNull final Consumer<BlockItems> sendToBlockMessaging,
             final long currentLatestAcknowledgedBlockNumber) {
+        this(
+                sessionId,
+                responsePipeline,
+                onUpdate,
+                liveBlockItemsReceived,
+                stateLock,
+                sendToBlockMessaging,
+                currentLatestAcknowledgedBlockNumber,
+                false);
+    }
+
+    /**
+     * Constructor for BlockStreamProducerSession.
+     *
+     * @param sessionId the session ID
+     * @param responsePipeline the pipeline for sending responses to the client
+     * @param onUpdate the callback for updating the publisher service plugin
+     * @param liveBlockItemsReceived the metric for the number of live block items received
+     * @param stateLock the lock for accessing state
+     * @param sendToBlockMessaging the callback for sending block items to the block messaging service
+     * @param currentLatestAcknowledgedBlockNumber the current latest acknowledged block number
+     * @param hashOnIngest true to compute the leaf hashes of received items and send them along with the items
+     */
+    public BlockStreamProducerSession(
+            final long sessionId,
+            @NonNull final Pipeline<? super PublishStreamResponse> responsePipeline,
+            @NonNull final UpdateCallback onUpdate,
+            @NonNull final Counter liveBlockItemsReceived,
+            @NonNull final ReentrantLock stateLock,
+            @NonNull final Consumer<BlockItems> sendToBlockMessaging,
+            final long currentLatestAcknowledgedBlockNumber,
+            final boolean hashOnIngest) {
         this.sessionId = sessionId;
+        this.hashOnIngest = hashOnIngest;
         this.onUpdate = requireNonNull(onUpdate);
         this.responsePipeline = requireNonNull(responsePipeline);
         this.liveBlockItemsReceived = requireNonNull(liveBlockItemsReceived);
@@ -168,9 +211,12 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
         if (!newBlockItems.isEmpty()) {
             // this items will always be the first items in a block so we can use the block number
             // we have to copy the items as we clear the list after sending
-            sendToBlockMessaging.accept(new BlockItems(new ArrayList<>(newBlockItems), currentBlockNumber));
+            sendToBlockMessaging.accept(new BlockItems(
+                    new ArrayList<>(newBlockItems),
+                    currentBlockNumber,
+                    hashOnIngest ? new ArrayList<>(newBlockItemHashes) : null));
             // clear the list
-            newBlockItems.clear();
+            clearNewBlockItems();
         }
     }
 
@@ -184,7 +230,7 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
         // switch to behind state
         currentBlockState = BlockState.BEHIND;
         // throw away any items we have in the new items list
-        newBlockItems.clear();
+        clearNewBlockItems();
         // let client know we do not need more data for the current block
         final PublishStreamResponse skipBlockResponse =
                 new PublishStreamResponse(new OneOf<>(ResponseOneOfType.SKIP_BLOCK, new SkipBlock(currentBlockNumber)));
@@ -197,7 +243,7 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
      */
     void sendDuplicateAck(final long latestAckBlock) {
         currentBlockState = BlockState.BEHIND;
-        newBlockItems.clear();
+        clearNewBlockItems();
         // sending a duplicate ack should also update the latestAck.
         latestAcknowledgedBlock = latestAckBlock;
         final BlockAcknowledgement ack = new BlockAcknowledgement(latestAckBlock, null, true);
@@ -213,7 +259,7 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
      */
     void sendStreamItemsBehind(final long latestAckBlock) {
         currentBlockState = BlockState.WAITING_FOR_RESEND;
-        newBlockItems.clear();
+        clearNewBlockItems();
 
         final EndOfStream endOfStream = new EndOfStream(PublishStreamResponseCode.STREAM_ITEMS_BEHIND, latestAckBlock);
         final PublishStreamResponse response =
@@ -232,13 +278,21 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
         currentBlockState = BlockState.WAITING_FOR_RESEND;
         currentBlockNumber = blockNumber;
         // throw away any items we have in the new items list
-        newBlockItems.clear();
+        clearNewBlockItems();
         // resend the block request to the block messaging service
         final PublishStreamResponse resendBlockResponse =
                 new PublishStreamResponse(new OneOf<>(ResponseOneOfType.RESEND_BLOCK, new ResendBlock(blockNumber)));
         sendResponse(resendBlockResponse);
     }
 
+    /**
+     * Throw away any items, and their hashes, we have in the new items list.
+     */
+    private void clearNewBlockItems() {
+        newBlockItems.clear();
+        newBlockItemHashes.clear();
+    }
+
     /**
      * Close the session and cancel the subscription.
      */
@@ -327,6 +381,17 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
     @SuppressWarnings("RedundantLabeledSwitchRuleCodeBlock")
     @Override
     public void onNext(@NonNull final List<BlockItemUnparsed> items) throws RuntimeException {
+        // hash items before taking the lock, so hashing is spread over the receiving threads rather than done on the
+        // verification thread. Skip if the items are going to be ignored, it is fine if state changes after this check
+        // as items without hashes are hashed by verification.
+        final BlockState stateBeforeLock = currentBlockState;
+        final List<ByteBuffer> itemHashes = hashOnIngest
+                        && !items.isEmpty()
+                        && (stateBeforeLock == BlockState.NEW
+                                || stateBeforeLock == BlockState.PRIMARY
+                                || items.getFirst().hasBlockHeader())
+                ? HashingUtilities.getBlockItemLeafHashes(items)
+                : null;
         stateLock.lock();
         try {
             // update the live block items received metric
@@ -353,7 +418,7 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
                             // update the current block number
                             currentBlockNumber = newBlockNumber;
                             // throw away any items we have in the ahead list
-                            newBlockItems.clear();
+                            clearNewBlockItems();
                         }
                     } catch (ParseException e) {
                         throw new RuntimeException(e);
@@ -361,12 +426,18 @@ public final class BlockStreamProducerSession implements Pipeline<List<BlockItem
                 }
             }
             switch (currentBlockState) {
-                case NEW -> newBlockItems.addAll(items);
+                case NEW -> {
+                    newBlockItems.addAll(items);
+                    if (hashOnIngest) {
+                        newBlockItemHashes.addAll(
+                                itemHashes != null ? itemHashes : Collections.nCopies(items.size(), null));
+                    }
+                }
                 case PRIMARY -> {
                     // we are in the primary state, so we can send the items directly to the block messaging service
                     // this will never be the first items in a block so we can always send UNKNOWN_BLOCK_NUMBER for
                     // block number
-                    sendToBlockMessaging.accept(new BlockItems(items, UNKNOWN_BLOCK_NUMBER));
+                    sendToBlockMessaging.accept(new BlockItems(items, UNKNOWN_BLOCK_NUMBER, itemHashes));
                 }
                 case BEHIND -> {
                     // we can ignore as any items we receive in this state are not relevant
@@ -13,11 +13,15 @@ import org.hiero.block.node.base.Loggable;
  *
  * @param type use a predefined type string to replace the producer component implementation.
  *     Non-PRODUCTION values should only be used for troubleshooting and development purposes.
+ * @param timeoutThresholdMillis the time in milliseconds after which a block that is being received is timed out
+ * @param hashOnIngest if true, the leaf hashes of incoming block items are computed on the thread receiving them and
+ *     sent along with the items, so verification only has to combine them when the block proof arrives
  */
 @ConfigData("producer")
 public record PublisherConfig(
         @Loggable @ConfigProperty(defaultValue = "PRODUCTION") PublisherType type,
-        @Loggable @ConfigProperty(defaultValue = "1500") @Min(1) int timeoutThresholdMillis) {
+        @Loggable @ConfigProperty(defaultValue = "1500") @Min(1) int timeoutThresholdMillis,
+        @Loggable @ConfigProperty(defaultValue = "false") boolean hashOnIngest) {
     /**
      * The type of the publisher service to use - PRODUCTION or NO_OP.
      */
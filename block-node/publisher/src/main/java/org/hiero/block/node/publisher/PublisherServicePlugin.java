@@ -533,7 +533,8 @@ public final class PublisherServicePlugin implements BlockNodePlugin, ServiceInt
                                         liveBlockItemsReceived,
                                         stateLock,
                                         this::sendBlockItemsToMessagingService,
-                                        latestAckedBlockNumber);
+                                        latestAckedBlockNumber,
+                                        publisherConfig.hashOnIngest());
                                 // add the session to the set of open sessions
                                 openSessions.add(producerBlockItemObserver);
                                 numberOfProducers.set(openSessions.size());
@@ -1,6 +1,7 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.hiero.block.node.publisher;
 
+import static org.hiero.block.common.hasher.HashingUtilities.getBlockItemHash;
 import static org.hiero.block.node.app.fixtures.blocks.BlockItemUtils.toBlockItemUnparsed;
 import static org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilder.sampleBlockHeader;
 import static org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilder.sampleBlockProof;
@@ -8,7 +9,10 @@ import static org.hiero.block.node.app.fixtures.blocks.SimpleTestBlockItemBuilde
 import static org.hiero.block.node.spi.BlockNodePlugin.UNKNOWN_BLOCK_NUMBER;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import com.hedera.pbj.runtime.grpc.Pipeline;
 import com.hedera.pbj.runtime.io.buffer.Bytes;
@@ -29,6 +33,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -142,6 +147,42 @@ public class BlockStreamProducerSessionTest {
         assertEquals(BlockStreamProducerSession.BlockState.PRIMARY, session.currentBlockState());
     }
 
+    /**
+     * Tests that leaf hashes are computed on ingest and sent along with the items when enabled.
+     * Verifies hashes are kept for items buffered in NEW state and sent for items received in PRIMARY state.
+     */
+    @Test
+    @DisplayName("Should send leaf hashes with block items when hashing on ingest")
+    void testHashOnIngest() {
+        final BlockStreamProducerSession hashingSession = new BlockStreamProducerSession(
+                3L, // sessionId
+                new ResponsePipeline(),
+                onUpdate,
+                liveBlockItemsReceived,
+                new ReentrantLock(),
+                sendToBlockMessaging,
+                -1,
+                true);
+        // items buffered while NEW, then sent on switch to primary
+        hashingSession.onNext(List.of(SAMPLE_BLOCK_HEADER));
+        hashingSession.onNext(List.of(SAMPLE_ROUND_HEADER));
+        hashingSession.switchToPrimary();
+        // items sent directly while PRIMARY
+        hashingSession.onNext(List.of(SAMPLE_BLOCK_PROOF));
+
+        final ArgumentCaptor<BlockItems> captor = ArgumentCaptor.forClass(BlockItems.class);
+        verify(sendToBlockMessaging, times(2)).accept(captor.capture());
+        final BlockItems firstBatch = captor.getAllValues().getFirst();
+        assertEquals(0L, firstBatch.newBlockNumber());
+        assertEquals(
+                List.of(getBlockItemHash(SAMPLE_BLOCK_HEADER), getBlockItemHash(SAMPLE_ROUND_HEADER)),
+                firstBatch.itemHashes());
+        // block proof is not a merkle tree leaf so has no hash
+        final BlockItems secondBatch = captor.getAllValues().getLast();
+        assertEquals(1, secondBatch.itemHashes().size());
+        assertNull(secondBatch.itemHashes().getFirst());
+    }
+
     /**
      * Tests handling of block items in different states.
      * Verifies that the session correctly processes items based on its current state.
@@ -2,6 +2,7 @@
 package org.hiero.block.node.publisher;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -27,11 +28,12 @@ public class PublisherConfigTest {
     @DisplayName("Should create configuration with default values")
     void testDefaultConfiguration() {
         // Create config with default values
-        final PublisherConfig config = new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 1500);
+        final PublisherConfig config = new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 1500, false);
 
         // Verify default values
         assertEquals(PublisherConfig.PublisherType.PRODUCTION, config.type());
         assertEquals(1500, config.timeoutThresholdMillis());
+        assertFalse(config.hashOnIngest());
     }
 
     /**
@@ -42,14 +44,16 @@ public class PublisherConfigTest {
     @DisplayName("Should create configuration with custom values")
     void testCustomConfiguration() {
         // Test NO_OP type
-        final PublisherConfig noOpConfig = new PublisherConfig(PublisherConfig.PublisherType.NO_OP, 2000);
+        final PublisherConfig noOpConfig = new PublisherConfig(PublisherConfig.PublisherType.NO_OP, 2000, false);
         assertEquals(PublisherConfig.PublisherType.NO_OP, noOpConfig.type());
         assertEquals(2000, noOpConfig.timeoutThresholdMillis());
 
         // Test custom timeout
-        final PublisherConfig customTimeoutConfig = new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 3000);
+        final PublisherConfig customTimeoutConfig =
+                new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 3000, true);
         assertEquals(PublisherConfig.PublisherType.PRODUCTION, customTimeoutConfig.type());
         assertEquals(3000, customTimeoutConfig.timeoutThresholdMillis());
+        assertTrue(customTimeoutConfig.hashOnIngest());
     }
 
     /**
@@ -83,11 +87,11 @@ public class PublisherConfigTest {
     @DisplayName("Should have correct record behavior")
     void testRecordBehavior() {
         // Create two identical configs
-        final PublisherConfig config1 = new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 1500);
-        final PublisherConfig config2 = new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 1500);
+        final PublisherConfig config1 = new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 1500, false);
+        final PublisherConfig config2 = new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 1500, false);
 
         // Create a different config
-        final PublisherConfig config3 = new PublisherConfig(PublisherConfig.PublisherType.NO_OP, 1500);
+        final PublisherConfig config3 = new PublisherConfig(PublisherConfig.PublisherType.NO_OP, 1500, false);
 
         // Test equals
         assertEquals(config1, config2);
@@ -103,7 +107,7 @@ public class PublisherConfigTest {
         assertTrue(toString.contains("1500"));
 
         // Test immutability by creating new instances
-        final PublisherConfig newConfig = new PublisherConfig(PublisherConfig.PublisherType.NO_OP, 2000);
+        final PublisherConfig newConfig = new PublisherConfig(PublisherConfig.PublisherType.NO_OP, 2000, false);
         assertNotEquals(config1, newConfig);
     }
 
@@ -115,7 +119,7 @@ public class PublisherConfigTest {
     @DisplayName("Should reject null publisher type")
     void testNullType() {
         // Test that null type is not allowed
-        assertThrows(NullPointerException.class, () -> new PublisherConfig(null, 1500));
+        assertThrows(NullPointerException.class, () -> new PublisherConfig(null, 1500, false));
     }
 
     /**
@@ -131,7 +135,7 @@ public class PublisherConfigTest {
         // Test that negative or zero timeout is not allowed
         assertThrows(
                 IllegalArgumentException.class,
-                () -> new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, invalidTimeout));
+                () -> new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, invalidTimeout, false));
     }
 
     /**
@@ -142,11 +146,11 @@ public class PublisherConfigTest {
     @DisplayName("Should remain immutable after creation")
     void testConfigImmutability() {
         // Create initial config
-        final PublisherConfig config = new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 1500);
+        final PublisherConfig config = new PublisherConfig(PublisherConfig.PublisherType.PRODUCTION, 1500, false);
 
         // Attempt to modify the config (should not be possible as it's a record)
         // This is a compile-time check, but we can verify the values remain unchanged
-        final PublisherConfig modifiedConfig = new PublisherConfig(PublisherConfig.PublisherType.NO_OP, 2000);
+        final PublisherConfig modifiedConfig = new PublisherConfig(PublisherConfig.PublisherType.NO_OP, 2000, false);
         assertNotEquals(config, modifiedConfig);
         assertEquals(PublisherConfig.PublisherType.PRODUCTION, config.type());
         assertEquals(1500, config.timeoutThresholdMillis());
@@ -13,13 +13,14 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import org.hiero.block.common.utils.StringUtilities;
 import org.hiero.block.internal.BlockUnparsed;
 import org.hiero.block.node.base.s3.S3Client;
@@ -29,6 +30,7 @@ import org.hiero.block.node.spi.BlockNodePlugin;
 import org.hiero.block.node.spi.ServiceBuilder;
 import org.hiero.block.node.spi.blockmessaging.BlockNotificationHandler;
 import org.hiero.block.node.spi.blockmessaging.PersistedNotification;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
 
 /**
@@ -236,13 +238,6 @@ public class S3ArchivePlugin implements BlockNodePlugin, BlockNotificationHandle
      */
     private void uploadBlocksTar(S3Client s3Client, long startBlockNumber, long endBlockNumber)
             throws IllegalStateException {
-        // The HTTP client needs an Iterable of byte arrays, so create one from the blocks
-        final Iterator<byte[]> tarBlocks = new TaredBlockIterator(
-                Format.ZSTD_PROTOBUF,
-                LongStream.range(startBlockNumber, endBlockNumber + 1)
-                        .mapToObj(
-                                blockNumber -> context.historicalBlockProvider().block(blockNumber))
-                        .iterator());
         // fetch the first blocks consensus time so that we can place the file in a directory based on year and month
         BlockUnparsed firstBlock =
                 context.historicalBlockProvider().block(startBlockNumber).blockUnparsed();
@@ -265,14 +260,62 @@ public class S3ArchivePlugin implements BlockNodePlugin, BlockNotificationHandle
             throw new IllegalStateException("Failed to parse Block Header from first block", e);
         }
 
-        // Upload the blocks to S3
-        s3Client.uploadFile(
-                archiveConfig.basePath() + "/" + YEAR_MONTH_FORMATTER.format(firstBlockConsensusTime)
-                        + "/"
-                        + FILE_PREFIX_FORMATTER.format(firstBlockConsensusTime) + blockNumberFormated(startBlockNumber)
-                        + "-" + blockNumberFormated(endBlockNumber) + ".tar",
-                archiveConfig.storageClass(),
-                tarBlocks,
-                "application/x-tar");
+        // read the blocks as one range, so providers can serve them with sequential reads
+        try (final Stream<BlockAccessor> blocks =
+                context.historicalBlockProvider().blocks(startBlockNumber, endBlockNumber)) {
+            // The HTTP client needs an Iterable of byte arrays, so create one from the blocks
+            final Iterator<byte[]> tarBlocks = new TaredBlockIterator(
+                    Format.ZSTD_PROTOBUF, requireAllBlocks(blocks.iterator(), startBlockNumber, endBlockNumber));
+            // Upload the blocks to S3
+            s3Client.uploadFile(
+                    archiveConfig.basePath() + "/" + YEAR_MONTH_FORMATTER.format(firstBlockConsensusTime)
+                            + "/"
+                            + FILE_PREFIX_FORMATTER.format(firstBlockConsensusTime)
+                            + blockNumberFormated(startBlockNumber)
+                            + "-" + blockNumberFormated(endBlockNumber) + ".tar",
+                    archiveConfig.storageClass(),
+                    tarBlocks,
+                    "application/x-tar");
+        }
+    }
+
+    /**
+     * Wrap an iterator of block accessors for a range of blocks so that it fails, rather than just ending, if a block
+     * in the range is not available. This makes sure a partial batch is never uploaded as a complete one.
+     *
+     * @param blocks the block accessors of the range, in block number order
+     * @param startBlockNumber the first block number of the range
+     * @param endBlockNumber the last block number of the range, inclusive
+     * @return an iterator of all the block accessors of the range
+     */
+    private static Iterator<BlockAccessor> requireAllBlocks(
+            final Iterator<BlockAccessor> blocks, final long startBlockNumber, final long endBlockNumber) {
+        return new Iterator<>() {
+            private long nextBlockNumber = startBlockNumber;
+
+            @Override
+            public boolean hasNext() {
+                if (nextBlockNumber > endBlockNumber) {
+                    return false;
+                } else if (!blocks.hasNext()) {
+                    throw new IllegalStateException("Block " + nextBlockNumber + " is not available to archive");
+                }
+                return true;
+            }
+
+            @Override
+            public BlockAccessor next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final BlockAccessor accessor = blocks.next();
+                if (accessor.blockNumber() != nextBlockNumber) {
+                    throw new IllegalStateException(
+                            "Expected block " + nextBlockNumber + " but got block " + accessor.blockNumber());
+                }
+                nextBlockNumber++;
+                return accessor;
+            }
+        };
     }
 }
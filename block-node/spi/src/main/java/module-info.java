@@ -5,10 +5,12 @@ module org.hiero.block.node.spi {
     exports org.hiero.block.node.spi.historicalblocks;
     exports org.hiero.block.node.spi.health;
     exports org.hiero.block.node.spi.threading;
+    exports org.hiero.block.node.spi.verification;
 
     uses org.hiero.block.node.spi.blockmessaging.BlockMessagingFacility;
     uses org.hiero.block.node.spi.historicalblocks.BlockProviderPlugin;
     uses org.hiero.block.node.spi.BlockNodePlugin;
+    uses org.hiero.block.node.spi.verification.SignatureVerifier;
 
     requires transitive com.hedera.pbj.runtime;
     requires transitive com.swirlds.config.api;
@@ -3,6 +3,7 @@ package org.hiero.block.node.spi.blockmessaging;
 
 import static org.hiero.block.node.spi.BlockNodePlugin.UNKNOWN_BLOCK_NUMBER;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Objects;
 import org.hiero.block.internal.BlockItemUnparsed;
@@ -16,8 +17,12 @@ import org.hiero.block.node.spi.BlockNodePlugin;
  * @param blockItems     the immutable list of block items to handle
  * @param newBlockNumber if these items include the start of a new block, this is the block number. If not, this is
  *                       {@link BlockNodePlugin#UNKNOWN_BLOCK_NUMBER}.
+ * @param itemHashes     optional leaf hashes of the block items computed on ingest, null if not computed. If present,
+ *                       it is the same size as blockItems and has a null entry for items that are not merkle tree
+ *                       leaves or were not hashed. The buffers are shared so consumers must not change their position,
+ *                       use {@link ByteBuffer#duplicate()} before reading.
  */
-public record BlockItems(List<BlockItemUnparsed> blockItems, long newBlockNumber) {
+public record BlockItems(List<BlockItemUnparsed> blockItems, long newBlockNumber, List<ByteBuffer> itemHashes) {
     public BlockItems {
         Objects.requireNonNull(blockItems);
         if (blockItems.isEmpty()) {
@@ -26,6 +31,20 @@ public record BlockItems(List<BlockItemUnparsed> blockItems, long newBlockNumber
         if (newBlockNumber != UNKNOWN_BLOCK_NUMBER && newBlockNumber < 0) {
             throw new IllegalArgumentException("Block number cannot be negative unless it is UNKNOWN_BLOCK_NUMBER");
         }
+        if (itemHashes != null && itemHashes.size() != blockItems.size()) {
+            throw new IllegalArgumentException("Item hashes must be the same size as block items");
+        }
+    }
+
+    /**
+     * Create a BlockItems without precomputed item hashes.
+     *
+     * @param blockItems     the immutable list of block items to handle
+     * @param newBlockNumber if these items include the start of a new block, this is the block number. If not, this is
+     *                       {@link BlockNodePlugin#UNKNOWN_BLOCK_NUMBER}.
+     */
+    public BlockItems(List<BlockItemUnparsed> blockItems, long newBlockNumber) {
+        this(blockItems, newBlockNumber, null);
     }
 
     /**
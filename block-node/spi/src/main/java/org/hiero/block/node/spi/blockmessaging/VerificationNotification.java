@@ -9,7 +9,9 @@ import com.hedera.pbj.runtime.io.buffer.Bytes;
  * @param success     true if the block was verified successfully, false otherwise
  * @param blockNumber the block number this notification is for
  * @param blockHash   the hash of the block, if the type is BLOCK_VERIFIED
- * @param block       the block, if the type is BLOCK_VERIFIED
+ * @param block       the block, if the type is BLOCK_VERIFIED. This can be null even for a verified block when the
+ *                    verification service is configured not to include blocks in notifications, in that case
+ *                    consumers need to have collected the block items themselves.
  */
 public record VerificationNotification(
         boolean success, long blockNumber, Bytes blockHash, org.hiero.block.internal.BlockUnparsed block) {}
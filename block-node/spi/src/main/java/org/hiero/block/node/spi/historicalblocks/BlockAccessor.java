@@ -6,11 +6,13 @@ import com.hedera.hapi.block.stream.Block;
 import com.hedera.pbj.runtime.ParseException;
 import com.hedera.pbj.runtime.io.WritableSequentialData;
 import com.hedera.pbj.runtime.io.buffer.Bytes;
-import com.hedera.pbj.runtime.io.stream.WritableStreamingData;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.file.Files;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import org.hiero.block.internal.BlockUnparsed;
 
@@ -46,6 +48,21 @@ public interface BlockAccessor {
         return ALL_FORMATS;
     }
 
+    /**
+     * Check if the block is stored in the given format, so getting or writing it in that format needs no conversion.
+     * Consumers can use this to pick the cheapest way to read a block, for example only reading the stored bytes into
+     * a reused buffer when no decompression is needed.
+     * <p>
+     * The default implementation returns false, as nothing is known about how the block is stored.
+     * </p>
+     *
+     * @param format the format to check
+     * @return true if the block is stored in the given format
+     */
+    default boolean isStoredFormat(Format format) {
+        return false;
+    }
+
     /**
      * Get the block number of the block.
      *
@@ -133,13 +150,36 @@ public interface BlockAccessor {
         blockBytes(format).writeTo(output);
     }
 
+    /**
+     * Write the block in the specified format to the given channel. This allows the consumer to choose the most
+     * efficient format for them. A provider that already has the block stored in the requested format can transfer it
+     * straight from its storage to the channel, for example with {@link FileChannel#transferTo}, so the bytes never
+     * have to be copied through the Java heap.
+     * <p>
+     * The default implementation uses the {@link #blockBytes(Format)} method to get the block and then writes it
+     * encoded to the channel.
+     * </p>
+     *
+     * @param format the format to write the block in, has to be one of the available formats returned by {@link #availableFormats()}
+     * @param channel the channel to write the block to, it is not closed
+     * @return the number of bytes written
+     * @throws IllegalArgumentException if the format is not one of the available formats
+     * @throws IOException if there was an error writing the block to the channel
+     */
+    default long writeBytesTo(Format format, WritableByteChannel channel) throws IOException {
+        final Bytes bytes = blockBytes(format);
+        // the stream is not closed as that would close the channel
+        bytes.writeTo(Channels.newOutputStream(channel));
+        return bytes.length();
+    }
+
     /**
      * Write the block in the specified format to a file at the given path. This allows the consumer to choose the most
      * efficient format for them. The provider can decide that if it already has the block in this format then it can
      * just ask the OS to do a file copy with no need to read the data into the JVM at all.
      * <p>
-     * The default implementation uses the {@link #blockBytes(Format)} method to get the block and then writes it
-     * encoded to the file.
+     * The default implementation opens a channel to the file and uses {@link #writeBytesTo(Format, WritableByteChannel)}
+     * to write the block to it.
      * </p>
      *
      * @param format the format to write the block in, has to be one of the available formats returned by {@link #availableFormats()}
@@ -147,8 +187,9 @@ public interface BlockAccessor {
      * @throws IOException if there was an error writing the block to given path
      */
     default void writeTo(Format format, Path path) throws IOException {
-        try (final WritableStreamingData output = new WritableStreamingData(Files.newOutputStream(path))) {
-            writeBytesTo(format, output);
+        try (final FileChannel channel = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeBytesTo(format, channel);
         }
     }
 }
@@ -1,6 +1,9 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.hiero.block.node.spi.historicalblocks;
 
+import java.util.Objects;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import org.hiero.block.node.spi.BlockNodePlugin;
 import org.hiero.block.node.spi.blockmessaging.BlockMessagingFacility;
 
@@ -42,6 +45,24 @@ public interface BlockProviderPlugin extends BlockNodePlugin {
      */
     BlockAccessor block(long blockNumber);
 
+    /**
+     * Use this method to get the blocks in a range of block numbers, in ascending block number order. Reading a range
+     * lets the plugin serve it with fewer lookups and file opens than reading each block on its own, so prefer this to
+     * calling {@link #block(long)} in a loop. The stream ends at the first block in the range that is not available.
+     * <p>
+     * The stream is lazy and may hold resources such as open files, so it must be closed once done with, for example
+     * with a try-with-resources statement. The default implementation looks up each block with {@link #block(long)}.
+     *
+     * @param firstBlockNumber the first block number of the range, inclusive
+     * @param lastBlockNumber the last block number of the range, inclusive
+     * @return a stream of the blocks in the range, up to the first block that is not available
+     */
+    default Stream<BlockAccessor> blocks(final long firstBlockNumber, final long lastBlockNumber) {
+        return LongStream.rangeClosed(firstBlockNumber, lastBlockNumber)
+                .mapToObj(this::block)
+                .takeWhile(Objects::nonNull);
+    }
+
     /**
      * Use this method to get the set of all blocks available from this plugin.
      *
@@ -1,6 +1,11 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.hiero.block.node.spi.historicalblocks;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import org.hiero.block.node.spi.BlockNodePlugin;
 
 /**
@@ -18,6 +23,69 @@ public interface HistoricalBlockFacility extends BlockNodePlugin {
      */
     BlockAccessor block(long blockNumber);
 
+    /**
+     * Use this method to get the blocks in a range of block numbers, in ascending block number order. Reading a range
+     * lets the block providers serve it with fewer lookups and file opens than reading each block on its own, so prefer
+     * this to calling {@link #block(long)} in a loop. The stream ends at the first block in the range that is not
+     * available.
+     * <p>
+     * The stream is lazy and may hold resources such as open files, so it must be closed once done with, for example
+     * with a try-with-resources statement. The default implementation looks up each block with {@link #block(long)}.
+     *
+     * @param firstBlockNumber the first block number of the range, inclusive
+     * @param lastBlockNumber the last block number of the range, inclusive
+     * @return a stream of the blocks in the range, up to the first block that is not available
+     */
+    default Stream<BlockAccessor> blocks(final long firstBlockNumber, final long lastBlockNumber) {
+        return LongStream.rangeClosed(firstBlockNumber, lastBlockNumber)
+                .mapToObj(this::block)
+                .takeWhile(Objects::nonNull);
+    }
+
+    /**
+     * Use this method to get the block at the specified block number without blocking the calling thread. The block is
+     * read before the future completes, so using the returned accessor does not wait on disk either. Prefer this to
+     * {@link #block(long)} on virtual threads, which can be pinned to their carrier thread while reading a block.
+     * <p>
+     * The default implementation reads the block on the calling thread with {@link #block(long)}.
+     *
+     * @param blockNumber the block number
+     * @return a future completed with the block at the specified block number, or null if the block is not available,
+     *     or completed exceptionally if reading the block failed
+     */
+    default CompletableFuture<BlockAccessor> blockAsync(final long blockNumber) {
+        try {
+            return CompletableFuture.completedFuture(block(blockNumber));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Use this method to get the blocks in a range of block numbers without blocking the calling thread. The list is
+     * in ascending block number order and ends at the first block in the range that is not available, like
+     * {@link #blocks(long, long)}. The blocks are read before the future completes.
+     * <p>
+     * An implementation may cap the number of blocks returned by one call, to bound the memory the list holds, so the
+     * list can end before the last block in the range even though the next block is available. Callers read the rest
+     * of the range with further calls, starting after the last block returned.
+     * <p>
+     * The default implementation reads the blocks on the calling thread with {@link #blocks(long, long)}.
+     *
+     * @param firstBlockNumber the first block number of the range, inclusive
+     * @param lastBlockNumber the last block number of the range, inclusive
+     * @return a future completed with the blocks in the range, up to the first block that is not available, or
+     *     completed exceptionally if reading the blocks failed
+     */
+    default CompletableFuture<List<BlockAccessor>> blocksAsync(
+            final long firstBlockNumber, final long lastBlockNumber) {
+        try (final Stream<BlockAccessor> blocks = blocks(firstBlockNumber, lastBlockNumber)) {
+            return CompletableFuture.completedFuture(blocks.toList());
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     /**
      * Use this method to get the set of all blocks available in this block node.
      *
@@ -0,0 +1,19 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.spi.verification;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.util.Objects;
+
+/**
+ * Simple record for a single block signature to be checked by a {@link SignatureVerifier}.
+ *
+ * @param blockNumber the block number the signature is for
+ * @param blockHash   the computed root hash of the block
+ * @param signature   the block signature from the block proof
+ */
+public record SignatureVerificationRequest(long blockNumber, Bytes blockHash, Bytes signature) {
+    public SignatureVerificationRequest {
+        Objects.requireNonNull(blockHash);
+        Objects.requireNonNull(signature);
+    }
+}
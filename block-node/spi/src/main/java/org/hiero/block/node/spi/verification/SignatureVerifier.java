@@ -0,0 +1,72 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.spi.verification;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The SignatureVerifier interface is implemented by services that check the signature of a block, given the root hash
+ * computed by the verification service. Implementations are exposed through the Java ServiceLoader and the one to use
+ * is chosen by name in configuration.
+ * <p>
+ * Cryptographic signature checks can be expensive, so the interface supports checking a batch of signatures in one
+ * call. Implementations that can amortise work across many signatures, for example by aggregating them, should
+ * override {@link #verifyBatch(List)}. The default implementation simply checks each signature in turn.
+ * <p>
+ * Implementations must be thread safe, as they may be called from more than one thread.
+ */
+public interface SignatureVerifier {
+    /**
+     * The name of the signature verifier, used to select it in configuration.
+     *
+     * @return the name of the signature verifier
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Verify a single block signature.
+     *
+     * @param blockHash the computed root hash of the block
+     * @param signature the block signature from the block proof
+     * @return true if the signature is valid for the hash, false otherwise
+     */
+    boolean verify(@NonNull Bytes blockHash, @NonNull Bytes signature);
+
+    /**
+     * Verify a batch of block signatures in one call.
+     *
+     * @param requests the signatures to verify, must not be null
+     * @return array of results in the same order as the requests, true if the signature is valid
+     */
+    @NonNull
+    default boolean[] verifyBatch(@NonNull final List<SignatureVerificationRequest> requests) {
+        Objects.requireNonNull(requests);
+        final boolean[] results = new boolean[requests.size()];
+        for (int i = 0; i < results.length; i++) {
+            final SignatureVerificationRequest request = requests.get(i);
+            results[i] = verify(request.blockHash(), request.signature());
+        }
+        return results;
+    }
+
+    /**
+     * Verify a batch of block signatures asynchronously on the given executor.
+     *
+     * @param requests the signatures to verify, must not be null
+     * @param executor the executor to run the verification on, must not be null
+     * @return future for the array of results in the same order as the requests
+     */
+    @NonNull
+    default CompletableFuture<boolean[]> verifyBatchAsync(
+            @NonNull final List<SignatureVerificationRequest> requests, @NonNull final Executor executor) {
+        Objects.requireNonNull(requests);
+        Objects.requireNonNull(executor);
+        return CompletableFuture.supplyAsync(() -> verifyBatch(requests), executor);
+    }
+}
@@ -5,10 +5,13 @@ import static org.hiero.block.node.spi.BlockNodePlugin.UNKNOWN_BLOCK_NUMBER;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.hedera.pbj.runtime.OneOf;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 import org.hiero.block.internal.BlockItemUnparsed;
 import org.hiero.block.internal.BlockItemUnparsed.ItemOneOfType;
@@ -57,6 +60,17 @@ public class BlockItemsTest {
                 "Block number cannot be negative unless it is UNKNOWN_BLOCK_NUMBER");
     }
 
+    @Test
+    @DisplayName("Test BlockItems constructor with item hashes")
+    void testBlockItemsConstructorItemHashes() {
+        assertNull(new BlockItems(blockItemList, 1).itemHashes());
+        final List<ByteBuffer> itemHashes = Arrays.asList(ByteBuffer.allocate(48), null);
+        BlockItems blockItems = new BlockItems(blockItemList, 1, itemHashes);
+        assertEquals(itemHashes, blockItems.itemHashes());
+        Executable executable = () -> new BlockItems(blockItemList, 1, List.of(ByteBuffer.allocate(48)));
+        assertThrows(IllegalArgumentException.class, executable, "Item hashes must be the same size as block items");
+    }
+
     @Test
     @DisplayName("Test isStartOfNewBlock method")
     void testIsStartOfNewBlock() {
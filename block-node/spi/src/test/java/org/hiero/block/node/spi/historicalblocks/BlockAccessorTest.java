@@ -2,6 +2,7 @@
 package org.hiero.block.node.spi.historicalblocks;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.github.luben.zstd.Zstd;
@@ -81,6 +82,15 @@ public class BlockAccessorTest {
         assertEquals(BlockAccessor.ALL_FORMATS, formats);
     }
 
+    @Test
+    @DisplayName("Test isStoredFormat method")
+    void testIsStoredFormat() {
+        BlockAccessor accessor = new TestBlockAccessor();
+        for (Format format : Format.values()) {
+            assertFalse(accessor.isStoredFormat(format));
+        }
+    }
+
     @Test
     @DisplayName("Test blockUnparsed method")
     void testBlockUnparsed() throws ParseException {
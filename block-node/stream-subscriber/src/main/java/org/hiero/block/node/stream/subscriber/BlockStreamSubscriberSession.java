@@ -10,9 +10,12 @@ import com.hedera.hapi.block.stream.output.BlockHeader;
 import com.hedera.pbj.runtime.OneOf;
 import com.hedera.pbj.runtime.ParseException;
 import com.hedera.pbj.runtime.grpc.Pipeline;
+import com.hedera.pbj.runtime.io.buffer.BufferedData;
 import com.swirlds.metrics.api.Counter;
 import com.swirlds.metrics.api.Counter.Config;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.util.List;
@@ -32,11 +35,13 @@ import org.hiero.block.internal.BlockUnparsed;
 import org.hiero.block.internal.SubscribeStreamResponseUnparsed;
 import org.hiero.block.internal.SubscribeStreamResponseUnparsed.Builder;
 import org.hiero.block.internal.SubscribeStreamResponseUnparsed.ResponseOneOfType;
+import org.hiero.block.node.base.BlockBytesChannel;
 import org.hiero.block.node.spi.BlockNodeContext;
 import org.hiero.block.node.spi.BlockNodePlugin;
 import org.hiero.block.node.spi.blockmessaging.BlockItems;
 import org.hiero.block.node.spi.blockmessaging.NoBackPressureBlockItemHandler;
 import org.hiero.block.node.spi.historicalblocks.BlockAccessor;
+import org.hiero.block.node.spi.historicalblocks.BlockAccessor.Format;
 
 /**
  * This class is used to represent a session for a single BlockStream subscriber that has connected to the block node.
@@ -96,6 +101,8 @@ public class BlockStreamSubscriberSession implements Callable<BlockStreamSubscri
      * Each received block is offered to the session via a blocking queue.
      */
     private final LiveBlockHandler liveBlockHandler;
+    /** The channel historical blocks are read into, reused for each block as they are sent one at a time. */
+    private final BlockBytesChannel historicalBlockBytes = new BlockBytesChannel();
     /**
      * Exception that caused this session to fail during operation.
      * This is only set if an unexpected exception is thrown in the call method
@@ -199,7 +206,7 @@ public class BlockStreamSubscriberSession implements Callable<BlockStreamSubscri
                     context.historicalBlockProvider().block(nextBlockToSend);
             if (nextBlockAccessor != null) {
                 // We have a block to send, so send it.
-                sendOneBlockItemSet(nextBlockAccessor.blockUnparsed());
+                sendOneBlockItemSet(readHistoricalBlock(nextBlockAccessor));
                 // Trim the queue if necessary, also increment the next block to send.
                 trimBlockItemQueue(++nextBlockToSend);
             } else {
@@ -514,6 +521,31 @@ public class BlockStreamSubscriberSession implements Callable<BlockStreamSubscri
         interruptedStream.set(true);
     }
 
+    /**
+     * Read a historical block to send. A block stored as protobuf bytes is written into the session's reused channel,
+     * so a provider that stores blocks uncompressed transfers them straight from its storage without a new array for
+     * each block, then the bytes are parsed to block items. Any other block, including one from a cache or stored
+     * compressed, is read with {@link BlockAccessor#blockUnparsed()} as it has to be converted anyway.
+     *
+     * @param blockAccessor the accessor for the block to read
+     * @return the block read
+     * @throws ParseException if the block bytes could not be parsed
+     */
+    private BlockUnparsed readHistoricalBlock(final BlockAccessor blockAccessor) throws ParseException {
+        if (!blockAccessor.isStoredFormat(Format.PROTOBUF)) {
+            return blockAccessor.blockUnparsed();
+        }
+        historicalBlockBytes.reset();
+        try {
+            blockAccessor.writeBytesTo(Format.PROTOBUF, historicalBlockBytes);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read historical block " + blockAccessor.blockNumber(), e);
+        }
+        // parsing from buffered data copies each block item out, so the channel can be reused for the next block
+        return BlockUnparsed.PROTOBUF.parse(
+                BufferedData.wrap(historicalBlockBytes.array(), 0, historicalBlockBytes.length()));
+    }
+
     private void sendOneBlockItemSet(final BlockUnparsed nextBlock) throws ParseException {
         final BlockHeader header =
                 BlockHeader.PROTOBUF.parse(nextBlock.blockItems().getFirst().blockHeader());
@@ -8,12 +8,14 @@ import com.hedera.pbj.runtime.OneOf;
 import com.hedera.pbj.runtime.grpc.Pipeline;
 import com.swirlds.metrics.api.Counter;
 import java.lang.System.Logger.Level;
+import java.util.Iterator;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.hiero.block.api.SubscribeStreamRequest;
 import org.hiero.block.api.SubscribeStreamResponse.Code;
 import org.hiero.block.internal.BlockItemSetUnparsed;
@@ -433,6 +435,10 @@ public class BlockStreamSubscriberSession implements NoBackPressureBlockItemHand
         private final BlockStreamSubscriberSession owningSession;
         private final long startBlockNumber;
         private final long endBlockNumber;
+        /** The range of historical blocks being read, reopened from the next block if it does not have that block. */
+        private Stream<BlockAccessor> historicalBlocks;
+        /** The iterator of the range of historical blocks being read. */
+        private Iterator<BlockAccessor> historicalBlocksIterator;
 
         public HistoricalStreamThread(
                 BlockStreamSubscriberSession owningSession, long startBlockNumber, long endBlockNumber) {
@@ -467,8 +473,7 @@ public class BlockStreamSubscriberSession implements NoBackPressureBlockItemHand
                             owningSession.clientId,
                             i,
                             owningSession.latestLiveStreamBlock.get());
-                    final BlockAccessor blockAccessor =
-                            owningSession.context.historicalBlockProvider().block(i);
+                    final BlockAccessor blockAccessor = historicalBlock(i);
                     if (blockAccessor != null) {
                         final BlockUnparsed block = blockAccessor.blockUnparsed();
                         // handle as if it was received from the block messaging system
@@ -503,6 +508,40 @@ public class BlockStreamSubscriberSession implements NoBackPressureBlockItemHand
                         "Unexpected exception in HistoricalStreamThread for client " + owningSession.clientId,
                         e);
                 throw e;
+            } finally {
+                closeHistoricalBlocks();
+            }
+        }
+
+        /**
+         * Get a historical block, reading it from the range of historical blocks being read so the block provider can
+         * serve consecutive blocks without looking each one up. The range is reopened from the requested block if it
+         * ended or does not return the requested block next.
+         *
+         * @param blockNumber the block number to get
+         * @return the block accessor, or null if the block is not available
+         */
+        private BlockAccessor historicalBlock(final long blockNumber) {
+            if (historicalBlocksIterator != null && historicalBlocksIterator.hasNext()) {
+                final BlockAccessor blockAccessor = historicalBlocksIterator.next();
+                if (blockAccessor.blockNumber() == blockNumber) {
+                    return blockAccessor;
+                }
+            }
+            closeHistoricalBlocks();
+            historicalBlocks = owningSession.context.historicalBlockProvider().blocks(blockNumber, endBlockNumber);
+            historicalBlocksIterator = historicalBlocks.iterator();
+            return historicalBlocksIterator.hasNext() ? historicalBlocksIterator.next() : null;
+        }
+
+        /**
+         * Close the range of historical blocks being read, if there is one.
+         */
+        private void closeHistoricalBlocks() {
+            if (historicalBlocks != null) {
+                historicalBlocks.close();
+                historicalBlocks = null;
+                historicalBlocksIterator = null;
             }
         }
     }
@@ -1,5 +1,8 @@
 // SPDX-License-Identifier: Apache-2.0
-plugins { id("org.hiero.gradle.module.library") }
+plugins {
+    id("org.hiero.gradle.module.library")
+    id("org.hiero.gradle.feature.benchmark")
+}
 
 description = "Hiero Block Node Verification Service"
 
@@ -19,3 +22,5 @@ testModuleInfo {
     requires("org.hiero.block.node.app.test.fixtures")
     requires("org.mockito")
 }
+
+jmhModuleInfo { requires("jmh.core") }
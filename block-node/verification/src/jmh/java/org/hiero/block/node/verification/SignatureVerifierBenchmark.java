@@ -0,0 +1,96 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.verification;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.hiero.block.common.hasher.HashingUtilities;
+import org.hiero.block.node.spi.verification.SignatureVerificationRequest;
+import org.hiero.block.node.spi.verification.SignatureVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for {@link SignatureVerifier} throughput, comparing checking signatures one at a time with checking them in
+ * batches. Results are reported per signature so the two can be compared directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OperationsPerInvocation(SignatureVerifierBenchmark.NUMBER_OF_SIGNATURES)
+public class SignatureVerifierBenchmark {
+    /** The number of signatures checked in each benchmark invocation. */
+    static final int NUMBER_OF_SIGNATURES = 1024;
+
+    /** The number of signatures checked in each batch. */
+    @Param({"1", "16", "256"})
+    public int batchSize;
+
+    /** The signature verifier to benchmark. */
+    private SignatureVerifier signatureVerifier;
+    /** The signature requests, split into batches. */
+    private List<List<SignatureVerificationRequest>> batches;
+
+    /**
+     * Create random block hashes and matching signatures.
+     */
+    @Setup
+    public void setup() {
+        signatureVerifier = new DummySignatureVerifier();
+        final Random random = new Random(1234);
+        final List<SignatureVerificationRequest> requests = new ArrayList<>(NUMBER_OF_SIGNATURES);
+        for (int i = 0; i < NUMBER_OF_SIGNATURES; i++) {
+            final byte[] hash = new byte[48];
+            random.nextBytes(hash);
+            final Bytes blockHash = Bytes.wrap(hash);
+            requests.add(new SignatureVerificationRequest(
+                    i, blockHash, HashingUtilities.noThrowSha384HashOf(blockHash)));
+        }
+        batches = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_SIGNATURES; i += batchSize) {
+            batches.add(requests.subList(i, Math.min(i + batchSize, NUMBER_OF_SIGNATURES)));
+        }
+    }
+
+    /**
+     * Check every signature with a separate call.
+     *
+     * @param blackhole the blackhole to consume results
+     */
+    @Benchmark
+    public void verifyEach(final Blackhole blackhole) {
+        for (final List<SignatureVerificationRequest> batch : batches) {
+            for (final SignatureVerificationRequest request : batch) {
+                blackhole.consume(signatureVerifier.verify(request.blockHash(), request.signature()));
+            }
+        }
+    }
+
+    /**
+     * Check signatures with one call per batch.
+     *
+     * @param blackhole the blackhole to consume results
+     */
+    @Benchmark
+    public void verifyBatch(final Blackhole blackhole) {
+        for (final List<SignatureVerificationRequest> batch : batches) {
+            blackhole.consume(signatureVerifier.verifyBatch(batch));
+        }
+    }
+}
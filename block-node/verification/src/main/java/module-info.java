@@ -1,4 +1,5 @@
 // SPDX-License-Identifier: Apache-2.0
+import org.hiero.block.node.verification.DummySignatureVerifier;
 import org.hiero.block.node.verification.VerificationServicePlugin;
 
 // SPDX-License-Identifier: Apache-2.0
@@ -17,9 +18,12 @@ module org.hiero.block.node.verification {
     requires transitive org.hiero.block.node.spi;
     requires transitive org.hiero.block.protobuf;
     requires com.swirlds.metrics.api;
+    requires java.management;
     requires org.hiero.block.node.base;
     requires com.github.spotbugs.annotations;
 
     provides org.hiero.block.node.spi.BlockNodePlugin with
             VerificationServicePlugin;
+    provides org.hiero.block.node.spi.verification.SignatureVerifier with
+            DummySignatureVerifier;
 }
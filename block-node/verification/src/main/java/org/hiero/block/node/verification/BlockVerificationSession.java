@@ -7,14 +7,17 @@ import com.hedera.hapi.block.stream.BlockProof;
 import com.hedera.pbj.runtime.ParseException;
 import com.hedera.pbj.runtime.io.buffer.Bytes;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import org.hiero.block.common.hasher.HashingUtilities;
 import org.hiero.block.common.hasher.NaiveStreamingTreeHasher;
 import org.hiero.block.common.hasher.StreamingTreeHasher;
 import org.hiero.block.internal.BlockItemUnparsed;
 import org.hiero.block.internal.BlockUnparsed;
 import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
+import org.hiero.block.node.spi.verification.SignatureVerifier;
 
 /**
  * Block verification for a single block, aka. session. A new one is created for each block to verify. This is a simple
@@ -29,18 +32,63 @@ public class BlockVerificationSession {
     protected final StreamingTreeHasher outputTreeHasher;
     /**
      * The block items for the block this session is responsible for. We collect them here so we can provide the
-     * complete block in the final notification.
+     * complete block in the final notification. This stays empty if block items are not retained.
      */
     protected final List<BlockItemUnparsed> blockItems = new ArrayList<>();
+    /** True if block items are collected so the complete block can be included in the final notification. */
+    protected final boolean retainBlockItems;
+    /** The signature verifier used to check the block proof signature. */
+    protected final SignatureVerifier signatureVerifier;
+    /** The number of block items processed for this block. */
+    private long itemCount = 0;
+    /** The total protobuf encoded size in bytes of the block items kept for this block, zero if none are kept. */
+    private long byteCount = 0;
+    /** The time in nanos spent hashing block items and adding leaves to the tree hashers. */
+    private long leafHashingNanos = 0;
+    /** The time in nanos spent computing the tree root hashes and final block hash. */
+    private long treeHashingNanos = 0;
+    /** The time in nanos spent checking the block signature. */
+    private long signatureNanos = 0;
 
     /**
-     * Constructs the session with shared initialization logic.
+     * Constructs the session with shared initialization logic, retaining block items so the complete block is included
+     * in the final notification.
      *
      * @param blockNumber the block number to verify, we pass it in even though we could extract from block items to
      *                    avoid having to duplicate parsing work of the block header.
      */
     protected BlockVerificationSession(final long blockNumber) {
+        this(blockNumber, true);
+    }
+
+    /**
+     * Constructs the session with shared initialization logic.
+     *
+     * @param blockNumber the block number to verify, we pass it in even though we could extract from block items to
+     *                    avoid having to duplicate parsing work of the block header.
+     * @param retainBlockItems true if block items should be collected and included in the final notification. When
+     *                         false the heap used by a session is independent of the block size, and the notification
+     *                         only carries the block number and hash.
+     */
+    protected BlockVerificationSession(final long blockNumber, final boolean retainBlockItems) {
+        this(blockNumber, retainBlockItems, new DummySignatureVerifier());
+    }
+
+    /**
+     * Constructs the session with shared initialization logic.
+     *
+     * @param blockNumber the block number to verify, we pass it in even though we could extract from block items to
+     *                    avoid having to duplicate parsing work of the block header.
+     * @param retainBlockItems true if block items should be collected and included in the final notification
+     * @param signatureVerifier the signature verifier used to check the block proof signature
+     */
+    protected BlockVerificationSession(
+            final long blockNumber,
+            final boolean retainBlockItems,
+            @NonNull final SignatureVerifier signatureVerifier) {
         this.blockNumber = blockNumber;
+        this.retainBlockItems = retainBlockItems;
+        this.signatureVerifier = Objects.requireNonNull(signatureVerifier);
         // using NaiveStreamingTreeHasher as we should only need single threaded
         this.inputTreeHasher = new NaiveStreamingTreeHasher();
         this.outputTreeHasher = new NaiveStreamingTreeHasher();
@@ -56,28 +104,94 @@ public class BlockVerificationSession {
      * @throws ParseException if a parsing error occurs
      */
     public VerificationNotification processBlockItems(List<BlockItemUnparsed> blockItems) throws ParseException {
+        return processBlockItems(blockItems, null);
+    }
+
+    /**
+     * Processes the provided block items by updating the tree hashers, using the leaf hashes computed on ingest where
+     * available. If the last item has a block proof, final verification is triggered.
+     *
+     * @param blockItems the block items to process
+     * @param itemHashes the precomputed leaf hashes of the block items, same size as blockItems with null entries for
+     *                   items that were not hashed, or null if none were computed
+     * @return VerificationNotification indicating the result of the verification if these items included the final
+     *          block proof otherwise null
+     * @throws ParseException if a parsing error occurs
+     */
+    public VerificationNotification processBlockItems(List<BlockItemUnparsed> blockItems, List<ByteBuffer> itemHashes)
+            throws ParseException {
+        final BlockProof blockProof = hashBlockItems(blockItems, itemHashes);
+        return blockProof == null ? null : finalizeVerification(blockProof);
+    }
+
+    /**
+     * Processes the provided block items by updating the tree hashers, without checking the signature. This allows
+     * the signature check to be done separately, for example in a batch on another thread.
+     *
+     * @param blockItems the block items to process
+     * @return the block proof if these items included the final block proof otherwise null
+     * @throws ParseException if a parsing error occurs
+     */
+    BlockProof hashBlockItems(List<BlockItemUnparsed> blockItems) throws ParseException {
+        return hashBlockItems(blockItems, null);
+    }
+
+    /**
+     * Processes the provided block items by updating the tree hashers, without checking the signature. Leaf hashes
+     * computed on ingest are used where available so only the missing ones are computed here.
+     *
+     * @param blockItems the block items to process
+     * @param itemHashes the precomputed leaf hashes of the block items, same size as blockItems with null entries for
+     *                   items that were not hashed, or null if none were computed
+     * @return the block proof if these items included the final block proof otherwise null
+     * @throws ParseException if a parsing error occurs
+     */
+    BlockProof hashBlockItems(List<BlockItemUnparsed> blockItems, List<ByteBuffer> itemHashes) throws ParseException {
         // Collect the block items for later use in producing the block notification
-        this.blockItems.addAll(blockItems);
+        if (retainBlockItems) {
+            this.blockItems.addAll(blockItems);
+            for (final BlockItemUnparsed item : blockItems) {
+                byteCount += BlockItemUnparsed.PROTOBUF.measureRecord(item);
+            }
+        }
+        final long hashingStartTime = System.nanoTime();
         // branch based on the type of block item and update respective merkle tree
-        for (BlockItemUnparsed item : blockItems) {
+        for (int i = 0; i < blockItems.size(); i++) {
+            final BlockItemUnparsed item = blockItems.get(i);
             final BlockItemUnparsed.ItemOneOfType kind = item.item().kind();
             switch (kind) {
-                case EVENT_HEADER, EVENT_TRANSACTION, ROUND_HEADER -> inputTreeHasher.addLeaf(getBlockItemHash(item));
+                case EVENT_HEADER, EVENT_TRANSACTION, ROUND_HEADER -> inputTreeHasher.addLeaf(
+                        leafHash(item, itemHashes, i));
                 case TRANSACTION_OUTPUT, STATE_CHANGES, TRANSACTION_RESULT, BLOCK_HEADER -> outputTreeHasher.addLeaf(
-                        getBlockItemHash(item));
+                        leafHash(item, itemHashes, i));
             }
         }
+        itemCount += blockItems.size();
+        leafHashingNanos += System.nanoTime() - hashingStartTime;
         // Check if this batch contains the final block proof
         final BlockItemUnparsed lastItem = blockItems.getLast();
         if (lastItem.hasBlockProof()) {
-            @SuppressWarnings("DataFlowIssue")
-            BlockProof blockProof = BlockProof.PROTOBUF.parse(lastItem.blockProof());
-            return finalizeVerification(blockProof);
+            //noinspection DataFlowIssue
+            return BlockProof.PROTOBUF.parse(lastItem.blockProof());
         }
         // was not the last item, so we are not done yet
         return null;
     }
 
+    /**
+     * Get the leaf hash for a block item, using the precomputed hash if there is one.
+     *
+     * @param item the block item
+     * @param itemHashes the precomputed leaf hashes, or null if none were computed
+     * @param index the index of the item in its batch
+     * @return the leaf hash of the item
+     */
+    private static ByteBuffer leafHash(BlockItemUnparsed item, List<ByteBuffer> itemHashes, int index) {
+        final ByteBuffer precomputed = itemHashes == null ? null : itemHashes.get(index);
+        // duplicate as the buffer is shared with other consumers of the items and reading it moves its position
+        return precomputed == null ? getBlockItemHash(item) : precomputed.duplicate();
+    }
+
     /**
      * Finalizes the block verification by computing the final block hash,
      * verifying its signature, and updating metrics accordingly.
@@ -86,25 +200,102 @@ public class BlockVerificationSession {
      * @return VerificationNotification indicating the result of the verification
      */
     VerificationNotification finalizeVerification(BlockProof blockProof) {
-        final Bytes blockHash = HashingUtilities.computeFinalBlockHash(blockProof, inputTreeHasher, outputTreeHasher);
+        final Bytes blockHash = computeBlockHash(blockProof);
         final boolean verified = verifySignature(blockHash, blockProof.blockSignature());
+        return createNotification(verified, blockHash);
+    }
+
+    /**
+     * Computes the final block hash from the tree hashers and the block proof.
+     *
+     * @param blockProof the block proof
+     * @return the root hash of the block
+     */
+    Bytes computeBlockHash(BlockProof blockProof) {
+        final long startTime = System.nanoTime();
+        final Bytes blockHash = HashingUtilities.computeFinalBlockHash(blockProof, inputTreeHasher, outputTreeHasher);
+        treeHashingNanos += System.nanoTime() - startTime;
+        return blockHash;
+    }
+
+    /**
+     * Creates the verification notification for this session once the signature has been checked.
+     *
+     * @param verified true if the block signature was valid
+     * @param blockHash the root hash of the block
+     * @return VerificationNotification indicating the result of the verification
+     */
+    VerificationNotification createNotification(final boolean verified, final Bytes blockHash) {
         return new VerificationNotification(
-                verified, blockNumber, blockHash, verified ? new BlockUnparsed(blockItems) : null);
+                verified, blockNumber, blockHash, verified && retainBlockItems ? new BlockUnparsed(blockItems) : null);
     }
 
     /**
-     * Verifies the signature of a hash, for the dummy implementation this always returns true.
+     * Verifies the signature of a hash using the configured signature verifier.
      *
      * @param hash the hash to verify
      * @param signature the signature to verify
      * @return true if the signature is valid, false otherwise
      */
     Boolean verifySignature(@NonNull Bytes hash, @NonNull Bytes signature) {
-        // TODO we are close to having real TTS signature verification, we maybe should have a config if we are work on
-        // TODO preview or production block stream and hence which verification to use
+        final long startTime = System.nanoTime();
+        final boolean verified = signatureVerifier.verify(hash, signature);
+        signatureNanos += System.nanoTime() - startTime;
+        return verified;
+    }
 
-        // Dummy implementation
-        // signature = is Hash384( BlockHash )
-        return signature.equals(HashingUtilities.noThrowSha384HashOf(hash));
+    /**
+     * Add time spent checking the signature of this block, for when the signature is checked outside this session.
+     *
+     * @param nanos the time in nanos spent checking the signature
+     */
+    void addSignatureTime(final long nanos) {
+        signatureNanos += nanos;
+    }
+
+    /**
+     * Get the number of block items processed for this block.
+     *
+     * @return the number of block items
+     */
+    long itemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Get the total protobuf encoded size of the block items kept for this block, so included in its notification.
+     * Block items are not measured when they are not kept.
+     *
+     * @return the size in bytes, zero if block items are not kept
+     */
+    long byteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Get the time spent hashing block items into tree leaves.
+     *
+     * @return the time in nanos
+     */
+    long leafHashingNanos() {
+        return leafHashingNanos;
+    }
+
+    /**
+     * Get the time spent computing the tree root hashes and final block hash.
+     *
+     * @return the time in nanos
+     */
+    long treeHashingNanos() {
+        return treeHashingNanos;
+    }
+
+    /**
+     * Get the time spent checking the block signature.
+     *
+     * @return the time in nanos
+     */
+    long signatureNanos() {
+        return signatureNanos;
     }
 }
@@ -0,0 +1,34 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.verification;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.hiero.block.common.hasher.HashingUtilities;
+import org.hiero.block.node.spi.verification.SignatureVerifier;
+
+/**
+ * The default {@link SignatureVerifier}, used until real TSS signature verification is available. It treats the
+ * signature as valid if it is the SHA-384 hash of the block hash.
+ */
+public final class DummySignatureVerifier implements SignatureVerifier {
+    /** The name of this signature verifier, used as the default in configuration. */
+    public static final String NAME = "DummySignatureVerifier";
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Dummy implementation, signature = is Hash384( BlockHash )
+     */
+    @Override
+    public boolean verify(@NonNull final Bytes blockHash, @NonNull final Bytes signature) {
+        return signature.equals(HashingUtilities.noThrowSha384HashOf(blockHash));
+    }
+}
@@ -11,23 +11,74 @@ import org.hiero.block.node.base.Loggable;
  *
  * @param type toggle between production and no-op verification services
  * @param hashCombineBatchSize the size of the batch used to combine hashes
+ * @param notificationIncludesBlock when true the complete verified block is collected in memory and sent with the
+ *                                  verification notification. When false only the block number and hash are sent, and
+ *                                  block items are not retained by the verification session. This should only be
+ *                                  disabled when the persistence plugins stream block items to unverified storage
+ *                                  themselves, such as files recent with {@code files.recent.stageUnverifiedBlocks}.
+ * @param signatureVerifier the name of the signature verifier service to use for checking block proof signatures
+ * @param asyncSignatureVerification when true block proof signatures are checked on a dedicated thread, in batches of
+ *                                   all blocks waiting for their signature check, so the cost of checking signatures
+ *                                   overlaps with hashing of the following blocks
+ * @param signatureVerificationBatchSize the maximum number of block proof signatures checked in one batch when
+ *                                       signatures are checked asynchronously
+ * @param resultCacheSize the number of recent block verification outcomes to remember, keyed on block number, block
+ *                        hash and signature, so blocks delivered more than once are notified without their signature
+ *                        being checked again. Zero disables the cache.
+ * @param metricsHistogramWindow the number of most recent blocks the verification stage histograms (p50, p99 and max
+ *                               gauges) are computed over
+ * @param sessionMaxBytes the maximum total size in bytes of the block items kept for a block that has not been
+ *                        verified yet. A block that grows larger is abandoned, its buffers released and a failed
+ *                        verification notification sent so the block is requested again. Block items are only kept
+ *                        when notificationIncludesBlock is true, otherwise the memory used by a block does not grow
+ *                        with its size and this limit does not apply.
+ * @param sessionTimeoutMillis the time in milliseconds without receiving block items after which a block that has not
+ *                             been completed is abandoned, its buffers released and a failed verification
+ *                             notification sent so the block is requested again. Zero disables the timeout.
  */
 @ConfigData("verification")
 public record VerificationConfig(
         @Loggable @ConfigProperty(defaultValue = "PRODUCTION") VerificationServiceType type,
-        @Loggable @ConfigProperty(defaultValue = "32") int hashCombineBatchSize) {
+        @Loggable @ConfigProperty(defaultValue = "32") int hashCombineBatchSize,
+        @Loggable @ConfigProperty(defaultValue = "true") boolean notificationIncludesBlock,
+        @Loggable @ConfigProperty(defaultValue = DummySignatureVerifier.NAME) String signatureVerifier,
+        @Loggable @ConfigProperty(defaultValue = "false") boolean asyncSignatureVerification,
+        @Loggable @ConfigProperty(defaultValue = "16") int signatureVerificationBatchSize,
+        @Loggable @ConfigProperty(defaultValue = "1024") int resultCacheSize,
+        @Loggable @ConfigProperty(defaultValue = "1024") int metricsHistogramWindow,
+        @Loggable @ConfigProperty(defaultValue = "268435456") long sessionMaxBytes,
+        @Loggable @ConfigProperty(defaultValue = "30000") int sessionTimeoutMillis) {
 
     /**
      * Constructs a new instance of {@link VerificationConfig}.
      *
      * @param type toggle between PRODUCTION and NO_OP verification services
      * @param hashCombineBatchSize the size of the batch used to combine hashes
+     * @param notificationIncludesBlock if the complete block should be included in the verification notification
+     * @param signatureVerifier the name of the signature verifier service to use
+     * @param asyncSignatureVerification if signatures should be checked asynchronously in batches
+     * @param signatureVerificationBatchSize the maximum number of signatures checked in one batch
+     * @param resultCacheSize the number of recent block verification outcomes to remember, zero to disable
+     * @param metricsHistogramWindow the number of most recent blocks the stage histograms are computed over
+     * @param sessionMaxBytes the maximum size in bytes of the block items kept for a block being verified
+     * @param sessionTimeoutMillis the time without block items after which an incomplete block is abandoned, zero to
+     *                             disable
      */
     public VerificationConfig {
         // hashCombineBatchSize must be even and greater than 2
         Preconditions.requirePositive(hashCombineBatchSize, "[VERIFICATION_HASH_COMBINE_BATCH_SIZE] must be positive");
         Preconditions.requireEven(
                 hashCombineBatchSize, "[VERIFICATION_HASH_COMBINE_BATCH_SIZE] must be even and greater than 2");
+        Preconditions.requireNotBlank(signatureVerifier, "[VERIFICATION_SIGNATURE_VERIFIER] must not be blank");
+        Preconditions.requirePositive(
+                signatureVerificationBatchSize, "[VERIFICATION_SIGNATURE_VERIFICATION_BATCH_SIZE] must be positive");
+        Preconditions.requireGreaterOrEqual(
+                resultCacheSize, 0, "[VERIFICATION_RESULT_CACHE_SIZE] must be zero or positive");
+        Preconditions.requirePositive(
+                metricsHistogramWindow, "[VERIFICATION_METRICS_HISTOGRAM_WINDOW] must be positive");
+        Preconditions.requirePositive(sessionMaxBytes, "[VERIFICATION_SESSION_MAX_BYTES] must be positive");
+        Preconditions.requireGreaterOrEqual(
+                sessionTimeoutMillis, 0, "[VERIFICATION_SESSION_TIMEOUT_MILLIS] must be zero or positive");
     }
 
     /**
@@ -0,0 +1,101 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.verification;
+
+import com.swirlds.metrics.api.Counter;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.hiero.block.common.utils.Preconditions;
+import org.hiero.block.node.spi.verification.SignatureVerificationRequest;
+
+/**
+ * Remembers the outcome of verifying recent blocks, so blocks that are delivered more than once, for example after a
+ * resend request or from more than one producer, are notified from the remembered outcome rather than queued for a
+ * signature check again.
+ * <p>
+ * Outcomes are keyed on the block number, the block root hash computed from the delivered block items and the
+ * signature from the block proof. The root hash covers every block item, so the items of a re-delivered block are
+ * still hashed to find its key, and a re-delivery with different content can never reuse the outcome of an earlier
+ * delivery. The block proof is not covered by the root hash, so the signature is part of the key as well.
+ */
+final class VerificationResultCache {
+    /** LRU map of recent verification outcomes, guarded by synchronizing on the map. */
+    private final Map<SignatureVerificationRequest, CachedResult> cache;
+    /** Metric for number of blocks notified from the cache. */
+    private final Counter cacheHits;
+    /** Metric for number of blocks that were not in the cache, so had their signature checked. */
+    private final Counter cacheMisses;
+    /** Metric for the time in nanoseconds the signature checks answered from the cache took when they were done. */
+    private final Counter cacheSavedTime;
+
+    /**
+     * Create a new verification result cache.
+     *
+     * @param maxEntries the maximum number of outcomes to remember, must be positive
+     * @param cacheHits metric for cache hits
+     * @param cacheMisses metric for cache misses
+     * @param cacheSavedTime metric for the nanoseconds of signature checks saved
+     */
+    VerificationResultCache(
+            final int maxEntries,
+            @NonNull final Counter cacheHits,
+            @NonNull final Counter cacheMisses,
+            @NonNull final Counter cacheSavedTime) {
+        Preconditions.requirePositive(maxEntries);
+        this.cacheHits = Objects.requireNonNull(cacheHits);
+        this.cacheMisses = Objects.requireNonNull(cacheMisses);
+        this.cacheSavedTime = Objects.requireNonNull(cacheSavedTime);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<SignatureVerificationRequest, CachedResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Look up the outcome of verifying a block, updating metrics. On a hit the time the signature check took when the
+     * block was first verified is counted as saved.
+     *
+     * @param request the block number, computed block hash and signature of the block
+     * @return the remembered outcome, or null if the block has not been verified recently
+     */
+    Boolean lookup(@NonNull final SignatureVerificationRequest request) {
+        final CachedResult cached;
+        synchronized (cache) {
+            cached = cache.get(request);
+        }
+        if (cached == null) {
+            cacheMisses.increment();
+            return null;
+        }
+        cacheHits.increment();
+        // counters only accept positive values
+        if (cached.signatureNanos() > 0) {
+            cacheSavedTime.add(cached.signatureNanos());
+        }
+        return cached.verified();
+    }
+
+    /**
+     * Remember the outcome of verifying a block.
+     *
+     * @param request the block number, computed block hash and signature of the block
+     * @param verified true if the block signature was valid
+     * @param signatureNanos the time in nanos the signature check took
+     */
+    void store(@NonNull final SignatureVerificationRequest request, final boolean verified, final long signatureNanos) {
+        synchronized (cache) {
+            cache.put(request, new CachedResult(verified, signatureNanos));
+        }
+    }
+
+    /**
+     * A remembered verification outcome.
+     *
+     * @param verified true if the block signature was valid
+     * @param signatureNanos the time in nanos the signature check took
+     */
+    private record CachedResult(boolean verified, long signatureNanos) {}
+}
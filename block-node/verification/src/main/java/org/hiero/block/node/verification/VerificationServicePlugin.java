@@ -2,30 +2,77 @@
 package org.hiero.block.node.verification;
 
 import static java.lang.System.Logger.Level.ERROR;
+import static java.lang.System.Logger.Level.INFO;
 import static java.lang.System.Logger.Level.WARNING;
 
+import com.hedera.hapi.block.stream.BlockProof;
+import com.hedera.pbj.runtime.io.buffer.Bytes;
 import com.swirlds.metrics.api.Counter;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import org.hiero.block.node.spi.BlockNodeContext;
 import org.hiero.block.node.spi.BlockNodePlugin;
 import org.hiero.block.node.spi.ServiceBuilder;
 import org.hiero.block.node.spi.blockmessaging.BlockItemHandler;
 import org.hiero.block.node.spi.blockmessaging.BlockItems;
 import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
+import org.hiero.block.node.spi.verification.SignatureVerificationRequest;
+import org.hiero.block.node.spi.verification.SignatureVerifier;
 
 /** Provides implementation for the health endpoints of the server. */
 @SuppressWarnings("unused")
 public class VerificationServicePlugin implements BlockNodePlugin, BlockItemHandler {
     /** The logger for this class. */
     private final System.Logger LOGGER = System.getLogger(getClass().getName());
+    /** The interval in millis between updates of the stage histogram gauges. */
+    private static final long HISTOGRAM_UPDATE_INTERVAL_MILLIS = 1_000;
+    /** The thread MX bean, used to measure the CPU time used by verification threads. */
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    /** True if the JVM supports measuring CPU time of the current thread. */
+    private static final boolean THREAD_CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
     /** The block node context, for access to core facilities. */
     private BlockNodeContext context;
     /** The configuration for verification */
-    @SuppressWarnings("FieldCanBeLocal")
     private VerificationConfig verificationConfig;
-    /** The current verification session, a new one is created each block. */
+    /** The signature verifier used to check block proof signatures. */
+    private SignatureVerifier signatureVerifier;
+    /** The outcomes of verifying recent blocks, null if the result cache is disabled. */
+    private VerificationResultCache resultCache;
+    /** The executor for checking signatures asynchronously, null if signatures are checked inline. */
+    private ExecutorService signatureExecutor;
+    /** Executor wrapping signatureExecutor, that accounts the CPU time used by the tasks it runs. */
+    private Executor signatureCpuAccountingExecutor;
+    /** Blocks waiting for their signature to be checked asynchronously, in block order. Also used as lock. */
+    private final ArrayDeque<PendingSignature> pendingSignatures = new ArrayDeque<>();
+    /** True while a batch of signatures is being checked, guarded by pendingSignatures. */
+    private boolean signatureBatchInFlight = false;
+    /** The executor for checking for timed out sessions, null if the session timeout is disabled. */
+    private ExecutorService sessionTimeoutExecutor;
+    /** The executor for updating the stage histogram gauges, off the block verification path. */
+    private ExecutorService histogramUpdateExecutor;
+    /**
+     * Lock guarding the current session, held by the block item handler thread while processing items so the session
+     * timeout check does not abandon a session that is in use.
+     */
+    private final ReentrantLock sessionLock = new ReentrantLock();
+    /**
+     * The current verification session, a new one is created each block. Null once the block has been completed or
+     * abandoned.
+     */
     private BlockVerificationSession currentSession;
+    /** The time in nanos when block items were last received for the current session. */
+    private long lastSessionActivityTime;
+    /** True if the current block was abandoned, so the rest of its items are discarded till the next block header. */
+    private boolean discardingCurrentBlock = false;
     /** The current block number being verified. */
     private long currentBlockNumber = -1;
     /** The time when block verification started. */
@@ -40,6 +87,28 @@ public class VerificationServicePlugin implements BlockNodePlugin, BlockItemHand
     private Counter verificationBlocksError;
     /** Metric for block verification time. */
     private Counter verificationBlockTime;
+    /** Metric for number of blocks notified from the result cache. */
+    private Counter verificationCacheHits;
+    /** Metric for number of blocks that missed the result cache. */
+    private Counter verificationCacheMisses;
+    /** Metric for the time the signature checks answered from the result cache took when they were done. */
+    private Counter verificationCacheSavedTime;
+    /** Metric for number of incomplete blocks abandoned for exceeding the memory budget or timing out. */
+    private Counter verificationSessionsAbandoned;
+    /** Metric for CPU time used by the block item handler thread, when it is a platform thread. */
+    private Counter verificationHandlerCpuTime;
+    /** Metric for CPU time used by the asynchronous signature check thread. */
+    private Counter verificationSignatureCpuTime;
+    /** Histogram of time spent hashing block items into tree leaves, per block. */
+    private WindowedHistogram leafHashingTimeHistogram;
+    /** Histogram of time spent computing tree root hashes and the final block hash, per block. */
+    private WindowedHistogram treeHashingTimeHistogram;
+    /** Histogram of time spent checking block signatures, per block. */
+    private WindowedHistogram signatureTimeHistogram;
+    /** Histogram of the number of items per block. */
+    private WindowedHistogram itemsPerBlockHistogram;
+    /** Histogram of the number of bytes per block. */
+    private WindowedHistogram bytesPerBlockHistogram;
 
     /**
      * {@inheritDoc}
@@ -62,6 +131,31 @@ public class VerificationServicePlugin implements BlockNodePlugin, BlockItemHand
         // however we should have one for pubKey, not sure if we will be able to get the pubKey from state from the very
         // beginning.
         verificationConfig = context.configuration().getConfigData(VerificationConfig.class);
+        // find the configured signature verifier
+        signatureVerifier = context.serviceLoader()
+                .loadServices(SignatureVerifier.class)
+                .filter(verifier -> verifier.name().equals(verificationConfig.signatureVerifier()))
+                .findFirst()
+                .orElse(null);
+        if (signatureVerifier == null) {
+            if (!DummySignatureVerifier.NAME.equals(verificationConfig.signatureVerifier())) {
+                throw new IllegalStateException(
+                        "No signature verifier found with name: " + verificationConfig.signatureVerifier());
+            }
+            signatureVerifier = new DummySignatureVerifier();
+        }
+        LOGGER.log(INFO, "Using signature verifier: {0}", signatureVerifier.name());
+        if (verificationConfig.asyncSignatureVerification()) {
+            signatureExecutor = context.threadPoolManager().createSingleThreadExecutor("VerificationSignatures");
+            signatureCpuAccountingExecutor = command -> signatureExecutor.execute(() -> {
+                final long cpuStartTime = currentThreadCpuTime();
+                try {
+                    command.run();
+                } finally {
+                    addCpuTime(verificationSignatureCpuTime, cpuStartTime);
+                }
+            });
+        }
         // create metrics for this plugin
         verificationBlocksReceived =
                 metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "verification_blocks_received")
@@ -76,6 +170,48 @@ public class VerificationServicePlugin implements BlockNodePlugin, BlockItemHand
                 .withDescription("Blocks Verification Error"));
         verificationBlockTime = metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "verification_block_time")
                 .withDescription("Block Verification Time"));
+        verificationCacheHits = metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "verification_cache_hits")
+                .withDescription("Blocks Notified From Result Cache"));
+        verificationCacheMisses = metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "verification_cache_misses")
+                .withDescription("Blocks Missing Result Cache"));
+        verificationCacheSavedTime =
+                metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "verification_cache_saved_time")
+                        .withDescription("Signature Check Time Saved By Result Cache (ns)"));
+        verificationSessionsAbandoned =
+                metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "verification_sessions_abandoned")
+                        .withDescription("Incomplete Blocks Abandoned For Exceeding Memory Budget Or Timing Out"));
+        verificationHandlerCpuTime =
+                metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "verification_handler_cpu_time")
+                        .withDescription("CPU Time Used By Block Item Handler Platform Thread (ns)"));
+        verificationSignatureCpuTime =
+                metrics.getOrCreate(new Counter.Config(METRICS_CATEGORY, "verification_signature_cpu_time")
+                        .withDescription("CPU Time Used By Async Signature Check Thread (ns)"));
+        final int histogramWindow = verificationConfig.metricsHistogramWindow();
+        leafHashingTimeHistogram = new WindowedHistogram(
+                metrics,
+                METRICS_CATEGORY,
+                "verification_leaf_hashing_time",
+                "Block Leaf Hashing Time (ns)",
+                histogramWindow);
+        treeHashingTimeHistogram = new WindowedHistogram(
+                metrics,
+                METRICS_CATEGORY,
+                "verification_tree_hashing_time",
+                "Block Tree Finalisation Time (ns)",
+                histogramWindow);
+        signatureTimeHistogram = new WindowedHistogram(
+                metrics, METRICS_CATEGORY, "verification_signature_time", "Block Signature Time (ns)", histogramWindow);
+        itemsPerBlockHistogram = new WindowedHistogram(
+                metrics, METRICS_CATEGORY, "verification_block_items", "Items Per Block", histogramWindow);
+        bytesPerBlockHistogram = new WindowedHistogram(
+                metrics, METRICS_CATEGORY, "verification_block_bytes", "Bytes Per Block", histogramWindow);
+        if (verificationConfig.resultCacheSize() > 0) {
+            resultCache = new VerificationResultCache(
+                    verificationConfig.resultCacheSize(),
+                    verificationCacheHits,
+                    verificationCacheMisses,
+                    verificationCacheSavedTime);
+        }
     }
 
     /**
@@ -87,6 +223,29 @@ public class VerificationServicePlugin implements BlockNodePlugin, BlockItemHand
         // specify that we are cpu intensive and should be run on a separate non-virtual thread
         context.blockMessaging().registerBlockItemHandler(this, true, VerificationServicePlugin.class.getSimpleName());
         // we do not need to unregister the handler as it will be unregistered when the message service is stopped
+        if (verificationConfig.sessionTimeoutMillis() > 0) {
+            sessionTimeoutExecutor =
+                    context.threadPoolManager().createSingleThreadExecutor("VerificationSessionTimeout");
+            scheduleSessionTimeoutCheck();
+        }
+        histogramUpdateExecutor = context.threadPoolManager().createSingleThreadExecutor("VerificationHistograms");
+        scheduleHistogramUpdate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop() {
+        if (signatureExecutor != null) {
+            signatureExecutor.shutdownNow();
+        }
+        if (sessionTimeoutExecutor != null) {
+            sessionTimeoutExecutor.shutdownNow();
+        }
+        if (histogramUpdateExecutor != null) {
+            histogramUpdateExecutor.shutdownNow();
+        }
     }
 
     // ==== BlockItemHandler Methods ===================================================================================
@@ -99,6 +258,8 @@ public class VerificationServicePlugin implements BlockNodePlugin, BlockItemHand
      */
     @Override
     public void handleBlockItemsReceived(BlockItems blockItems) {
+        final long cpuStartTime = currentThreadCpuTime();
+        sessionLock.lock();
         try {
             if (!context.serverHealth().isRunning()) {
                 LOGGER.log(ERROR, "Service is not running. Block item will not be processed further.");
@@ -112,26 +273,36 @@ public class VerificationServicePlugin implements BlockNodePlugin, BlockItemHand
                 // start working time
                 blockWorkStartTime = System.nanoTime();
                 // start new session and set it as current
-                currentSession = new BlockVerificationSession(currentBlockNumber);
+                currentSession = new BlockVerificationSession(
+                        currentBlockNumber, verificationConfig.notificationIncludesBlock(), signatureVerifier);
+                discardingCurrentBlock = false;
             }
             if (currentSession == null) {
+                if (discardingCurrentBlock) {
+                    // the rest of an abandoned block, which is going to be resent
+                    return;
+                }
                 // todo(452): correctly propagate this exception to the rest of the system, so it can be handled
                 // from Jasper, this should be normal and just ignored, logging is fine. It will happen normally
                 // anytime a block node is started in a already running network. Maybe we can check if it happening
                 // when the block node is just starting vs in the middle of running normal as that should not happen.
                 LOGGER.log(ERROR, "Received block items before a block header.");
             } else {
-                VerificationNotification notification = currentSession.processBlockItems(blockItems.blockItems());
-                if (notification != null) {
-                    if (notification.success()) {
-                        verificationBlocksVerified.increment();
-                        verificationBlockTime.add(System.nanoTime() - blockWorkStartTime);
-                    } else {
-                        verificationBlocksFailed.increment();
-                        verificationBlockTime.add(System.nanoTime() - blockWorkStartTime);
-                        LOGGER.log(WARNING, "Block verification failed for block number: {0}", currentBlockNumber);
-                    }
-                    context.blockMessaging().sendBlockVerification(notification);
+                final BlockVerificationSession session = currentSession;
+                lastSessionActivityTime = System.nanoTime();
+                final BlockProof blockProof = session.hashBlockItems(blockItems.blockItems(), blockItems.itemHashes());
+                if (blockProof != null) {
+                    // block is complete, so it no longer needs to be tracked as the current session
+                    currentSession = null;
+                    final Bytes blockHash = session.computeBlockHash(blockProof);
+                    completeBlock(
+                            session,
+                            new SignatureVerificationRequest(
+                                    currentBlockNumber, blockHash, blockProof.blockSignature()));
+                }
+                // only the block items a session keeps for its notification are counted, as they are what grows
+                if (currentSession != null && currentSession.byteCount() > verificationConfig.sessionMaxBytes()) {
+                    abandonCurrentSession("block items exceeded " + verificationConfig.sessionMaxBytes() + " bytes");
                 }
             }
         } catch (final Exception e) {
@@ -140,6 +311,374 @@ public class VerificationServicePlugin implements BlockNodePlugin, BlockItemHand
             // TODO is shutting down here really the right thing to do?
             // Trigger the server to stop accepting new requests
             context.serverHealth().shutdown(VerificationServicePlugin.class.getSimpleName(), e.getMessage());
+        } finally {
+            sessionLock.unlock();
+            addCpuTime(verificationHandlerCpuTime, cpuStartTime);
+        }
+    }
+
+    // ==== Private Methods ============================================================================================
+
+    /**
+     * Get the CPU time used by the current thread. The JVM can only measure platform threads, so this is -1 on a
+     * virtual thread, or if the JVM does not support measuring it.
+     *
+     * @return the CPU time in nanos, or -1 if it can not be measured
+     */
+    private static long currentThreadCpuTime() {
+        if (!THREAD_CPU_TIME_SUPPORTED || Thread.currentThread().isVirtual()) {
+            return -1;
+        }
+        return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Add the CPU time used by the current thread since a start time to a counter. Nothing is added if the CPU time
+     * could not be measured.
+     *
+     * @param counter the counter to add to
+     * @param cpuStartTime the CPU time of the current thread at the start, in nanos, or -1 if it was not measured
+     */
+    private static void addCpuTime(final Counter counter, final long cpuStartTime) {
+        if (cpuStartTime < 0) {
+            return;
+        }
+        final long cpuTime = currentThreadCpuTime() - cpuStartTime;
+        // counters only accept positive values
+        if (cpuTime > 0) {
+            counter.add(cpuTime);
+        }
+    }
+
+    /**
+     * Schedule the next update of the stage histogram gauges on the histogram update executor. Each update schedules
+     * the next one, so sorting the histogram windows never happens on the block verification path.
+     */
+    private void scheduleHistogramUpdate() {
+        CompletableFuture.delayedExecutor(
+                        HISTOGRAM_UPDATE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS, histogramUpdateExecutor)
+                .execute(() -> {
+                    updateHistogramGauges();
+                    if (!histogramUpdateExecutor.isShutdown()) {
+                        scheduleHistogramUpdate();
+                    }
+                });
+    }
+
+    /**
+     * Update the gauges of all the stage histograms from the values recorded since the last update.
+     */
+    void updateHistogramGauges() {
+        leafHashingTimeHistogram.updateGauges();
+        treeHashingTimeHistogram.updateGauges();
+        signatureTimeHistogram.updateGauges();
+        itemsPerBlockHistogram.updateGauges();
+        bytesPerBlockHistogram.updateGauges();
+    }
+
+    /**
+     * Schedule the next check for a timed out session on the session timeout executor. Each check schedules the next
+     * one, so there is never more than one check waiting.
+     */
+    private void scheduleSessionTimeoutCheck() {
+        // check twice per timeout period, so a session is abandoned at most 1.5 timeout periods after its last items
+        final long checkIntervalMillis = Math.max(1, verificationConfig.sessionTimeoutMillis() / 2);
+        CompletableFuture.delayedExecutor(checkIntervalMillis, TimeUnit.MILLISECONDS, sessionTimeoutExecutor)
+                .execute(() -> {
+                    checkSessionTimeout(System.nanoTime());
+                    if (!sessionTimeoutExecutor.isShutdown()) {
+                        scheduleSessionTimeoutCheck();
+                    }
+                });
+    }
+
+    /**
+     * Abandon the current session if no block items have been received for it within the session timeout. If the
+     * block item handler is busy with the session then it is not timed out, so the check is skipped.
+     *
+     * @param nowNanos the current time from {@link System#nanoTime()}, given so tests can check as if time had passed
+     */
+    void checkSessionTimeout(final long nowNanos) {
+        if (sessionLock.tryLock()) {
+            try {
+                final long timeoutNanos = verificationConfig.sessionTimeoutMillis() * 1_000_000L;
+                if (currentSession != null && nowNanos - lastSessionActivityTime > timeoutNanos) {
+                    abandonCurrentSession(
+                            "no block items received for " + verificationConfig.sessionTimeoutMillis() + "ms");
+                }
+            } finally {
+                sessionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Abandon the current incomplete session, releasing its buffers and sending a failed verification notification so
+     * the block is requested again straight away. When signatures are checked asynchronously the notification is queued
+     * behind the blocks waiting for their signature check, so notifications are still sent in block order. The rest of
+     * the block's items are discarded. Must be called holding the sessionLock.
+     *
+     * @param reason the reason the session is abandoned, for logging
+     */
+    private void abandonCurrentSession(final String reason) {
+        final long blockNumber = currentSession.blockNumber;
+        LOGGER.log(WARNING, "Abandoning verification of block {0} because {1}", blockNumber, reason);
+        currentSession = null;
+        discardingCurrentBlock = true;
+        verificationSessionsAbandoned.increment();
+        if (signatureExecutor != null) {
+            submitSignatureCheck(new PendingSignature(blockNumber, null, null, null, blockWorkStartTime));
+        } else {
+            context.blockMessaging()
+                    .sendBlockVerification(new VerificationNotification(false, blockNumber, null, null));
+        }
+    }
+
+    /**
+     * Complete a block that has been hashed. If the same block was verified recently its notification is sent from the
+     * remembered outcome, otherwise its signature is checked, asynchronously if configured. When signatures are checked
+     * asynchronously a block with a remembered outcome is still queued, so notifications are sent in block order.
+     *
+     * @param session the verification session for the block
+     * @param request the block number, computed block hash and signature of the block
+     */
+    private void completeBlock(final BlockVerificationSession session, final SignatureVerificationRequest request) {
+        final Boolean cachedResult = resultCache == null ? null : resultCache.lookup(request);
+        if (signatureExecutor != null) {
+            submitSignatureCheck(
+                    new PendingSignature(request.blockNumber(), session, request, cachedResult, blockWorkStartTime));
+            return;
+        }
+        final boolean verified;
+        if (cachedResult != null) {
+            verified = cachedResult;
+        } else {
+            verified = session.verifySignature(request.blockHash(), request.signature());
+            storeResult(request, verified, session.signatureNanos());
+        }
+        sendNotification(session, session.createNotification(verified, request.blockHash()), blockWorkStartTime);
+    }
+
+    /**
+     * Remember the outcome of checking a block's signature, if the result cache is enabled.
+     *
+     * @param request the block number, computed block hash and signature of the block
+     * @param verified true if the block signature was valid
+     * @param signatureNanos the time in nanos the signature check took
+     */
+    private void storeResult(
+            final SignatureVerificationRequest request, final boolean verified, final long signatureNanos) {
+        if (resultCache != null) {
+            resultCache.store(request, verified, signatureNanos);
+        }
+    }
+
+    /**
+     * Update metrics for a completed block verification and send the verification notification.
+     *
+     * @param session the verification session for the block, used for per stage metrics
+     * @param notification the verification notification to send
+     * @param workStartTime the time in nanos when work on the block started
+     */
+    private void sendNotification(
+            final BlockVerificationSession session,
+            final VerificationNotification notification,
+            final long workStartTime) {
+        if (notification.success()) {
+            verificationBlocksVerified.increment();
+        } else {
+            verificationBlocksFailed.increment();
+            LOGGER.log(WARNING, "Block verification failed for block number: {0}", notification.blockNumber());
+        }
+        verificationBlockTime.add(System.nanoTime() - workStartTime);
+        leafHashingTimeHistogram.record(session.leafHashingNanos());
+        treeHashingTimeHistogram.record(session.treeHashingNanos());
+        signatureTimeHistogram.record(session.signatureNanos());
+        itemsPerBlockHistogram.record(session.itemCount());
+        if (session.retainBlockItems) {
+            bytesPerBlockHistogram.record(session.byteCount());
+        }
+        context.blockMessaging().sendBlockVerification(notification);
+    }
+
+    /**
+     * Queue a block for its signature to be checked asynchronously, or an abandoned block for its failed notification
+     * to be sent in order. If no batch is being checked then a new batch is started straight away, otherwise the block
+     * will be included in the batch started when the current one completes.
+     *
+     * @param pendingSignature the block waiting for its signature check or notification
+     */
+    private void submitSignatureCheck(final PendingSignature pendingSignature) {
+        final List<PendingSignature> batch;
+        synchronized (pendingSignatures) {
+            pendingSignatures.add(pendingSignature);
+            if (signatureBatchInFlight) {
+                return;
+            }
+            batch = takeSignatureBatch();
+        }
+        checkSignatureBatch(batch);
+    }
+
+    /**
+     * Take the next batch of pending signatures, must be called holding the pendingSignatures lock.
+     *
+     * @return the next batch, empty if there are no pending signatures
+     */
+    private List<PendingSignature> takeSignatureBatch() {
+        final int batchSize = Math.min(pendingSignatures.size(), verificationConfig.signatureVerificationBatchSize());
+        final List<PendingSignature> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(pendingSignatures.poll());
+        }
+        signatureBatchInFlight = !batch.isEmpty();
+        return batch;
+    }
+
+    /**
+     * Check a batch of signatures on the signature executor, then send notifications for the batch in block order and
+     * start on the next batch if there is one. Only one batch is in flight at a time, so notifications are always sent
+     * in the order blocks were received. The next batch is always taken, even if the batch fails, so a failure never
+     * stalls the blocks queued behind it.
+     *
+     * @param batch the batch of blocks to check signatures for
+     */
+    private void checkSignatureBatch(final List<PendingSignature> batch) {
+        final List<SignatureVerificationRequest> requests = batch.stream()
+                .filter(PendingSignature::needsCheck)
+                .map(PendingSignature::request)
+                .toList();
+        final long batchStartTime = System.nanoTime();
+        CompletableFuture<boolean[]> batchResults;
+        try {
+            batchResults = requests.isEmpty()
+                    ? CompletableFuture.completedFuture(new boolean[0])
+                    : signatureVerifier.verifyBatchAsync(requests, signatureCpuAccountingExecutor);
+        } catch (final RuntimeException e) {
+            batchResults = CompletableFuture.failedFuture(e);
+        }
+        batchResults.whenComplete((results, error) -> {
+            try {
+                if (error != null) {
+                    LOGGER.log(ERROR, "Failed to verify block signatures: ", error);
+                }
+                sendBatchNotifications(batch, error == null ? results : null, batchStartTime);
+            } finally {
+                final List<PendingSignature> nextBatch;
+                synchronized (pendingSignatures) {
+                    nextBatch = takeSignatureBatch();
+                }
+                if (!nextBatch.isEmpty()) {
+                    checkSignatureBatch(nextBatch);
+                }
+            }
+        });
+    }
+
+    /**
+     * Send the notifications for a batch of blocks whose signatures have been checked, in block order. A block whose
+     * signature could not be checked, or whose notification can not be created or sent, is reported as failed without
+     * affecting the rest of the batch.
+     *
+     * @param batch the batch of blocks, including abandoned blocks and blocks with a remembered outcome
+     * @param results the signature check results, in the same order as the blocks in the batch that needed a check, or
+     *                null if the signatures could not be checked
+     * @param batchStartTime the time in nanos when the batch check started
+     */
+    private void sendBatchNotifications(
+            final List<PendingSignature> batch, final boolean[] results, final long batchStartTime) {
+        // share the batch time equally between the blocks in the batch that had their signature checked
+        final long signatureTimePerBlock =
+                results == null ? 0 : (System.nanoTime() - batchStartTime) / Math.max(1, results.length);
+        int resultIndex = 0;
+        for (final PendingSignature pending : batch) {
+            if (pending.abandoned()) {
+                sendFailedNotification(pending.blockNumber());
+                continue;
+            }
+            if (pending.needsCheck() && results == null) {
+                sendVerificationError(pending);
+                continue;
+            }
+            try {
+                final boolean verified;
+                if (pending.needsCheck()) {
+                    verified = results[resultIndex++];
+                    pending.session().addSignatureTime(signatureTimePerBlock);
+                    storeResult(pending.request(), verified, signatureTimePerBlock);
+                } else {
+                    verified = pending.cachedResult();
+                }
+                sendNotification(
+                        pending.session(),
+                        pending.session().createNotification(verified, pending.request().blockHash()),
+                        pending.workStartTime());
+            } catch (final RuntimeException e) {
+                LOGGER.log(ERROR, "Failed to send verification notification for block " + pending.blockNumber(), e);
+                sendVerificationError(pending);
+            }
+        }
+    }
+
+    /**
+     * Report a block that could not be verified because of an error, by sending a failed verification notification so
+     * the block is requested again. Abandoned blocks are not errors, they are just sent their failed notification.
+     *
+     * @param pending the block that could not be verified
+     */
+    private void sendVerificationError(final PendingSignature pending) {
+        if (!pending.abandoned()) {
+            verificationBlocksError.increment();
+        }
+        sendFailedNotification(pending.blockNumber());
+    }
+
+    /**
+     * Send a failed verification notification for a block, so it is requested again.
+     *
+     * @param blockNumber the block number
+     */
+    private void sendFailedNotification(final long blockNumber) {
+        try {
+            context.blockMessaging()
+                    .sendBlockVerification(new VerificationNotification(false, blockNumber, null, null));
+        } catch (final RuntimeException e) {
+            LOGGER.log(ERROR, "Failed to send failed verification notification for block " + blockNumber, e);
+        }
+    }
+
+    /**
+     * A block that has been hashed and is waiting for its signature to be checked, or for its notification to be sent
+     * in order because it was abandoned or its outcome is remembered.
+     *
+     * @param blockNumber the block number
+     * @param session the verification session for the block, null if the block was abandoned
+     * @param request the signature check request, null if the block was abandoned
+     * @param cachedResult the remembered outcome of verifying the same block, null if there is none
+     * @param workStartTime the time in nanos when work on the block started
+     */
+    private record PendingSignature(
+            long blockNumber,
+            BlockVerificationSession session,
+            SignatureVerificationRequest request,
+            Boolean cachedResult,
+            long workStartTime) {
+        /**
+         * Check if the block was abandoned, so has no signature to check.
+         *
+         * @return true if the block was abandoned
+         */
+        boolean abandoned() {
+            return session == null;
+        }
+
+        /**
+         * Check if the block's signature needs to be checked by the signature verifier.
+         *
+         * @return true if the block was not abandoned and has no remembered outcome
+         */
+        boolean needsCheck() {
+            return session != null && cachedResult == null;
         }
     }
 }
@@ -0,0 +1,101 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.verification;
+
+import com.swirlds.metrics.api.LongGauge;
+import com.swirlds.metrics.api.Metrics;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Arrays;
+import java.util.Objects;
+import org.hiero.block.common.utils.Preconditions;
+
+/**
+ * A histogram over the most recent values recorded, published as p50, p99 and max gauges. The metrics API does not
+ * have a histogram type, so this keeps a fixed size window of values. Recording a value only stores it in the window,
+ * the window is sorted and the gauges set when {@link #updateGauges()} is called periodically off the block
+ * verification path. Thread safe, values can be recorded from the block item handler and signature threads.
+ */
+final class WindowedHistogram {
+    /** The gauge for the 50th percentile of the window. */
+    private final LongGauge p50;
+    /** The gauge for the 99th percentile of the window. */
+    private final LongGauge p99;
+    /** The gauge for the max of the window. */
+    private final LongGauge max;
+    /** Ring buffer of the most recent values. */
+    private final long[] window;
+    /** Scratch array used for sorting the window, so we do not allocate each time the gauges are updated. */
+    private final long[] sorted;
+    /** The total number of values recorded. */
+    private long count = 0;
+    /** The number of values recorded when the gauges were last updated. */
+    private long updatedCount = 0;
+
+    /**
+     * Create a new histogram, registering its gauges as {@code <name>_p50}, {@code <name>_p99} and {@code <name>_max}.
+     *
+     * @param metrics the metrics to register the gauges with
+     * @param category the metrics category
+     * @param name the base name for the gauges
+     * @param description the description of the recorded values
+     * @param windowSize the number of most recent values to compute the percentiles over
+     */
+    WindowedHistogram(
+            @NonNull final Metrics metrics,
+            @NonNull final String category,
+            @NonNull final String name,
+            @NonNull final String description,
+            final int windowSize) {
+        Objects.requireNonNull(metrics);
+        Preconditions.requirePositive(windowSize);
+        this.p50 = metrics.getOrCreate(
+                new LongGauge.Config(category, name + "_p50").withDescription(description + " (p50)"));
+        this.p99 = metrics.getOrCreate(
+                new LongGauge.Config(category, name + "_p99").withDescription(description + " (p99)"));
+        this.max = metrics.getOrCreate(
+                new LongGauge.Config(category, name + "_max").withDescription(description + " (max)"));
+        this.window = new long[windowSize];
+        this.sorted = new long[windowSize];
+    }
+
+    /**
+     * Record a value in the window. The gauges are not updated till {@link #updateGauges()} is next called.
+     *
+     * @param value the value to record
+     */
+    synchronized void record(final long value) {
+        window[(int) (count % window.length)] = value;
+        count++;
+    }
+
+    /**
+     * Update the gauges from the values in the window, if any have been recorded since the last update. The window is
+     * copied holding the lock and sorted outside it, so recording is never held up by sorting. Must only be called by
+     * one thread at a time.
+     */
+    void updateGauges() {
+        final int size;
+        synchronized (this) {
+            if (count == updatedCount) {
+                return;
+            }
+            updatedCount = count;
+            size = (int) Math.min(count, window.length);
+            System.arraycopy(window, 0, sorted, 0, size);
+        }
+        Arrays.sort(sorted, 0, size);
+        p50.set(sorted[percentileIndex(size, 50)]);
+        p99.set(sorted[percentileIndex(size, 99)]);
+        max.set(sorted[size - 1]);
+    }
+
+    /**
+     * Compute the index of a percentile in a sorted array, using the nearest rank method.
+     *
+     * @param size the number of values in the sorted array
+     * @param percentile the percentile, between 1 and 100
+     * @return the index of the percentile value
+     */
+    private static int percentileIndex(final int size, final int percentile) {
+        return Math.max(0, (int) Math.ceil(size * percentile / 100.0) - 1);
+    }
+}
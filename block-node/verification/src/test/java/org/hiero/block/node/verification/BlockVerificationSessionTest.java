@@ -4,7 +4,9 @@ package org.hiero.block.node.verification;
 import com.hedera.hapi.block.stream.output.BlockHeader;
 import com.hedera.pbj.runtime.ParseException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
+import org.hiero.block.common.hasher.HashingUtilities;
 import org.hiero.block.common.utils.ChunkUtils;
 import org.hiero.block.internal.BlockItemUnparsed;
 import org.hiero.block.node.app.fixtures.blocks.BlockUtils;
@@ -66,6 +68,29 @@ class BlockVerificationSessionTest {
                 "The block should be the same as the one sent");
     }
 
+    /**
+     * Happy path test for the BlockVerificationSession class when block items are not retained.
+     * */
+    @Test
+    void happyPath_withoutRetainingItems() throws ParseException {
+        long blockNumber = sampleBlockInfo.blockNumber();
+
+        BlockVerificationSession session = new BlockVerificationSession(blockNumber, false);
+
+        VerificationNotification blockNotification = session.processBlockItems(blockItems);
+
+        Assertions.assertTrue(session.blockItems.isEmpty(), "The session should not retain any block items");
+
+        Assertions.assertTrue(blockNotification.success(), "The block notification should be successful");
+
+        Assertions.assertEquals(
+                sampleBlockInfo.blockRootHash(),
+                blockNotification.blockHash(),
+                "The block hash should be the same as the one in the block header");
+
+        Assertions.assertNull(blockNotification.block(), "The notification should not include the block");
+    }
+
     /**
      * Happy path test for the BlockVerificationSession class with chunked list of items, to simulate actual usage.
      * */
@@ -107,6 +132,32 @@ class BlockVerificationSessionTest {
                 "The notification's block items should be the same as ones sent in");
     }
 
+    /**
+     * Happy path test for the BlockVerificationSession class with leaf hashes precomputed on ingest, for some of the
+     * chunks only, to simulate a mix of precomputed and missing hashes.
+     * */
+    @Test
+    void happyPath_precomputedHashes_chunked() throws ParseException {
+        List<List<BlockItemUnparsed>> chunkifiedItems = ChunkUtils.chunkify(blockItems, 2);
+        long blockNumber = sampleBlockInfo.blockNumber();
+
+        BlockVerificationSession session = new BlockVerificationSession(blockNumber);
+
+        VerificationNotification blockNotification = null;
+        for (int i = 0; i < chunkifiedItems.size() && blockNotification == null; i++) {
+            final List<BlockItemUnparsed> chunk = chunkifiedItems.get(i);
+            final List<ByteBuffer> itemHashes = i % 2 == 0 ? HashingUtilities.getBlockItemLeafHashes(chunk) : null;
+            blockNotification = session.processBlockItems(chunk, itemHashes);
+        }
+
+        Assertions.assertNotNull(blockNotification, "The block notification should be sent at the block proof");
+        Assertions.assertEquals(
+                sampleBlockInfo.blockRootHash(),
+                blockNotification.blockHash(),
+                "The block hash should be the same as the one in the block header");
+        Assertions.assertTrue(blockNotification.success(), "The block notification should be successful");
+    }
+
     /**
      * Non-Happy path test for the BlockVerificationSession class with invalid hash
      * */
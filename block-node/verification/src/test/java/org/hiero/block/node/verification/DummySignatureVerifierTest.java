@@ -0,0 +1,46 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.verification;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.hiero.block.common.hasher.HashingUtilities;
+import org.hiero.block.node.spi.verification.SignatureVerificationRequest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link DummySignatureVerifier} and the default batch methods of the signature verifier interface.
+ */
+class DummySignatureVerifierTest {
+    private final DummySignatureVerifier verifier = new DummySignatureVerifier();
+    private final Bytes hash = Bytes.wrap(new byte[] {1, 2, 3, 4});
+    private final Bytes validSignature = HashingUtilities.noThrowSha384HashOf(hash);
+
+    @Test
+    void testName() {
+        assertEquals(DummySignatureVerifier.NAME, verifier.name());
+    }
+
+    @Test
+    void testVerify() {
+        assertTrue(verifier.verify(hash, validSignature));
+        assertFalse(verifier.verify(hash, hash));
+    }
+
+    @Test
+    void testVerifyBatch() throws ExecutionException, InterruptedException {
+        final List<SignatureVerificationRequest> requests = List.of(
+                new SignatureVerificationRequest(0, hash, validSignature),
+                new SignatureVerificationRequest(1, hash, hash),
+                new SignatureVerificationRequest(2, hash, validSignature));
+        assertArrayEquals(new boolean[] {true, false, true}, verifier.verifyBatch(requests));
+        assertArrayEquals(
+                new boolean[] {true, false, true},
+                verifier.verifyBatchAsync(requests, Runnable::run).get());
+    }
+}
@@ -0,0 +1,82 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.verification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.hedera.pbj.runtime.io.buffer.Bytes;
+import com.swirlds.metrics.api.Counter;
+import org.hiero.block.common.hasher.HashingUtilities;
+import org.hiero.block.node.spi.verification.SignatureVerificationRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link VerificationResultCache}.
+ */
+class VerificationResultCacheTest {
+    private final Bytes hash1 = Bytes.wrap(new byte[] {1, 2, 3});
+    private final Bytes hash2 = Bytes.wrap(new byte[] {4, 5, 6});
+    private final Bytes signature1 = HashingUtilities.noThrowSha384HashOf(hash1);
+    private final Bytes signature2 = HashingUtilities.noThrowSha384HashOf(hash2);
+    private Counter hits;
+    private Counter misses;
+    private Counter savedTime;
+    private VerificationResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        hits = mock(Counter.class);
+        misses = mock(Counter.class);
+        savedTime = mock(Counter.class);
+        cache = new VerificationResultCache(2, hits, misses, savedTime);
+    }
+
+    @Test
+    void testStoredOutcomeIsReturned() {
+        final SignatureVerificationRequest valid = new SignatureVerificationRequest(1, hash1, signature1);
+        final SignatureVerificationRequest invalid = new SignatureVerificationRequest(2, hash2, signature1);
+        assertNull(cache.lookup(valid));
+        cache.store(valid, true, 100);
+        cache.store(invalid, false, 200);
+        assertEquals(Boolean.TRUE, cache.lookup(valid));
+        assertEquals(Boolean.FALSE, cache.lookup(invalid));
+        verify(hits, times(2)).increment();
+        verify(misses, times(1)).increment();
+        // saved time is the measured time of the original signature checks
+        verify(savedTime).add(100);
+        verify(savedTime).add(200);
+    }
+
+    @Test
+    void testDifferentHashSignatureOrBlockMisses() {
+        cache = new VerificationResultCache(10, hits, misses, savedTime);
+        cache.store(new SignatureVerificationRequest(1, hash1, signature1), true, 100);
+        assertNull(cache.lookup(new SignatureVerificationRequest(1, hash2, signature1)));
+        assertNull(cache.lookup(new SignatureVerificationRequest(1, hash1, signature2)));
+        assertNull(cache.lookup(new SignatureVerificationRequest(2, hash1, signature1)));
+        verify(hits, never()).increment();
+        verify(misses, times(3)).increment();
+        verify(savedTime, never()).add(anyLong());
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() {
+        final SignatureVerificationRequest block1 = new SignatureVerificationRequest(1, hash1, signature1);
+        final SignatureVerificationRequest block2 = new SignatureVerificationRequest(2, hash2, signature2);
+        final SignatureVerificationRequest block3 = new SignatureVerificationRequest(3, hash1, signature2);
+        cache.store(block1, true, 1);
+        cache.store(block2, true, 1);
+        cache.lookup(block1);
+        // third entry evicts block 2 as block 1 was used more recently
+        cache.store(block3, true, 1);
+        assertEquals(Boolean.TRUE, cache.lookup(block1));
+        assertEquals(Boolean.TRUE, cache.lookup(block3));
+        assertNull(cache.lookup(block2));
+    }
+}
@@ -0,0 +1,154 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.verification;
+
+import static org.hiero.block.node.spi.BlockNodePlugin.METRICS_CATEGORY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hedera.pbj.runtime.ParseException;
+import com.swirlds.metrics.api.Counter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.hiero.block.internal.BlockItemUnparsed;
+import org.hiero.block.node.app.fixtures.blocks.BlockUtils;
+import org.hiero.block.node.app.fixtures.plugintest.NoBlocksHistoricalBlockFacility;
+import org.hiero.block.node.app.fixtures.plugintest.PluginTestBase;
+import org.hiero.block.node.spi.blockmessaging.BlockItems;
+import org.hiero.block.node.spi.blockmessaging.BlockNotificationHandler;
+import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link VerificationServicePlugin} with asynchronous batched signature verification.
+ */
+class VerificationServicePluginAsyncTest extends PluginTestBase<VerificationServicePlugin> {
+
+    public VerificationServicePluginAsyncTest() {
+        start(
+                new VerificationServicePlugin(),
+                new NoBlocksHistoricalBlockFacility(),
+                Map.of("verification.asyncSignatureVerification", "true"));
+    }
+
+    @Test
+    @DisplayName("Test signatures are checked on the signature executor")
+    void testAsyncVerification() throws IOException, ParseException {
+        BlockUtils.SampleBlockInfo sampleBlockInfo =
+                BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+        List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+        long blockNumber = sampleBlockInfo.blockNumber();
+
+        blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+        // the signature check has not run yet, so there should be no notification
+        assertEquals(0, blockMessaging.getSentVerificationNotifications().size());
+
+        testThreadPoolManager.executor().executeSerially();
+
+        VerificationNotification blockNotification =
+                blockMessaging.getSentVerificationNotifications().getFirst();
+        assertEquals(blockNumber, blockNotification.blockNumber());
+        assertTrue(blockNotification.success(), "The verification should be successful");
+        assertEquals(sampleBlockInfo.blockRootHash(), blockNotification.blockHash());
+        assertEquals(sampleBlockInfo.blockUnparsed(), blockNotification.block());
+    }
+
+    @Test
+    @DisplayName("Test blocks queued while a batch is in flight are checked in a following batch, in order")
+    void testAsyncVerificationBatchesInOrder() throws IOException, ParseException {
+        BlockUtils.SampleBlockInfo sampleBlockInfo =
+                BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+        List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+        long blockNumber = sampleBlockInfo.blockNumber();
+        // remove one block item from the second copy, so its hash is no longer valid
+        List<BlockItemUnparsed> badBlockItems = new ArrayList<>(blockItems);
+        badBlockItems.remove(3);
+
+        blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+        blockMessaging.sendBlockItems(new BlockItems(badBlockItems, blockNumber));
+        blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+        assertEquals(0, blockMessaging.getSentVerificationNotifications().size());
+
+        testThreadPoolManager.executor().executeSerially();
+
+        List<VerificationNotification> notifications = blockMessaging.getSentVerificationNotifications();
+        assertEquals(3, notifications.size());
+        assertTrue(notifications.get(0).success());
+        assertFalse(notifications.get(1).success());
+        assertTrue(notifications.get(2).success());
+    }
+
+    @Test
+    @DisplayName("Test a notification that fails to send is reported for its block and later blocks are still checked")
+    void testFailedNotificationDoesNotStallBatches() throws IOException, ParseException {
+        BlockUtils.SampleBlockInfo sampleBlockInfo =
+                BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+        List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+        long blockNumber = sampleBlockInfo.blockNumber();
+        // a handler that fails on the first successful notification it is sent
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        blockMessaging.registerBlockNotificationHandler(
+                new BlockNotificationHandler() {
+                    @Override
+                    public void handleVerification(final VerificationNotification notification) {
+                        if (notification.success() && failed.compareAndSet(false, true)) {
+                            throw new IllegalStateException("test failure");
+                        }
+                    }
+                },
+                false,
+                "FailingHandler");
+
+        blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+        blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+
+        testThreadPoolManager.executor().executeSerially();
+
+        List<VerificationNotification> notifications = blockMessaging.getSentVerificationNotifications();
+        assertEquals(3, notifications.size());
+        // the notification that failed to send is followed by a failure for the same block, so it is requested again
+        assertTrue(notifications.get(0).success());
+        assertFalse(notifications.get(1).success());
+        assertEquals(blockNumber, notifications.get(1).blockNumber());
+        // the block queued behind the failed batch is still checked
+        assertTrue(notifications.get(2).success());
+    }
+
+    @Test
+    @DisplayName("Test a re-delivered block is notified in order from the result cache")
+    void testRedeliveredBlockNotifiedFromCache() throws IOException, ParseException {
+        BlockUtils.SampleBlockInfo sampleBlockInfo =
+                BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+        List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+        long blockNumber = sampleBlockInfo.blockNumber();
+
+        blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+        testThreadPoolManager.executor().executeSerially();
+        blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+        // the re-delivered block still waits behind the signature queue, so notifications stay in order
+        assertEquals(1, blockMessaging.getSentVerificationNotifications().size());
+
+        testThreadPoolManager.executor().executeSerially();
+
+        List<VerificationNotification> notifications = blockMessaging.getSentVerificationNotifications();
+        assertEquals(2, notifications.size());
+        assertTrue(notifications.get(1).success());
+        assertEquals(sampleBlockInfo.blockRootHash(), notifications.get(1).blockHash());
+        assertEquals(1, counterValue("verification_cache_hits"));
+        assertEquals(1, counterValue("verification_cache_misses"));
+    }
+
+    /**
+     * Get the current value of one of the plugin's counters.
+     *
+     * @param name the name of the counter
+     * @return the current value
+     */
+    private long counterValue(final String name) {
+        return ((Counter) blockNodeContext.metrics().getMetric(METRICS_CATEGORY, name)).get();
+    }
+}
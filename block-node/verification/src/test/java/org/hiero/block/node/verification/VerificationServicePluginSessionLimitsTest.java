@@ -0,0 +1,196 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.verification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hedera.pbj.runtime.ParseException;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.hiero.block.internal.BlockItemUnparsed;
+import org.hiero.block.node.app.fixtures.blocks.BlockUtils;
+import org.hiero.block.node.app.fixtures.plugintest.NoBlocksHistoricalBlockFacility;
+import org.hiero.block.node.app.fixtures.plugintest.PluginTestBase;
+import org.hiero.block.node.spi.blockmessaging.BlockItems;
+import org.hiero.block.node.spi.blockmessaging.VerificationNotification;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link VerificationServicePlugin} abandoning incomplete blocks that exceed the memory budget or time
+ * out.
+ */
+class VerificationServicePluginSessionLimitsTest {
+
+    /**
+     * Tests with a memory budget smaller than any block.
+     */
+    @Nested
+    @DisplayName("Memory Budget Tests")
+    final class MemoryBudgetTest extends PluginTestBase<VerificationServicePlugin> {
+        MemoryBudgetTest() {
+            start(
+                    new VerificationServicePlugin(),
+                    new NoBlocksHistoricalBlockFacility(),
+                    Map.of("verification.sessionMaxBytes", "10"));
+        }
+
+        @Test
+        @DisplayName("Test block exceeding memory budget is abandoned and the rest of its items discarded")
+        void testMemoryBudgetExceeded() throws IOException, ParseException {
+            BlockUtils.SampleBlockInfo sampleBlockInfo =
+                    BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+            List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+            long blockNumber = sampleBlockInfo.blockNumber();
+
+            blockMessaging.sendBlockItems(new BlockItems(blockItems.subList(0, 1), blockNumber));
+            assertEquals(1, blockMessaging.getSentVerificationNotifications().size());
+            final VerificationNotification notification =
+                    blockMessaging.getSentVerificationNotifications().getFirst();
+            assertEquals(blockNumber, notification.blockNumber());
+            assertFalse(notification.success(), "The abandoned block should fail verification");
+            assertNull(notification.block());
+
+            // the rest of the block is discarded without further notifications
+            blockMessaging.sendBlockItems(new BlockItems(blockItems.subList(1, blockItems.size()), -1));
+            assertEquals(1, blockMessaging.getSentVerificationNotifications().size());
+        }
+    }
+
+    /**
+     * Tests with a memory budget smaller than any block, when blocks are not included in notifications.
+     */
+    @Nested
+    @DisplayName("Memory Budget Without Block In Notification Tests")
+    final class MemoryBudgetNotKeptTest extends PluginTestBase<VerificationServicePlugin> {
+        MemoryBudgetNotKeptTest() {
+            start(
+                    new VerificationServicePlugin(),
+                    new NoBlocksHistoricalBlockFacility(),
+                    Map.of(
+                            "verification.sessionMaxBytes", "10",
+                            "verification.notificationIncludesBlock", "false"));
+        }
+
+        @Test
+        @DisplayName("Test block items that are not kept do not count towards the memory budget")
+        void testItemsNotKeptNotCounted() throws IOException, ParseException {
+            BlockUtils.SampleBlockInfo sampleBlockInfo =
+                    BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+            List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+
+            blockMessaging.sendBlockItems(new BlockItems(blockItems.subList(0, 1), sampleBlockInfo.blockNumber()));
+            assertEquals(0, blockMessaging.getSentVerificationNotifications().size());
+            blockMessaging.sendBlockItems(new BlockItems(blockItems.subList(1, blockItems.size()), -1));
+            assertEquals(1, blockMessaging.getSentVerificationNotifications().size());
+            assertTrue(blockMessaging.getSentVerificationNotifications().getFirst().success());
+        }
+    }
+
+    /**
+     * Tests with a memory budget smaller than any block, with signatures checked asynchronously.
+     */
+    @Nested
+    @DisplayName("Memory Budget With Async Signatures Tests")
+    final class MemoryBudgetAsyncTest extends PluginTestBase<VerificationServicePlugin> {
+        MemoryBudgetAsyncTest() {
+            start(
+                    new VerificationServicePlugin(),
+                    new NoBlocksHistoricalBlockFacility(),
+                    Map.of(
+                            "verification.sessionMaxBytes", "10",
+                            "verification.asyncSignatureVerification", "true"));
+        }
+
+        @Test
+        @DisplayName("Test abandoned block notification is sent after blocks waiting for their signature check")
+        void testAbandonedNotificationInOrder() throws IOException, ParseException {
+            BlockUtils.SampleBlockInfo sampleBlockInfo =
+                    BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+            List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+            long blockNumber = sampleBlockInfo.blockNumber();
+
+            // a complete block is never over budget, it waits for its signature check
+            blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+            // the next block is abandoned, but its notification must wait for the block before it
+            blockMessaging.sendBlockItems(new BlockItems(blockItems.subList(0, 1), blockNumber + 1));
+            assertEquals(0, blockMessaging.getSentVerificationNotifications().size());
+
+            testThreadPoolManager.executor().executeSerially();
+
+            final List<VerificationNotification> notifications = blockMessaging.getSentVerificationNotifications();
+            assertEquals(2, notifications.size());
+            assertEquals(blockNumber, notifications.get(0).blockNumber());
+            assertTrue(notifications.get(0).success());
+            assertEquals(blockNumber + 1, notifications.get(1).blockNumber());
+            assertFalse(notifications.get(1).success(), "The abandoned block should fail verification");
+        }
+    }
+
+    /**
+     * Tests with a session timeout long enough that the scheduled check never runs during a test, the check is called
+     * directly with a time after the timeout instead.
+     */
+    @Nested
+    @DisplayName("Session Timeout Tests")
+    final class SessionTimeoutTest extends PluginTestBase<VerificationServicePlugin> {
+        /** The session timeout in milliseconds. */
+        private static final long SESSION_TIMEOUT_MILLIS = 60_000;
+        /** A time from {@link System#nanoTime()} offset past the session timeout of anything received before now. */
+        private static final long AFTER_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(SESSION_TIMEOUT_MILLIS) + 1;
+
+        SessionTimeoutTest() {
+            start(
+                    new VerificationServicePlugin(),
+                    new NoBlocksHistoricalBlockFacility(),
+                    Map.of("verification.sessionTimeoutMillis", String.valueOf(SESSION_TIMEOUT_MILLIS)));
+        }
+
+        @Test
+        @DisplayName("Test incomplete block is abandoned after timeout and verifies when resent")
+        void testIncompleteBlockTimesOut() throws IOException, ParseException {
+            BlockUtils.SampleBlockInfo sampleBlockInfo =
+                    BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+            List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+            long blockNumber = sampleBlockInfo.blockNumber();
+
+            blockMessaging.sendBlockItems(new BlockItems(blockItems.subList(0, 1), blockNumber));
+            // the block is not abandoned before the timeout
+            plugin.checkSessionTimeout(System.nanoTime());
+            assertEquals(0, blockMessaging.getSentVerificationNotifications().size());
+            plugin.checkSessionTimeout(System.nanoTime() + AFTER_TIMEOUT_NANOS);
+            assertEquals(1, blockMessaging.getSentVerificationNotifications().size());
+            final VerificationNotification notification =
+                    blockMessaging.getSentVerificationNotifications().getFirst();
+            assertEquals(blockNumber, notification.blockNumber());
+            assertFalse(notification.success(), "The timed out block should fail verification");
+
+            // late items for the abandoned block are discarded
+            blockMessaging.sendBlockItems(new BlockItems(blockItems.subList(1, blockItems.size()), -1));
+            assertEquals(1, blockMessaging.getSentVerificationNotifications().size());
+
+            // the resent block verifies
+            blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+            assertEquals(2, blockMessaging.getSentVerificationNotifications().size());
+            assertTrue(blockMessaging.getSentVerificationNotifications().getLast().success());
+        }
+
+        @Test
+        @DisplayName("Test completed block is not timed out")
+        void testCompletedBlockNotTimedOut() throws IOException, ParseException {
+            BlockUtils.SampleBlockInfo sampleBlockInfo =
+                    BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+            List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+
+            blockMessaging.sendBlockItems(new BlockItems(blockItems, sampleBlockInfo.blockNumber()));
+            plugin.checkSessionTimeout(System.nanoTime() + AFTER_TIMEOUT_NANOS);
+            assertEquals(1, blockMessaging.getSentVerificationNotifications().size());
+            assertTrue(blockMessaging.getSentVerificationNotifications().getFirst().success());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.hiero.block.node.verification;
 
+import static org.hiero.block.node.spi.BlockNodePlugin.METRICS_CATEGORY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -12,6 +13,7 @@ import static org.mockito.Mockito.when;
 
 import com.hedera.pbj.runtime.OneOf;
 import com.hedera.pbj.runtime.ParseException;
+import com.swirlds.metrics.api.LongGauge;
 import java.io.IOException;
 import java.util.List;
 import org.hiero.block.internal.BlockItemUnparsed;
@@ -64,6 +66,37 @@ class VerificationServicePluginTest extends PluginTestBase<VerificationServicePl
                 "The block should be the same as the one sent");
     }
 
+    @Test
+    void testStageMetrics() throws IOException, ParseException {
+        BlockUtils.SampleBlockInfo sampleBlockInfo =
+                BlockUtils.getSampleBlockInfo(BlockUtils.SAMPLE_BLOCKS.GENERATED_10);
+        List<BlockItemUnparsed> blockItems = sampleBlockInfo.blockUnparsed().blockItems();
+        long blockNumber = sampleBlockInfo.blockNumber();
+
+        blockMessaging.sendBlockItems(new BlockItems(blockItems, blockNumber));
+        // gauges are updated periodically off the verification path, so update them now
+        plugin.updateHistogramGauges();
+
+        final long expectedBytes = blockItems.stream()
+                .mapToLong(BlockItemUnparsed.PROTOBUF::measureRecord)
+                .sum();
+        assertEquals(blockItems.size(), gaugeValue("verification_block_items_max"));
+        assertEquals(blockItems.size(), gaugeValue("verification_block_items_p50"));
+        assertEquals(expectedBytes, gaugeValue("verification_block_bytes_max"));
+        assertTrue(gaugeValue("verification_leaf_hashing_time_max") > 0, "Leaf hashing time should be recorded");
+        assertTrue(gaugeValue("verification_tree_hashing_time_max") > 0, "Tree hashing time should be recorded");
+    }
+
+    /**
+     * Get the current value of one of the plugin's gauges.
+     *
+     * @param name the name of the gauge
+     * @return the current value
+     */
+    private long gaugeValue(final String name) {
+        return ((LongGauge) blockNodeContext.metrics().getMetric(METRICS_CATEGORY, name)).get();
+    }
+
     @Test
     void testFailedVerification() throws IOException, ParseException {
 
@@ -0,0 +1,100 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.node.verification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.swirlds.metrics.api.LongGauge;
+import com.swirlds.metrics.api.Metrics;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Unit test for {@link WindowedHistogram}.
+ */
+class WindowedHistogramTest {
+    private final Metrics metrics = mock(Metrics.class);
+    private final LongGauge p50 = mock(LongGauge.class);
+    private final LongGauge p99 = mock(LongGauge.class);
+    private final LongGauge max = mock(LongGauge.class);
+
+    WindowedHistogramTest() {
+        // gauges are created in the order p50, p99, max
+        doReturn(p50, p99, max).when(metrics).getOrCreate(any());
+    }
+
+    @Test
+    void testPercentiles() {
+        final WindowedHistogram histogram = new WindowedHistogram(metrics, "test", "time", "Time", 100);
+        // record in reverse order, so the values have to be sorted
+        for (long value = 100; value >= 1; value--) {
+            histogram.record(value);
+        }
+        histogram.updateGauges();
+        assertEquals(50, lastValue(p50));
+        assertEquals(99, lastValue(p99));
+        assertEquals(100, lastValue(max));
+    }
+
+    @Test
+    void testSingleValue() {
+        final WindowedHistogram histogram = new WindowedHistogram(metrics, "test", "time", "Time", 100);
+        histogram.record(42);
+        histogram.updateGauges();
+        assertEquals(42, lastValue(p50));
+        assertEquals(42, lastValue(p99));
+        assertEquals(42, lastValue(max));
+    }
+
+    @Test
+    void testOnlyMostRecentValuesInWindow() {
+        final WindowedHistogram histogram = new WindowedHistogram(metrics, "test", "time", "Time", 10);
+        histogram.record(1000);
+        histogram.updateGauges();
+        assertEquals(1000, lastValue(max));
+        // push the large value out of the window
+        for (long value = 11; value <= 20; value++) {
+            histogram.record(value);
+        }
+        histogram.updateGauges();
+        assertEquals(15, lastValue(p50));
+        assertEquals(20, lastValue(p99));
+        assertEquals(20, lastValue(max));
+    }
+
+    @Test
+    void testGaugesOnlyUpdatedWhenAsked() {
+        final WindowedHistogram histogram = new WindowedHistogram(metrics, "test", "time", "Time", 100);
+        histogram.record(42);
+        verify(max, never()).set(anyLong());
+        histogram.updateGauges();
+        verify(max).set(42);
+        // nothing recorded since the last update, so the gauges are not set again
+        histogram.updateGauges();
+        verify(max).set(anyLong());
+    }
+
+    @Test
+    void testInvalidWindowSize() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowedHistogram(metrics, "test", "time", "Time", 0));
+    }
+
+    /**
+     * Get the last value set on a mock gauge.
+     *
+     * @param gauge the mock gauge
+     * @return the last value set
+     */
+    private static long lastValue(final LongGauge gauge) {
+        final ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
+        verify(gauge, atLeastOnce()).set(captor.capture());
+        return captor.getValue();
+    }
+}
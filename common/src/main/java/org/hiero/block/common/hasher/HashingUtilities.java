@@ -8,6 +8,7 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import org.hiero.block.internal.BlockItemUnparsed;
@@ -158,6 +159,34 @@ public final class HashingUtilities {
         return buffer.flip();
     }
 
+    /**
+     * Returns the leaf hashes of a list of block items, in the same order as the items. Items that are not leaves of
+     * the input or output merkle trees, for example the block proof, have a null entry. This allows the leaf hashes to
+     * be computed ahead of time, on the thread receiving the items, and carried along with them.
+     *
+     * @param blockItems the block items
+     * @return mutable list of the leaf hashes of the block items, same size as blockItems, entries may be null
+     */
+    public static List<ByteBuffer> getBlockItemLeafHashes(@NonNull List<BlockItemUnparsed> blockItems) {
+        final int itemSize = blockItems.size();
+        final List<ByteBuffer> leafHashes = new ArrayList<>(itemSize);
+        for (int i = 0; i < itemSize; i++) {
+            final BlockItemUnparsed item = blockItems.get(i);
+            leafHashes.add(
+                    switch (item.item().kind()) {
+                        case EVENT_HEADER,
+                                EVENT_TRANSACTION,
+                                ROUND_HEADER,
+                                TRANSACTION_RESULT,
+                                TRANSACTION_OUTPUT,
+                                STATE_CHANGES,
+                                BLOCK_HEADER -> getBlockItemHash(item);
+                        default -> null;
+                    });
+        }
+        return leafHashes;
+    }
+
     /**
      * Computes the final block hash from the given block proof and tree hashers.
      * @param blockProof the block proof
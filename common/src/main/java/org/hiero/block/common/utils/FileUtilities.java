@@ -4,8 +4,10 @@ package org.hiero.block.common.utils;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
 import java.lang.System.Logger;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
@@ -196,5 +198,32 @@ public final class FileUtilities {
         return path.resolveSibling(path.getFileName() + Objects.requireNonNull(extension));
     }
 
+    /**
+     * Sync a file's contents and metadata to disk. Used before moving a fully written temporary file into place, so a
+     * crash can never leave a file in place whose contents were not yet written.
+     *
+     * @param path the file to sync
+     * @throws IOException if the file could not be opened or synced
+     */
+    public static void forceFile(@NonNull final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(Objects.requireNonNull(path), StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Sync a directory to disk, so entries moved into or deleted from it survive a crash. This is best effort, as not
+     * all platforms and file systems support opening a directory to sync it, failures are logged and not thrown.
+     *
+     * @param directory the directory to sync
+     */
+    public static void forceDirectory(@NonNull final Path directory) {
+        try (final FileChannel channel = FileChannel.open(Objects.requireNonNull(directory), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (final IOException | UnsupportedOperationException e) {
+            LOGGER.log(System.Logger.Level.DEBUG, "Could not sync directory: " + directory, e);
+        }
+    }
+
     private FileUtilities() {}
 }
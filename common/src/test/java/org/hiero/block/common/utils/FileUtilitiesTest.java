@@ -213,6 +213,36 @@ class FileUtilitiesTest {
         assertThat(actual).hasFileName(filePath + extension);
     }
 
+    /**
+     * This test aims to verify that {@link FileUtilities#forceFile(Path)}
+     * syncs an existing file without changing it, and throws an
+     * {@link IOException} for a file that does not exist.
+     *
+     * @param tempDir junit temp dir
+     */
+    @Test
+    void testForceFile(@TempDir final Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("force.txt");
+        Files.writeString(file, "content");
+        FileUtilities.forceFile(file);
+        assertThat(file).hasContent("content");
+        assertThatIOException().isThrownBy(() -> FileUtilities.forceFile(tempDir.resolve("nonexistent.txt")));
+    }
+
+    /**
+     * This test aims to verify that {@link FileUtilities#forceDirectory(Path)}
+     * is best effort, so never throws for a directory that exists or one that
+     * does not.
+     *
+     * @param tempDir junit temp dir
+     */
+    @Test
+    void testForceDirectory(@TempDir final Path tempDir) {
+        FileUtilities.forceDirectory(tempDir);
+        FileUtilities.forceDirectory(tempDir.resolve("nonexistent"));
+        assertThat(tempDir).isDirectory();
+    }
+
     private static Stream<Arguments> validGzipFiles() {
         return Stream.of(
                 Arguments.of("build/resources/test//valid1.txt.gz", "valid1"),
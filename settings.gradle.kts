@@ -27,6 +27,7 @@ javaModules {
         module("block-providers/cloud.historic") { artifact = "block-node-blocks-cloud-historic" }
         module("block-providers/files.historic") { artifact = "block-node-blocks-file-historic" }
         module("block-providers/files.recent") { artifact = "block-node-blocks-file-recent" }
+        module("block-providers/segments.recent") { artifact = "block-node-blocks-segments-recent" }
         module("block-access") { artifact = "block-access-service" }
     }
 }
@@ -0,0 +1,147 @@
+// SPDX-License-Identifier: Apache-2.0
+package org.hiero.block.tools.commands;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+/**
+ * Command line command that trains a Zstandard dictionary from block files, for the block node to compress stored
+ * blocks with. The dictionary is written to the block node dictionary directory as the next version, named
+ * {@code <version>.zdict}, and is used for all blocks stored after the block node next starts.
+ */
+@SuppressWarnings({"FieldMayBeFinal", "FieldCanBeLocal"})
+@Command(name = "train-dictionary", description = "Trains a Zstandard compression dictionary from block files")
+public class TrainDictionary implements Runnable {
+    /** The file extension for dictionary files, the same as the block node uses. */
+    private static final String DICTIONARY_EXTENSION = ".zdict";
+
+    @Parameters(index = "0..*", description = "block files or directories of block files to sample")
+    private File[] files;
+
+    @Option(
+            names = {"-o", "--output-dir"},
+            required = true,
+            description = "the block node dictionary directory to write the new dictionary to")
+    private Path outputDir;
+
+    @Option(
+            names = {"-n", "--max-samples"},
+            description = "the maximum number of block files to sample, the newest are used")
+    private int maxSamples = 10_000;
+
+    @Option(
+            names = {"-s", "--max-size"},
+            description = "the maximum size of the dictionary in bytes")
+    private int maxDictionaryBytes = 110 * 1024;
+
+    /**
+     * Empty Default constructor to remove JavaDoc warning
+     */
+    public TrainDictionary() {}
+
+    /**
+     * Main method to run the command
+     */
+    @Override
+    public void run() {
+        if (files == null || files.length == 0) {
+            System.err.println("No block files to sample");
+            return;
+        }
+        final List<byte[]> samples = Arrays.stream(files)
+                .map(File::toPath)
+                .flatMap(path -> {
+                    try {
+                        return Files.walk(path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .filter(Files::isRegularFile)
+                .filter(file -> {
+                    final String fileName = file.getFileName().toString();
+                    return fileName.endsWith(".blk") || fileName.endsWith(".blk.gz") || fileName.endsWith(".blk.zstd");
+                })
+                .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+                .limit(maxSamples)
+                .map(TrainDictionary::readBlock)
+                .toList();
+        final long totalSampleBytes = samples.stream().mapToLong(sample -> sample.length).sum();
+        System.out.println("Training dictionary from " + samples.size() + " blocks, " + totalSampleBytes + " bytes");
+        // Zstandard needs samples much larger in total than the dictionary
+        final byte[] dictionaryBuffer = new byte[(int) Math.min(maxDictionaryBytes, totalSampleBytes / 10)];
+        final long result = Zstd.trainFromBuffer(samples.toArray(byte[][]::new), dictionaryBuffer);
+        if (Zstd.isError(result)) {
+            System.err.println("Failed to train dictionary: " + Zstd.getErrorName(result));
+            return;
+        }
+        final byte[] dictionary = Arrays.copyOf(dictionaryBuffer, (int) result);
+        try {
+            final Path dictionaryFile = writeDictionary(dictionary);
+            System.out.println("Wrote dictionary " + Zstd.getDictIdFromDict(dictionary) + " of " + dictionary.length
+                    + " bytes to " + dictionaryFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read the uncompressed protobuf bytes of a block file.
+     *
+     * @param blockFile the block file
+     * @return the uncompressed block bytes
+     */
+    private static byte[] readBlock(final Path blockFile) {
+        final String fileName = blockFile.getFileName().toString();
+        try (InputStream fileIn = Files.newInputStream(blockFile);
+                InputStream in = fileName.endsWith(".gz")
+                        ? new GZIPInputStream(fileIn)
+                        : fileName.endsWith(".zstd") ? new ZstdInputStream(fileIn) : fileIn) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read block file: " + blockFile, e);
+        }
+    }
+
+    /**
+     * Write a dictionary to the output directory as the next version after any dictionaries already there.
+     *
+     * @param dictionary the dictionary to write
+     * @return the path of the written dictionary file
+     * @throws IOException if the dictionary could not be written
+     */
+    private Path writeDictionary(final byte[] dictionary) throws IOException {
+        Files.createDirectories(outputDir);
+        long latestVersion = 0;
+        try (Stream<Path> existing = Files.list(outputDir)) {
+            for (final Path file : existing.toList()) {
+                final String fileName = file.getFileName().toString();
+                if (fileName.endsWith(DICTIONARY_EXTENSION)) {
+                    latestVersion = Math.max(
+                            latestVersion,
+                            Long.parseLong(fileName.substring(0, fileName.length() - DICTIONARY_EXTENSION.length())));
+                }
+            }
+        }
+        final Path dictionaryFile = outputDir.resolve((latestVersion + 1) + DICTIONARY_EXTENSION);
+        final Path tempFile = outputDir.resolve((latestVersion + 1) + DICTIONARY_EXTENSION + ".tmp");
+        Files.write(tempFile, dictionary);
+        Files.move(tempFile, dictionaryFile, StandardCopyOption.ATOMIC_MOVE);
+        return dictionaryFile;
+    }
+}